@@ -18,6 +18,9 @@ package tech.lamprism.lampray.common.data;
 
 import tech.rollw.common.web.system.SystemResourceKind;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Generates unique resource IDs for different kinds of system resources.
  *
@@ -32,4 +35,19 @@ public interface ResourceIdGenerator {
      * @return the next id
      */
     String nextId(SystemResourceKind systemResourceKind);
+
+    /**
+     * Generate ids for a batch of resources of the given kind at once.
+     *
+     * @param systemResourceKind the system resource kind
+     * @param count              the number of ids
+     * @return the ids, in the order they should be inserted
+     */
+    default List<String> nextIds(SystemResourceKind systemResourceKind, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(nextId(systemResourceKind));
+        }
+        return ids;
+    }
 }
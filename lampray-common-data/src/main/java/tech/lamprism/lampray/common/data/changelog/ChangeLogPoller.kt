@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.common.data.changelog
+
+import org.slf4j.logger
+import org.springframework.scheduling.TaskScheduler
+import java.time.Duration
+import java.time.Instant
+import java.util.TreeMap
+import java.util.concurrent.ScheduledFuture
+import java.util.function.LongSupplier
+
+/**
+ * Polls a change log and passes changes made by other nodes to the
+ * listener, so a change made on one node takes effect on all nodes
+ * within seconds.
+ *
+ * Ids are assigned before the changing transaction commits, so a
+ * change with a smaller id may become visible after a larger one.
+ * The poller keeps reading from the highest id below which nothing
+ * can show up anymore, and moves it past a polled change once every
+ * smaller id has been polled, or once the change has been known
+ * locally for [settleTime], a gap that stays open that long is taken
+ * for a rolled back transaction. Only the local monotonic clock is
+ * involved, so clocks of the nodes writing the log do not need to
+ * agree.
+ *
+ * Not thread-safe, [poll] must not run concurrently. The scheduled
+ * polls never overlap.
+ *
+ * @author RollW
+ */
+class ChangeLogPoller<T : ChangeLogEntry> @JvmOverloads constructor(
+    private val name: String,
+    private val source: ChangeLogSource<T>,
+    private val origin: String,
+    private val listener: ChangeLogListener<T>,
+    private val settleTime: Duration = DEFAULT_SETTLE_TIME,
+    private val nanoTime: LongSupplier = LongSupplier(System::nanoTime)
+) {
+    private var settledSequence = -1L
+
+    /**
+     * Polled changes above the settled sequence, mapped to the local
+     * time they were first polled at.
+     */
+    private val unsettledChanges = TreeMap<Long, Long>()
+    private var lastPurgeTime = 0L
+    private var pollTask: ScheduledFuture<*>? = null
+
+    /**
+     * Polls with a fixed delay, starting now, and purges entries older
+     * than the retention from time to time.
+     */
+    fun start(taskScheduler: TaskScheduler, interval: Duration) {
+        check(pollTask == null) { "Already started." }
+        pollTask = taskScheduler.scheduleWithFixedDelay(::pollSafely, Instant.now(), interval)
+    }
+
+    fun stop() {
+        pollTask?.cancel(false)
+    }
+
+    private fun pollSafely() {
+        try {
+            poll()
+            purgeIfDue()
+        } catch (e: RuntimeException) {
+            logger.error("Failed to poll {} changes.", name, e)
+        }
+    }
+
+    /**
+     * Reads changes not polled before and passes those made by other
+     * nodes to the listener.
+     */
+    fun poll() {
+        if (settledSequence < 0) {
+            // Values cached while starting may already be stale,
+            // so look back a little before the start.
+            settledSequence = maxOf(0, source.findLatestSequence() - STARTUP_LOOKBACK)
+        }
+        val now = nanoTime.asLong
+        val changes = ArrayList<T>()
+        var sequence = settledSequence
+        do {
+            val batch = source.findAfter(sequence, BATCH_SIZE)
+            for (change in batch) {
+                val id = change.getId() ?: continue
+                sequence = id
+                if (unsettledChanges.putIfAbsent(id, now) == null && change.origin != origin) {
+                    changes.add(change)
+                }
+            }
+        } while (batch.size == BATCH_SIZE)
+
+        if (changes.isNotEmpty()) {
+            listener.onChanges(changes)
+        }
+        settle(now)
+    }
+
+    private fun settle(now: Long) {
+        val settleNanos = settleTime.toNanos()
+        while (unsettledChanges.isNotEmpty()) {
+            val first = unsettledChanges.firstEntry()
+            val noGap = first.key == settledSequence + 1
+            if (!noGap && now - first.value < settleNanos) {
+                return
+            }
+            settledSequence = first.key
+            unsettledChanges.pollFirstEntry()
+        }
+    }
+
+    /**
+     * Gets the id below which all changes have been polled or given up.
+     */
+    fun getSettledSequence(): Long = settledSequence
+
+    private fun purgeIfDue() {
+        // Retention is far longer than any clock skew,
+        // wall time of the writers is good enough here.
+        val now = System.currentTimeMillis()
+        if (now - lastPurgeTime < PURGE_INTERVAL.toMillis()) {
+            return
+        }
+        lastPurgeTime = now
+        val purged = source.deleteBefore(now - RETENTION.toMillis())
+        if (purged > 0) {
+            logger.debug("Purged {} {} changes.", purged, name)
+        }
+    }
+
+    companion object {
+        private val logger = logger<ChangeLogPoller<*>>()
+
+        private const val BATCH_SIZE = 500
+
+        /**
+         * Count of changes before the latest one read on the first poll.
+         */
+        private const val STARTUP_LOOKBACK = 100
+
+        @JvmField
+        val DEFAULT_SETTLE_TIME: Duration = Duration.ofSeconds(30)
+        private val RETENTION: Duration = Duration.ofDays(1)
+        private val PURGE_INTERVAL: Duration = Duration.ofHours(1)
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.common.data.changelog
+
+/**
+ * Storage of a change log, read by [ChangeLogPoller].
+ *
+ * @author RollW
+ */
+interface ChangeLogSource<T : ChangeLogEntry> {
+    /**
+     * Finds changes with ids greater than the sequence, in id order.
+     */
+    fun findAfter(sequence: Long, limit: Int): List<T>
+
+    /**
+     * Gets the id of the latest change, or 0 if there is none.
+     */
+    fun findLatestSequence(): Long
+
+    /**
+     * Deletes changes made before the time in epoch milliseconds.
+     *
+     * @return count of deleted changes
+     */
+    fun deleteBefore(time: Long): Long
+}
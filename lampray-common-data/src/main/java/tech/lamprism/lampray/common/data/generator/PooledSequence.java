@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.common.data.generator;
+
+import org.hibernate.annotations.IdGeneratorType;
+import org.hibernate.annotations.ValueGenerationType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates the numeric column from a sequence kept in the
+ * {@value PooledSequenceGenerator#TABLE} table, instead of letting
+ * the database generate it on insert.
+ * <p>
+ * Values are known before the insert, so Hibernate can send the
+ * inserts of a flush in JDBC batches, where an identity column needs
+ * its own insert and read for every row. Can be put on the id or on
+ * another column.
+ *
+ * @author RollW
+ * @see PooledSequenceGenerator
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@ValueGenerationType(generatedBy = PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledSequence {
+    /**
+     * Name of the sequence, the table of the column by convention.
+     */
+    String value();
+
+    /**
+     * Number of values taken from the sequence at once.
+     */
+    int allocationSize() default PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE;
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.common.data.generator;
+
+import jakarta.transaction.Synchronization;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates values of a {@link PooledSequence} column.
+ * <p>
+ * The next value of each sequence is a row of the {@value #TABLE}
+ * table. A transaction takes a block of values by advancing the row,
+ * in the transaction itself, and hands them out until the block is
+ * used up. A rolled back transaction rolls the row back as well, so
+ * its block is dropped with it and never handed out twice. The rest of
+ * a committed block is skipped.
+ * <p>
+ * The row stays locked until the transaction ends, so transactions
+ * inserting into the same table wait for each other. This also works
+ * on databases with a single writer like SQLite, where a block taken
+ * in a separate transaction would wait for the current one.
+ *
+ * @author RollW
+ */
+public class PooledSequenceGenerator implements BeforeExecutionGenerator {
+    public static final String TABLE = "id_sequence";
+    public static final int DEFAULT_ALLOCATION_SIZE = 100;
+
+    private static final String ADVANCE_SQL =
+            "UPDATE " + TABLE + " SET next_value = next_value + ? WHERE name = ?";
+    private static final String SELECT_SQL =
+            "SELECT next_value FROM " + TABLE + " WHERE name = ?";
+
+    private final String name;
+    private final int allocationSize;
+    private final Map<SharedSessionContractImplementor, Block> blocks = new ConcurrentHashMap<>();
+
+    public PooledSequenceGenerator(PooledSequence sequence) {
+        this(sequence.value(), sequence.allocationSize());
+    }
+
+    public PooledSequenceGenerator(String name, int allocationSize) {
+        if (allocationSize < 1) {
+            throw new IllegalArgumentException("Allocation size must be positive: " + allocationSize);
+        }
+        this.name = name;
+        this.allocationSize = allocationSize;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner,
+                           Object currentValue, EventType eventType) {
+        if (currentValue != null) {
+            return currentValue;
+        }
+        if (!session.isTransactionInProgress()) {
+            // Nothing to drop the block with, so takes just one
+            return allocate(session, 1);
+        }
+        Block block = blocks.get(session);
+        if (block == null) {
+            block = new Block();
+            blocks.put(session, block);
+            session.accessTransaction().registerSynchronization(new BlockRelease(session));
+        }
+        if (block.next == block.end) {
+            block.next = allocate(session, allocationSize);
+            block.end = block.next + allocationSize;
+        }
+        return block.next++;
+    }
+
+    /**
+     * Advances the sequence by the count.
+     *
+     * @return the first of the allocated values
+     */
+    private long allocate(SharedSessionContractImplementor session, int count) {
+        return session.doReturningWork(connection -> allocate(connection, count));
+    }
+
+    private long allocate(Connection connection, int count) throws SQLException {
+        try (PreparedStatement advance = connection.prepareStatement(ADVANCE_SQL)) {
+            advance.setInt(1, count);
+            advance.setString(2, name);
+            if (advance.executeUpdate() == 0) {
+                throw new HibernateException("Sequence '" + name + "' does not exist in " + TABLE);
+            }
+        }
+        try (PreparedStatement select = connection.prepareStatement(SELECT_SQL)) {
+            select.setString(1, name);
+            try (ResultSet resultSet = select.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new HibernateException("Sequence '" + name + "' does not exist in " + TABLE);
+                }
+                return resultSet.getLong(1) - count;
+            }
+        }
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    /**
+     * Values allocated in the current transaction of a session, the
+     * session is only used by one thread at a time.
+     */
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+
+    private final class BlockRelease implements Synchronization {
+        private final SharedSessionContractImplementor session;
+
+        BlockRelease(SharedSessionContractImplementor session) {
+            this.session = session;
+        }
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            blocks.remove(session);
+        }
+    }
+}
@@ -22,6 +22,9 @@ import org.springframework.stereotype.Service;
 import tech.lamprism.lampray.common.data.ResourceIdGenerator;
 import tech.rollw.common.web.system.SystemResourceKind;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author RollW
  */
@@ -32,4 +35,18 @@ public class ULIDBasedResourceIdGenerator implements ResourceIdGenerator {
         Ulid ulid = UlidCreator.getUlid();
         return ulid.toString();
     }
+
+    /**
+     * Ids of a batch come from the monotonic factory, so they increase
+     * within the batch and the rows of a batch insert land next to each
+     * other in the index.
+     */
+    @Override
+    public List<String> nextIds(SystemResourceKind systemResourceKind, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UlidCreator.getMonotonicUlid().toString());
+        }
+        return ids;
+    }
 }
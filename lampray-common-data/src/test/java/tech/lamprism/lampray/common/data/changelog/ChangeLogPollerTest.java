@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.common.data.changelog;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author RollW
+ */
+class ChangeLogPollerTest {
+    private static final String SELF = "self";
+    private static final String OTHER = "other";
+    private static final Duration SETTLE_TIME = Duration.ofSeconds(30);
+
+    private final InMemorySource source = new InMemorySource();
+    private final List<List<Long>> passed = new ArrayList<>();
+    private long nanoTime = 0;
+
+    private final ChangeLogPoller<Entry> poller = new ChangeLogPoller<>(
+            "test", source, SELF,
+            changes -> passed.add(changes.stream().map(Entry::getId).toList()),
+            SETTLE_TIME, () -> nanoTime
+    );
+
+    @Test
+    void passesChangesOfOtherNodesOnce() {
+        source.add(1, OTHER);
+        source.add(2, SELF);
+        source.add(3, OTHER);
+
+        poller.poll();
+        poller.poll();
+
+        assertEquals(List.of(List.of(1L, 3L)), passed);
+        assertEquals(3, poller.getSettledSequence());
+    }
+
+    @Test
+    void ownChangesAreSkippedButSettled() {
+        source.add(1, SELF);
+        source.add(2, SELF);
+
+        poller.poll();
+
+        assertTrue(passed.isEmpty());
+        assertEquals(2, poller.getSettledSequence());
+    }
+
+    @Test
+    void changeCommittedAfterALargerOneIsNotMissed() {
+        source.add(1, OTHER);
+        // 2 is not committed yet
+        source.add(3, OTHER);
+        poller.poll();
+        assertEquals(1, poller.getSettledSequence());
+
+        source.add(2, OTHER);
+        poller.poll();
+
+        assertEquals(List.of(List.of(1L, 3L), List.of(2L)), passed);
+        assertEquals(3, poller.getSettledSequence());
+    }
+
+    @Test
+    void gapIsGivenUpAfterTheSettleTimeOfTheLocalClock() {
+        source.add(1, OTHER);
+        // 2 is rolled back and never shows up
+        source.add(3, OTHER);
+        poller.poll();
+
+        nanoTime += SETTLE_TIME.toNanos() - 1;
+        // 4 is rolled back as well
+        source.add(5, OTHER);
+        poller.poll();
+        assertEquals(1, poller.getSettledSequence());
+
+        nanoTime += 1;
+        poller.poll();
+        // 5 was polled later, the gap below it is still young
+        assertEquals(3, poller.getSettledSequence());
+
+        nanoTime += SETTLE_TIME.toNanos();
+        poller.poll();
+        assertEquals(5, poller.getSettledSequence());
+        assertEquals(List.of(List.of(1L, 3L), List.of(5L)), passed);
+    }
+
+    @Test
+    void readsAllChangesInBatches() {
+        for (long id = 1; id <= 1200; id++) {
+            source.add(id, OTHER);
+        }
+        // first poll only looks back a little
+        poller.poll();
+        passed.clear();
+        for (long id = 1201; id <= 2400; id++) {
+            source.add(id, OTHER);
+        }
+
+        poller.poll();
+
+        assertEquals(1, passed.size());
+        assertEquals(1200, passed.get(0).size());
+        assertEquals(1201L, passed.get(0).get(0));
+        assertEquals(2400, poller.getSettledSequence());
+    }
+
+    @Test
+    void firstPollLooksBackAFewChanges() {
+        for (long id = 1; id <= 1000; id++) {
+            source.add(id, OTHER);
+        }
+
+        poller.poll();
+
+        assertEquals(1, passed.size());
+        assertEquals(100, passed.get(0).size());
+        assertEquals(901L, passed.get(0).get(0));
+    }
+
+    @Test
+    void firstPollOfEmptyLogReadsFromTheStart() {
+        poller.poll();
+        source.add(1, OTHER);
+        poller.poll();
+
+        assertEquals(List.of(List.of(1L)), passed);
+    }
+
+    private static final class Entry implements ChangeLogEntry {
+        private final long id;
+        private final String origin;
+
+        Entry(long id, String origin) {
+            this.id = id;
+            this.origin = origin;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getKey() {
+            return "key-" + id;
+        }
+
+        @Override
+        public String getOrigin() {
+            return origin;
+        }
+    }
+
+    private static final class InMemorySource implements ChangeLogSource<Entry> {
+        private final TreeMap<Long, Entry> entries = new TreeMap<>();
+
+        void add(long id, String origin) {
+            entries.put(id, new Entry(id, origin));
+        }
+
+        @Override
+        public List<Entry> findAfter(long sequence, int limit) {
+            return entries.tailMap(sequence, false).values()
+                    .stream()
+                    .limit(limit)
+                    .toList();
+        }
+
+        @Override
+        public long findLatestSequence() {
+            return entries.isEmpty() ? 0 : entries.lastKey();
+        }
+
+        @Override
+        public long deleteBefore(long time) {
+            return 0;
+        }
+    }
+}
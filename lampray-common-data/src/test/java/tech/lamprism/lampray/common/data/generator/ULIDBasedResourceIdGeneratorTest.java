@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.common.data.generator;
+
+import org.junit.jupiter.api.Test;
+import tech.rollw.common.web.system.SimpleSystemResourceKind;
+import tech.rollw.common.web.system.SystemResourceKind;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author RollW
+ */
+class ULIDBasedResourceIdGeneratorTest {
+    private static final SystemResourceKind KIND = new SimpleSystemResourceKind("test");
+
+    private final ULIDBasedResourceIdGenerator generator = new ULIDBasedResourceIdGenerator();
+
+    @Test
+    void nextIdsAreUniqueAndIncreasing() {
+        List<String> ids = generator.nextIds(KIND, 100_000);
+
+        assertEquals(100_000, ids.size());
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0,
+                    "Id " + i + " does not follow the previous id");
+        }
+    }
+
+    @Test
+    void nextIdsOfZeroIsEmpty() {
+        assertTrue(generator.nextIds(KIND, 0).isEmpty());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.concurrent;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+
+/**
+ * A queue of pending work keyed by what it applies to, such as a content
+ * or a document. Work queued for a key that is already queued is merged
+ * into the queued value, so a burst of changes to one key is applied
+ * once.
+ * <p>
+ * The queue is drained in batches. Entries of a batch that failed can be
+ * put back to be retried with the next batch, until they ran out of
+ * attempts.
+ *
+ * @param <K> the key type
+ * @param <V> the type of the queued values
+ * @author RollW
+ */
+public final class CoalescingQueue<K, V> {
+    private final Map<K, Entry<V>> pending = new ConcurrentHashMap<>();
+    private final int maxBatchSize;
+    private final int maxAttempts;
+    private final BinaryOperator<V> merger;
+
+    /**
+     * @param maxBatchSize the most entries taken by one {@link #drain()}
+     * @param maxAttempts  the attempts of an entry before it is dropped
+     * @param merger       merges a queued value with a newer value of the
+     *                     same key, called as {@code merger(older, newer)}
+     */
+    public CoalescingQueue(int maxBatchSize, int maxAttempts, BinaryOperator<V> merger) {
+        if (maxBatchSize <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("Batch size and attempts must be positive.");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.merger = merger;
+    }
+
+    /**
+     * Queues the value of the key, merged into any queued value of the key.
+     */
+    public void offer(K key, V value) {
+        pending.merge(key, new Entry<>(value, 0), this::merge);
+    }
+
+    public boolean contains(K key) {
+        return pending.containsKey(key);
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Takes up to the max batch size of entries off the queue.
+     */
+    public Batch<K, V> drain() {
+        Batch<K, V> batch = new Batch<>(maxBatchSize);
+        Iterator<K> iterator = pending.keySet().iterator();
+        while (iterator.hasNext() && batch.size() < maxBatchSize) {
+            K key = iterator.next();
+            Entry<V> entry = pending.remove(key);
+            if (entry != null) {
+                batch.values.put(key, entry.value());
+                batch.attempts.put(key, entry.attempts());
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Puts the entries left in the batch back into the queue, with one
+     * more attempt counted. Values queued since the batch was taken are
+     * newer and merged after them. Entries out of attempts are dropped.
+     *
+     * @param onDropped called with each dropped entry
+     */
+    public void requeue(Batch<K, V> batch, BiConsumer<? super K, ? super V> onDropped) {
+        batch.values.forEach((key, value) -> {
+            int attempts = batch.attempts.getOrDefault(key, 0) + 1;
+            if (attempts >= maxAttempts) {
+                onDropped.accept(key, value);
+                return;
+            }
+            pending.merge(key, new Entry<>(value, attempts),
+                    (queued, failed) -> merge(failed, queued));
+        });
+    }
+
+    private Entry<V> merge(Entry<V> older, Entry<V> newer) {
+        return new Entry<>(merger.apply(older.value(), newer.value()),
+                Math.max(older.attempts(), newer.attempts()));
+    }
+
+    /**
+     * Entries taken off the queue. Remove the entries that were applied
+     * from {@link #values()}, so that only the rest is requeued on failure.
+     */
+    public static final class Batch<K, V> {
+        private final int maxSize;
+        private final Map<K, V> values = new HashMap<>();
+        private final Map<K, Integer> attempts = new HashMap<>();
+
+        private Batch(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Map<K, V> values() {
+            return values;
+        }
+
+        public int size() {
+            return values.size();
+        }
+
+        public boolean isEmpty() {
+            return values.isEmpty();
+        }
+
+        /**
+         * Whether the batch was drained at the max batch size, so more
+         * entries may be waiting.
+         */
+        public boolean isFull() {
+            return attempts.size() == maxSize;
+        }
+    }
+
+    private record Entry<V>(V value, int attempts) {
+    }
+}
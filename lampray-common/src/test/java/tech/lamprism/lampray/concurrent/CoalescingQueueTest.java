@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author RollW
+ */
+class CoalescingQueueTest {
+    private final CoalescingQueue<String, Integer> queue =
+            new CoalescingQueue<>(2, 3, Integer::sum);
+
+    @Test
+    void mergesValuesOfSameKey() {
+        queue.offer("a", 1);
+        queue.offer("a", 2);
+        queue.offer("b", 5);
+
+        CoalescingQueue.Batch<String, Integer> batch = queue.drain();
+        assertEquals(Map.of("a", 3, "b", 5), batch.values());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void drainsAtMostBatchSize() {
+        queue.offer("a", 1);
+        queue.offer("b", 1);
+        queue.offer("c", 1);
+
+        CoalescingQueue.Batch<String, Integer> first = queue.drain();
+        assertEquals(2, first.size());
+        assertTrue(first.isFull());
+        CoalescingQueue.Batch<String, Integer> second = queue.drain();
+        assertEquals(1, second.size());
+        assertFalse(second.isFull());
+        assertTrue(queue.drain().isEmpty());
+    }
+
+    @Test
+    void batchStaysFullAfterAppliedEntriesRemoved() {
+        queue.offer("a", 1);
+        queue.offer("b", 1);
+
+        CoalescingQueue.Batch<String, Integer> batch = queue.drain();
+        batch.values().remove("a");
+        assertTrue(batch.isFull());
+    }
+
+    @Test
+    void requeuedValuesMergeBeforeNewerOnes() {
+        CoalescingQueue<String, String> ordered =
+                new CoalescingQueue<>(10, 3, (older, newer) -> older + newer);
+        ordered.offer("a", "1");
+        CoalescingQueue.Batch<String, String> batch = ordered.drain();
+        ordered.offer("a", "2");
+
+        ordered.requeue(batch, (key, value) -> {
+            throw new AssertionError("Dropped " + key);
+        });
+        assertEquals(Map.of("a", "12"), ordered.drain().values());
+    }
+
+    @Test
+    void requeueOnlyPutsBackRemainingEntries() {
+        queue.offer("a", 1);
+        queue.offer("b", 2);
+        CoalescingQueue.Batch<String, Integer> batch = queue.drain();
+        batch.values().remove("a");
+
+        queue.requeue(batch, (key, value) -> {
+        });
+        assertFalse(queue.contains("a"));
+        assertTrue(queue.contains("b"));
+    }
+
+    @Test
+    void dropsEntriesOutOfAttempts() {
+        List<String> dropped = new ArrayList<>();
+        queue.offer("a", 1);
+        for (int attempt = 1; attempt < 3; attempt++) {
+            queue.requeue(queue.drain(), (key, value) -> dropped.add(key));
+            assertTrue(dropped.isEmpty());
+            // New values of a failing key do not reset its attempts
+            queue.offer("a", 1);
+        }
+        queue.requeue(queue.drain(), (key, value) -> dropped.add(key + "=" + value));
+        assertEquals(List.of("a=3"), dropped);
+        assertTrue(queue.isEmpty());
+    }
+}
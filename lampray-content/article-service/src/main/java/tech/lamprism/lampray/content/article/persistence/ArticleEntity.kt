@@ -23,9 +23,8 @@ import jakarta.persistence.Lob
 import jakarta.persistence.Table
 import jakarta.persistence.Temporal
 import jakarta.persistence.TemporalType
-import org.hibernate.annotations.Generated
-import org.hibernate.generator.EventType
 import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.common.data.generator.PooledSequence
 import tech.lamprism.lampray.content.ContentDetails
 import tech.lamprism.lampray.content.ContentDetailsMetadata
 import tech.lamprism.lampray.content.ContentType
@@ -40,8 +39,8 @@ import java.time.OffsetDateTime
 @Entity
 @Table(name = "article")
 class ArticleEntity(
-    @Column(name = "id", nullable = false, insertable = false, updatable = false)
-    @Generated(event = [EventType.INSERT])
+    @Column(name = "id", nullable = false, updatable = false)
+    @PooledSequence("article")
     var id: Long? = null,
 
     @Id
@@ -16,6 +16,8 @@
 
 package tech.lamprism.lampray.content.article.persistence
 
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
 import org.springframework.data.jpa.domain.Specification
 import org.springframework.stereotype.Repository
 import tech.lamprism.lampray.common.data.CommonRepository
@@ -26,7 +28,8 @@ import java.util.Optional
  */
 @Repository
 class ArticleRepository(
-    articleDao: ArticleDao
+    articleDao: ArticleDao,
+    private val entityManager: EntityManager
 ) : CommonRepository<ArticleEntity, String>(articleDao) {
     override fun <S : ArticleEntity> save(entity: S): S {
         return saveAndFlush(entity)
@@ -36,6 +39,19 @@ class ArticleRepository(
         return saveAllAndFlush(entities)
     }
 
+    /**
+     * Inserts new articles with one flush. Unlike [saveAll], this does
+     * not look up every article by its assigned id before inserting.
+     * [ArticleEntity.id] is taken from a pooled sequence, so the rows
+     * are sent in JDBC batches.
+     */
+    @Transactional
+    fun insertAll(entities: List<ArticleEntity>): List<ArticleEntity> {
+        entities.forEach(entityManager::persist)
+        entityManager.flush()
+        return entities
+    }
+
     fun findAllByUserId(userId: Long): List<ArticleEntity> {
         return findAll { root, _, builder ->
             builder.equal(root.get(ArticleEntity_.userId), userId)
@@ -46,6 +62,18 @@ class ArticleRepository(
         return findOne(createTitleSpecification(title, userId))
     }
 
+    fun findByTitles(titles: Collection<String>, userId: Long): List<ArticleEntity> {
+        if (titles.isEmpty()) {
+            return emptyList()
+        }
+        return findAll { root, _, builder ->
+            builder.and(
+                root.get(ArticleEntity_.title).`in`(titles),
+                builder.equal(root.get(ArticleEntity_.userId), userId)
+            )
+        }
+    }
+
     private fun createTitleSpecification(
         title: String,
         userId: Long
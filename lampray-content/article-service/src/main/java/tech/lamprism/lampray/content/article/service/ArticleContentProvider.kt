@@ -15,6 +15,7 @@
  */
 package tech.lamprism.lampray.content.article.service
 
+import org.springframework.context.ApplicationEventPublisher
 import org.springframework.stereotype.Service
 import space.lingu.NonNull
 import tech.lamprism.lampray.content.ContentDetails
@@ -27,6 +28,7 @@ import tech.lamprism.lampray.content.article.persistence.ArticleEntity.Companion
 import tech.lamprism.lampray.content.article.persistence.ArticleRepository
 import tech.lamprism.lampray.content.common.ContentErrorCode
 import tech.lamprism.lampray.content.common.ContentException
+import tech.lamprism.lampray.content.event.ContentUpdatedEvent
 import tech.lamprism.lampray.content.service.ContentMetadataService
 
 /**
@@ -35,7 +37,8 @@ import tech.lamprism.lampray.content.service.ContentMetadataService
 @Service
 class ArticleContentProvider(
     private val articleRepository: ArticleRepository,
-    override val contentMetadataService: ContentMetadataService
+    override val contentMetadataService: ContentMetadataService,
+    private val eventPublisher: ApplicationEventPublisher
 ) : ContentProvider,
     ArticleOperatorDelegate {
     override fun supports(@NonNull contentType: ContentType): Boolean {
@@ -70,5 +73,6 @@ class ArticleContentProvider(
 
     override fun updateArticle(article: Article) {
         articleRepository.save(article.toEntity())
+        eventPublisher.publishEvent(ContentUpdatedEvent(article, article.updateTime))
     }
 }
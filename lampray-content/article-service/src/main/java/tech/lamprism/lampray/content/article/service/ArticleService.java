@@ -37,8 +37,13 @@ import tech.lamprism.lampray.content.common.ContentException;
 import tech.lamprism.lampray.content.structuraltext.StructuralText;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * @author RollW
@@ -60,6 +65,52 @@ public class ArticleService implements ContentPublisher, ContentCollectionProvid
     public ContentDetails publish(@NonNull UncreatedContent uncreatedContent,
                                   OffsetDateTime timestamp)
             throws ContentException {
+        ArticleEntity article = buildArticle(uncreatedContent,
+                resourceIdGenerator.nextId(ContentType.ARTICLE.getSystemResourceKind()),
+                timestamp);
+        if (articleRepository.findByTitle(article.getTitle(), article.getUserId()).isPresent()) {
+            throw new ContentException(ContentErrorCode.ERROR_CONTENT_EXISTED);
+        }
+        ArticleEntity created = articleRepository.save(article);
+        logger.trace("Article({}) title={} created by user({})",
+                created.getResourceId(), created.getTitle(), created.getUserId());
+        return created;
+    }
+
+    @Override
+    public List<ContentDetails> publishAll(@NonNull List<? extends UncreatedContent> uncreatedContents,
+                                           OffsetDateTime timestamp) throws ContentException {
+        if (uncreatedContents.isEmpty()) {
+            return List.of();
+        }
+        List<String> resourceIds = resourceIdGenerator.nextIds(
+                ContentType.ARTICLE.getSystemResourceKind(), uncreatedContents.size());
+        List<ArticleEntity> articles = new ArrayList<>(uncreatedContents.size());
+        Map<Long, Set<String>> titlesByUser = new HashMap<>();
+        for (int i = 0; i < uncreatedContents.size(); i++) {
+            ArticleEntity article = buildArticle(uncreatedContents.get(i),
+                    resourceIds.get(i), timestamp);
+            boolean added = titlesByUser
+                    .computeIfAbsent(article.getUserId(), userId -> new HashSet<>())
+                    .add(article.getTitle());
+            if (!added) {
+                throw new ContentException(ContentErrorCode.ERROR_CONTENT_EXISTED);
+            }
+            articles.add(article);
+        }
+        for (Map.Entry<Long, Set<String>> entry : titlesByUser.entrySet()) {
+            if (!articleRepository.findByTitles(entry.getValue(), entry.getKey()).isEmpty()) {
+                throw new ContentException(ContentErrorCode.ERROR_CONTENT_EXISTED);
+            }
+        }
+        List<ArticleEntity> created = articleRepository.insertAll(articles);
+        logger.trace("{} articles created in bulk", created.size());
+        return new ArrayList<>(created);
+    }
+
+    private ArticleEntity buildArticle(UncreatedContent uncreatedContent,
+                                       String resourceId,
+                                       OffsetDateTime timestamp) {
         if (uncreatedContent.getContentType() != ContentType.ARTICLE) {
             throw new IllegalArgumentException("Content type not supported: " +
                     uncreatedContent.getContentType());
@@ -67,25 +118,15 @@ public class ArticleService implements ContentPublisher, ContentCollectionProvid
         String title = Validate.notEmpty(uncreatedContent.getTitle());
         StructuralText content = Objects.requireNonNull(uncreatedContent.getContent());
 
-        long userId = uncreatedContent.getOperator().getUserId();
-
-        if (articleRepository.findByTitle(title, userId).isPresent()) {
-            throw new ContentException(ContentErrorCode.ERROR_CONTENT_EXISTED);
-        }
-
-        ArticleEntity article = ArticleEntity.builder()
-                .setResourceId(resourceIdGenerator.nextId(ContentType.ARTICLE.getSystemResourceKind()))
-                .setUserId(userId)
+        return ArticleEntity.builder()
+                .setResourceId(resourceId)
+                .setUserId(uncreatedContent.getOperator().getUserId())
                 .setTitle(title)
                 .setContent(content)
                 .setCover("user-cover")
                 .setCreateTime(timestamp)
                 .setUpdateTime(timestamp)
                 .build();
-        ArticleEntity created = articleRepository.save(article);
-        logger.trace("Article({}) title={} created by user({})",
-                created.getResourceId(), created.getTitle(), created.getUserId());
-        return created;
     }
 
     @Override
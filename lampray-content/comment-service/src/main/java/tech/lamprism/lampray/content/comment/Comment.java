@@ -24,11 +24,13 @@ import tech.lamprism.lampray.content.ContentAssociated;
 import tech.lamprism.lampray.content.ContentDetails;
 import tech.lamprism.lampray.content.ContentDetailsMetadata;
 import tech.lamprism.lampray.content.ContentIdentity;
+import tech.lamprism.lampray.content.ContentStatus;
 import tech.lamprism.lampray.content.ContentType;
 import tech.lamprism.lampray.content.structuraltext.StructuralText;
 import tech.rollw.common.web.system.SystemResourceKind;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 
 /**
  * @author RollW
@@ -36,6 +38,17 @@ import java.time.OffsetDateTime;
 public class Comment implements DataEntity<String>, ContentDetails, ContentAssociated {
     public static final String COMMENT_ROOT_ID = "";
 
+    /**
+     * Separator of ids in the path of a comment.
+     */
+    public static final String PATH_SEPARATOR = "/";
+
+    /**
+     * Max length of the path. Replies that would exceed it are
+     * attached to the parent of the comment replied to.
+     */
+    public static final int MAX_PATH_LENGTH = 760;
+
     private final Long id;
     private final String resourceId;
     private final long userId;
@@ -59,13 +72,34 @@ public class Comment implements DataEntity<String>, ContentDetails, ContentAssoc
     @NonNull
     private final CommentStatus commentStatus;
 
+    /**
+     * Ids from the top-level comment down to this comment, each
+     * followed by {@link #PATH_SEPARATOR}. All replies under this
+     * comment have paths starting with it.
+     * <p>
+     * Null if the comment was created before paths were recorded
+     * and is not backfilled yet.
+     */
+    @Nullable
+    private final String path;
+    /**
+     * Count of direct replies, not including removed ones.
+     */
+    private final int replyCount;
+    /**
+     * Count of all replies under this comment, not including
+     * removed ones.
+     */
+    private final int descendantCount;
+
     private final ContentIdentity associatedContent;
     private final CommentDetailsMetadata commentDetailsMetadata;
 
     public Comment(Long id, String resourceId, long userId, String parentId, StructuralText content,
                    OffsetDateTime createTime, OffsetDateTime updateTime,
                    ContentType commentOnType, String commentOnId,
-                   @NonNull CommentStatus commentStatus) {
+                   @NonNull CommentStatus commentStatus,
+                   @Nullable String path, int replyCount, int descendantCount) {
         this.id = id;
         this.resourceId = resourceId;
         this.userId = userId;
@@ -76,6 +110,9 @@ public class Comment implements DataEntity<String>, ContentDetails, ContentAssoc
         this.updateTime = updateTime;
         this.commentOnType = commentOnType;
         this.commentStatus = commentStatus;
+        this.path = path;
+        this.replyCount = replyCount;
+        this.descendantCount = descendantCount;
         this.associatedContent = ContentIdentity.of(commentOnId, commentOnType);
         this.commentDetailsMetadata = new CommentDetailsMetadata(commentOnType, commentOnId, parentId);
     }
@@ -148,6 +185,54 @@ public class Comment implements DataEntity<String>, ContentDetails, ContentAssoc
         return commentStatus;
     }
 
+    @Nullable
+    public String getPath() {
+        return path;
+    }
+
+    public int getReplyCount() {
+        return replyCount;
+    }
+
+    public int getDescendantCount() {
+        return descendantCount;
+    }
+
+    /**
+     * Gets the ids of the ancestors, from the top-level comment down
+     * to the parent. Only the parent is known if the path is not
+     * recorded.
+     */
+    @NonNull
+    public List<String> getAncestorIds() {
+        if (path == null) {
+            return COMMENT_ROOT_ID.equals(parentId) ? List.of() : List.of(parentId);
+        }
+        String[] ids = path.split(PATH_SEPARATOR);
+        return List.of(ids).subList(0, ids.length - 1);
+    }
+
+    /**
+     * Checks whether a comment in the status is counted as a reply.
+     * Only published comments are, so replies in review, rejected or
+     * hidden are left out of the counts until they are published.
+     */
+    public static boolean isCounted(@Nullable ContentStatus status) {
+        return status == ContentStatus.PUBLISHED;
+    }
+
+    /**
+     * Gets the path of a comment under the parent path, or as a
+     * top-level comment if the parent path is null.
+     */
+    @NonNull
+    public static String pathOf(@Nullable String parentPath, @NonNull String resourceId) {
+        if (parentPath == null) {
+            return resourceId + PATH_SEPARATOR;
+        }
+        return parentPath + resourceId + PATH_SEPARATOR;
+    }
+
     @Override
     public ContentIdentity getAssociatedContent() {
         return associatedContent;
@@ -185,6 +270,9 @@ public class Comment implements DataEntity<String>, ContentDetails, ContentAssoc
         private ContentType type;
         @NonNull
         private CommentStatus commentStatus;
+        private String path;
+        private int replyCount;
+        private int descendantCount;
 
         public Builder(Comment comment) {
             this.id = comment.id;
@@ -197,6 +285,9 @@ public class Comment implements DataEntity<String>, ContentDetails, ContentAssoc
             this.updateTime = comment.updateTime;
             this.type = comment.commentOnType;
             this.commentStatus = comment.commentStatus;
+            this.path = comment.path;
+            this.replyCount = comment.replyCount;
+            this.descendantCount = comment.descendantCount;
         }
 
         public Builder() {
@@ -258,13 +349,29 @@ public class Comment implements DataEntity<String>, ContentDetails, ContentAssoc
             return this;
         }
 
+        public Builder setPath(String path) {
+            this.path = path;
+            return this;
+        }
+
+        public Builder setReplyCount(int replyCount) {
+            this.replyCount = replyCount;
+            return this;
+        }
+
+        public Builder setDescendantCount(int descendantCount) {
+            this.descendantCount = descendantCount;
+            return this;
+        }
+
         @Override
         public Comment build() {
             return new Comment(
                     id, resourceId, userId, parentId,
                     content, createTime,
                     updateTime, type,
-                    commentOn, commentStatus
+                    commentOn, commentStatus,
+                    path, replyCount, descendantCount
             );
         }
     }
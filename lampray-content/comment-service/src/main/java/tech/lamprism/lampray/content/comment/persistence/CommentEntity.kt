@@ -81,7 +81,23 @@ class CommentEntity(
     @Column(name = "comment_status", nullable = false, length = 40)
     @Enumerated(EnumType.STRING)
     @JdbcTypeCode(SqlTypes.VARCHAR)
-    var commentStatus: CommentStatus = CommentStatus.NONE
+    var commentStatus: CommentStatus = CommentStatus.NONE,
+
+    // The tree columns are only changed by bulk updates, so saving
+    // a loaded comment never overwrites them with stale values.
+    @Column(name = "path", length = Comment.MAX_PATH_LENGTH, updatable = false)
+    var path: String? = null,
+
+    @Column(name = "reply_count", nullable = false, updatable = false)
+    var replyCount: Int = 0,
+
+    @Column(name = "descendant_count", nullable = false, updatable = false)
+    var descendantCount: Int = 0,
+
+    // Whether counted in the reply counts of the ancestors, so each
+    // change of status is counted once.
+    @Column(name = "counted", nullable = false, updatable = false)
+    var counted: Boolean = false
 ) : DataEntity<String>, ContentDetails, ContentAssociated {
     override fun getEntityId(): String = persistedResourceId
 
@@ -136,7 +152,8 @@ class CommentEntity(
 
     fun lock(): Comment = Comment(
         id, persistedResourceId, userId, parentId, content, createTime,
-        updateTime, commentOnType, commentOnId, commentStatus
+        updateTime, commentOnType, commentOnId, commentStatus,
+        path, replyCount, descendantCount
     )
 
     override fun toString(): String {
@@ -150,7 +167,11 @@ class CommentEntity(
                 "updateTime=$updateTime, " +
                 "commentOnType=$commentOnType, " +
                 "commentOnId=$commentOnId, " +
-                "commentStatus=$commentStatus" +
+                "commentStatus=$commentStatus, " +
+                "path=$path, " +
+                "replyCount=$replyCount, " +
+                "descendantCount=$descendantCount, " +
+                "counted=$counted" +
                 ")"
     }
 
@@ -165,6 +186,10 @@ class CommentEntity(
         private var commentOnType: ContentType? = null
         private var commentOnId: String = ""
         private var commentStatus: CommentStatus? = null
+        private var path: String? = null
+        private var replyCount: Int = 0
+        private var descendantCount: Int = 0
+        private var counted: Boolean = false
 
         constructor()
 
@@ -179,6 +204,10 @@ class CommentEntity(
             this.commentOnType = other.commentOnType
             this.commentOnId = other.commentOnId
             this.commentStatus = other.commentStatus
+            this.path = other.path
+            this.replyCount = other.replyCount
+            this.descendantCount = other.descendantCount
+            this.counted = other.counted
         }
 
         fun setId(id: Long?) = apply {
@@ -221,6 +250,22 @@ class CommentEntity(
             this.commentStatus = commentStatus
         }
 
+        fun setPath(path: String?) = apply {
+            this.path = path
+        }
+
+        fun setReplyCount(replyCount: Int) = apply {
+            this.replyCount = replyCount
+        }
+
+        fun setDescendantCount(descendantCount: Int) = apply {
+            this.descendantCount = descendantCount
+        }
+
+        fun setCounted(counted: Boolean) = apply {
+            this.counted = counted
+        }
+
         fun build(): CommentEntity {
             return CommentEntity(
                 id = id,
@@ -232,7 +277,11 @@ class CommentEntity(
                 updateTime = updateTime!!,
                 commentOnType = commentOnType!!,
                 commentOnId = commentOnId,
-                commentStatus = commentStatus!!
+                commentStatus = commentStatus!!,
+                path = path,
+                replyCount = replyCount,
+                descendantCount = descendantCount,
+                counted = counted
             )
         }
     }
@@ -253,7 +302,10 @@ class CommentEntity(
                 updateTime = updateTime,
                 commentOnType = commentOnType,
                 commentOnId = commentOnId,
-                commentStatus = commentStatus
+                commentStatus = commentStatus,
+                path = path,
+                replyCount = replyCount,
+                descendantCount = descendantCount
             )
         }
     }
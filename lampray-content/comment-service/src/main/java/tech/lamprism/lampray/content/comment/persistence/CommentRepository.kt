@@ -16,17 +16,23 @@
 
 package tech.lamprism.lampray.content.comment.persistence
 
+import jakarta.persistence.EntityManager
+import jakarta.persistence.LockModeType
+import jakarta.transaction.Transactional
+import org.springframework.data.domain.Sort
 import org.springframework.data.jpa.domain.Specification
 import org.springframework.stereotype.Repository
 import tech.lamprism.lampray.common.data.CommonRepository
 import tech.lamprism.lampray.content.ContentType
+import tech.lamprism.lampray.content.comment.Comment
 
 /**
  * @author RollW
  */
 @Repository
 class CommentRepository(
-    commentDao: CommentDao
+    commentDao: CommentDao,
+    private val entityManager: EntityManager
 ) : CommonRepository<CommentEntity, String>(commentDao) {
     override fun <S : CommentEntity> save(entity: S): S {
         return saveAndFlush(entity)
@@ -36,6 +42,17 @@ class CommentRepository(
         return saveAllAndFlush(entities)
     }
 
+    /**
+     * Inserts a new comment without first looking it up by its
+     * assigned id, as [save] would.
+     */
+    @Transactional
+    fun insert(entity: CommentEntity): CommentEntity {
+        entityManager.persist(entity)
+        entityManager.flush()
+        return entity
+    }
+
     fun findAllByUserId(userId: Long): List<CommentEntity> {
         return findAll { root, _, builder ->
             builder.equal(root.get(CommentEntity_.userId), userId)
@@ -49,6 +66,191 @@ class CommentRepository(
         return findAll(createContentSpecification(contentId, contentType))
     }
 
+    /**
+     * Finds comments of the content in id order, locking them until
+     * the transaction ends.
+     */
+    fun findByContentForUpdate(
+        contentId: String,
+        contentType: ContentType
+    ): List<CommentEntity> {
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val query = criteriaBuilder.createQuery(CommentEntity::class.java)
+        val root = query.from(CommentEntity::class.java)
+        query.where(
+            criteriaBuilder.equal(root.get(CommentEntity_.commentOnId), contentId),
+            criteriaBuilder.equal(root.get(CommentEntity_.commentOnType), contentType)
+        ).orderBy(criteriaBuilder.asc(root.get(CommentEntity_.persistedResourceId)))
+        return entityManager.createQuery(query)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .resultList
+    }
+
+    /**
+     * Finds top-level comments of the content, newest first, with
+     * ids less than the given one if any.
+     */
+    fun findTopLevel(
+        contentId: String,
+        contentType: ContentType,
+        before: String?,
+        limit: Int
+    ): List<CommentEntity> {
+        val topLevel = Specification<CommentEntity> { root, _, criteriaBuilder ->
+            val isTopLevel = criteriaBuilder.equal(root.get(CommentEntity_.parentId), Comment.COMMENT_ROOT_ID)
+            if (before == null) {
+                return@Specification isTopLevel
+            }
+            criteriaBuilder.and(
+                isTopLevel,
+                criteriaBuilder.lessThan(root.get(CommentEntity_.persistedResourceId), before)
+            )
+        }
+        val spec = createContentSpecification(contentId, contentType).and(topLevel)
+        return findBy(spec) {
+            it.sortBy(LATEST_FIRST).limit(limit).all()
+        }
+    }
+
+    /**
+     * Finds the comments with paths under the given path in tree
+     * order, where every comment comes before its replies.
+     */
+    fun findSubtree(path: String, limit: Int): List<CommentEntity> {
+        // A range rather than a prefix LIKE, which is case-insensitive
+        // on SQLite and cannot use the index there. Paths under the path
+        // sort before it with its last separator bumped by one.
+        val end = path.dropLast(1) + (path.last() + 1)
+        val spec = Specification<CommentEntity> { root, _, criteriaBuilder ->
+            criteriaBuilder.and(
+                criteriaBuilder.greaterThanOrEqualTo(root.get(CommentEntity_.path), path),
+                criteriaBuilder.lessThan(root.get(CommentEntity_.path), end)
+            )
+        }
+        return findBy(spec) {
+            it.sortBy(TREE_ORDER).limit(limit).all()
+        }
+    }
+
+    /**
+     * Finds comments without a recorded path in id order, with ids
+     * greater than the given one if any.
+     */
+    fun findPathless(after: String?, limit: Int): List<CommentEntity> {
+        val spec = Specification<CommentEntity> { root, _, criteriaBuilder ->
+            val pathless = criteriaBuilder.isNull(root.get(CommentEntity_.path))
+            if (after == null) {
+                return@Specification pathless
+            }
+            criteriaBuilder.and(
+                pathless,
+                criteriaBuilder.greaterThan(root.get(CommentEntity_.persistedResourceId), after)
+            )
+        }
+        return findBy(spec) {
+            it.sortBy(ID_ORDER).limit(limit).all()
+        }
+    }
+
+    /**
+     * Adds the delta to the descendant counts of the ancestors and
+     * to the reply count of the last one, the parent, in a single
+     * update statement.
+     *
+     * @param ancestorIds ids from the top-level comment down to the parent
+     */
+    @Transactional
+    fun addReplyCounts(ancestorIds: List<String>, delta: Int): Int {
+        if (ancestorIds.isEmpty()) {
+            return 0
+        }
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val update = criteriaBuilder.createCriteriaUpdate(CommentEntity::class.java)
+        val root = update.from(CommentEntity::class.java)
+        val resourceId = root.get(CommentEntity_.persistedResourceId)
+        update.set(
+            root.get(CommentEntity_.replyCount),
+            criteriaBuilder.sum(
+                root.get(CommentEntity_.replyCount),
+                criteriaBuilder.selectCase<Int>()
+                    .`when`(criteriaBuilder.equal(resourceId, ancestorIds.last()), delta)
+                    .otherwise(0)
+            )
+        )
+        update.set(
+            root.get(CommentEntity_.descendantCount),
+            criteriaBuilder.sum(root.get(CommentEntity_.descendantCount), delta)
+        )
+        update.where(resourceId.`in`(ancestorIds))
+        return entityManager.createQuery(update).executeUpdate()
+    }
+
+    /**
+     * Marks the comment as counted in the reply counts of its ancestors
+     * or not, adding the change to the counts if the mark changed.
+     *
+     * The comment and the ancestors known so far are locked first, in
+     * id order as [findByContentForUpdate] locks them, and the comment
+     * is read again under the lock. So the change goes to the ancestors
+     * of a path recorded meanwhile, and is not counted again if the
+     * counts were rebuilt with the comment already marked.
+     *
+     * @return whether the mark changed
+     */
+    @Transactional
+    fun setCounted(comment: Comment, counted: Boolean): Boolean {
+        val locked = findForUpdate(comment.ancestorIds + comment.resourceId)
+            .find { it.getResourceId() == comment.resourceId }
+            ?: return false
+        entityManager.refresh(locked, LockModeType.PESSIMISTIC_WRITE)
+        if (locked.counted == counted) {
+            return false
+        }
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val update = criteriaBuilder.createCriteriaUpdate(CommentEntity::class.java)
+        val root = update.from(CommentEntity::class.java)
+        update.set(root.get(CommentEntity_.counted), counted)
+        update.where(criteriaBuilder.equal(root.get(CommentEntity_.persistedResourceId), comment.resourceId))
+        entityManager.createQuery(update).executeUpdate()
+        addReplyCounts(locked.lock().ancestorIds, if (counted) 1 else -1)
+        return true
+    }
+
+    /**
+     * Sets the path, counts and mark of the comment, for comments
+     * created before paths were recorded.
+     */
+    @Transactional
+    fun updateTree(
+        resourceId: String,
+        path: String,
+        replyCount: Int,
+        descendantCount: Int,
+        counted: Boolean
+    ) {
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val update = criteriaBuilder.createCriteriaUpdate(CommentEntity::class.java)
+        val root = update.from(CommentEntity::class.java)
+        update.set(root.get(CommentEntity_.path), path)
+        update.set(root.get(CommentEntity_.replyCount), replyCount)
+        update.set(root.get(CommentEntity_.descendantCount), descendantCount)
+        update.set(root.get(CommentEntity_.counted), counted)
+        update.where(criteriaBuilder.equal(root.get(CommentEntity_.persistedResourceId), resourceId))
+        entityManager.createQuery(update).executeUpdate()
+    }
+
+    private fun findForUpdate(resourceIds: List<String>): List<CommentEntity> {
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val query = criteriaBuilder.createQuery(CommentEntity::class.java)
+        val root = query.from(CommentEntity::class.java)
+        val resourceId = root.get(CommentEntity_.persistedResourceId)
+        query.where(resourceId.`in`(resourceIds))
+            .orderBy(criteriaBuilder.asc(resourceId))
+        return entityManager.createQuery(query)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .resultList
+    }
+
     private fun createContentSpecification(
         contentId: String,
         contentType: ContentType
@@ -58,4 +260,10 @@ class CommentRepository(
             criteriaBuilder.equal(root.get(CommentEntity_.commentOnType), contentType)
         )
     }
+
+    companion object {
+        private val LATEST_FIRST = Sort.by(Sort.Order.desc(CommentEntity_.PERSISTED_RESOURCE_ID))
+        private val TREE_ORDER = Sort.by(Sort.Order.asc(CommentEntity_.PATH))
+        private val ID_ORDER = Sort.by(Sort.Order.asc(CommentEntity_.PERSISTED_RESOURCE_ID))
+    }
 }
@@ -67,4 +67,8 @@ class CommentContentProvider(
     override fun updateComment(comment: Comment) {
         commentRepository.save(comment.toEntity())
     }
+
+    override fun setCounted(comment: Comment, counted: Boolean) {
+        commentRepository.setCounted(comment, counted)
+    }
 }
@@ -24,5 +24,11 @@ import tech.lamprism.lampray.content.service.ContentMetadataService
 internal interface CommentOperatorDelegate {
     fun updateComment(comment: Comment)
 
+    /**
+     * Marks the comment as counted in the reply counts of its ancestors
+     * or not.
+     */
+    fun setCounted(comment: Comment, counted: Boolean)
+
     val contentMetadataService: ContentMetadataService
 }
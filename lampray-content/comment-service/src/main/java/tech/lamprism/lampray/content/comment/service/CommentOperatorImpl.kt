@@ -18,6 +18,7 @@ package tech.lamprism.lampray.content.comment.service
 import tech.lamprism.lampray.content.ContentDetails
 import tech.lamprism.lampray.content.ContentDetailsMetadata
 import tech.lamprism.lampray.content.ContentOperator
+import tech.lamprism.lampray.content.ContentStatus
 import tech.lamprism.lampray.content.comment.Comment
 import tech.lamprism.lampray.content.service.AbstractContentOperator
 import tech.lamprism.lampray.content.structuraltext.StructuralText
@@ -44,6 +45,15 @@ class CommentOperatorImpl internal constructor(
         return comment
     }
 
+    override fun onStatusChanged(previous: ContentStatus, current: ContentStatus) {
+        val wasCounted = Comment.isCounted(previous)
+        val counted = Comment.isCounted(current)
+        if (wasCounted == counted) {
+            return
+        }
+        delegate.setCounted(comment, counted)
+    }
+
     @Throws(CommonRuntimeException::class)
     override fun setNameInternal(name: String?): Boolean {
         throw UnsupportedOperationException()
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.content.comment.service
+
+import org.springframework.context.ApplicationListener
+import org.springframework.stereotype.Component
+import tech.lamprism.lampray.content.ContentType
+import tech.lamprism.lampray.content.comment.Comment
+import tech.lamprism.lampray.content.comment.persistence.CommentRepository
+import tech.lamprism.lampray.content.event.ContentStatusEvent
+
+/**
+ * Keeps the reply counts of the ancestors of a comment in step with
+ * its status when the status is set on publishing or by a review.
+ * Changes through the content operator are counted by
+ * [CommentOperatorImpl] instead, as they publish no event.
+ *
+ * @author RollW
+ */
+@Component
+class CommentReplyCountListener(
+    private val commentRepository: CommentRepository
+) : ApplicationListener<ContentStatusEvent<*>> {
+    override fun onApplicationEvent(event: ContentStatusEvent<*>) {
+        val content = event.content
+        if (content.contentType != ContentType.COMMENT) {
+            return
+        }
+        val wasCounted = Comment.isCounted(event.previousStatus)
+        val counted = Comment.isCounted(event.currentStatus)
+        if (wasCounted == counted) {
+            return
+        }
+        // Events of reviews only carry the identity of the comment
+        val comment = content as? Comment
+            ?: commentRepository.findById(content.contentId).orElse(null)?.lock()
+            ?: return
+        commentRepository.setCounted(comment, counted)
+    }
+}
@@ -26,8 +26,8 @@ import tech.lamprism.lampray.content.ContentIdentity;
 import tech.lamprism.lampray.content.ContentMetadata;
 import tech.lamprism.lampray.content.ContentPublisher;
 import tech.lamprism.lampray.content.ContentStatus;
+import tech.lamprism.lampray.content.ContentTrait;
 import tech.lamprism.lampray.content.ContentType;
-import tech.lamprism.lampray.content.SimpleContentIdentity;
 import tech.lamprism.lampray.content.UncreatedContent;
 import tech.lamprism.lampray.content.collection.ContentCollectionIdentity;
 import tech.lamprism.lampray.content.collection.ContentCollectionProvider;
@@ -43,13 +43,17 @@ import tech.lamprism.lampray.content.service.ContentMetadataService;
 import tech.lamprism.lampray.user.UserIdentity;
 
 import java.time.OffsetDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author RollW
  */
 @Service
 public class CommentService implements ContentPublisher, ContentCollectionProvider {
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final CommentRepository commentRepository;
     private final ContentMetadataService contentMetadataService;
     private final ResourceIdGenerator resourceIdGenerator;
@@ -77,12 +81,37 @@ public class CommentService implements ContentPublisher, ContentCollectionProvid
                 commentDetailsMetadata.contentId(),
                 commentDetailsMetadata.contentType()
         );
-        checkCommentOnContent(commentOn, operator);
-        String parentId = checkParentId(commentDetailsMetadata.parentId(), operator);
+        String requestedParentId = commentDetailsMetadata.parentId();
+        ContentIdentity parentIdentity =
+                requestedParentId == null || Comment.COMMENT_ROOT_ID.equals(requestedParentId)
+                        ? null
+                        : ContentIdentity.of(requestedParentId, ContentType.COMMENT);
+        checkCanCommentOn(commentOn, parentIdentity, operator);
+        CommentEntity parent = parentIdentity == null
+                ? null
+                : commentRepository.findById(parentIdentity.getContentId()).orElseThrow(
+                        () -> new ContentException(ContentErrorCode.ERROR_CONTENT_NOT_FOUND)
+                );
+
+        String resourceId = resourceIdGenerator.nextId(ContentType.COMMENT.getSystemResourceKind());
+        String parentId = Comment.COMMENT_ROOT_ID;
+        String path = Comment.pathOf(null, resourceId);
+        if (parent != null) {
+            parentId = parent.getResourceId();
+            String parentPath = parent.getPath();
+            if (parentPath != null &&
+                    parentPath.length() + resourceId.length() + 1 > Comment.MAX_PATH_LENGTH) {
+                // Too deep, reply to the parent of the parent instead
+                parentId = parent.getParentId();
+                parentPath = getParentPath(parentPath);
+            }
+            // Left for the backfill if the parent has no path yet
+            path = parent.getPath() == null ? null : Comment.pathOf(parentPath, resourceId);
+        }
 
         CommentEntity comment = CommentEntity
                 .builder()
-                .setResourceId(resourceIdGenerator.nextId(ContentType.COMMENT.getSystemResourceKind()))
+                .setResourceId(resourceId)
                 .setUserId(operator.getUserId())
                 .setParentId(parentId)
                 .setContent(uncreatedContent.getContent())
@@ -91,51 +120,54 @@ public class CommentService implements ContentPublisher, ContentCollectionProvid
                 .setCommentOnId(commentDetailsMetadata.contentId())
                 .setCommentOnType(commentDetailsMetadata.contentType())
                 .setCommentStatus(CommentStatus.NONE)
+                .setPath(path)
                 .build();
 
-        return commentRepository.save(comment).lock();
+        // Counted as a reply once published, see CommentReplyCountListener
+        return commentRepository.insert(comment).lock();
     }
 
-    private void checkCommentOnContent(
-            ContentIdentity parentContent, UserIdentity operator) {
-        ContentMetadata metadata = contentMetadataService.getMetadata(parentContent);
-        if (metadata.getContentStatus() != ContentStatus.PUBLISHED) {
-            throw new ContentException(ContentErrorCode.ERROR_CONTENT_NOT_FOUND);
-        }
-        if (!metadata.getContentAccessAuthType().needsAuth()) {
-            return;
-        }
-        if (operator.getUserId() == metadata.getUserId()) {
-            return;
-        }
-        // TODO: check auth when needed
-        throw new ContentException(ContentErrorCode.ERROR_CONTENT_NOT_FOUND);
+    @Nullable
+    private static String getParentPath(String path) {
+        int end = path.lastIndexOf(Comment.PATH_SEPARATOR, path.length() - 2);
+        return end < 0 ? null : path.substring(0, end + 1);
     }
 
-    private String checkParentId(@Nullable String parentId, UserIdentity operator) {
-        if (parentId == null || Comment.COMMENT_ROOT_ID.equals(parentId)) {
-            return Comment.COMMENT_ROOT_ID;
+    /**
+     * Checks the content and the parent comment, if any, can be
+     * commented on, reading the metadata of both in one query.
+     */
+    private void checkCanCommentOn(ContentIdentity commentOn,
+                                   @Nullable ContentIdentity parent,
+                                   UserIdentity operator) {
+        List<ContentTrait> contents = parent == null
+                ? List.of(commentOn)
+                : List.of(commentOn, parent);
+        Map<ContentIdentity, ContentMetadata> metadata = new HashMap<>();
+        for (ContentMetadata contentMetadata : contentMetadataService.getMetadata(contents)) {
+            metadata.put(ContentIdentity.of(contentMetadata.getContentId(),
+                    contentMetadata.getContentType()), contentMetadata);
         }
-        commentRepository.findById(parentId).orElseThrow(
-                () -> new ContentException(ContentErrorCode.ERROR_CONTENT_NOT_FOUND)
-        );
-        ContentMetadata metadata = contentMetadataService.getMetadata(
-                new SimpleContentIdentity(parentId, ContentType.COMMENT));
-        if (!checkCanCommentOn(metadata, operator)) {
-            throw new ContentException(ContentErrorCode.ERROR_CONTENT_NOT_FOUND);
+        for (ContentTrait content : contents) {
+            if (!checkCanCommentOn(metadata.get(content), operator)) {
+                throw new ContentException(ContentErrorCode.ERROR_CONTENT_NOT_FOUND);
+            }
         }
-        return parentId;
     }
 
     private boolean checkCanCommentOn(
-            ContentMetadata contentMetadata,
+            @Nullable ContentMetadata contentMetadata,
             UserIdentity operator) {
+        if (contentMetadata == null) {
+            return false;
+        }
         if (contentMetadata.getContentStatus() != ContentStatus.PUBLISHED) {
             return false;
         }
         if (!contentMetadata.getContentAccessAuthType().needsAuth()) {
             return true;
         }
+        // TODO: check auth when needed
         return operator.getUserId() == contentMetadata.getUserId();
     }
 
@@ -171,6 +203,47 @@ public class CommentService implements ContentPublisher, ContentCollectionProvid
         };
     }
 
+    /**
+     * Gets a page of top-level comments of the content, newest first.
+     * Reply counts come with each comment.
+     *
+     * @param cursor the id of the last comment of the previous page,
+     *               or null for the first page
+     */
+    @NonNull
+    public List<Comment> getTopLevelComments(@NonNull ContentIdentity content,
+                                             @Nullable String cursor,
+                                             int limit) {
+        return commentRepository.findTopLevel(
+                        content.getContentId(),
+                        content.getContentType(),
+                        cursor,
+                        Math.max(1, Math.min(limit, MAX_PAGE_SIZE))
+                )
+                .stream()
+                .map(CommentEntity::lock)
+                .toList();
+    }
+
+    /**
+     * Gets the comment and replies under it, where each comment comes
+     * before its replies.
+     */
+    @NonNull
+    public List<Comment> getCommentTree(@NonNull String commentId, int limit) {
+        CommentEntity comment = commentRepository.findById(commentId).orElseThrow(
+                () -> new ContentException(ContentErrorCode.ERROR_CONTENT_NOT_FOUND)
+        );
+        if (comment.getPath() == null) {
+            return List.of(comment.lock());
+        }
+        return commentRepository.findSubtree(comment.getPath(),
+                        Math.max(1, Math.min(limit, MAX_PAGE_SIZE)))
+                .stream()
+                .map(CommentEntity::lock)
+                .toList();
+    }
+
     @Override
     public boolean supportsCollection(@NonNull ContentCollectionType contentCollectionType) {
         return switch (contentCollectionType) {
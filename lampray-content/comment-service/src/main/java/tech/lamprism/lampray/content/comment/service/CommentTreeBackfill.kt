@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.content.comment.service
+
+import org.slf4j.Logger
+import org.slf4j.error
+import org.slf4j.info
+import org.slf4j.logger
+import org.springframework.beans.factory.DisposableBean
+import org.springframework.beans.factory.annotation.Qualifier
+import org.springframework.context.ApplicationListener
+import org.springframework.context.event.ContextRefreshedEvent
+import org.springframework.scheduling.TaskScheduler
+import org.springframework.stereotype.Component
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+import tech.lamprism.lampray.content.comment.Comment
+import tech.lamprism.lampray.content.comment.persistence.CommentEntity
+import tech.lamprism.lampray.content.comment.persistence.CommentRepository
+import tech.lamprism.lampray.content.service.ContentMetadataService
+import java.time.Instant
+import java.util.concurrent.atomic.AtomicBoolean
+
+private val logger: Logger = logger<CommentTreeBackfill>()
+
+/**
+ * Records paths and reply counts of comments created before they
+ * were recorded. The comments of each affected content are rebuilt
+ * as a whole, since their counts depend on all replies.
+ *
+ * Each content is rebuilt in one transaction holding locks on its
+ * comments, so status changes counted meanwhile wait for the rebuild
+ * and only add to the rebuilt counts what it did not count, see
+ * [CommentRepository.setCounted].
+ *
+ * Runs in the background once the context is started, walking the
+ * comments without a path in batches by id, so neither the startup
+ * nor the memory use depends on how many comments are left.
+ *
+ * @author RollW
+ */
+@Component
+class CommentTreeBackfill(
+    private val commentRepository: CommentRepository,
+    private val contentMetadataService: ContentMetadataService,
+    transactionManager: PlatformTransactionManager,
+    @Qualifier("mainTaskScheduler") private val taskScheduler: TaskScheduler
+) : ApplicationListener<ContextRefreshedEvent>, DisposableBean {
+    private val transactionTemplate = TransactionTemplate(transactionManager)
+    private val started = AtomicBoolean(false)
+
+    @Volatile
+    private var stopped = false
+
+    override fun onApplicationEvent(event: ContextRefreshedEvent) {
+        if (!started.compareAndSet(false, true)) {
+            return
+        }
+        taskScheduler.schedule(::backfillSafely, Instant.now())
+    }
+
+    private fun backfillSafely() {
+        try {
+            backfill()
+        } catch (e: RuntimeException) {
+            logger.error(e) { "Failed to backfill comment paths." }
+        }
+    }
+
+    private fun backfill() {
+        var after: String? = null
+        var contents = 0
+        var updated = 0
+        do {
+            if (stopped) {
+                return
+            }
+            val comments = commentRepository.findPathless(after, BATCH_SIZE)
+            if (comments.isEmpty()) {
+                break
+            }
+            after = comments.last().getResourceId()
+            // Rebuilt contents have paths, so later batches skip them
+            comments.map { it.getAssociatedContent() }.distinct().forEach {
+                updated += transactionTemplate.execute { _ ->
+                    rebuild(commentRepository.findByContentForUpdate(it.contentId, it.contentType))
+                } ?: 0
+                contents++
+            }
+        } while (comments.size == BATCH_SIZE)
+        if (contents > 0) {
+            logger.info { "Backfilled trees of $contents contents, $updated comments updated." }
+        }
+    }
+
+    private fun rebuild(comments: List<CommentEntity>): Int {
+        val byId = comments.associateBy { it.getResourceId() }
+        val paths = HashMap<String, String>()
+        comments.forEach { comment ->
+            comment.path?.let { paths[comment.getResourceId()] = it }
+        }
+
+        fun pathOf(comment: CommentEntity, depth: Int): String {
+            paths[comment.getResourceId()]?.let { return it }
+            val parent = byId[comment.parentId]
+            // Orphans, and comments in a broken cycle, become top-level
+            val path = if (parent == null || depth > byId.size) {
+                Comment.pathOf(null, comment.getResourceId())
+            } else {
+                Comment.pathOf(pathOf(parent, depth + 1), comment.getResourceId())
+            }
+            paths[comment.getResourceId()] = path
+            return path
+        }
+        comments.forEach { pathOf(it, 0) }
+
+        val counted = contentMetadataService.getMetadata(comments)
+            .filter { Comment.isCounted(it.contentStatus) }
+            .mapTo(HashSet()) { it.contentId }
+        val replyCounts = HashMap<String, Int>()
+        val descendantCounts = HashMap<String, Int>()
+        comments.filter { it.getResourceId() in counted }.forEach { comment ->
+            val ancestorIds = paths[comment.getResourceId()]!!
+                .removeSuffix(Comment.PATH_SEPARATOR)
+                .split(Comment.PATH_SEPARATOR)
+                .dropLast(1)
+            ancestorIds.forEach { descendantCounts.merge(it, 1) { a, b -> a + b } }
+            ancestorIds.lastOrNull()?.let { replyCounts.merge(it, 1) { a, b -> a + b } }
+        }
+
+        var updated = 0
+        comments.forEach { comment ->
+            val path = paths[comment.getResourceId()]!!
+            val replyCount = replyCounts[comment.getResourceId()] ?: 0
+            val descendantCount = descendantCounts[comment.getResourceId()] ?: 0
+            val isCounted = comment.getResourceId() in counted
+            if (path == comment.path && replyCount == comment.replyCount &&
+                descendantCount == comment.descendantCount && isCounted == comment.counted
+            ) {
+                return@forEach
+            }
+            commentRepository.updateTree(
+                comment.getResourceId(), path, replyCount, descendantCount, isCounted
+            )
+            updated++
+        }
+        return updated
+    }
+
+    override fun destroy() {
+        stopped = true
+    }
+
+    companion object {
+        private const val BATCH_SIZE = 500
+    }
+}
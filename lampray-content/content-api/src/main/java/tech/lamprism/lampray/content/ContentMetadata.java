@@ -41,17 +41,26 @@ public class ContentMetadata implements DataEntity<Long>, ContentTrait {
     @NonNull
     private final ContentAccessAuthType contentAccessAuthType;
 
+    private final long likeCount;
+    private final long dislikeCount;
+    private final long favoriteCount;
+
     public ContentMetadata(Long id, long userId,
                            @NonNull String contentId,
                            @NonNull ContentType contentType,
                            @NonNull ContentStatus contentStatus,
-                           @NonNull ContentAccessAuthType contentAccessAuthType) {
+                           @NonNull ContentAccessAuthType contentAccessAuthType,
+                           long likeCount, long dislikeCount,
+                           long favoriteCount) {
         this.id = id;
         this.userId = userId;
         this.contentId = contentId;
         this.contentType = contentType;
         this.contentStatus = contentStatus;
         this.contentAccessAuthType = contentAccessAuthType;
+        this.likeCount = likeCount;
+        this.dislikeCount = dislikeCount;
+        this.favoriteCount = favoriteCount;
         checkForNull();
     }
 
@@ -117,6 +126,22 @@ public class ContentMetadata implements DataEntity<Long>, ContentTrait {
         return contentAccessAuthType;
     }
 
+    /**
+     * Gets the count of likes of the content. Counts are maintained
+     * asynchronously and may briefly lag behind the likes.
+     */
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public long getDislikeCount() {
+        return dislikeCount;
+    }
+
+    public long getFavoriteCount() {
+        return favoriteCount;
+    }
+
     public Builder toBuilder() {
         return new Builder(this);
     }
@@ -138,6 +163,9 @@ public class ContentMetadata implements DataEntity<Long>, ContentTrait {
         private ContentType contentType;
         private ContentStatus contentStatus;
         private ContentAccessAuthType contentAccessAuthType;
+        private long likeCount;
+        private long dislikeCount;
+        private long favoriteCount;
 
         public Builder() {
         }
@@ -149,6 +177,9 @@ public class ContentMetadata implements DataEntity<Long>, ContentTrait {
             this.contentType = contentMetadata.contentType;
             this.contentStatus = contentMetadata.contentStatus;
             this.contentAccessAuthType = contentMetadata.contentAccessAuthType;
+            this.likeCount = contentMetadata.likeCount;
+            this.dislikeCount = contentMetadata.dislikeCount;
+            this.favoriteCount = contentMetadata.favoriteCount;
         }
 
         @Override
@@ -186,10 +217,26 @@ public class ContentMetadata implements DataEntity<Long>, ContentTrait {
             return this;
         }
 
+        public Builder setLikeCount(long likeCount) {
+            this.likeCount = likeCount;
+            return this;
+        }
+
+        public Builder setDislikeCount(long dislikeCount) {
+            this.dislikeCount = dislikeCount;
+            return this;
+        }
+
+        public Builder setFavoriteCount(long favoriteCount) {
+            this.favoriteCount = favoriteCount;
+            return this;
+        }
+
         @Override
         public ContentMetadata build() {
             return new ContentMetadata(id, userId, contentId,
-                    contentType, contentStatus, contentAccessAuthType);
+                    contentType, contentStatus, contentAccessAuthType,
+                    likeCount, dislikeCount, favoriteCount);
         }
     }
 }
@@ -18,10 +18,19 @@ package tech.lamprism.lampray.content;
 
 import tech.lamprism.lampray.content.common.ContentException;
 
+import java.util.List;
+
 /**
  * @author RollW
  */
 public interface ContentPublishProvider {
     ContentDetails publishContent(UncreatedContent uncreatedContent)
             throws ContentException;
+
+    /**
+     * Publishes contents together, e.g. when importing. Either all of
+     * them are published or none.
+     */
+    List<ContentDetails> publishContents(List<? extends UncreatedContent> uncreatedContents)
+            throws ContentException;
 }
@@ -20,6 +20,8 @@ import space.lingu.NonNull;
 import tech.lamprism.lampray.content.common.ContentException;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author RollW
@@ -31,6 +33,22 @@ public interface ContentPublisher extends ContentSupportable {
     ContentDetails publish(@NonNull UncreatedContent uncreatedContent,
                            OffsetDateTime timestamp) throws ContentException;
 
+    /**
+     * Publishes contents in bulk, in the order given. Implementations
+     * may write them in batches; by default they are published one by
+     * one.
+     *
+     * @throws ContentException if any of the contents failed to create.
+     */
+    default List<ContentDetails> publishAll(@NonNull List<? extends UncreatedContent> uncreatedContents,
+                                            OffsetDateTime timestamp) throws ContentException {
+        List<ContentDetails> published = new ArrayList<>(uncreatedContents.size());
+        for (UncreatedContent uncreatedContent : uncreatedContents) {
+            published.add(publish(uncreatedContent, timestamp));
+        }
+        return published;
+    }
+
     @Override
     boolean supports(@NonNull ContentType contentType);
 }
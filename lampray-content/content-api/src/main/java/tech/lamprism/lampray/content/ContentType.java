@@ -44,7 +44,8 @@ public enum ContentType implements SystemResourceKind.Kind {
     ;
 
     /**
-     * The weight of the review type.
+     * The weight of the review type. The reviewer workload backfill in
+     * changelog 0.1.0-alpha1-09 repeats these weights.
      */
     private final int weight;
 
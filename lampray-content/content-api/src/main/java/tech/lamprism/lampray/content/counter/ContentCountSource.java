@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.content.counter;
+
+import tech.lamprism.lampray.content.ContentType;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Counts the source rows of a counter, e.g. the likes of contents.
+ * Counters are periodically reconciled against their sources, which
+ * corrects increments lost or duplicated along the way.
+ *
+ * @author RollW
+ */
+public interface ContentCountSource {
+    boolean supports(ContentCountType countType);
+
+    /**
+     * Counts the source rows of the contents.
+     *
+     * @return counts by content id, contents without any rows may be
+     * left out
+     */
+    Map<String, Long> count(ContentCountType countType,
+                            ContentType contentType,
+                            Collection<String> contentIds);
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.content.counter;
+
+import tech.lamprism.lampray.content.ContentTrait;
+
+/**
+ * Maintains the counters of contents.
+ * <p>
+ * Increments are buffered and written to the content metadata in
+ * batches, so a counter read right after an increment may not yet
+ * include it.
+ *
+ * @author RollW
+ */
+public interface ContentCounterService {
+    /**
+     * Adds the delta to the counter of the content. A negative delta
+     * decrements the counter.
+     */
+    void increment(ContentTrait content, ContentCountType countType, long delta);
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.content.event;
+
+import org.springframework.context.ApplicationEvent;
+import tech.lamprism.lampray.content.Content;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Published when the title or the content of a content was updated.
+ *
+ * @author RollW
+ */
+public class ContentUpdatedEvent extends ApplicationEvent {
+    private final Content content;
+    private final OffsetDateTime timestamp;
+
+    public ContentUpdatedEvent(Content content, OffsetDateTime timestamp) {
+        super(content);
+        this.content = content;
+        this.timestamp = timestamp;
+    }
+
+    public Content getContent() {
+        return content;
+    }
+
+    public OffsetDateTime getEventTimestamp() {
+        return timestamp;
+    }
+}
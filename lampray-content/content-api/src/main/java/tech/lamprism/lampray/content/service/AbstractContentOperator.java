@@ -170,6 +170,7 @@ public abstract class AbstractContentOperator implements ContentOperator {
 
         contentMetadataService.updateMetadata(updated);
         reloadContentMetadata(updated);
+        onStatusChanged(metadata.getContentStatus(), updated.getContentStatus());
 
         // ContentMetadata do not record update time,
         // so we need to update comment to record update time.
@@ -186,6 +187,7 @@ public abstract class AbstractContentOperator implements ContentOperator {
                 .build();
         contentMetadataService.updateMetadata(updated);
         reloadContentMetadata(updated);
+        onStatusChanged(metadata.getContentStatus(), updated.getContentStatus());
 
         return updateInternal();
     }
@@ -200,6 +202,7 @@ public abstract class AbstractContentOperator implements ContentOperator {
                 .build();
         contentMetadataService.updateMetadata(updated);
         reloadContentMetadata(updated);
+        onStatusChanged(metadata.getContentStatus(), updated.getContentStatus());
 
         return updateInternal();
     }
@@ -251,6 +254,13 @@ public abstract class AbstractContentOperator implements ContentOperator {
      */
     protected abstract ContentDetails updateContent();
 
+    /**
+     * Called after the status of the content was changed in the
+     * metadata, before the content is updated.
+     */
+    protected void onStatusChanged(ContentStatus previous, ContentStatus current) {
+    }
+
     protected final void checkIfDeleted() {
         if (!checkDeleted) {
             return;
@@ -17,6 +17,7 @@ package tech.lamprism.lampray.content.service
 
 import tech.lamprism.lampray.content.ContentMetadata
 import tech.lamprism.lampray.content.ContentTrait
+import tech.lamprism.lampray.content.ContentType
 
 /**
  * Content metadata service. For internal service use only.
@@ -26,5 +27,23 @@ import tech.lamprism.lampray.content.ContentTrait
 interface ContentMetadataService {
     fun getMetadata(contentTrait: ContentTrait): ContentMetadata
 
+    /**
+     * Gets the metadata of the contents in one query. Contents
+     * without metadata are left out.
+     */
+    fun getMetadata(contents: List<ContentTrait>): List<ContentMetadata>
+
+    /**
+     * Gets the metadata of contents of the type in the order of
+     * their ids, starting after the given id.
+     */
+    fun getMetadata(contentType: ContentType, afterId: Long?, limit: Int): List<ContentMetadata>
+
     fun updateMetadata(metadata: ContentMetadata)
+
+    /**
+     * Updates only the statuses of the metadata, with one statement
+     * per distinct status.
+     */
+    fun updateStatuses(metadata: List<ContentMetadata>)
 }
@@ -17,7 +17,6 @@
 package tech.lamprism.lampray.content.event;
 
 import org.springframework.context.ApplicationListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import space.lingu.NonNull;
 
@@ -29,7 +28,6 @@ public class ContentStatusEventListener
         implements ApplicationListener<ContentStatusEvent<?>> {
 
     @Override
-    @Async
     public void onApplicationEvent(@NonNull ContentStatusEvent<?> event) {
     }
 }
@@ -23,11 +23,10 @@ import jakarta.persistence.Enumerated
 import jakarta.persistence.Id
 import jakarta.persistence.Lob
 import jakarta.persistence.Table
-import org.hibernate.annotations.Generated
 import org.hibernate.annotations.JdbcTypeCode
-import org.hibernate.generator.EventType
 import org.hibernate.type.SqlTypes
 import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.common.data.generator.PooledSequence
 import tech.lamprism.lampray.content.favorite.FavoriteGroup
 import tech.lamprism.lampray.content.favorite.FavoriteGroupResourceKind
 import tech.lamprism.lampray.content.favorite.FavoriteGroupType
@@ -39,8 +38,8 @@ import java.time.OffsetDateTime
 @Entity
 @Table(name = "favorite_group")
 class FavoriteGroupEntity(
-    @Column(name = "id", nullable = false, insertable = false, updatable = false)
-    @Generated(event = [EventType.INSERT])
+    @Column(name = "id", nullable = false, updatable = false)
+    @PooledSequence("favorite_group")
     private var id: Long? = null,
 
     @Id
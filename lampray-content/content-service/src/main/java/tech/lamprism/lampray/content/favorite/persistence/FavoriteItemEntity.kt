@@ -22,11 +22,10 @@ import jakarta.persistence.EnumType
 import jakarta.persistence.Enumerated
 import jakarta.persistence.Id
 import jakarta.persistence.Table
-import org.hibernate.annotations.Generated
 import org.hibernate.annotations.JdbcTypeCode
-import org.hibernate.generator.EventType
 import org.hibernate.type.SqlTypes
 import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.common.data.generator.PooledSequence
 import tech.lamprism.lampray.content.ContentType
 import tech.lamprism.lampray.content.favorite.FavoriteItem
 import tech.lamprism.lampray.content.favorite.FavoriteItemResourceKind
@@ -38,8 +37,8 @@ import java.time.OffsetDateTime
 @Entity
 @Table(name = "favorite_item")
 class FavoriteItemEntity(
-    @Column(name = "id", nullable = false, insertable = false, updatable = false)
-    @Generated(event = [EventType.INSERT])
+    @Column(name = "id", nullable = false, updatable = false)
+    @PooledSequence("favorite_item")
     private var id: Long? = null,
 
     @Id
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.content.favorite.service
+
+import org.springframework.stereotype.Component
+import tech.lamprism.lampray.content.ContentType
+import tech.lamprism.lampray.content.counter.ContentCountSource
+import tech.lamprism.lampray.content.counter.ContentCountType
+import tech.lamprism.lampray.content.favorite.persistence.FavoriteItemRepository
+
+/**
+ * Counts favorites from the favorite items, which are the source of
+ * the favorite counters.
+ *
+ * @author RollW
+ */
+@Component
+class FavoriteItemCountSource(
+    private val favoriteItemRepository: FavoriteItemRepository
+) : ContentCountSource {
+    override fun supports(countType: ContentCountType): Boolean =
+        countType == ContentCountType.FAVORITE
+
+    override fun count(
+        countType: ContentCountType,
+        contentType: ContentType,
+        contentIds: Collection<String>
+    ): Map<String, Long> = favoriteItemRepository.countByContents(contentType, contentIds)
+}
@@ -20,14 +20,13 @@ import jakarta.persistence.Column
 import jakarta.persistence.Entity
 import jakarta.persistence.EnumType
 import jakarta.persistence.Enumerated
-import jakarta.persistence.GeneratedValue
-import jakarta.persistence.GenerationType
 import jakarta.persistence.Id
 import jakarta.persistence.Table
 import jakarta.persistence.UniqueConstraint
 import org.hibernate.annotations.JdbcTypeCode
 import org.hibernate.type.SqlTypes
 import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.common.data.generator.PooledSequence
 import tech.lamprism.lampray.TimeAttributed
 import tech.lamprism.lampray.content.ContentAccessAuthType
 import tech.lamprism.lampray.content.ContentMetadata
@@ -49,8 +48,8 @@ import java.time.OffsetDateTime
 )
 class ContentMetadataEntity(
     @Id
-    @Column(name = "id", nullable = false, insertable = false, updatable = false)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, updatable = false)
+    @PooledSequence("content_metadata")
     private var id: Long? = null,
 
     @Column(name = "user_id", nullable = false)
@@ -72,7 +71,16 @@ class ContentMetadataEntity(
     @Column(name = "auth_type", nullable = false, length = 40)
     @Enumerated(EnumType.STRING)
     @JdbcTypeCode(SqlTypes.VARCHAR)
-    var contentAccessAuthType: ContentAccessAuthType = ContentAccessAuthType.PUBLIC
+    var contentAccessAuthType: ContentAccessAuthType = ContentAccessAuthType.PUBLIC,
+
+    @Column(name = "like_count", nullable = false, updatable = false)
+    var likeCount: Long = 0,
+
+    @Column(name = "dislike_count", nullable = false, updatable = false)
+    var dislikeCount: Long = 0,
+
+    @Column(name = "favorite_count", nullable = false, updatable = false)
+    var favoriteCount: Long = 0
 ) : DataEntity<Long>, ContentTrait {
     override fun getEntityId(): Long = id!!
 
@@ -98,7 +106,8 @@ class ContentMetadataEntity(
     }
 
     fun lock(): ContentMetadata = ContentMetadata(
-        id, userId, contentId, contentType, contentStatus, contentAccessAuthType
+        id, userId, contentId, contentType, contentStatus, contentAccessAuthType,
+        likeCount, dislikeCount, favoriteCount
     )
 
     fun toBuilder(): Builder {
@@ -117,7 +126,10 @@ class ContentMetadataEntity(
                 contentId = contentId,
                 contentType = contentType,
                 contentStatus = contentStatus,
-                contentAccessAuthType = contentAccessAuthType
+                contentAccessAuthType = contentAccessAuthType,
+                likeCount = likeCount,
+                dislikeCount = dislikeCount,
+                favoriteCount = favoriteCount
             )
     }
 
@@ -128,6 +140,9 @@ class ContentMetadataEntity(
         private var contentType: ContentType? = null
         private var contentStatus: ContentStatus? = null
         private var contentAccessAuthType: ContentAccessAuthType? = null
+        private var likeCount: Long = 0
+        private var dislikeCount: Long = 0
+        private var favoriteCount: Long = 0
 
         constructor()
 
@@ -138,6 +153,9 @@ class ContentMetadataEntity(
             this.contentType = other.contentType
             this.contentStatus = other.contentStatus
             this.contentAccessAuthType = other.contentAccessAuthType
+            this.likeCount = other.likeCount
+            this.dislikeCount = other.dislikeCount
+            this.favoriteCount = other.favoriteCount
         }
 
         fun setId(id: Long?) = apply {
@@ -164,6 +182,18 @@ class ContentMetadataEntity(
             this.contentAccessAuthType = contentAccessAuthType
         }
 
+        fun setLikeCount(likeCount: Long) = apply {
+            this.likeCount = likeCount
+        }
+
+        fun setDislikeCount(dislikeCount: Long) = apply {
+            this.dislikeCount = dislikeCount
+        }
+
+        fun setFavoriteCount(favoriteCount: Long) = apply {
+            this.favoriteCount = favoriteCount
+        }
+
         fun build(): ContentMetadataEntity {
             return ContentMetadataEntity(
                 id = id,
@@ -171,7 +201,10 @@ class ContentMetadataEntity(
                 contentId = contentId,
                 contentType = contentType!!,
                 contentStatus = contentStatus!!,
-                contentAccessAuthType = contentAccessAuthType!!
+                contentAccessAuthType = contentAccessAuthType!!,
+                likeCount = likeCount,
+                dislikeCount = dislikeCount,
+                favoriteCount = favoriteCount
             )
         }
     }
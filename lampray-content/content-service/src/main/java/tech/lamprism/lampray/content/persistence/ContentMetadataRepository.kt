@@ -16,9 +16,15 @@
 
 package tech.lamprism.lampray.content.persistence
 
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import org.springframework.data.domain.Sort
+import org.springframework.data.jpa.domain.Specification
 import org.springframework.stereotype.Repository
 import tech.lamprism.lampray.common.data.CommonRepository
+import tech.lamprism.lampray.content.ContentStatus
 import tech.lamprism.lampray.content.ContentTrait
+import tech.lamprism.lampray.content.ContentType
 import java.util.Optional
 
 /**
@@ -26,7 +32,8 @@ import java.util.Optional
  */
 @Repository
 class ContentMetadataRepository(
-    contentMetadataDao: ContentMetadataDao
+    contentMetadataDao: ContentMetadataDao,
+    private val entityManager: EntityManager
 ) : CommonRepository<ContentMetadataEntity, Long>(contentMetadataDao) {
 
     fun findByContent(content: ContentTrait): Optional<ContentMetadataEntity> {
@@ -52,4 +59,79 @@ class ContentMetadataRepository(
             builder.or(*predicates.toTypedArray())
         }
     }
+
+    fun findPage(contentType: ContentType, afterId: Long?, limit: Int): List<ContentMetadataEntity> {
+        val spec = Specification<ContentMetadataEntity> { root, _, criteriaBuilder ->
+            val predicates = listOfNotNull(
+                criteriaBuilder.equal(root.get(ContentMetadataEntity_.contentType), contentType),
+                afterId?.let { criteriaBuilder.greaterThan(root.get(ContentMetadataEntity_.id), it) }
+            )
+            criteriaBuilder.and(*predicates.toTypedArray())
+        }
+        return findBy(spec) {
+            it.sortBy(ID_ORDER).limit(limit).all()
+        }
+    }
+
+    /**
+     * Sets the status of all the metadata in a single update statement.
+     *
+     * @return the count of updated rows
+     */
+    @Transactional
+    fun updateStatus(ids: Collection<Long>, status: ContentStatus): Int {
+        if (ids.isEmpty()) {
+            return 0
+        }
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val update = criteriaBuilder.createCriteriaUpdate(ContentMetadataEntity::class.java)
+        val root = update.from(ContentMetadataEntity::class.java)
+        update.set(root.get(ContentMetadataEntity_.contentStatus), status)
+        update.where(root.get(ContentMetadataEntity_.id).`in`(ids))
+        return entityManager.createQuery(update).executeUpdate()
+    }
+
+    /**
+     * Adds the deltas to the counters of all the contents in a single
+     * update statement, as `like_count = like_count + ?`. Counters
+     * with a zero delta are left untouched.
+     *
+     * @return the count of updated rows
+     */
+    @Transactional
+    fun addCounts(
+        contentType: ContentType,
+        contentIds: Collection<String>,
+        likeDelta: Long,
+        dislikeDelta: Long,
+        favoriteDelta: Long
+    ): Int {
+        if (contentIds.isEmpty() || (likeDelta == 0L && dislikeDelta == 0L && favoriteDelta == 0L)) {
+            return 0
+        }
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val update = criteriaBuilder.createCriteriaUpdate(ContentMetadataEntity::class.java)
+        val root = update.from(ContentMetadataEntity::class.java)
+        if (likeDelta != 0L) {
+            val likeCount = root.get(ContentMetadataEntity_.likeCount)
+            update.set(likeCount, criteriaBuilder.sum(likeCount, likeDelta))
+        }
+        if (dislikeDelta != 0L) {
+            val dislikeCount = root.get(ContentMetadataEntity_.dislikeCount)
+            update.set(dislikeCount, criteriaBuilder.sum(dislikeCount, dislikeDelta))
+        }
+        if (favoriteDelta != 0L) {
+            val favoriteCount = root.get(ContentMetadataEntity_.favoriteCount)
+            update.set(favoriteCount, criteriaBuilder.sum(favoriteCount, favoriteDelta))
+        }
+        update.where(
+            criteriaBuilder.equal(root.get(ContentMetadataEntity_.contentType), contentType),
+            root.get(ContentMetadataEntity_.contentId).`in`(contentIds)
+        )
+        return entityManager.createQuery(update).executeUpdate()
+    }
+
+    companion object {
+        private val ID_ORDER = Sort.by(Sort.Order.asc(ContentMetadataEntity_.ID))
+    }
 }
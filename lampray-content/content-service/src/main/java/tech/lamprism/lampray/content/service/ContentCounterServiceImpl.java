@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.content.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import tech.lamprism.lampray.concurrent.CoalescingQueue;
+import tech.lamprism.lampray.content.ContentIdentity;
+import tech.lamprism.lampray.content.ContentTrait;
+import tech.lamprism.lampray.content.ContentType;
+import tech.lamprism.lampray.content.counter.ContentCountSource;
+import tech.lamprism.lampray.content.counter.ContentCountType;
+import tech.lamprism.lampray.content.counter.ContentCounterService;
+import tech.lamprism.lampray.content.persistence.ContentMetadataEntity;
+import tech.lamprism.lampray.content.persistence.ContentMetadataRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Keeps the like, dislike and favorite counters in the content metadata,
+ * so that contents can be listed with their counts without counting the
+ * rows behind them.
+ * <p>
+ * Increments are summed up in memory by content and flushed periodically
+ * on the shared scheduler, one flush at a time. Contents of a batch sharing the same deltas are
+ * updated together with one {@code count = count + ?} statement, so a
+ * burst of likes on many contents costs a handful of writes.
+ * <p>
+ * Since buffered increments are lost on a crash, and a counter may drift
+ * from its rows in other ways, counters are reconciled against the
+ * {@link ContentCountSource}s on a longer schedule. Counters without a
+ * source are left as they are.
+ *
+ * @author RollW
+ */
+@Service
+public class ContentCounterServiceImpl implements ContentCounterService, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ContentCounterServiceImpl.class);
+
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration RECONCILE_DELAY = Duration.ofMinutes(5);
+    private static final Duration RECONCILE_INTERVAL = Duration.ofHours(1);
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ContentMetadataRepository contentMetadataRepository;
+    private final List<ContentCountSource> countSources;
+
+    private final CoalescingQueue<ContentIdentity, PendingCounts> pending =
+            new CoalescingQueue<>(MAX_BATCH_SIZE, MAX_ATTEMPTS, PendingCounts::plus);
+    private final Object flushLock = new Object();
+    private final ScheduledFuture<?> flushTask;
+    private final ScheduledFuture<?> reconcileTask;
+    private volatile boolean stopped = false;
+
+    // Sources are resolved lazily, as they may increment counters themselves
+    public ContentCounterServiceImpl(ContentMetadataRepository contentMetadataRepository,
+                                     @Lazy List<ContentCountSource> countSources,
+                                     @Qualifier("mainTaskScheduler") TaskScheduler taskScheduler) {
+        this.contentMetadataRepository = contentMetadataRepository;
+        this.countSources = countSources;
+        this.flushTask = taskScheduler.scheduleWithFixedDelay(this::flushSafely,
+                Instant.now().plus(FLUSH_INTERVAL), FLUSH_INTERVAL);
+        this.reconcileTask = taskScheduler.scheduleWithFixedDelay(this::reconcileSafely,
+                Instant.now().plus(RECONCILE_DELAY), RECONCILE_INTERVAL);
+    }
+
+    @Override
+    public void increment(ContentTrait content, ContentCountType countType, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        ContentIdentity key = ContentIdentity.of(content.getContentId(), content.getContentType());
+        pending.offer(key, PendingCounts.of(countType, delta));
+    }
+
+    private void flushSafely() {
+        try {
+            while (flush()) {
+                // Keep flushing while the queue is backed up
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush content counters.", e);
+        }
+    }
+
+    /**
+     * Flushes one batch of buffered increments.
+     *
+     * @return true if the batch was full and more may be buffered
+     */
+    boolean flush() {
+        synchronized (flushLock) {
+            return flushBatch();
+        }
+    }
+
+    private boolean flushBatch() {
+        CoalescingQueue.Batch<ContentIdentity, PendingCounts> queued = pending.drain();
+        if (queued.isEmpty()) {
+            return false;
+        }
+        Map<ContentIdentity, PendingCounts> batch = queued.values();
+        int size = batch.size();
+        // Increments cancelled out by decrements
+        batch.values().removeIf(PendingCounts::isZero);
+        Map<CountGroup, List<String>> groups = new HashMap<>();
+        batch.forEach((content, counts) ->
+                groups.computeIfAbsent(CountGroup.of(content.getContentType(), counts),
+                        group -> new ArrayList<>()).add(content.getContentId()));
+        Iterator<Map.Entry<CountGroup, List<String>>> iterator = groups.entrySet().iterator();
+        try {
+            while (iterator.hasNext()) {
+                Map.Entry<CountGroup, List<String>> entry = iterator.next();
+                CountGroup group = entry.getKey();
+                contentMetadataRepository.addCounts(group.contentType(), entry.getValue(),
+                        group.likeDelta(), group.dislikeDelta(), group.favoriteDelta());
+                entry.getValue().forEach(contentId ->
+                        batch.remove(ContentIdentity.of(contentId, group.contentType())));
+            }
+        } catch (RuntimeException e) {
+            // Only the groups not yet applied are left in the batch
+            pending.requeue(queued, (content, counts) ->
+                    logger.warn("Dropped counter increments of content {} after {} attempts, " +
+                            "left to reconciliation.", content, MAX_ATTEMPTS));
+            throw e;
+        }
+        logger.debug("Flushed counters of {} contents in {} statements.",
+                size, groups.size());
+        return queued.isFull();
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            logger.error("Failed to reconcile content counters.", e);
+        }
+    }
+
+    /**
+     * Recounts the counters of all contents from their sources, and
+     * corrects the counters that differ by adding the difference.
+     */
+    void reconcile() {
+        Map<ContentCountType, ContentCountSource> sources = new EnumMap<>(ContentCountType.class);
+        for (ContentCountType countType : ContentCountType.values()) {
+            countSources.stream()
+                    .filter(source -> source.supports(countType))
+                    .findFirst()
+                    .ifPresent(source -> sources.put(countType, source));
+        }
+        if (sources.isEmpty()) {
+            return;
+        }
+        int corrected = 0;
+        for (ContentType contentType : ContentType.values()) {
+            Long afterId = null;
+            List<ContentMetadataEntity> metadata;
+            do {
+                if (stopped) {
+                    return;
+                }
+                flushSafely();
+                // Holds off flushes, so that increments buffered after
+                // the read are still pending when the page is compared
+                synchronized (flushLock) {
+                    metadata = contentMetadataRepository.findPage(contentType, afterId, MAX_BATCH_SIZE);
+                    if (metadata.isEmpty()) {
+                        break;
+                    }
+                    afterId = metadata.get(metadata.size() - 1).getId();
+                    corrected += reconcile(contentType, metadata, sources);
+                }
+            } while (metadata.size() == MAX_BATCH_SIZE);
+        }
+        logger.info("Reconciled content counters, {} corrected.", corrected);
+    }
+
+    private int reconcile(ContentType contentType,
+                          List<ContentMetadataEntity> metadata,
+                          Map<ContentCountType, ContentCountSource> sources) {
+        List<String> contentIds = metadata.stream()
+                .map(ContentMetadataEntity::getContentId)
+                .toList();
+        Map<ContentCountType, Map<String, Long>> counts = new EnumMap<>(ContentCountType.class);
+        sources.forEach((countType, source) ->
+                counts.put(countType, source.count(countType, contentType, contentIds)));
+
+        int corrected = 0;
+        for (ContentMetadataEntity current : metadata) {
+            String contentId = current.getContentId();
+            if (pending.contains(ContentIdentity.of(contentId, contentType))) {
+                // Increments since the read would be counted twice
+                continue;
+            }
+            long likeCount = count(counts, ContentCountType.LIKE, contentId, current.getLikeCount());
+            long dislikeCount = count(counts, ContentCountType.DISLIKE, contentId, current.getDislikeCount());
+            long favoriteCount = count(counts, ContentCountType.FAVORITE, contentId, current.getFavoriteCount());
+            if (likeCount == current.getLikeCount() &&
+                    dislikeCount == current.getDislikeCount() &&
+                    favoriteCount == current.getFavoriteCount()) {
+                continue;
+            }
+            // Corrected by the difference, so increments other nodes flush
+            // meanwhile are kept
+            contentMetadataRepository.addCounts(contentType, List.of(contentId),
+                    likeCount - current.getLikeCount(),
+                    dislikeCount - current.getDislikeCount(),
+                    favoriteCount - current.getFavoriteCount());
+            corrected++;
+        }
+        return corrected;
+    }
+
+    private static long count(Map<ContentCountType, Map<String, Long>> counts,
+                              ContentCountType countType,
+                              String contentId,
+                              long current) {
+        Map<String, Long> sourceCounts = counts.get(countType);
+        if (sourceCounts == null) {
+            return current;
+        }
+        return sourceCounts.getOrDefault(contentId, 0L);
+    }
+
+    @Override
+    public void destroy() {
+        stopped = true;
+        flushTask.cancel(false);
+        reconcileTask.cancel(false);
+        // Waits for a running flush, then flushes what is left
+        flushSafely();
+    }
+
+    private record PendingCounts(long likeDelta, long dislikeDelta, long favoriteDelta) {
+        static PendingCounts of(ContentCountType countType, long delta) {
+            return switch (countType) {
+                case LIKE -> new PendingCounts(delta, 0, 0);
+                case DISLIKE -> new PendingCounts(0, delta, 0);
+                case FAVORITE -> new PendingCounts(0, 0, delta);
+            };
+        }
+
+        PendingCounts plus(PendingCounts other) {
+            return new PendingCounts(likeDelta + other.likeDelta,
+                    dislikeDelta + other.dislikeDelta,
+                    favoriteDelta + other.favoriteDelta);
+        }
+
+        boolean isZero() {
+            return likeDelta == 0 && dislikeDelta == 0 && favoriteDelta == 0;
+        }
+    }
+
+    private record CountGroup(ContentType contentType, long likeDelta,
+                              long dislikeDelta, long favoriteDelta) {
+        static CountGroup of(ContentType contentType, PendingCounts counts) {
+            return new CountGroup(contentType, counts.likeDelta(),
+                    counts.dislikeDelta(), counts.favoriteDelta());
+        }
+    }
+}
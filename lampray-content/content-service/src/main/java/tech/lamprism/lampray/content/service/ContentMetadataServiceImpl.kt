@@ -19,6 +19,7 @@ package tech.lamprism.lampray.content.service
 import org.springframework.stereotype.Service
 import tech.lamprism.lampray.content.ContentMetadata
 import tech.lamprism.lampray.content.ContentTrait
+import tech.lamprism.lampray.content.ContentType
 import tech.lamprism.lampray.content.common.ContentErrorCode
 import tech.lamprism.lampray.content.common.ContentException
 import tech.lamprism.lampray.content.persistence.ContentMetadataEntity.Companion.toEntity
@@ -43,6 +44,14 @@ class ContentMetadataServiceImpl(
         }.lock()
     }
 
+    override fun getMetadata(contents: List<ContentTrait>): List<ContentMetadata> {
+        return contentMetadataRepository.findByContents(contents).map { it.lock() }
+    }
+
+    override fun getMetadata(contentType: ContentType, afterId: Long?, limit: Int): List<ContentMetadata> {
+        return contentMetadataRepository.findPage(contentType, afterId, limit).map { it.lock() }
+    }
+
     fun createMetadata(metadata: ContentMetadata) {
         contentMetadataRepository.save(metadata.toEntity())
     }
@@ -51,6 +60,13 @@ class ContentMetadataServiceImpl(
         contentMetadataRepository.save(metadata.toEntity())
     }
 
+    override fun updateStatuses(metadata: List<ContentMetadata>) {
+        metadata.groupBy({ it.contentStatus }, { it.id!! })
+            .forEach { (status, ids) ->
+                contentMetadataRepository.updateStatus(ids, status)
+            }
+    }
+
     fun deleteMetadata(contentTrait: ContentTrait) {
     }
 }
@@ -19,6 +19,7 @@ package tech.lamprism.lampray.content.service;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import tech.lamprism.lampray.content.Content;
 import tech.lamprism.lampray.content.ContentAccessAuthType;
@@ -33,6 +34,7 @@ import tech.lamprism.lampray.content.ContentPublishProvider;
 import tech.lamprism.lampray.content.ContentPublisher;
 import tech.lamprism.lampray.content.ContentStatus;
 import tech.lamprism.lampray.content.ContentSupportableUtils;
+import tech.lamprism.lampray.content.ContentType;
 import tech.lamprism.lampray.content.ContentTrait;
 import tech.lamprism.lampray.content.UncreatedContent;
 import tech.lamprism.lampray.content.UncreatedContentPreChecker;
@@ -42,6 +44,7 @@ import tech.lamprism.lampray.content.collection.ContentCollectionProviderFactory
 import tech.lamprism.lampray.content.collection.ContentCollectionType;
 import tech.lamprism.lampray.content.common.ContentErrorCode;
 import tech.lamprism.lampray.content.common.ContentException;
+import tech.lamprism.lampray.content.event.ContentStatusEvent;
 import tech.lamprism.lampray.content.permit.ContentPermitChecker;
 import tech.lamprism.lampray.content.permit.ContentPermitResult;
 import tech.lamprism.lampray.content.persistence.ContentMetadataEntity;
@@ -53,8 +56,11 @@ import tech.rollw.common.web.ErrorCode;
 import tech.rollw.common.web.system.UnsupportedKindException;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -72,6 +78,7 @@ public class ContentService implements ContentAccessService,
     private final ContentProviderFactory contentProviderFactory;
     private final ContentPermitChecker contentPermitChecker;
     private final ContentMetadataRepository contentMetadataRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ContentService(List<ContentPublisher> contentPublishers,
                           List<UncreatedContentPreChecker> uncreatedContentPreCheckers,
@@ -79,7 +86,8 @@ public class ContentService implements ContentAccessService,
                           List<ContentPublishListener> contentPublishListeners,
                           ContentProviderFactory contentProviderFactory,
                           ContentPermitChecker contentPermitChecker,
-                          ContentMetadataRepository contentMetadataRepository) {
+                          ContentMetadataRepository contentMetadataRepository,
+                          ApplicationEventPublisher eventPublisher) {
         this.contentPublishers = contentPublishers;
         this.uncreatedContentPreCheckers = uncreatedContentPreCheckers;
         this.contentCollectionProviders = contentCollectionProviders;
@@ -87,6 +95,7 @@ public class ContentService implements ContentAccessService,
         this.contentProviderFactory = contentProviderFactory;
         this.contentPermitChecker = contentPermitChecker;
         this.contentMetadataRepository = contentMetadataRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -175,11 +184,7 @@ public class ContentService implements ContentAccessService,
     @Transactional(dontRollbackOn = CommonRuntimeException.class)
     public ContentDetails publishContent(UncreatedContent uncreatedContent) throws ContentException {
         OffsetDateTime timestamp = OffsetDateTime.now();
-        ContentSupportableUtils.findAllSupportable(uncreatedContentPreCheckers,
-                        uncreatedContent.getContentType())
-                .forEach(checker ->
-                        checker.checkUncreatedContent(uncreatedContent)
-                );
+        checkUncreatedContent(uncreatedContent);
         ContentPublisher contentPublisher = ContentSupportableUtils.findSupportableNonNull(
                 contentPublishers,
                 uncreatedContent.getContentType());
@@ -187,6 +192,68 @@ public class ContentService implements ContentAccessService,
                 uncreatedContent,
                 timestamp
         );
+        ContentMetadataEntity metadata = contentMetadataRepository.save(
+                createMetadata(contentDetails));
+        publishCreatedEvent(contentDetails, metadata, timestamp);
+        return contentDetails;
+    }
+
+    @Override
+    @Transactional
+    public List<ContentDetails> publishContents(List<? extends UncreatedContent> uncreatedContents)
+            throws ContentException {
+        OffsetDateTime timestamp = OffsetDateTime.now();
+        uncreatedContents.forEach(this::checkUncreatedContent);
+
+        // Each publisher gets all of its contents at once, results are
+        // put back in the order given
+        Map<ContentType, List<Integer>> indexesByType = new LinkedHashMap<>();
+        for (int i = 0; i < uncreatedContents.size(); i++) {
+            indexesByType.computeIfAbsent(uncreatedContents.get(i).getContentType(),
+                    type -> new ArrayList<>()).add(i);
+        }
+        ContentDetails[] published = new ContentDetails[uncreatedContents.size()];
+        for (Map.Entry<ContentType, List<Integer>> entry : indexesByType.entrySet()) {
+            ContentPublisher contentPublisher = ContentSupportableUtils.findSupportableNonNull(
+                    contentPublishers, entry.getKey());
+            List<Integer> indexes = entry.getValue();
+            List<ContentDetails> details = contentPublisher.publishAll(
+                    indexes.stream().map(uncreatedContents::get).toList(),
+                    timestamp
+            );
+            for (int i = 0; i < indexes.size(); i++) {
+                published[indexes.get(i)] = details.get(i);
+            }
+        }
+        List<ContentMetadataEntity> metadata = new ArrayList<>(published.length);
+        for (ContentDetails contentDetails : published) {
+            metadata.add(createMetadata(contentDetails));
+        }
+        contentMetadataRepository.saveAll(metadata);
+        for (int i = 0; i < published.length; i++) {
+            publishCreatedEvent(published[i], metadata.get(i), timestamp);
+        }
+        return List.of(published);
+    }
+
+    private void publishCreatedEvent(ContentDetails contentDetails,
+                                     ContentMetadataEntity metadata,
+                                     OffsetDateTime timestamp) {
+        eventPublisher.publishEvent(new ContentStatusEvent<>(
+                contentDetails, timestamp,
+                null, metadata.getContentStatus()
+        ));
+    }
+
+    private void checkUncreatedContent(UncreatedContent uncreatedContent) {
+        ContentSupportableUtils.findAllSupportable(uncreatedContentPreCheckers,
+                        uncreatedContent.getContentType())
+                .forEach(checker ->
+                        checker.checkUncreatedContent(uncreatedContent)
+                );
+    }
+
+    private ContentMetadataEntity createMetadata(ContentDetails contentDetails) {
         ContentMetadataEntity.Builder contentMetadataBuilder = ContentMetadataEntity
                 .builder()
                 .setContentId(contentDetails.getContentId())
@@ -201,8 +268,7 @@ public class ContentService implements ContentAccessService,
             );
         }
         contentMetadataBuilder.setContentStatus(contentStatus);
-        contentMetadataRepository.save(contentMetadataBuilder.build());
-        return contentDetails;
+        return contentMetadataBuilder.build();
     }
 
     private List<ContentMetadataDetails<? extends ContentDetails>> pairWith(
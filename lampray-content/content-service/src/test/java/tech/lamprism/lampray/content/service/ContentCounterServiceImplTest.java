@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.content.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+import tech.lamprism.lampray.content.ContentAccessAuthType;
+import tech.lamprism.lampray.content.ContentIdentity;
+import tech.lamprism.lampray.content.ContentStatus;
+import tech.lamprism.lampray.content.ContentType;
+import tech.lamprism.lampray.content.counter.ContentCountSource;
+import tech.lamprism.lampray.content.counter.ContentCountType;
+import tech.lamprism.lampray.content.persistence.ContentMetadataEntity;
+import tech.lamprism.lampray.content.persistence.ContentMetadataRepository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class ContentCounterServiceImplTest {
+    private static final int CONTENTS = 10;
+
+    private final ContentMetadataRepository contentMetadataRepository = mock(ContentMetadataRepository.class);
+    private final ContentCountSource likeSource = mock(ContentCountSource.class);
+    private final ContentCounterServiceImpl counterService = new ContentCounterServiceImpl(
+            contentMetadataRepository, List.of(likeSource), mock(TaskScheduler.class));
+
+    @Test
+    void burstOfIncrementsIsWrittenInOneStatement() {
+        for (int i = 0; i < 1000; i++) {
+            counterService.increment(content(i % CONTENTS), ContentCountType.LIKE, 1);
+        }
+
+        assertFalse(counterService.flush());
+
+        ArgumentCaptor<Collection<String>> contentIds = contentIdsCaptor();
+        verify(contentMetadataRepository, times(1)).addCounts(eq(ContentType.ARTICLE),
+                contentIds.capture(), eq(100L), eq(0L), eq(0L));
+        assertEquals(CONTENTS, new HashSet<>(contentIds.getValue()).size());
+        assertFalse(counterService.flush());
+        verify(contentMetadataRepository, times(1)).addCounts(any(), anyCollection(),
+                anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void contentsAreGroupedByTheirDeltas() {
+        counterService.increment(content(1), ContentCountType.LIKE, 1);
+        counterService.increment(content(2), ContentCountType.LIKE, 1);
+        counterService.increment(content(3), ContentCountType.LIKE, 1);
+        counterService.increment(content(3), ContentCountType.DISLIKE, -1);
+        // Cancelled out, never written
+        counterService.increment(content(4), ContentCountType.FAVORITE, 1);
+        counterService.increment(content(4), ContentCountType.FAVORITE, -1);
+
+        counterService.flush();
+
+        ArgumentCaptor<Collection<String>> contentIds = contentIdsCaptor();
+        verify(contentMetadataRepository).addCounts(eq(ContentType.ARTICLE),
+                contentIds.capture(), eq(1L), eq(0L), eq(0L));
+        assertEquals(Set.of("1", "2"), new HashSet<>(contentIds.getValue()));
+        verify(contentMetadataRepository).addCounts(ContentType.ARTICLE, List.of("3"), 1L, -1L, 0L);
+        verify(contentMetadataRepository, times(2)).addCounts(any(), anyCollection(),
+                anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        when(contentMetadataRepository.addCounts(any(), anyCollection(), anyLong(), anyLong(), anyLong()))
+                .thenThrow(new IllegalStateException("Database down"))
+                .thenReturn(1);
+        counterService.increment(content(1), ContentCountType.LIKE, 1);
+
+        assertThrows(IllegalStateException.class, counterService::flush);
+        counterService.increment(content(1), ContentCountType.LIKE, 1);
+        counterService.flush();
+
+        // The failed increment is merged into the next batch
+        verify(contentMetadataRepository).addCounts(ContentType.ARTICLE, List.of("1"), 1L, 0L, 0L);
+        verify(contentMetadataRepository).addCounts(ContentType.ARTICLE, List.of("1"), 2L, 0L, 0L);
+    }
+
+    @Test
+    void reconciliationAddsTheDifference() {
+        when(likeSource.supports(ContentCountType.LIKE)).thenReturn(true);
+        when(likeSource.count(eq(ContentCountType.LIKE), eq(ContentType.ARTICLE), anyCollection()))
+                .thenReturn(Map.of("1", 3L, "2", 7L));
+        when(contentMetadataRepository.findPage(ContentType.ARTICLE, null, 500)).thenReturn(List.of(
+                metadata(1, "1", 5, 2),
+                metadata(2, "2", 7, 4)
+        ));
+
+        counterService.reconcile();
+
+        verify(contentMetadataRepository).addCounts(ContentType.ARTICLE, List.of("1"), -2L, 0L, 0L);
+        verify(contentMetadataRepository, never()).addCounts(eq(ContentType.ARTICLE), eq(List.of("2")),
+                anyLong(), anyLong(), anyLong());
+    }
+
+    private static ContentIdentity content(int id) {
+        return ContentIdentity.of(Integer.toString(id), ContentType.ARTICLE);
+    }
+
+    private static ContentMetadataEntity metadata(long id, String contentId,
+                                                  long likeCount, long dislikeCount) {
+        return ContentMetadataEntity.builder()
+                .setId(id)
+                .setContentId(contentId)
+                .setContentType(ContentType.ARTICLE)
+                .setContentStatus(ContentStatus.PUBLISHED)
+                .setContentAccessAuthType(ContentAccessAuthType.PUBLIC)
+                .setLikeCount(likeCount)
+                .setDislikeCount(dislikeCount)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<String>> contentIdsCaptor() {
+        return ArgumentCaptor.forClass(Collection.class);
+    }
+}
@@ -36,4 +36,23 @@ interface ReviewJobProvider {
     fun getReviewJobs(contentTrait: ContentTrait): List<ReviewJobSummary>
 
     fun getReviewJobs(reviewStatues: List<ReviewStatus>): List<ReviewJobSummary>
+
+    /**
+     * Gets a page of review jobs, newest first, filtered by the database.
+     *
+     * @param reviewerId only jobs assigned to the reviewer, or null for all
+     * @param cursor the id of the last job of the previous page, or null
+     * for the first page
+     */
+    fun getReviewJobs(
+        reviewerId: Long?,
+        reviewStatuses: List<ReviewStatus>,
+        cursor: String?,
+        limit: Int
+    ): List<ReviewJobSummary>
+
+    /**
+     * Checks whether the reviewer is assigned any task of the job.
+     */
+    fun isAssigned(reviewJobId: String, reviewerId: Long): Boolean
 }
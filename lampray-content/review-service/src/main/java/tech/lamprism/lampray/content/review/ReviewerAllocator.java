@@ -30,12 +30,23 @@ public interface ReviewerAllocator {
     long AUTO_REVIEWER = -1;
 
     /**
-     * Allocate a reviewer for the content with the given content.
+     * Allocate a reviewer for the content with the given content. The
+     * weight of the content is added to the workload of the reviewer
+     * until released.
      *
      * @param allowAutoReviewer whether to allow auto-reviewer
      */
     long allocateReviewer(ContentIdentity contentIdentity, boolean allowAutoReviewer);
 
+    /**
+     * Callback when the reviewer is assigned to the content without
+     * being allocated, e.g. by claiming or reassigning a task.
+     *
+     * @param reviewerId      the reviewer id
+     * @param contentIdentity the content identity
+     */
+    void acquireReviewer(long reviewerId, ContentIdentity contentIdentity);
+
     /**
      * Callback when the reviewer is released.
      *
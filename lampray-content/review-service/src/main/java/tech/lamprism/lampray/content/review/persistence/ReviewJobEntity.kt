@@ -79,7 +79,33 @@ class ReviewJobEntity(
     @Column(name = "review_mark", nullable = false, length = 40)
     @Enumerated(EnumType.STRING)
     @JdbcTypeCode(SqlTypes.VARCHAR)
-    override var reviewMark: ReviewMark = ReviewMark.NORMAL
+    override var reviewMark: ReviewMark = ReviewMark.NORMAL,
+
+    /**
+     * Task counters and [version] are only changed by the statements of
+     * [ReviewJobRepository], never by saving the entity.
+     */
+    @Column(name = "pending_tasks", nullable = false, updatable = false)
+    var pendingTasks: Int = 0,
+
+    @Column(name = "approved_tasks", nullable = false, updatable = false)
+    var approvedTasks: Int = 0,
+
+    @Column(name = "rejected_tasks", nullable = false, updatable = false)
+    var rejectedTasks: Int = 0,
+
+    @Column(name = "returned_tasks", nullable = false, updatable = false)
+    var returnedTasks: Int = 0,
+
+    @Column(name = "canceled_tasks", nullable = false, updatable = false)
+    var canceledTasks: Int = 0,
+
+    /**
+     * Bumped with every change of the counters or the status, and
+     * compared by [ReviewJobRepository.compareAndSetStatus].
+     */
+    @Column(name = "version", nullable = false, updatable = false)
+    var version: Long = 0
 ) : DataEntity<String>, ContentAssociated, ReviewJobSummary {
     override fun getSystemResourceKind(): SystemResourceKind =
         ReviewJobResourceKind
@@ -129,6 +155,12 @@ class ReviewJobEntity(
         private var createTime: OffsetDateTime = OffsetDateTime.now()
         private var updateTime: OffsetDateTime = OffsetDateTime.now()
         private var reviewMark: ReviewMark = ReviewMark.NORMAL
+        private var pendingTasks: Int = 0
+        private var approvedTasks: Int = 0
+        private var rejectedTasks: Int = 0
+        private var returnedTasks: Int = 0
+        private var canceledTasks: Int = 0
+        private var version: Long = 0
 
         constructor()
 
@@ -141,6 +173,12 @@ class ReviewJobEntity(
             this.createTime = other.createTime
             this.updateTime = other.updateTime
             this.reviewMark = other.reviewMark
+            this.pendingTasks = other.pendingTasks
+            this.approvedTasks = other.approvedTasks
+            this.rejectedTasks = other.rejectedTasks
+            this.returnedTasks = other.returnedTasks
+            this.canceledTasks = other.canceledTasks
+            this.version = other.version
         }
 
         fun setId(id: Long?) = apply {
@@ -184,7 +222,13 @@ class ReviewJobEntity(
                 status = status,
                 createTime = createTime,
                 updateTime = updateTime,
-                reviewMark = reviewMark
+                reviewMark = reviewMark,
+                pendingTasks = pendingTasks,
+                approvedTasks = approvedTasks,
+                rejectedTasks = rejectedTasks,
+                returnedTasks = returnedTasks,
+                canceledTasks = canceledTasks,
+                version = version
             )
         }
     }
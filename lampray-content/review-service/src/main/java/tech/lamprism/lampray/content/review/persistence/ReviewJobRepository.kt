@@ -16,17 +16,29 @@
 
 package tech.lamprism.lampray.content.review.persistence
 
+import jakarta.persistence.EntityManager
+import jakarta.persistence.criteria.CriteriaBuilder
+import jakarta.persistence.criteria.CriteriaQuery
+import jakarta.persistence.criteria.Predicate
+import jakarta.persistence.criteria.Root
+import jakarta.persistence.metamodel.SingularAttribute
+import jakarta.transaction.Transactional
+import org.springframework.data.domain.Sort
+import org.springframework.data.jpa.domain.Specification
 import org.springframework.stereotype.Repository
 import tech.lamprism.lampray.common.data.CommonRepository
 import tech.lamprism.lampray.content.ContentType
 import tech.lamprism.lampray.content.review.ReviewStatus
+import tech.lamprism.lampray.content.review.ReviewTaskStatus
+import java.time.OffsetDateTime
 
 /**
  * @author RollW
  */
 @Repository
 class ReviewJobRepository(
-    reviewJobDao: ReviewJobDao
+    reviewJobDao: ReviewJobDao,
+    private val entityManager: EntityManager
 ) : CommonRepository<ReviewJobEntity, String>(reviewJobDao) {
     override fun <S : ReviewJobEntity> save(entity: S): S {
         return saveAndFlush(entity)
@@ -65,50 +77,155 @@ class ReviewJobRepository(
 
     fun findByStatuses(reviewStatuses: List<ReviewStatus>): List<ReviewJobEntity> =
         findAll { root, _, criteriaBuilder ->
-            if (reviewStatuses.isEmpty() || reviewStatuses.containsAll(ReviewStatus.entries)) {
-                // If no statuses are provided or all statuses are included,
-                // return the reviewer specification without filtering by status.
-                return@findAll null
-            }
-            if (reviewStatuses.size == 1) {
-                // More efficient way than using `in` for a single value.
-                return@findAll criteriaBuilder.and(
-                    criteriaBuilder.equal(root.get(ReviewJobEntity_.status), reviewStatuses[0])
-                )
-            }
-            criteriaBuilder.and(
-                root.get(ReviewJobEntity_.status).`in`(reviewStatuses)
-            )
+            statusPredicate(root, criteriaBuilder, reviewStatuses)
         }
 
     fun findByReviewer(reviewerId: Long, statuses: List<ReviewStatus>): List<ReviewJobEntity> =
         findAll { root, query, criteriaBuilder ->
-            // Build subquery: select 1 from review_job_task t where t.review_job_id = review_job.resource_id and t.reviewer_id = :reviewerId
-            val subquery = query?.subquery(String::class.java) ?: return@findAll null
-            val taskRoot = subquery.from(ReviewTaskEntity::class.java)
-            subquery.select(taskRoot.get(ReviewTaskEntity_.reviewJobId))
-            val predicates = mutableListOf(
-                criteriaBuilder.equal(
-                    taskRoot.get(ReviewTaskEntity_.reviewJobId),
-                    root.get(ReviewJobEntity_.resourceId)
-                ),
-                criteriaBuilder.equal(taskRoot.get(ReviewTaskEntity_.reviewerId), reviewerId)
+            val reviewerPredicate = reviewerPredicate(
+                root, query ?: return@findAll null, criteriaBuilder, reviewerId
             )
-            subquery.where(*predicates.toTypedArray())
+            val statusPredicate = statusPredicate(root, criteriaBuilder, statuses)
+                ?: return@findAll reviewerPredicate
+            criteriaBuilder.and(reviewerPredicate, statusPredicate)
+        }
 
-            // If statuses provided, combine with job status predicate
-            val jobPredicate = when {
-                statuses.isEmpty() || statuses.containsAll(ReviewStatus.entries) -> null
-                statuses.size == 1 -> criteriaBuilder.equal(root.get(ReviewJobEntity_.status), statuses[0])
-                else -> root.get(ReviewJobEntity_.status).`in`(statuses)
-            }
+    /**
+     * Finds jobs newest first, a page at a time. Job ids grow with
+     * time, so the id of the last job of a page is the keyset for the
+     * next page.
+     *
+     * @param reviewerId only jobs with a task of the reviewer, or null for any
+     * @param before only jobs with ids less than this one, or null from the newest
+     */
+    fun findPage(
+        reviewerId: Long?,
+        statuses: List<ReviewStatus>,
+        before: String?,
+        limit: Int
+    ): List<ReviewJobEntity> {
+        val spec = Specification<ReviewJobEntity> { root, query, criteriaBuilder ->
+            val predicates = listOfNotNull(
+                reviewerId?.let {
+                    reviewerPredicate(root, query ?: return@Specification null, criteriaBuilder, it)
+                },
+                statusPredicate(root, criteriaBuilder, statuses),
+                before?.let { criteriaBuilder.lessThan(root.get(ReviewJobEntity_.resourceId), it) }
+            )
+            criteriaBuilder.and(*predicates.toTypedArray())
+        }
+        return findBy(spec) {
+            it.sortBy(LATEST_FIRST).limit(limit).all()
+        }
+    }
+
+    private fun statusPredicate(
+        root: Root<ReviewJobEntity>,
+        criteriaBuilder: CriteriaBuilder,
+        statuses: List<ReviewStatus>
+    ): Predicate? = when {
+        // If no statuses are provided or all statuses are included,
+        // no filtering by status.
+        statuses.isEmpty() || statuses.containsAll(ReviewStatus.entries) -> null
+        // More efficient way than using `in` for a single value.
+        statuses.size == 1 -> criteriaBuilder.equal(root.get(ReviewJobEntity_.status), statuses[0])
+        else -> root.get(ReviewJobEntity_.status).`in`(statuses)
+    }
 
-            if (jobPredicate == null) {
-                return@findAll criteriaBuilder.exists(subquery)
+    private fun reviewerPredicate(
+        root: Root<ReviewJobEntity>,
+        query: CriteriaQuery<*>,
+        criteriaBuilder: CriteriaBuilder,
+        reviewerId: Long
+    ): Predicate {
+        // select 1 from review_job_task t where t.review_job_id = review_job.resource_id and t.reviewer_id = :reviewerId
+        val subquery = query.subquery(String::class.java)
+        val taskRoot = subquery.from(ReviewTaskEntity::class.java)
+        subquery.select(taskRoot.get(ReviewTaskEntity_.reviewJobId))
+        subquery.where(
+            criteriaBuilder.equal(
+                taskRoot.get(ReviewTaskEntity_.reviewJobId),
+                root.get(ReviewJobEntity_.resourceId)
+            ),
+            criteriaBuilder.equal(taskRoot.get(ReviewTaskEntity_.reviewerId), reviewerId)
+        )
+        return criteriaBuilder.exists(subquery)
+    }
+
+    /**
+     * Adds the changes to the task counters of the job in a single
+     * statement, so concurrent task transitions of the same job never
+     * overwrite each other. Bumps the version of the job.
+     *
+     * @param changes the change of the counter of each task status
+     * @return the job with its current counters and version, or null
+     * if the job does not exist
+     */
+    @Transactional
+    fun updateTaskCounts(
+        jobId: String,
+        changes: Map<ReviewTaskStatus, Int>
+    ): ReviewJobEntity? {
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val update = criteriaBuilder.createCriteriaUpdate(ReviewJobEntity::class.java)
+        val root = update.from(ReviewJobEntity::class.java)
+        changes.forEach { (taskStatus, change) ->
+            if (change == 0) {
+                return@forEach
             }
-            criteriaBuilder.and(
-                criteriaBuilder.exists(subquery),
-                jobPredicate
-            )
+            val counter = counterOf(taskStatus)
+            update.set(root.get(counter), criteriaBuilder.sum(root.get(counter), change))
+        }
+        update.set(
+            root.get(ReviewJobEntity_.version),
+            criteriaBuilder.sum(root.get(ReviewJobEntity_.version), 1L)
+        )
+        update.where(criteriaBuilder.equal(root.get(ReviewJobEntity_.resourceId), jobId))
+        if (entityManager.createQuery(update).executeUpdate() == 0) {
+            return null
+        }
+        val job = entityManager.find(ReviewJobEntity::class.java, jobId) ?: return null
+        // May be managed already with the counters before the update
+        entityManager.refresh(job)
+        return job
+    }
+
+    /**
+     * Sets the status of the job if it is still at the given version.
+     *
+     * @return false if the job was changed since, in which case the
+     * status is left as is
+     */
+    @Transactional
+    fun compareAndSetStatus(
+        jobId: String,
+        expectedVersion: Long,
+        status: ReviewStatus,
+        updateTime: OffsetDateTime
+    ): Boolean {
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val update = criteriaBuilder.createCriteriaUpdate(ReviewJobEntity::class.java)
+        val root = update.from(ReviewJobEntity::class.java)
+        update.set(root.get(ReviewJobEntity_.status), status)
+        update.set(root.get(ReviewJobEntity_.updateTime), updateTime)
+        update.set(root.get(ReviewJobEntity_.version), expectedVersion + 1)
+        update.where(
+            criteriaBuilder.equal(root.get(ReviewJobEntity_.resourceId), jobId),
+            criteriaBuilder.equal(root.get(ReviewJobEntity_.version), expectedVersion)
+        )
+        return entityManager.createQuery(update).executeUpdate() > 0
+    }
+
+    private fun counterOf(taskStatus: ReviewTaskStatus): SingularAttribute<ReviewJobEntity, Int> =
+        when (taskStatus) {
+            ReviewTaskStatus.PENDING -> ReviewJobEntity_.pendingTasks
+            ReviewTaskStatus.APPROVED -> ReviewJobEntity_.approvedTasks
+            ReviewTaskStatus.REJECTED -> ReviewJobEntity_.rejectedTasks
+            ReviewTaskStatus.RETURNED -> ReviewJobEntity_.returnedTasks
+            ReviewTaskStatus.CANCELED -> ReviewJobEntity_.canceledTasks
         }
+
+    companion object {
+        private val LATEST_FIRST = Sort.by(Sort.Order.desc(ReviewJobEntity_.RESOURCE_ID))
+    }
 }
@@ -25,12 +25,11 @@ import jakarta.persistence.Lob
 import jakarta.persistence.Table
 import jakarta.persistence.Temporal
 import jakarta.persistence.TemporalType
-import org.hibernate.annotations.Generated
 import org.hibernate.annotations.JdbcTypeCode
-import org.hibernate.generator.EventType
 import org.hibernate.proxy.HibernateProxy
 import org.hibernate.type.SqlTypes
 import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.common.data.generator.PooledSequence
 import tech.lamprism.lampray.content.review.ReviewStatus
 import tech.lamprism.lampray.content.review.ReviewTask
 import tech.lamprism.lampray.content.review.ReviewTaskDetails
@@ -51,8 +50,8 @@ class ReviewTaskEntity(
     /**
      * Auto-generated primary key for database.
      */
-    @Column(name = "id", nullable = false, insertable = false, updatable = false)
-    @Generated(event = [EventType.INSERT])
+    @Column(name = "id", nullable = false, updatable = false)
+    @PooledSequence("review_job_task")
     var id: Long? = null,
 
     /**
@@ -16,17 +16,21 @@
 
 package tech.lamprism.lampray.content.review.persistence
 
-import org.springframework.data.domain.PageRequest
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
 import org.springframework.stereotype.Repository
 import tech.lamprism.lampray.common.data.CommonRepository
 import tech.lamprism.lampray.content.review.ReviewTaskStatus
+import tech.lamprism.lampray.content.review.feedback.ReviewFeedback
+import java.time.OffsetDateTime
 
 /**
  * @author RollW
  */
 @Repository
 class ReviewTaskRepository(
-    reviewTaskDao: ReviewTaskDao
+    reviewTaskDao: ReviewTaskDao,
+    private val entityManager: EntityManager
 ) : CommonRepository<ReviewTaskEntity, String>(reviewTaskDao) {
     override fun <S : ReviewTaskEntity> save(entity: S): S {
         return saveAndFlush(entity)
@@ -36,6 +40,55 @@ class ReviewTaskRepository(
         return saveAllAndFlush(entities)
     }
 
+    /**
+     * Inserts new tasks with one flush, without the lookup by id that
+     * [saveAll] does for entities with an assigned id. [ReviewTaskEntity.id]
+     * is taken from a pooled sequence, so the rows are sent in JDBC batches.
+     */
+    @Transactional
+    fun insertAll(entities: List<ReviewTaskEntity>): List<ReviewTaskEntity> {
+        entities.forEach(entityManager::persist)
+        entityManager.flush()
+        return entities
+    }
+
+    /**
+     * Moves a pending task to the status in a single statement, only if
+     * it is still pending and assigned to the reviewer. Of concurrent
+     * transitions of the same task only one takes effect.
+     *
+     * @return the task with its new status, or null if the task is no
+     * longer pending or assigned to another reviewer, in which case it
+     * is left as is
+     */
+    @Transactional
+    fun updatePendingTask(
+        taskId: String,
+        reviewerId: Long,
+        status: ReviewTaskStatus,
+        feedback: ReviewFeedback?,
+        updateTime: OffsetDateTime
+    ): ReviewTaskEntity? {
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val update = criteriaBuilder.createCriteriaUpdate(ReviewTaskEntity::class.java)
+        val root = update.from(ReviewTaskEntity::class.java)
+        update.set(root.get(ReviewTaskEntity_.status), status)
+        update.set(root.get(ReviewTaskEntity_.feedback), feedback)
+        update.set(root.get(ReviewTaskEntity_.updateTime), updateTime)
+        update.where(
+            criteriaBuilder.equal(root.get(ReviewTaskEntity_.resourceId), taskId),
+            criteriaBuilder.equal(root.get(ReviewTaskEntity_.status), ReviewTaskStatus.PENDING),
+            criteriaBuilder.equal(root.get(ReviewTaskEntity_.reviewerId), reviewerId)
+        )
+        if (entityManager.createQuery(update).executeUpdate() == 0) {
+            return null
+        }
+        val task = entityManager.find(ReviewTaskEntity::class.java, taskId) ?: return null
+        // May be managed already with the status before the update
+        entityManager.refresh(task)
+        return task
+    }
+
     fun findByJobId(jobId: String): List<ReviewTaskEntity> {
         return findAll { root, _, builder ->
             builder.equal(root.get(ReviewTaskEntity_.reviewJobId), jobId)
@@ -48,8 +101,12 @@ class ReviewTaskRepository(
         }
     }
 
-    fun findByJobIdAndReviewerId(jobId: String, reviewerId: Long): List<ReviewTaskEntity> {
-        return findAll { root, _, builder ->
+    /**
+     * Checks whether the reviewer has any task of the job, without
+     * loading the tasks.
+     */
+    fun existsByJobIdAndReviewerId(jobId: String, reviewerId: Long): Boolean {
+        return exists { root, _, builder ->
             builder.and(
                 builder.equal(root.get(ReviewTaskEntity_.reviewJobId), jobId),
                 builder.equal(root.get(ReviewTaskEntity_.reviewerId), reviewerId)
@@ -57,33 +114,12 @@ class ReviewTaskRepository(
         }
     }
 
-    /**
-     * Find all pending tasks in batches.
-     *
-     * @param offset the offset to start from
-     * @param limit the maximum number of tasks to return
-     * @return a list of pending review tasks
-     * @author RollW
-     */
-    fun findPendingTasksBatch(offset: Int, limit: Int): List<ReviewTaskEntity> {
-        val pageable = PageRequest.of(offset / limit, limit)
-        return findAll(
-            { root, _, builder ->
-                builder.equal(root.get(ReviewTaskEntity_.status), ReviewTaskStatus.PENDING)
-            },
-            pageable
-        ).content
-    }
-
-    /**
-     * Count all pending tasks.
-     *
-     * @return the count of pending review tasks
-     * @author RollW
-     */
-    fun countPendingTasks(): Long {
-        return count { root, _, builder ->
-            builder.equal(root.get(ReviewTaskEntity_.status), ReviewTaskStatus.PENDING)
+    fun findByJobIdAndReviewerId(jobId: String, reviewerId: Long): List<ReviewTaskEntity> {
+        return findAll { root, _, builder ->
+            builder.and(
+                builder.equal(root.get(ReviewTaskEntity_.reviewJobId), jobId),
+                builder.equal(root.get(ReviewTaskEntity_.reviewerId), reviewerId)
+            )
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.content.review.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import tech.lamprism.lampray.content.ContentIdentity;
+import tech.lamprism.lampray.content.ContentMetadata;
+import tech.lamprism.lampray.content.ContentStatus;
+import tech.lamprism.lampray.content.SimpleContentInfo;
+import tech.lamprism.lampray.content.event.ContentStatusEvent;
+import tech.lamprism.lampray.concurrent.CoalescingQueue;
+import tech.lamprism.lampray.content.service.ContentMetadataService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Propagates content statuses decided by reviews to the content metadata.
+ * <p>
+ * Statuses are queued by content and only the latest one of a content is
+ * kept, so a burst of changes to the same content costs one write. The
+ * queue is flushed periodically on the shared scheduler: the metadata of
+ * a batch is read in one query and written with one update per distinct
+ * status, then a {@link ContentStatusEvent} is published for each changed
+ * content. Since flushes never overlap, and a status queued during a
+ * flush goes to the next one, the statuses of a content are applied in
+ * order.
+ *
+ * @author RollW
+ */
+@Component
+public class ContentStatusPropagator implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ContentStatusPropagator.class);
+
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(200);
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ContentMetadataService contentMetadataService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final CoalescingQueue<ContentIdentity, PendingStatus> pending =
+            new CoalescingQueue<>(MAX_BATCH_SIZE, MAX_ATTEMPTS, PendingStatus::latest);
+    private final Object flushLock = new Object();
+    private final ScheduledFuture<?> flushTask;
+
+    public ContentStatusPropagator(ContentMetadataService contentMetadataService,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Qualifier("mainTaskScheduler") TaskScheduler taskScheduler) {
+        this.contentMetadataService = contentMetadataService;
+        this.eventPublisher = eventPublisher;
+        this.flushTask = taskScheduler.scheduleWithFixedDelay(this::flushSafely,
+                Instant.now().plus(FLUSH_INTERVAL), FLUSH_INTERVAL);
+    }
+
+    /**
+     * Queues the status of the content, replacing any queued status of
+     * the same content that is not newer.
+     */
+    public void propagate(ContentIdentity content, ContentStatus status,
+                          OffsetDateTime updateTime) {
+        ContentIdentity key = ContentIdentity.of(content.getContentId(), content.getContentType());
+        pending.offer(key, new PendingStatus(status, updateTime));
+    }
+
+    private void flushSafely() {
+        try {
+            while (flush()) {
+                // Keep flushing while the queue is backed up
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to propagate content statuses.", e);
+        }
+    }
+
+    /**
+     * Flushes one batch of queued statuses.
+     *
+     * @return true if the batch was full and more may be queued
+     */
+    boolean flush() {
+        synchronized (flushLock) {
+            return flushBatch();
+        }
+    }
+
+    private boolean flushBatch() {
+        CoalescingQueue.Batch<ContentIdentity, PendingStatus> queued = pending.drain();
+        if (queued.isEmpty()) {
+            return false;
+        }
+        Map<ContentIdentity, PendingStatus> batch = queued.values();
+        List<ContentStatusEvent<?>> events = new ArrayList<>();
+        try {
+            List<ContentMetadata> metadata = contentMetadataService.getMetadata(
+                    new ArrayList<>(batch.keySet()));
+            List<ContentMetadata> changed = new ArrayList<>();
+            for (ContentMetadata current : metadata) {
+                PendingStatus status = batch.get(
+                        ContentIdentity.of(current.getContentId(), current.getContentType()));
+                if (status == null || status.status() == current.getContentStatus()) {
+                    continue;
+                }
+                changed.add(current.toBuilder()
+                        .setContentStatus(status.status())
+                        .build());
+                events.add(new ContentStatusEvent<>(
+                        new SimpleContentInfo(current.getUserId(),
+                                current.getContentId(), current.getContentType()),
+                        status.updateTime(),
+                        current.getContentStatus(),
+                        status.status()
+                ));
+            }
+            contentMetadataService.updateStatuses(changed);
+        } catch (RuntimeException e) {
+            pending.requeue(queued, (content, status) ->
+                    logger.warn("Dropped status {} of content {} after {} attempts.",
+                            status.status(), content, MAX_ATTEMPTS));
+            throw e;
+        }
+        events.forEach(eventPublisher::publishEvent);
+        logger.debug("Propagated statuses of {} contents, {} changed.",
+                batch.size(), events.size());
+        return queued.isFull();
+    }
+
+    @Override
+    public void destroy() {
+        flushTask.cancel(false);
+        // Waits for a running flush, then flushes what is left
+        flushSafely();
+    }
+
+    private record PendingStatus(ContentStatus status, OffsetDateTime updateTime) {
+        PendingStatus latest(PendingStatus other) {
+            // Ties go to the later queued one
+            return other.updateTime.isBefore(updateTime) ? this : other;
+        }
+    }
+}
@@ -16,64 +16,36 @@
 
 package tech.lamprism.lampray.content.review.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import space.lingu.NonNull;
-import tech.lamprism.lampray.content.Content;
-import tech.lamprism.lampray.content.ContentMetadata;
 import tech.lamprism.lampray.content.ContentStatus;
-import tech.lamprism.lampray.content.SimpleContentInfo;
-import tech.lamprism.lampray.content.event.ContentStatusEvent;
 import tech.lamprism.lampray.content.review.ReviewJob;
 import tech.lamprism.lampray.content.review.ReviewStatus;
 import tech.lamprism.lampray.content.review.event.OnReviewStateChangeEvent;
-import tech.lamprism.lampray.content.service.ContentMetadataService;
 
 /**
- * Converts {@link OnReviewStateChangeEvent} to {@link ContentStatusEvent}.
+ * Hands the content status decided by a review over to the
+ * {@link ContentStatusPropagator}.
  *
  * @author RollW
  */
 @Component
 public class OnReviewStateChangeListener implements ApplicationListener<OnReviewStateChangeEvent> {
-    private final ApplicationEventPublisher eventPublisher;
-    private final ContentMetadataService contentMetadataService;
+    private final ContentStatusPropagator contentStatusPropagator;
 
-    private static final Logger logger = LoggerFactory.getLogger(OnReviewStateChangeListener.class);
-
-    public OnReviewStateChangeListener(ApplicationEventPublisher eventPublisher, ContentMetadataService contentMetadataService) {
-        this.eventPublisher = eventPublisher;
-        this.contentMetadataService = contentMetadataService;
+    public OnReviewStateChangeListener(ContentStatusPropagator contentStatusPropagator) {
+        this.contentStatusPropagator = contentStatusPropagator;
     }
 
     @Override
-    @Async
     public void onApplicationEvent(@NonNull OnReviewStateChangeEvent event) {
         ReviewJob reviewJob = event.getReviewJob();
-        // TODO: replace with ContentStatusProcessor
-        ContentMetadata metadata = contentMetadataService.getMetadata(
-                reviewJob.getAssociatedContent()
-        );
-        Content content = new SimpleContentInfo(
-                metadata.getUserId(),
-                metadata.getContentId(),
-                metadata.getContentType()
-        );
-        ContentStatus currentStatus = toContentStatus(event.getCurrentStatus());
-        ContentStatus previousStatus = toContentStatus(event.getPreviousStatus());
-        contentMetadataService.updateMetadata(
-                metadata.toBuilder()
-                        .setContentStatus(currentStatus)
-                        .build()
+        contentStatusPropagator.propagate(
+                reviewJob.getAssociatedContent(),
+                toContentStatus(event.getCurrentStatus()),
+                reviewJob.getUpdateTime()
         );
-        ContentStatusEvent<?> contentStatusEvent = new ContentStatusEvent<>(
-                content, reviewJob.getUpdateTime(),
-                previousStatus, currentStatus);
-        eventPublisher.publishEvent(contentStatusEvent);
     }
 
     private static ContentStatus toContentStatus(ReviewStatus status) {
@@ -18,6 +18,7 @@ package tech.lamprism.lampray.content.review.service;
 
 import org.springframework.stereotype.Service;
 import space.lingu.NonNull;
+import space.lingu.Nullable;
 import tech.lamprism.lampray.content.ContentTrait;
 import tech.lamprism.lampray.content.review.ReviewJobDetails;
 import tech.lamprism.lampray.content.review.ReviewJobProvider;
@@ -41,6 +42,8 @@ import java.util.stream.Collectors;
  */
 @Service
 public class ReviewJobProviderImpl implements ReviewJobProvider {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ReviewJobRepository reviewJobRepository;
     private final ReviewTaskRepository reviewTaskRepository;
 
@@ -112,4 +115,22 @@ public class ReviewJobProviderImpl implements ReviewJobProvider {
                 .map(ReviewJobEntity::lock)
                 .collect(Collectors.toUnmodifiableList());
     }
+
+    @NonNull
+    @Override
+    public List<ReviewJobSummary> getReviewJobs(@Nullable Long reviewerId,
+                                                @NonNull List<? extends ReviewStatus> reviewStatuses,
+                                                @Nullable String cursor,
+                                                int limit) {
+        List<ReviewJobEntity> reviewJobEntities = reviewJobRepository.findPage(
+                reviewerId, reviewStatuses, cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        return reviewJobEntities.stream()
+                .map(ReviewJobEntity::lock)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    @Override
+    public boolean isAssigned(@NonNull String reviewJobId, long reviewerId) {
+        return reviewTaskRepository.existsByJobIdAndReviewerId(reviewJobId, reviewerId);
+    }
 }
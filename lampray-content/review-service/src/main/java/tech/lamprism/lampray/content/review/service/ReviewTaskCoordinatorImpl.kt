@@ -15,6 +15,7 @@
  */
 package tech.lamprism.lampray.content.review.service
 
+import jakarta.transaction.Transactional
 import org.slf4j.Logger
 import org.slf4j.debug
 import org.slf4j.error
@@ -29,6 +30,7 @@ import tech.lamprism.lampray.content.review.ReviewTaskCoordinator
 import tech.lamprism.lampray.content.review.ReviewTaskDetails
 import tech.lamprism.lampray.content.review.ReviewTaskResourceKind
 import tech.lamprism.lampray.content.review.ReviewTaskStatus
+import tech.lamprism.lampray.content.review.ReviewerAllocator
 import tech.lamprism.lampray.content.review.common.ReviewException
 import tech.lamprism.lampray.content.review.event.OnReviewStateChangeEvent
 import tech.lamprism.lampray.content.review.feedback.ReviewFeedback
@@ -38,6 +40,7 @@ import tech.lamprism.lampray.content.review.persistence.ReviewJobRepository
 import tech.lamprism.lampray.content.review.persistence.ReviewTaskEntity
 import tech.lamprism.lampray.content.review.persistence.ReviewTaskRepository
 import tech.rollw.common.web.CommonErrorCode
+import tech.rollw.common.web.CommonRuntimeException
 import java.time.OffsetDateTime
 
 private val logger: Logger = logger<ReviewTaskCoordinatorImpl>()
@@ -52,6 +55,10 @@ private val logger: Logger = logger<ReviewTaskCoordinatorImpl>()
  * - Job remains PENDING if there are still pending tasks
  * - Once job is in terminal state, new feedbacks are rejected (create new job for appeals)
  *
+ * Jobs keep a counter of their tasks per task status, changed together
+ * with each task transition, so the status is derived from the counters
+ * instead of loading all tasks of the job.
+ *
  * @author RollW
  */
 @Component
@@ -59,9 +66,11 @@ class ReviewTaskCoordinatorImpl(
     private val reviewTaskRepository: ReviewTaskRepository,
     private val reviewJobRepository: ReviewJobRepository,
     private val resourceIdGenerator: ResourceIdGenerator,
+    private val reviewerAllocator: ReviewerAllocator,
     private val eventPublisher: ApplicationEventPublisher
 ) : ReviewTaskCoordinator {
 
+    @Transactional(dontRollbackOn = [CommonRuntimeException::class, IllegalArgumentException::class])
     override fun reassignTask(
         jobId: String,
         taskId: String,
@@ -94,20 +103,14 @@ class ReviewTaskCoordinatorImpl(
 
         // Cancel the current task
         val now = OffsetDateTime.now()
-
-        currentTask.apply {
-            status = ReviewTaskStatus.CANCELED
-            updateTime = now
-            if (reason != null) {
-                // Store reason in feedback for audit trail
-                feedback = ReviewFeedback(
-                    verdict = ReviewVerdict.PENDING,
-                    summary = "Task reassigned: $reason"
-                )
-            }
-        }
-
-        reviewTaskRepository.save(currentTask)
+        // Store reason in feedback for audit trail
+        val feedback = reason?.let {
+            ReviewFeedback(
+                verdict = ReviewVerdict.PENDING,
+                summary = "Task reassigned: $it"
+            )
+        } ?: currentTask.feedback
+        finishPendingTask(currentTask, ReviewTaskStatus.CANCELED, feedback, now)
 
         // Create new task for the new reviewer
         val newTask = ReviewTaskEntity.builder()
@@ -120,6 +123,11 @@ class ReviewTaskCoordinatorImpl(
             .build()
 
         val savedTask = reviewTaskRepository.save(newTask)
+        updateJobAfterTaskChange(
+            jobId, mapOf(ReviewTaskStatus.CANCELED to 1)
+        )
+        reviewerAllocator.releaseReviewer(currentReviewerId, reviewJob.associatedContent)
+        reviewerAllocator.acquireReviewer(newReviewerId, reviewJob.associatedContent)
         logger.info {
             "Task $taskId reassigned from reviewer $currentReviewerId to $newReviewerId " +
                     "as new task ${savedTask.resourceId} (reason: ${reason ?: "none"})"
@@ -128,6 +136,7 @@ class ReviewTaskCoordinatorImpl(
         return savedTask.lock()
     }
 
+    @Transactional(dontRollbackOn = [CommonRuntimeException::class, IllegalArgumentException::class])
     override fun returnTask(
         jobId: String,
         taskId: String,
@@ -156,13 +165,13 @@ class ReviewTaskCoordinatorImpl(
             )
         }
 
-        // Cancel the task and store reason
-        taskEntity.apply {
-            status = ReviewTaskStatus.RETURNED
-            updateTime = OffsetDateTime.now()
-        }
-
-        val updated = reviewTaskRepository.save(taskEntity)
+        val updated = finishPendingTask(
+            taskEntity, ReviewTaskStatus.RETURNED, taskEntity.feedback, OffsetDateTime.now()
+        )
+        updateJobAfterTaskChange(
+            jobId, mapOf(ReviewTaskStatus.PENDING to -1, ReviewTaskStatus.RETURNED to 1)
+        )
+        reviewerAllocator.releaseReviewer(reviewerId, reviewJob.associatedContent)
         logger.info {
             "Task $taskId returned by reviewer $reviewerId for reassignment"
         }
@@ -170,6 +179,7 @@ class ReviewTaskCoordinatorImpl(
         return updated.lock()
     }
 
+    @Transactional(dontRollbackOn = [CommonRuntimeException::class, IllegalArgumentException::class])
     override fun claimTask(
         jobId: String,
         taskId: String,
@@ -196,14 +206,7 @@ class ReviewTaskCoordinatorImpl(
         }
 
         val now = OffsetDateTime.now()
-
-        taskEntity.apply {
-            this.status = ReviewTaskStatus.RETURNED
-            this.updateTime = now
-            this.feedback = null
-        }
-
-        reviewTaskRepository.save(taskEntity)
+        finishPendingTask(taskEntity, ReviewTaskStatus.RETURNED, null, now)
 
         val newTask = ReviewTaskEntity.builder()
             .setResourceId(resourceIdGenerator.nextId(ReviewTaskResourceKind))
@@ -215,12 +218,19 @@ class ReviewTaskCoordinatorImpl(
             .build()
 
         val savedTask = reviewTaskRepository.save(newTask)
+        // The claimed task is replaced by a new pending one
+        updateJobAfterTaskChange(
+            jobId, mapOf(ReviewTaskStatus.RETURNED to 1)
+        )
+        reviewerAllocator.releaseReviewer(taskEntity.reviewerId, reviewJob.associatedContent)
+        reviewerAllocator.acquireReviewer(reviewerId, reviewJob.associatedContent)
         logger.info {
             "Task $taskId claimed by reviewer $reviewerId as new task ${savedTask.resourceId}"
         }
         return savedTask.lock()
     }
 
+    @Transactional(dontRollbackOn = [CommonRuntimeException::class, IllegalArgumentException::class])
     override fun submitFeedback(
         jobId: String,
         taskId: String,
@@ -254,25 +264,56 @@ class ReviewTaskCoordinatorImpl(
         }
 
         // Update task with feedback
-        taskEntity.feedback = feedback
-        taskEntity.status = feedback.verdict.toReviewTaskStatus()
-        taskEntity.setUpdateTime(OffsetDateTime.now())
-
-        val updated = reviewTaskRepository.save(taskEntity)
+        val updated = finishPendingTask(
+            taskEntity, feedback.verdict.toReviewTaskStatus(), feedback, OffsetDateTime.now()
+        )
         logger.info {
-            "Feedback submitted for task ${taskEntity.resourceId} by reviewer $reviewerId with verdict ${feedback.verdict}"
+            "Feedback submitted for task ${updated.resourceId} by reviewer $reviewerId with verdict ${feedback.verdict}"
         }
 
-        // Update the main job status based on all tasks
-        updateJobStatusAfterTaskChange(job)
+        if (updated.status != ReviewTaskStatus.PENDING) {
+            updateJobAfterTaskChange(
+                jobId, mapOf(ReviewTaskStatus.PENDING to -1, updated.status to 1)
+            )
+            reviewerAllocator.releaseReviewer(reviewerId, job.associatedContent)
+        }
 
         return updated.lock()
     }
 
     /**
-     * Updates the job status based on all its tasks and publishes state change event if changed.
+     * Moves the pending task to the status, if no concurrent transition
+     * of the task came first since it was read. Job counters and reviewer
+     * workloads must only be changed after this succeeded, so they are
+     * changed once per transition.
+     *
+     * @throws IllegalArgumentException if the task is no longer pending
+     */
+    private fun finishPendingTask(
+        task: ReviewTaskEntity,
+        status: ReviewTaskStatus,
+        feedback: ReviewFeedback?,
+        updateTime: OffsetDateTime
+    ): ReviewTaskEntity {
+        val updated = reviewTaskRepository.updatePendingTask(
+            task.resourceId, task.reviewerId, status, feedback, updateTime
+        )
+        return requireNotNull(updated) {
+            "Task ${task.resourceId} is no longer pending"
+        }
+    }
+
+    /**
+     * Applies the task status changes to the counters of the job, then
+     * updates the job status derived from the counters and publishes
+     * state change event if changed.
      */
-    private fun updateJobStatusAfterTaskChange(job: ReviewJobEntity) {
+    private fun updateJobAfterTaskChange(
+        jobId: String,
+        changes: Map<ReviewTaskStatus, Int>
+    ) {
+        val job = reviewJobRepository.updateTaskCounts(jobId, changes) ?: return
+
         // If job is already in terminal state, don't change it
         if (job.status.isFinished) {
             logger.debug {
@@ -282,23 +323,31 @@ class ReviewTaskCoordinatorImpl(
         }
 
         val previousStatus = job.status
-        val tasks = reviewTaskRepository.findByJobId(job.resourceId)
-        val newStatus = determineJobStatus(tasks)
-
+        val newStatus = determineJobStatus(job)
         if (newStatus == previousStatus) {
             return
         }
-        job.status = newStatus
-        job.updateTime = OffsetDateTime.now()
-        reviewJobRepository.save(job)
+        val now = OffsetDateTime.now()
+        if (!reviewJobRepository.compareAndSetStatus(jobId, job.version, newStatus, now)) {
+            // The counters were changed by another task transition since
+            // read, which derives the status from the newer counters.
+            logger.debug {
+                "Job ${job.resourceId} changed concurrently, leaving status update to the latest change"
+            }
+            return
+        }
 
         logger.info {
-            "Job ${job.resourceId} status changed: $previousStatus -> $newStatus based on ${tasks.size} tasks"
+            "Job ${job.resourceId} status changed: $previousStatus -> $newStatus"
         }
 
         try {
             val event = OnReviewStateChangeEvent(
-                job.lock(),
+                job.toBuilder()
+                    .setStatus(newStatus)
+                    .setUpdateTime(now)
+                    .build()
+                    .lock(),
                 previousStatus,
                 newStatus
             )
@@ -311,7 +360,7 @@ class ReviewTaskCoordinatorImpl(
     }
 
     /**
-     * Determines the job status based on all task results.
+     * Determines the job status based on its task counters.
      *
      * Rules:
      * - APPROVED: All active tasks are approved
@@ -319,39 +368,20 @@ class ReviewTaskCoordinatorImpl(
      * - PENDING: Has pending tasks
      * - CANCELED: All tasks are canceled
      */
-    private fun determineJobStatus(tasks: List<ReviewTaskDetails>): ReviewStatus {
-        if (tasks.isEmpty()) {
-            return ReviewStatus.PENDING
-        }
-
-        val activeTasks = tasks.filter { it.status != ReviewTaskStatus.CANCELED }
-        if (activeTasks.isEmpty()) {
+    private fun determineJobStatus(job: ReviewJobEntity): ReviewStatus {
+        val activeTasks = job.pendingTasks + job.approvedTasks +
+                job.rejectedTasks + job.returnedTasks
+        if (activeTasks == 0) {
             // All tasks canceled, job should be canceled
-            return ReviewStatus.CANCELED
+            return if (job.canceledTasks > 0) ReviewStatus.CANCELED else ReviewStatus.PENDING
         }
-
-        // Check if any task is rejected
-        val hasRejected = activeTasks.any { task ->
-            task.status == ReviewTaskStatus.REJECTED ||
-                    task.feedback?.verdict == ReviewVerdict.REJECTED
-        }
-
-        if (hasRejected) {
+        if (job.rejectedTasks > 0) {
             return ReviewStatus.REJECTED
         }
-
-        // Check if any task still pending
-        val hasPending = activeTasks.any { it.status == ReviewTaskStatus.PENDING }
-        if (hasPending) {
+        if (job.pendingTasks > 0) {
             return ReviewStatus.PENDING
         }
-
-        val allApproved = activeTasks.all { task ->
-            task.status == ReviewTaskStatus.APPROVED ||
-                    task.feedback?.verdict == ReviewVerdict.APPROVED
-        }
-
-        return if (allApproved) {
+        return if (job.approvedTasks == activeTasks) {
             ReviewStatus.APPROVED
         } else {
             // Some tasks may need revision
@@ -413,6 +443,7 @@ class ReviewTaskCoordinatorImpl(
         }
     }
 
+    @Transactional(dontRollbackOn = [CommonRuntimeException::class, IllegalArgumentException::class])
     override fun createTasksForReviewers(
         reviewJobId: String,
         reviewerIds: List<Long>
@@ -423,11 +454,15 @@ class ReviewTaskCoordinatorImpl(
             return emptyList()
         }
 
-        val tasks = reviewerIds.map { reviewerId ->
-            createTaskEntity(reviewJobId, reviewerId)
+        val resourceIds = resourceIdGenerator.nextIds(ReviewTaskResourceKind, reviewerIds.size)
+        val tasks = reviewerIds.mapIndexed { index, reviewerId ->
+            createTaskEntity(resourceIds[index], reviewJobId, reviewerId)
         }
 
-        val savedTasks = reviewTaskRepository.saveAll(tasks)
+        val savedTasks = reviewTaskRepository.insertAll(tasks)
+        updateJobAfterTaskChange(
+            reviewJobId, mapOf(ReviewTaskStatus.PENDING to savedTasks.size)
+        )
         logger.info {
             "Created ${savedTasks.count()} review tasks for job $reviewJobId assigned to reviewers: ${reviewerIds.joinToString()}"
         }
@@ -435,14 +470,21 @@ class ReviewTaskCoordinatorImpl(
         return savedTasks.map { it.lock() }
     }
 
+    @Transactional(dontRollbackOn = [CommonRuntimeException::class, IllegalArgumentException::class])
     override fun createTask(
         reviewJobId: String,
         reviewerId: Long
     ): ReviewTaskDetails {
         validateCanCreateTask(reviewJobId)
 
-        val taskEntity = createTaskEntity(reviewJobId, reviewerId)
-        val savedTask = reviewTaskRepository.saveAndFlush(taskEntity)
+        val taskEntity = createTaskEntity(
+            resourceIdGenerator.nextId(ReviewTaskResourceKind),
+            reviewJobId, reviewerId
+        )
+        val savedTask = reviewTaskRepository.insertAll(listOf(taskEntity)).first()
+        updateJobAfterTaskChange(
+            reviewJobId, mapOf(ReviewTaskStatus.PENDING to 1)
+        )
 
         logger.info {
             "Created review task ${savedTask.resourceId} for job $reviewJobId assigned to reviewer $reviewerId"
@@ -451,10 +493,14 @@ class ReviewTaskCoordinatorImpl(
         return savedTask.lock()
     }
 
-    private fun createTaskEntity(reviewJobId: String, reviewerId: Long): ReviewTaskEntity {
+    private fun createTaskEntity(
+        resourceId: String,
+        reviewJobId: String,
+        reviewerId: Long
+    ): ReviewTaskEntity {
         val now = OffsetDateTime.now()
         return ReviewTaskEntity.builder()
-            .setResourceId(resourceIdGenerator.nextId(ReviewTaskResourceKind))
+            .setResourceId(resourceId)
             .setReviewJobId(reviewJobId)
             .setTaskStatus(ReviewTaskStatus.PENDING)
             .setReviewerId(reviewerId)
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.content.review.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+import tech.lamprism.lampray.content.ContentAccessAuthType;
+import tech.lamprism.lampray.content.ContentIdentity;
+import tech.lamprism.lampray.content.ContentMetadata;
+import tech.lamprism.lampray.content.ContentStatus;
+import tech.lamprism.lampray.content.ContentTrait;
+import tech.lamprism.lampray.content.ContentType;
+import tech.lamprism.lampray.content.event.ContentStatusEvent;
+import tech.lamprism.lampray.content.service.ContentMetadataService;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class ContentStatusPropagatorTest {
+    private static final int CONTENTS = 10;
+
+    private final ContentMetadataService contentMetadataService = mock(ContentMetadataService.class);
+    private final List<Object> events = new ArrayList<>();
+    private final ContentStatusPropagator propagator = new ContentStatusPropagator(
+            contentMetadataService, events::add, mock(TaskScheduler.class));
+
+    ContentStatusPropagatorTest() {
+        when(contentMetadataService.getMetadata(anyList())).thenAnswer(invocation -> {
+            List<ContentTrait> contents = invocation.getArgument(0);
+            return contents.stream()
+                    .map(content -> metadata(content, ContentStatus.REVIEWING))
+                    .toList();
+        });
+    }
+
+    @Test
+    void burstOfStatusesIsWrittenOncePerContent() {
+        OffsetDateTime time = OffsetDateTime.now();
+        for (int i = 0; i < 1000; i++) {
+            ContentStatus status = i / CONTENTS % 2 == 0
+                    ? ContentStatus.REVIEW_REJECTED
+                    : ContentStatus.PUBLISHED;
+            propagator.propagate(content(i % CONTENTS), status, time.plusNanos(i));
+        }
+
+        assertFalse(propagator.flush());
+
+        verify(contentMetadataService, times(1)).getMetadata(anyList());
+        List<ContentMetadata> written = captureWritten();
+        assertEquals(CONTENTS, written.size());
+        // The last status of each content wins
+        assertTrue(written.stream().allMatch(metadata ->
+                metadata.getContentStatus() == ContentStatus.PUBLISHED));
+        assertEquals(CONTENTS, events.size());
+        assertFalse(propagator.flush());
+        verify(contentMetadataService, times(1)).getMetadata(anyList());
+    }
+
+    @Test
+    void olderStatusDoesNotReplaceNewer() {
+        OffsetDateTime time = OffsetDateTime.now();
+        propagator.propagate(content(1), ContentStatus.PUBLISHED, time);
+        propagator.propagate(content(1), ContentStatus.REVIEW_REJECTED, time.minusSeconds(1));
+
+        propagator.flush();
+
+        List<ContentMetadata> written = captureWritten();
+        assertEquals(1, written.size());
+        assertEquals(ContentStatus.PUBLISHED, written.get(0).getContentStatus());
+        ContentStatusEvent<?> event = (ContentStatusEvent<?>) events.get(0);
+        assertEquals(ContentStatus.REVIEWING, event.getPreviousStatus());
+        assertEquals(ContentStatus.PUBLISHED, event.getCurrentStatus());
+    }
+
+    @Test
+    void failedBatchIsRetried() {
+        when(contentMetadataService.getMetadata(anyList()))
+                .thenThrow(new IllegalStateException("unavailable"))
+                .thenAnswer(invocation -> {
+                    List<ContentTrait> contents = invocation.getArgument(0);
+                    return contents.stream()
+                            .map(content -> metadata(content, ContentStatus.REVIEWING))
+                            .toList();
+                });
+        propagator.propagate(content(1), ContentStatus.PUBLISHED, OffsetDateTime.now());
+
+        assertThrows(IllegalStateException.class, propagator::flush);
+        assertTrue(events.isEmpty());
+        propagator.flush();
+
+        Map<String, ContentStatus> written = captureWritten().stream()
+                .collect(Collectors.toMap(ContentMetadata::getContentId,
+                        ContentMetadata::getContentStatus));
+        assertEquals(Map.of("1", ContentStatus.PUBLISHED), written);
+        assertEquals(1, events.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ContentMetadata> captureWritten() {
+        ArgumentCaptor<List<ContentMetadata>> captor = ArgumentCaptor.forClass(List.class);
+        verify(contentMetadataService).updateStatuses(captor.capture());
+        return captor.getValue();
+    }
+
+    private static ContentIdentity content(int index) {
+        return ContentIdentity.of(Integer.toString(index), ContentType.ARTICLE);
+    }
+
+    private static ContentMetadata metadata(ContentTrait content, ContentStatus status) {
+        return ContentMetadata.builder()
+                .setId(Long.parseLong(content.getContentId()))
+                .setUserId(1)
+                .setContentId(content.getContentId())
+                .setContentType(content.getContentType())
+                .setContentStatus(status)
+                .setContentAccessAuthType(ContentAccessAuthType.PUBLIC)
+                .build();
+    }
+}
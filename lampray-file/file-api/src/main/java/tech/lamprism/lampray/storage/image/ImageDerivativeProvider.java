@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.storage.image;
+
+import tech.lamprism.lampray.storage.FileStorage;
+
+import java.io.IOException;
+
+/**
+ * Provides resized and re-encoded variants of stored images.
+ *
+ * @author RollW
+ */
+public interface ImageDerivativeProvider {
+    /**
+     * Gets the storage of the derivative for the given source file,
+     * generating and storing it on first request.
+     * <p>
+     * The returned storage can be read through
+     * {@link tech.lamprism.lampray.storage.StorageProvider} by its file id.
+     *
+     * @param fileId the id of the source image
+     * @param spec   the derivative parameters
+     * @return the storage of the derivative
+     */
+    FileStorage getDerivative(String fileId, ImageDerivativeSpec spec) throws IOException;
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.storage.image;
+
+import java.util.Objects;
+
+/**
+ * Parameters of an image derivative. The requested width is rounded up
+ * to a fixed bucket, so that arbitrary widths share a small set of
+ * stored variants.
+ *
+ * @author RollW
+ */
+public final class ImageDerivativeSpec {
+    public static final String DERIVATIVE_ID_PREFIX = "derivative-";
+
+    private static final int[] WIDTH_BUCKETS = {32, 64, 128, 256, 512, 1024, 2048};
+
+    private final int width;
+    private final ImageFormat format;
+
+    private ImageDerivativeSpec(int width, ImageFormat format) {
+        this.width = width;
+        this.format = format;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public ImageFormat getFormat() {
+        return format;
+    }
+
+    public ImageDerivativeSpec withFormat(ImageFormat format) {
+        if (this.format == format) {
+            return this;
+        }
+        return new ImageDerivativeSpec(width, format);
+    }
+
+    /**
+     * Gets the storage id of the derivative generated from the source
+     * with the given content hash.
+     */
+    public String toDerivativeId(String sourceHash) {
+        return DERIVATIVE_ID_PREFIX + sourceHash + "-w" + width + "." + format.getExtension();
+    }
+
+    public static ImageDerivativeSpec of(int width, ImageFormat format) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Width must be positive: " + width);
+        }
+        return new ImageDerivativeSpec(toBucket(width),
+                Objects.requireNonNullElse(format, ImageFormat.PNG));
+    }
+
+    /**
+     * Parses the spec of a derivative request. The format is given by
+     * name or extension and defaults to PNG when absent.
+     *
+     * @throws IllegalArgumentException if the width is not positive or
+     *                                  the format is unknown
+     */
+    public static ImageDerivativeSpec parse(int width, String format) {
+        if (format == null || format.isBlank()) {
+            return of(width, ImageFormat.PNG);
+        }
+        ImageFormat imageFormat = ImageFormat.from(format.trim());
+        if (imageFormat == null) {
+            throw new IllegalArgumentException("Unknown image format: " + format);
+        }
+        return of(width, imageFormat);
+    }
+
+    public static boolean isDerivativeId(String id) {
+        return id != null && id.startsWith(DERIVATIVE_ID_PREFIX);
+    }
+
+    private static int toBucket(int width) {
+        for (int bucket : WIDTH_BUCKETS) {
+            if (width <= bucket) {
+                return bucket;
+            }
+        }
+        return WIDTH_BUCKETS[WIDTH_BUCKETS.length - 1];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ImageDerivativeSpec that)) return false;
+        return width == that.width && format == that.format;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(width, format);
+    }
+
+    @Override
+    public String toString() {
+        return "ImageDerivativeSpec{" +
+                "width=" + width +
+                ", format=" + format +
+                '}';
+    }
+}
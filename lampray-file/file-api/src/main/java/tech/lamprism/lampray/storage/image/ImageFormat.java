@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.storage.image;
+
+/**
+ * Output formats supported for image derivatives.
+ *
+ * @author RollW
+ */
+public enum ImageFormat {
+    PNG("png", "image/png", true),
+    JPEG("jpg", "image/jpeg", false),
+    WEBP("webp", "image/webp", true),
+    ;
+
+    private final String extension;
+    private final String mimeType;
+    private final boolean alphaSupported;
+
+    ImageFormat(String extension, String mimeType, boolean alphaSupported) {
+        this.extension = extension;
+        this.mimeType = mimeType;
+        this.alphaSupported = alphaSupported;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public boolean isAlphaSupported() {
+        return alphaSupported;
+    }
+
+    public static ImageFormat fromExtension(String extension) {
+        for (ImageFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(extension)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    public static ImageFormat from(String nameIgnoreCase) {
+        if (nameIgnoreCase == null) {
+            return null;
+        }
+        for (ImageFormat value : values()) {
+            if (value.name().equalsIgnoreCase(nameIgnoreCase) ||
+                    value.extension.equalsIgnoreCase(nameIgnoreCase)) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
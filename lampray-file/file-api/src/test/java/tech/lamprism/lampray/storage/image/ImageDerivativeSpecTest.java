@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.storage.image;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author RollW
+ */
+class ImageDerivativeSpecTest {
+
+    @Test
+    void widthIsRoundedUpToABucket() {
+        assertEquals(32, ImageDerivativeSpec.of(1, ImageFormat.PNG).getWidth());
+        assertEquals(128, ImageDerivativeSpec.of(100, ImageFormat.PNG).getWidth());
+        assertEquals(256, ImageDerivativeSpec.of(256, ImageFormat.PNG).getWidth());
+        assertEquals(2048, ImageDerivativeSpec.of(10_000, ImageFormat.PNG).getWidth());
+    }
+
+    @Test
+    void formatIsParsedByNameOrExtension() {
+        assertEquals(ImageFormat.JPEG, ImageDerivativeSpec.parse(100, "jpeg").getFormat());
+        assertEquals(ImageFormat.JPEG, ImageDerivativeSpec.parse(100, "JPG").getFormat());
+        assertEquals(ImageFormat.WEBP, ImageDerivativeSpec.parse(100, " webp ").getFormat());
+        assertEquals(ImageFormat.PNG, ImageDerivativeSpec.parse(100, "Png").getFormat());
+    }
+
+    @Test
+    void missingFormatDefaultsToPng() {
+        assertEquals(ImageFormat.PNG, ImageDerivativeSpec.parse(100, null).getFormat());
+        assertEquals(ImageFormat.PNG, ImageDerivativeSpec.parse(100, "").getFormat());
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ImageDerivativeSpec.parse(100, "gif"));
+        assertThrows(IllegalArgumentException.class, () -> ImageDerivativeSpec.parse(100, "png;"));
+    }
+
+    @Test
+    void nonPositiveWidthIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ImageDerivativeSpec.parse(0, "png"));
+        assertThrows(IllegalArgumentException.class, () -> ImageDerivativeSpec.of(-1, ImageFormat.PNG));
+    }
+
+    @Test
+    void derivativeIdKeysHashWidthAndFormat() {
+        ImageDerivativeSpec spec = ImageDerivativeSpec.parse(100, "jpg");
+
+        String id = spec.toDerivativeId("abc");
+
+        assertEquals("derivative-abc-w128.jpg", id);
+        assertTrue(ImageDerivativeSpec.isDerivativeId(id));
+        assertFalse(ImageDerivativeSpec.isDerivativeId("abc"));
+        assertEquals(spec, ImageDerivativeSpec.parse(120, "jpeg"));
+    }
+}
@@ -21,6 +21,7 @@ plugins {
 dependencies {
     api(project(":lampray-file:file-api"))
     api(project(":lampray-user:user-api"))
+    implementation("com.github.ben-manes.caffeine:caffeine")
     // spring web mvc
     implementation("org.springframework:spring-webmvc")
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.storage.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import tech.lamprism.lampray.storage.FileStorage;
+import tech.lamprism.lampray.storage.FileStoreManager;
+import tech.lamprism.lampray.storage.FileType;
+import tech.lamprism.lampray.storage.StorageException;
+import tech.lamprism.lampray.storage.StorageProvider;
+import tech.lamprism.lampray.storage.fs.FileStoreException;
+import tech.lamprism.lampray.storage.fs.StoredFile;
+import tech.lamprism.lampray.storage.image.ImageDerivativeProvider;
+import tech.lamprism.lampray.storage.image.ImageDerivativeSpec;
+import tech.lamprism.lampray.storage.image.ImageFormat;
+import tech.rollw.common.web.DataErrorCode;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Generates image derivatives with {@link ImageIO} and stores them
+ * back into the file store, keyed by the source content hash and the
+ * derivative parameters. Later requests are served from the stored
+ * variant without decoding the source again.
+ *
+ * @author RollW
+ */
+@Service
+public class ImageDerivativeService implements ImageDerivativeProvider {
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private final StorageProvider storageProvider;
+    private final FileStoreManager fileStoreManager;
+
+    private static final int MAX_SOURCE_HASHES = 10_000;
+
+    // file id -> source content hash, source files are immutable by id.
+    // A missed hash only costs one more read of the source.
+    private final Cache<String, String> sourceHashes = Caffeine.newBuilder()
+            .maximumSize(MAX_SOURCE_HASHES)
+            .build();
+    private final Striped<Lock> generateLocks = Striped.lock(64);
+
+    public ImageDerivativeService(StorageProvider storageProvider,
+                                  FileStoreManager fileStoreManager) {
+        this.storageProvider = storageProvider;
+        this.fileStoreManager = fileStoreManager;
+    }
+
+    @Override
+    public FileStorage getDerivative(String fileId, ImageDerivativeSpec spec) throws IOException {
+        FileStorage source = storageProvider.getFileStorage(fileId);
+        if (source.getFileType() != FileType.IMAGE) {
+            throw new StorageException(DataErrorCode.ERROR_DATA_NOT_EXIST,
+                    "Not an image file: " + fileId);
+        }
+        ImageDerivativeSpec actualSpec = spec.withFormat(resolveWritableFormat(spec.getFormat()));
+
+        String sourceHash = sourceHashes.getIfPresent(fileId);
+        byte[] sourceBytes = null;
+        if (sourceHash == null) {
+            sourceBytes = readSource(fileId);
+            sourceHash = Hashing.sha256().hashBytes(sourceBytes).toString();
+            sourceHashes.put(fileId, sourceHash);
+        }
+        String derivativeId = actualSpec.toDerivativeId(sourceHash);
+        StoredFile stored = findStoredDerivative(derivativeId);
+        if (stored == null) {
+            Lock lock = generateLocks.get(derivativeId);
+            lock.lock();
+            try {
+                stored = findStoredDerivative(derivativeId);
+                if (stored == null) {
+                    if (sourceBytes == null) {
+                        sourceBytes = readSource(fileId);
+                    }
+                    stored = generate(derivativeId, sourceBytes, actualSpec);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return FileStorage.builder()
+                .setFileId(derivativeId)
+                .setFileSize(stored.getSize())
+                .setMimeType(actualSpec.getFormat().getMimeType())
+                .setFileType(FileType.IMAGE)
+                .setCreateTime(source.getCreateTime())
+                .build();
+    }
+
+    private byte[] readSource(String fileId) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        storageProvider.getFile(fileId, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private StoredFile findStoredDerivative(String derivativeId) {
+        try {
+            return fileStoreManager.findStoredFile(derivativeId);
+        } catch (FileStoreException e) {
+            return null;
+        }
+    }
+
+    private StoredFile generate(String derivativeId, byte[] sourceBytes,
+                                ImageDerivativeSpec spec) throws IOException {
+        BufferedImage sourceImage = ImageIO.read(new ByteArrayInputStream(sourceBytes));
+        if (sourceImage == null) {
+            throw new IOException("Unsupported source image format for derivative: " + derivativeId);
+        }
+        BufferedImage resized = resize(sourceImage, spec);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (!ImageIO.write(resized, spec.getFormat().getExtension(), outputStream)) {
+            throw new IOException("No image writer for format: " + spec.getFormat());
+        }
+        logger.debug("Generated image derivative {}, {} -> {} bytes.",
+                derivativeId, sourceBytes.length, outputStream.size());
+        return fileStoreManager.storeFile(derivativeId,
+                new ByteArrayInputStream(outputStream.toByteArray())).get(0);
+    }
+
+    private static BufferedImage resize(BufferedImage source, ImageDerivativeSpec spec) {
+        int imageType = spec.getFormat().isAlphaSupported()
+                ? BufferedImage.TYPE_INT_ARGB
+                : BufferedImage.TYPE_INT_RGB;
+        // never upscale, only re-encode
+        int targetWidth = Math.min(spec.getWidth(), source.getWidth());
+        int targetHeight = Math.max(1,
+                (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+        // halve step by step to keep bilinear downscaling from aliasing
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height, imageType);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, int imageType) {
+        BufferedImage target = new BufferedImage(width, height, imageType);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING,
+                    RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * WebP encoding requires an ImageIO plugin on the classpath, falls back
+     * to PNG when there is none.
+     */
+    private static ImageFormat resolveWritableFormat(ImageFormat format) {
+        if (ImageIO.getImageWritersByFormatName(format.getExtension()).hasNext()) {
+            return format;
+        }
+        return ImageFormat.PNG;
+    }
+}
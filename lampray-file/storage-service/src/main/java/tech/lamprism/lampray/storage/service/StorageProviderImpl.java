@@ -20,12 +20,18 @@ import org.springframework.stereotype.Service;
 import tech.lamprism.lampray.TimeAttributed;
 import tech.lamprism.lampray.storage.DefaultStorageIds;
 import tech.lamprism.lampray.storage.FileStorage;
+import tech.lamprism.lampray.storage.FileStoreManager;
 import tech.lamprism.lampray.storage.FileSummary;
 import tech.lamprism.lampray.storage.FileType;
 import tech.lamprism.lampray.storage.StorageException;
 import tech.lamprism.lampray.storage.StorageProvider;
 import tech.lamprism.lampray.storage.StorageUrlProvider;
 import tech.lamprism.lampray.storage.StorageUrlProviderStrategy;
+import tech.lamprism.lampray.storage.fs.FileStoreException;
+import tech.lamprism.lampray.storage.fs.PositionMark;
+import tech.lamprism.lampray.storage.fs.StoredFile;
+import tech.lamprism.lampray.storage.image.ImageDerivativeSpec;
+import tech.lamprism.lampray.storage.image.ImageFormat;
 import tech.rollw.common.web.DataErrorCode;
 
 import java.io.FileNotFoundException;
@@ -38,10 +44,13 @@ import java.io.OutputStream;
  */
 @Service
 public class StorageProviderImpl implements StorageProvider, StorageUrlProvider {
+    private final FileStoreManager fileStoreManager;
     private StorageUrlProviderStrategy storageUrlProviderStrategy;
 
     public StorageProviderImpl(
+            FileStoreManager fileStoreManager,
             StorageUrlProviderStrategy storageUrlProviderStrategy) {
+        this.fileStoreManager = fileStoreManager;
         this.storageUrlProviderStrategy = storageUrlProviderStrategy;
     }
 
@@ -54,6 +63,10 @@ public class StorageProviderImpl implements StorageProvider, StorageUrlProvider
 
     @Override
     public void getFile(String fileId, OutputStream outputStream) throws IOException {
+        if (ImageDerivativeSpec.isDerivativeId(fileId)) {
+            fileStoreManager.writeFileToStream(fileId, outputStream);
+            return;
+        }
         switch (fileId) {
             case DefaultStorageIds.DEFAULT_AVATAR_ID -> loadLocalResource(USER_AVATAR_PATH, outputStream);
             case DefaultStorageIds.DEFAULT_USER_COVER_ID,
@@ -64,6 +77,11 @@ public class StorageProviderImpl implements StorageProvider, StorageUrlProvider
     @Override
     public void getFile(String fileId, OutputStream outputStream,
                         long startBytes, long endBytes) throws IOException {
+        if (ImageDerivativeSpec.isDerivativeId(fileId)) {
+            fileStoreManager.writeFileToStream(fileId, outputStream,
+                    PositionMark.fromStartEnd(startBytes, endBytes + 1));
+            return;
+        }
         switch (fileId) {
             case DefaultStorageIds.DEFAULT_AVATAR_ID -> loadLocalResource(USER_AVATAR_PATH, outputStream,
                     startBytes, endBytes);
@@ -94,6 +112,9 @@ public class StorageProviderImpl implements StorageProvider, StorageUrlProvider
 
     @Override
     public FileStorage getFileStorage(String fileId) {
+        if (ImageDerivativeSpec.isDerivativeId(fileId)) {
+            return getDerivativeStorage(fileId);
+        }
         switch (fileId) {
             case DefaultStorageIds.DEFAULT_AVATAR_ID -> {
                 return AVATAR_FILE_STORAGE;
@@ -107,6 +128,25 @@ public class StorageProviderImpl implements StorageProvider, StorageUrlProvider
                 "Not found file storage: " + fileId);
     }
 
+    private FileStorage getDerivativeStorage(String fileId) {
+        StoredFile storedFile;
+        try {
+            storedFile = fileStoreManager.findStoredFile(fileId);
+        } catch (FileStoreException e) {
+            throw new StorageException(DataErrorCode.ERROR_DATA_NOT_EXIST,
+                    "Not found file storage: " + fileId);
+        }
+        ImageFormat format = ImageFormat.fromExtension(
+                fileId.substring(fileId.lastIndexOf('.') + 1));
+        return FileStorage.builder()
+                .setFileId(fileId)
+                .setFileSize(storedFile.getSize())
+                .setCreateTime(storedFile.getCreatedAt())
+                .setMimeType(format == null ? "application/octet-stream" : format.getMimeType())
+                .setFileType(FileType.IMAGE)
+                .build();
+    }
+
     private static final String USER_AVATAR_PATH = "/static/images/user-avatar.png";
     private static final String USER_COVER_PATH = "/static/images/user-cover.png";
 
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.storage.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.lamprism.lampray.storage.FileStorage;
+import tech.lamprism.lampray.storage.FileStoreManager;
+import tech.lamprism.lampray.storage.FileType;
+import tech.lamprism.lampray.storage.StorageException;
+import tech.lamprism.lampray.storage.StorageProvider;
+import tech.lamprism.lampray.storage.fs.FileStoreException;
+import tech.lamprism.lampray.storage.fs.StoredFile;
+import tech.lamprism.lampray.storage.image.ImageDerivativeSpec;
+import tech.lamprism.lampray.storage.image.ImageFormat;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class ImageDerivativeServiceTest {
+    private static final String FILE_ID = "source";
+
+    private final StorageProvider storageProvider = mock(StorageProvider.class);
+    private final FileStoreManager fileStoreManager = mock(FileStoreManager.class);
+    private final Map<String, byte[]> stored = new ConcurrentHashMap<>();
+    private final ImageDerivativeService derivativeService =
+            new ImageDerivativeService(storageProvider, fileStoreManager);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        byte[] source = encode(new BufferedImage(300, 200, BufferedImage.TYPE_INT_ARGB), "png");
+        when(storageProvider.getFileStorage(FILE_ID)).thenReturn(FileStorage.builder()
+                .setFileId(FILE_ID)
+                .setFileSize(source.length)
+                .setMimeType("image/png")
+                .setFileType(FileType.IMAGE)
+                .setCreateTime(OffsetDateTime.now())
+                .build());
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(source);
+            return null;
+        }).when(storageProvider).getFile(eq(FILE_ID), any(OutputStream.class));
+
+        when(fileStoreManager.findStoredFile(anyString())).thenAnswer(invocation -> {
+            byte[] bytes = stored.get(invocation.<String>getArgument(0));
+            if (bytes == null) {
+                throw new FileStoreException("Not found");
+            }
+            return storedFile(bytes.length);
+        });
+        when(fileStoreManager.storeFile(anyString(), any(InputStream.class))).thenAnswer(invocation -> {
+            byte[] bytes = invocation.<InputStream>getArgument(1).readAllBytes();
+            stored.put(invocation.getArgument(0), bytes);
+            return List.of(storedFile(bytes.length));
+        });
+    }
+
+    @Test
+    void derivativeIsGeneratedOnceAndThenServedFromTheStore() throws IOException {
+        ImageDerivativeSpec spec = ImageDerivativeSpec.of(100, ImageFormat.PNG);
+
+        FileStorage first = derivativeService.getDerivative(FILE_ID, spec);
+        byte[] generated = stored.get(first.getFileId());
+        FileStorage second = derivativeService.getDerivative(FILE_ID, spec);
+
+        assertEquals(first.getFileId(), second.getFileId());
+        assertEquals(generated.length, second.getFileSize());
+        assertArrayEquals(generated, stored.get(second.getFileId()));
+        // the source hash is cached, so the source is read only once
+        verify(storageProvider, times(1)).getFile(eq(FILE_ID), any(OutputStream.class));
+        verify(fileStoreManager, times(1)).storeFile(anyString(), any(InputStream.class));
+    }
+
+    @Test
+    void derivativeIsDownscaledToTheBucketWidthButNeverUpscaled() throws IOException {
+        FileStorage smaller = derivativeService.getDerivative(FILE_ID,
+                ImageDerivativeSpec.of(100, ImageFormat.PNG));
+        FileStorage larger = derivativeService.getDerivative(FILE_ID,
+                ImageDerivativeSpec.of(1000, ImageFormat.PNG));
+
+        BufferedImage smallerImage = decode(stored.get(smaller.getFileId()));
+        assertEquals(128, smallerImage.getWidth());
+        assertEquals(85, smallerImage.getHeight());
+        BufferedImage largerImage = decode(stored.get(larger.getFileId()));
+        assertEquals(300, largerImage.getWidth());
+        assertEquals(200, largerImage.getHeight());
+    }
+
+    @Test
+    void formatsAreEncodedAsRequested() throws IOException {
+        FileStorage jpeg = derivativeService.getDerivative(FILE_ID,
+                ImageDerivativeSpec.of(100, ImageFormat.JPEG));
+
+        assertEquals("image/jpeg", jpeg.getMimeType());
+        assertEquals(ImageFormat.JPEG, ImageFormat.fromExtension(
+                jpeg.getFileId().substring(jpeg.getFileId().lastIndexOf('.') + 1)));
+        assertEquals(128, decode(stored.get(jpeg.getFileId())).getWidth());
+    }
+
+    @Test
+    void formatWithoutWriterFallsBackToPng() throws IOException {
+        assumeFalse(ImageIO.getImageWritersByFormatName("webp").hasNext(),
+                "A WebP writer is on the classpath");
+
+        FileStorage derivative = derivativeService.getDerivative(FILE_ID,
+                ImageDerivativeSpec.of(100, ImageFormat.WEBP));
+
+        assertEquals("image/png", derivative.getMimeType());
+        assertTrue(derivative.getFileId().endsWith("-w128.png"));
+        assertEquals(128, decode(stored.get(derivative.getFileId())).getWidth());
+    }
+
+    @Test
+    void nonImageFileIsRejected() throws IOException {
+        when(storageProvider.getFileStorage("text")).thenReturn(FileStorage.builder()
+                .setFileId("text")
+                .setFileSize(1)
+                .setMimeType("text/plain")
+                .setFileType(FileType.TEXT)
+                .setCreateTime(OffsetDateTime.now())
+                .build());
+
+        assertThrows(StorageException.class, () -> derivativeService.getDerivative("text",
+                ImageDerivativeSpec.of(100, ImageFormat.PNG)));
+        verify(storageProvider, never()).getFile(eq("text"), any(OutputStream.class));
+    }
+
+    private static StoredFile storedFile(long size) {
+        StoredFile storedFile = mock(StoredFile.class);
+        when(storedFile.getSize()).thenReturn(size);
+        return storedFile;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, format, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static BufferedImage decode(byte[] bytes) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(bytes));
+    }
+}
@@ -16,14 +16,12 @@
 
 package tech.lamprism.lampray.security.authentication.login;
 
-import com.google.common.io.ByteStreams;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.mail.MailProperties;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 import space.lingu.NonNull;
 import space.lingu.Nullable;
@@ -33,6 +31,9 @@ import tech.lamprism.lampray.push.PushMessageStrategyProvider;
 import tech.lamprism.lampray.push.PushType;
 import tech.lamprism.lampray.push.SimplePushMessageBody;
 import tech.lamprism.lampray.push.mail.MailPushUser;
+import tech.lamprism.lampray.push.template.MessageTemplate;
+import tech.lamprism.lampray.push.template.MessageTemplateKeys;
+import tech.lamprism.lampray.push.template.MessageTemplateRegistry;
 import tech.lamprism.lampray.user.AttributedUser;
 import tech.lamprism.lampray.user.AttributedUserDetails;
 import tech.rollw.common.web.AuthErrorCode;
@@ -40,8 +41,7 @@ import tech.rollw.common.web.ErrorCode;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.text.MessageFormat;
+import java.io.UncheckedIOException;
 import java.util.Locale;
 
 /**
@@ -58,13 +58,16 @@ public class EmailTokenLoginStrategy implements LoginStrategy {
     private final Cache cache;
     private final MailProperties mailProperties;
     private final PushMessageStrategyProvider pushMessageStrategyProvider;
+    private final MessageTemplateRegistry messageTemplateRegistry;
 
     public EmailTokenLoginStrategy(CacheManager cacheManager,
                                    MailProperties mailProperties,
-                                   PushMessageStrategyProvider pushMessageStrategyProvider) {
+                                   PushMessageStrategyProvider pushMessageStrategyProvider,
+                                   MessageTemplateRegistry messageTemplateRegistry) {
         this.cache = cacheManager.getCache(CACHE);
         this.mailProperties = mailProperties;
         this.pushMessageStrategyProvider = pushMessageStrategyProvider;
+        this.messageTemplateRegistry = messageTemplateRegistry;
     }
 
     private static final String FULL_SEQUENCE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ1234567890";
@@ -109,22 +112,23 @@ public class EmailTokenLoginStrategy implements LoginStrategy {
         if (!(token instanceof LoginConfirmToken confirmToken)) {
             throw new LoginTokenException(AuthErrorCode.ERROR_INVALID_TOKEN);
         }
+        String text;
         try {
-            String text = getMailText(confirmToken.token(), user,
+            text = getMailText(confirmToken.token(), user,
                     requestInfo != null ? requestInfo.getLocale() : null);
-            PushMessageStrategy pushMessageStrategy = pushMessageStrategyProvider.getPushMessageStrategy(PushType.EMAIL);
-            pushMessageStrategy.push(
-                    new MailPushUser(mailProperties.getUsername(), null),
-                    user,
-                    new SimplePushMessageBody("[Lampray] Login token confirmation", text, MessageMimeType.HTML)
-            );
-        } catch (FileNotFoundException e) {
+        } catch (IllegalArgumentException e) {
             logger.error("Mail template not found", e);
-            throw e;
-        } catch (IOException e) {
+            throw new FileNotFoundException(e.getMessage());
+        } catch (UncheckedIOException e) {
             logger.error("Failed to read mail template", e);
-            throw e;
+            throw e.getCause();
         }
+        PushMessageStrategy pushMessageStrategy = pushMessageStrategyProvider.getPushMessageStrategy(PushType.EMAIL);
+        pushMessageStrategy.push(
+                new MailPushUser(mailProperties.getUsername(), null),
+                user,
+                new SimplePushMessageBody("[Lampray] Login token confirmation", text, MessageMimeType.HTML)
+        );
     }
 
     @Override
@@ -132,41 +136,20 @@ public class EmailTokenLoginStrategy implements LoginStrategy {
         return LoginStrategyType.EMAIL_TOKEN;
     }
 
-    private String getMailText(String token, AttributedUser user, Locale locale) throws IOException {
-        String path = getHtmlTemplatePath(locale);
+    private String getMailText(String token, AttributedUser user, Locale locale) {
         // TODO: allow set by user in the future
 
-        // 1: web title,
-        // 2: user name,
-        // 3: token
-        // 4: contact email address
-        String text = read(path);
-        return MessageFormat.format(text,
+        // 0: web title,
+        // 1: user name,
+        // 2: token
+        // 3: contact email address
+        MessageTemplate template = messageTemplateRegistry.getTemplate(
+                MessageTemplateKeys.EMAIL_LOGIN_TOKEN_TEMPLATE, locale);
+        return template.render(
                 "Lampray",
                 user.getUsername(),
                 token,
                 mailProperties.getUsername());
     }
 
-    private String read(String resourcePath) throws IOException {
-        ClassPathResource resource = new ClassPathResource(resourcePath);
-        if (resource.exists()) {
-            byte[] data = ByteStreams.toByteArray(resource.getInputStream());
-            return new String(data, StandardCharsets.UTF_8);
-        }
-        resource = new ClassPathResource("email_templates/email-login-code.html_template");
-        if (!resource.exists()) {
-            throw new FileNotFoundException("Default resource not found: email_templates/email-login-code.html_template");
-        }
-        byte[] data = ByteStreams.toByteArray(resource.getInputStream());
-        return new String(data, StandardCharsets.UTF_8);
-    }
-
-    private String getHtmlTemplatePath(Locale locale) {
-        if (locale == null) {
-            return "email_templates/email-login-code.html_template";
-        }
-        return "email_templates/email-login-code_" + locale + ".html_template";
-    }
-
 }
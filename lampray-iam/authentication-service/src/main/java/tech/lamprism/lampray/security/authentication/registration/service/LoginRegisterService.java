@@ -17,6 +17,7 @@
 package tech.lamprism.lampray.security.authentication.registration.service;
 
 import com.google.common.base.Preconditions;
+import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
@@ -196,6 +197,7 @@ public class LoginRegisterService implements LoginProvider, RegisterTokenProvide
 
     @Override
     @NonNull
+    @Transactional
     public AttributedUser register(@NonNull final Registration registration) {
         Registration iter = registration;
         for (RegistrationInterceptor interceptor : registrationInterceptors) {
@@ -207,7 +209,7 @@ public class LoginRegisterService implements LoginProvider, RegisterTokenProvide
                 iter.getEmail(), iter.getRole(), iter.getEnabled()
         );
 
-        // TODO: replace with UserNotifier to send email
+        // The mail is recorded to the outbox within this transaction
         OnUserRegistrationEvent event = new OnUserRegistrationEvent(user, LocaleContextHolder.getLocale());
         eventPublisher.publishEvent(event);
 
@@ -257,6 +259,7 @@ public class LoginRegisterService implements LoginProvider, RegisterTokenProvide
     }
 
     @Override
+    @Transactional
     public void resendRegisterToken(UserIdentity user) {
         AttributedUser attributedUser = retrieveUser(user);
         OnUserRegistrationEvent event = new OnUserRegistrationEvent(
@@ -21,7 +21,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.mail.MailProperties;
 import org.springframework.context.ApplicationListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import space.lingu.NonNull;
 import tech.lamprism.lampray.push.HtmlMessageBuilder;
@@ -87,8 +86,12 @@ public class OnUserRegistrationEventListener implements ApplicationListener<OnUs
         return property;
     }
 
+    /**
+     * Handled on the publishing thread, so that the register token and
+     * the mail join the transaction of the registration. Sending the
+     * mail itself is left to the mail outbox.
+     */
     @Override
-    @Async
     public void onApplicationEvent(@NonNull OnUserRegistrationEvent event) {
         handleRegistration(event);
     }
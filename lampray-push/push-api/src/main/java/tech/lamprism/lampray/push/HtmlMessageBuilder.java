@@ -19,8 +19,8 @@ package tech.lamprism.lampray.push;
 import com.google.common.html.HtmlEscapers;
 import com.google.common.io.BaseEncoding;
 import org.apache.commons.lang3.tuple.Pair;
+import tech.lamprism.lampray.push.template.MessageTemplate;
 
-import java.text.MessageFormat;
 import java.util.List;
 
 /**
@@ -28,12 +28,21 @@ import java.util.List;
  */
 public class HtmlMessageBuilder implements PushMessageBuilder {
     private String title;
-    private StringBuilder content;
+    private final StringBuilder content;
 
     public HtmlMessageBuilder() {
         this.content = new StringBuilder();
     }
 
+    /**
+     * Creates a builder with room for the expected content length,
+     * so that building a large message does not grow the buffer
+     * over and over.
+     */
+    public HtmlMessageBuilder(int expectedLength) {
+        this.content = new StringBuilder(expectedLength);
+    }
+
     @Override
     public HtmlMessageBuilder setTitle(String title) {
         this.title = title;
@@ -42,7 +51,7 @@ public class HtmlMessageBuilder implements PushMessageBuilder {
 
     @Override
     public HtmlMessageBuilder clearContent() {
-        this.content = new StringBuilder();
+        this.content.setLength(0);
         return this;
     }
 
@@ -82,7 +91,8 @@ public class HtmlMessageBuilder implements PushMessageBuilder {
 
     @Override
     public HtmlMessageBuilder appendContent(String content, Object... args) {
-        this.content.append(MessageFormat.format(content, args));
+        // Patterns are compiled once and rendered into the content
+        MessageTemplate.of(content).renderTo(this.content, args);
         return this;
     }
 
@@ -17,19 +17,25 @@
 package tech.lamprism.lampray.push;
 
 import com.google.common.io.BaseEncoding;
-
-import java.text.MessageFormat;
+import tech.lamprism.lampray.push.template.MessageTemplate;
 
 /**
  * @author RollW
  */
 public class MarkdownMessageBuilder implements PushMessageBuilder {
     private String title;
-    private StringBuilder content;
+    private final StringBuilder content;
     
     public MarkdownMessageBuilder() {
         this.content = new StringBuilder();
     }
+
+    /**
+     * @param expectedLength initial capacity of the content
+     */
+    public MarkdownMessageBuilder(int expectedLength) {
+        this.content = new StringBuilder(expectedLength);
+    }
     
     @Override
     public MarkdownMessageBuilder setTitle(String title) {
@@ -39,7 +45,7 @@ public class MarkdownMessageBuilder implements PushMessageBuilder {
 
     @Override
     public MarkdownMessageBuilder clearContent() {
-        this.content = new StringBuilder();
+        this.content.setLength(0);
         return this;
     }
 
@@ -78,7 +84,8 @@ public class MarkdownMessageBuilder implements PushMessageBuilder {
     @Override
     public MarkdownMessageBuilder appendContent(String content,
                                                 Object... args) {
-        this.content.append(MessageFormat.format(content, args));
+        // Patterns are compiled once and rendered into the content
+        MessageTemplate.of(content).renderTo(this.content, args);
         return this;
     }
 
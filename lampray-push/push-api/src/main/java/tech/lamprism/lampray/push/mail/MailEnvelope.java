@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.mail;
+
+import java.util.Objects;
+
+/**
+ * A mail to a single recipient.
+ *
+ * @author RollW
+ */
+public final class MailEnvelope {
+    private final String from;
+    private final String to;
+    private final String subject;
+    private final String content;
+    private final boolean html;
+
+    public MailEnvelope(String from, String to,
+                        String subject, String content,
+                        boolean html) {
+        this.from = Objects.requireNonNull(from, "from");
+        this.to = Objects.requireNonNull(to, "to");
+        this.subject = subject;
+        this.content = content;
+        this.html = html;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public boolean isHtml() {
+        return html;
+    }
+
+    @Override
+    public String toString() {
+        return "MailEnvelope{" +
+                "from='" + from + '\'' +
+                ", to='" + to + '\'' +
+                ", subject='" + subject + '\'' +
+                ", html=" + html +
+                '}';
+    }
+}
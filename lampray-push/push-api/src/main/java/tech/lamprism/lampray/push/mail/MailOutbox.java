@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.mail;
+
+import java.util.List;
+
+/**
+ * Outbox of mails waiting to be sent.
+ * <p>
+ * Mails are recorded within the transaction of the caller, if any,
+ * and sent later in the background, so that callers neither wait
+ * for the mail server nor fail when it is unavailable.
+ *
+ * @author RollW
+ */
+public interface MailOutbox {
+    void enqueue(List<MailEnvelope> envelopes);
+
+    default void enqueue(MailEnvelope envelope) {
+        enqueue(List.of(envelope));
+    }
+}
@@ -16,10 +16,7 @@
 
 package tech.lamprism.lampray.push.mail;
 
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMailMessage;
 import org.springframework.stereotype.Service;
-import tech.lamprism.lampray.mail.util.MimeMailMessageBuilder;
 import tech.lamprism.lampray.push.PushMessageBody;
 import tech.lamprism.lampray.push.PushMessageStrategy;
 import tech.lamprism.lampray.push.PushType;
@@ -33,10 +30,10 @@ import java.util.List;
  */
 @Service
 public class MailPushMessageStrategy implements PushMessageStrategy {
-    private final JavaMailSender mailSender;
+    private final MailOutbox mailOutbox;
 
-    public MailPushMessageStrategy(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public MailPushMessageStrategy(MailOutbox mailOutbox) {
+        this.mailOutbox = mailOutbox;
     }
 
     @Override
@@ -47,37 +44,35 @@ public class MailPushMessageStrategy implements PushMessageStrategy {
     @Override
     public void push(PushUser pushUser, UserIdentity target,
                      PushMessageBody pushMessageBody) {
-        if (!(pushUser instanceof MailPushUser mailPushUser)) {
-            throw new IllegalArgumentException("pushUser must be MailPushUser");
-        }
-
-        MimeMailMessage message = new MimeMailMessageBuilder(mailSender)
-                .setTo(target.getEmail())
-                .setFrom(mailPushUser.toSenderName())
-                .setSubject(pushMessageBody.getTitle())
-                .setText(pushMessageBody.getContent(),
-                        pushMessageBody.getMimeType().isHtml())
-                .build();
-        mailSender.send(message.getMimeMessage());
+        MailPushUser mailPushUser = checkPushUser(pushUser);
+        mailOutbox.enqueue(toEnvelope(mailPushUser, target, pushMessageBody));
     }
 
     @Override
     public void push(PushUser pushUser, List<UserIdentity> targets,
                      PushMessageBody pushMessageBody) {
+        MailPushUser mailPushUser = checkPushUser(pushUser);
+        // One mail per recipient, recipients must not see each other
+        mailOutbox.enqueue(targets.stream()
+                .map(target -> toEnvelope(mailPushUser, target, pushMessageBody))
+                .toList());
+    }
+
+    private MailPushUser checkPushUser(PushUser pushUser) {
         if (!(pushUser instanceof MailPushUser mailPushUser)) {
             throw new IllegalArgumentException("pushUser must be MailPushUser");
         }
-
-        MimeMailMessage message = new MimeMailMessageBuilder(mailSender)
-                .setTo(targets.stream()
-                        .map(UserIdentity::getEmail)
-                        .toArray(String[]::new))
-                .setFrom(mailPushUser.toSenderName())
-                .setSubject(pushMessageBody.getTitle())
-                .setText(pushMessageBody.getContent(),
-                        pushMessageBody.getMimeType().isHtml())
-                .build();
-        mailSender.send(message.getMimeMessage());
+        return mailPushUser;
     }
 
+    private MailEnvelope toEnvelope(MailPushUser mailPushUser, UserIdentity target,
+                                    PushMessageBody pushMessageBody) {
+        return new MailEnvelope(
+                mailPushUser.toSenderName(),
+                target.getEmail(),
+                pushMessageBody.getTitle(),
+                pushMessageBody.getContent(),
+                pushMessageBody.getMimeType().isHtml()
+        );
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.template;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pattern in the syntax of {@link java.text.MessageFormat}, parsed
+ * once into literal parts and argument slots.
+ * <p>
+ * Only plain arguments like {@code {0}} are supported, which are
+ * rendered by {@link String#valueOf(Object)}. Quoting follows
+ * {@code MessageFormat}: text between single quotes is literal, and
+ * two single quotes stand for one. Rendering appends into a buffer
+ * reused by the rendering thread instead of parsing the pattern again.
+ *
+ * @author RollW
+ */
+public final class MessageTemplate {
+    private static final int MAX_POOLED_CAPACITY = 256 * 1024;
+    private static final int ESTIMATED_ARGUMENT_LENGTH = 16;
+
+    private static final ThreadLocal<StringBuilder> BUFFERS =
+            ThreadLocal.withInitial(StringBuilder::new);
+
+    private static final Cache<String, MessageTemplate> COMPILED = CacheBuilder.newBuilder()
+            .maximumSize(256)
+            .build();
+
+    /**
+     * Literal parts, one more than the arguments.
+     */
+    private final String[] literals;
+    private final int[] arguments;
+    private final int estimatedLength;
+
+    private MessageTemplate(String[] literals, int[] arguments) {
+        this.literals = literals;
+        this.arguments = arguments;
+        int length = arguments.length * ESTIMATED_ARGUMENT_LENGTH;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.estimatedLength = length;
+    }
+
+    /**
+     * Gets the number of argument slots, an argument may be
+     * referenced by more than one slot.
+     */
+    public int getArgumentCount() {
+        return arguments.length;
+    }
+
+    public String render(Object... args) {
+        StringBuilder buffer = BUFFERS.get();
+        buffer.setLength(0);
+        buffer.ensureCapacity(estimatedLength);
+        renderTo(buffer, args);
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_POOLED_CAPACITY) {
+            // Do not keep a huge buffer for every thread
+            BUFFERS.remove();
+        }
+        return result;
+    }
+
+    public void renderTo(StringBuilder out, Object... args) {
+        out.append(literals[0]);
+        for (int i = 0; i < arguments.length; i++) {
+            int index = arguments[i];
+            if (args != null && index < args.length) {
+                out.append(args[index]);
+            } else {
+                // same as MessageFormat
+                out.append('{').append(index).append('}');
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+
+    /**
+     * Gets a compiled template of the pattern, shared by callers
+     * using the same pattern.
+     */
+    public static MessageTemplate of(String pattern) {
+        MessageTemplate template = COMPILED.getIfPresent(pattern);
+        if (template == null) {
+            template = compile(pattern);
+            COMPILED.put(pattern, template);
+        }
+        return template;
+    }
+
+    /**
+     * Compiles the pattern.
+     *
+     * @throws IllegalArgumentException if the pattern is malformed or
+     *                                  contains arguments other than plain indexes
+     */
+    public static MessageTemplate compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> arguments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean quoted = false;
+        int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+                continue;
+            }
+            if (quoted || c != '{') {
+                literal.append(c);
+                continue;
+            }
+            int end = pattern.indexOf('}', i + 1);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unmatched braces in the pattern at " + i);
+            }
+            arguments.add(parseArgument(pattern.substring(i + 1, end)));
+            literals.add(literal.toString());
+            literal.setLength(0);
+            i = end;
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(
+                literals.toArray(String[]::new),
+                arguments.stream().mapToInt(Integer::intValue).toArray()
+        );
+    }
+
+    private static int parseArgument(String argument) {
+        // MessageFormat does not allow spaces around the index either
+        if (argument.isEmpty() || !argument.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new IllegalArgumentException("Unsupported argument: {" + argument + "}");
+        }
+        return Integer.parseInt(argument);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.template;
+
+import space.lingu.Nullable;
+
+import java.util.Map;
+
+/**
+ * Keys of message templates. A template is looked up in the localized
+ * message resources by its key first, then in the default resources
+ * on the classpath.
+ *
+ * @author RollW
+ */
+public final class MessageTemplateKeys {
+    public static final String EMAIL_LOGIN_TOKEN_TEMPLATE = "email.login-token";
+
+    private static final Map<String, String> DEFAULT_RESOURCES = Map.of(
+            EMAIL_LOGIN_TOKEN_TEMPLATE, "email_templates/email-login-code.html_template"
+    );
+
+    /**
+     * Gets the classpath location of the default template of the key.
+     * Localized variants are named by the locale before the extension,
+     * e.g. {@code email-login-code_zh_CN.html_template}.
+     */
+    @Nullable
+    public static String getDefaultResource(String key) {
+        return DEFAULT_RESOURCES.get(key);
+    }
+
+    private MessageTemplateKeys() {
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.template;
+
+import space.lingu.NonNull;
+import space.lingu.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Holds compiled {@link MessageTemplate}s by key and locale.
+ *
+ * @author RollW
+ */
+public interface MessageTemplateRegistry {
+    /**
+     * Gets the template of the key in the locale, falling back to
+     * less specific locales.
+     *
+     * @param locale the locale, or null for the default template
+     * @throws IllegalArgumentException if no template exists for the key
+     */
+    @NonNull
+    MessageTemplate getTemplate(@NonNull String key, @Nullable Locale locale);
+
+    /**
+     * Drops compiled templates of the key, they are loaded again
+     * on next use.
+     */
+    void invalidate(@NonNull String key);
+}
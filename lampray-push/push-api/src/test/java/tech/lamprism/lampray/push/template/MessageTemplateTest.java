@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.template;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Renders patterns with both {@link MessageTemplate} and
+ * {@link MessageFormat}, which must give the same output for
+ * the plain string arguments used by the templates.
+ *
+ * @author RollW
+ */
+class MessageTemplateTest {
+    private static final Object[] ARGUMENTS = {"alice", "https://lampray.test/a?b=c", "3 days"};
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "No arguments at all.",
+            "{0}",
+            "Hello, {0}!",
+            "Hello, {0}! Click {1} within {2}.",
+            "{2}{1}{0}",
+            "{0} and {0} again",
+            "It''s {0}''s mail.",
+            "'{0}' is not an argument",
+            "Quoted 'text with '' quote' and {1}",
+            "Unterminated quote '{0}",
+            "Closing brace } alone and {0}",
+            "Missing {3} argument",
+            "<a href=\"{1}\">{0}</a>\n<p>{2}</p>",
+            "你好，{0}，请在{2}内点击{1}。",
+    })
+    void rendersLikeMessageFormat(String pattern) {
+        String expected = new MessageFormat(pattern, Locale.ROOT).format(ARGUMENTS);
+
+        assertEquals(expected, MessageTemplate.compile(pattern).render(ARGUMENTS));
+
+        StringBuilder out = new StringBuilder("prefix:");
+        MessageTemplate.compile(pattern).renderTo(out, ARGUMENTS);
+        assertEquals("prefix:" + expected, out.toString());
+    }
+
+    @Test
+    void rendersMissingAndNullArgumentsLikeMessageFormat() {
+        String pattern = "{0}, {1} and {2}";
+        Object[] arguments = {"alice", null};
+
+        assertEquals(new MessageFormat(pattern, Locale.ROOT).format(arguments),
+                MessageTemplate.compile(pattern).render(arguments));
+        assertEquals(new MessageFormat(pattern, Locale.ROOT).format(null),
+                MessageTemplate.compile(pattern).render((Object[]) null));
+    }
+
+    @Test
+    void countsArgumentSlots() {
+        assertEquals(0, MessageTemplate.compile("'{0}'").getArgumentCount());
+        assertEquals(3, MessageTemplate.compile("{0} {1} {0}").getArgumentCount());
+    }
+
+    @Test
+    void reusesBufferAcrossRenders() {
+        MessageTemplate template = MessageTemplate.compile("Hello, {0}!");
+
+        assertEquals("Hello, " + "x".repeat(1000) + "!", template.render("x".repeat(1000)));
+        // Left over content of the pooled buffer must not leak
+        assertEquals("Hello, y!", template.render("y"));
+    }
+
+    @Test
+    void sharesCompiledTemplates() {
+        assertSame(MessageTemplate.of("Shared {0}"), MessageTemplate.of("Shared {0}"));
+    }
+
+    @Test
+    void rejectsUnsupportedPatterns() {
+        // Formatted arguments are not supported
+        assertThrows(IllegalArgumentException.class,
+                () -> MessageTemplate.compile("{0,number,integer}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> MessageTemplate.compile("{name}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> MessageTemplate.compile("Unmatched {0"));
+        assertThrows(IllegalArgumentException.class,
+                () -> MessageTemplate.compile("Empty {}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> MessageTemplate.compile("{ 1 } with spaces"));
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+plugins {
+    id("buildlogic.java-conventions")
+    id("buildlogic.jpa-conventions")
+}
+
+dependencies {
+    api(project(":lampray-push:push-api"))
+    api(project(":lampray-common-data"))
+    api(project(":lampray-system:message-resource-api"))
+
+    testImplementation(libs.greenmail.junit5)
+}
+
+description = "lampray-push-service"
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.mail.outbox;
+
+import jakarta.mail.internet.MimeMessage;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import tech.lamprism.lampray.mail.util.MimeMailMessageBuilder;
+import tech.lamprism.lampray.push.mail.MailEnvelope;
+import tech.lamprism.lampray.push.mail.outbox.persistence.MailOutboxEntity;
+import tech.lamprism.lampray.push.mail.outbox.persistence.MailOutboxRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends mails of the outbox in the background.
+ * <p>
+ * A poller on the shared scheduler claims due mails in batches, one
+ * poll at a time, and hands each batch to one of a few dispatcher
+ * threads. A batch is sent in one call to
+ * the {@link JavaMailSender}, which delivers all of its messages over
+ * a single SMTP connection, one message per recipient.
+ * <p>
+ * Failed mails are retried with exponential backoff and jitter, and
+ * given up after {@value #MAX_ATTEMPTS} attempts. A claim only lasts
+ * for a lease, so mails claimed by a dispatcher that died are picked
+ * up again once the lease expires. Results are only written back to
+ * mails still holding the claim of the batch.
+ *
+ * @author RollW
+ */
+@Component
+public class MailOutboxDispatcher implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private static final int DISPATCHERS = 2;
+    private static final int BATCH_SIZE = 20;
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+    private static final long LEASE_MILLIS = Duration.ofMinutes(5).toMillis();
+
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MILLIS = Duration.ofSeconds(30).toMillis();
+    private static final long MAX_BACKOFF_MILLIS = Duration.ofHours(1).toMillis();
+
+    private static final Duration SENT_RETENTION = Duration.ofDays(7);
+    private static final long PURGE_INTERVAL_MILLIS = Duration.ofHours(1).toMillis();
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final JavaMailSender mailSender;
+
+    private final TaskScheduler taskScheduler;
+    private final ScheduledFuture<?> pollTask;
+    private final ExecutorService dispatchers;
+    private final Semaphore idleDispatchers = new Semaphore(DISPATCHERS);
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private volatile boolean stopped = false;
+
+    /**
+     * Only accessed while polling, under the lock of this dispatcher.
+     */
+    private long lastPurgeTime;
+
+    public MailOutboxDispatcher(MailOutboxRepository mailOutboxRepository,
+                                JavaMailSender mailSender,
+                                @Qualifier("mainTaskScheduler") TaskScheduler taskScheduler) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailSender = mailSender;
+        this.taskScheduler = taskScheduler;
+        AtomicInteger counter = new AtomicInteger();
+        this.dispatchers = Executors.newFixedThreadPool(DISPATCHERS, runnable -> {
+            Thread thread = new Thread(runnable,
+                    "mail-outbox-dispatcher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pollTask = taskScheduler.scheduleWithFixedDelay(this::pollSafely,
+                Instant.now().plus(POLL_INTERVAL), POLL_INTERVAL);
+    }
+
+    /**
+     * Looks for due mails now instead of at the next poll.
+     */
+    public void wakeUp() {
+        // Coalesces bursts of enqueued mails into one poll
+        if (stopped || !wakeUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskScheduler.schedule(() -> {
+                wakeUpPending.set(false);
+                pollSafely();
+            }, Instant.now());
+        } catch (RejectedExecutionException ignored) {
+            // shutting down
+            wakeUpPending.set(false);
+        }
+    }
+
+    // Polls never overlap, as they share the purge time
+    private synchronized void pollSafely() {
+        if (stopped) {
+            return;
+        }
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.error("Failed to poll the mail outbox.", e);
+        }
+    }
+
+    private void poll() {
+        purgeIfDue();
+        while (idleDispatchers.tryAcquire()) {
+            ClaimedBatch batch;
+            try {
+                batch = claimBatch();
+            } catch (RuntimeException e) {
+                idleDispatchers.release();
+                throw e;
+            }
+            if (batch.mails().isEmpty()) {
+                idleDispatchers.release();
+                return;
+            }
+            dispatchers.execute(() -> {
+                try {
+                    send(batch);
+                } catch (RuntimeException e) {
+                    logger.error("Failed to send {} mails of the outbox.", batch.mails().size(), e);
+                } finally {
+                    idleDispatchers.release();
+                    // There may be more mails waiting
+                    wakeUp();
+                }
+            });
+        }
+    }
+
+    private ClaimedBatch claimBatch() {
+        long now = System.currentTimeMillis();
+        List<Long> ids = mailOutboxRepository.findDueIds(now, BATCH_SIZE);
+        if (ids.isEmpty()) {
+            return ClaimedBatch.EMPTY;
+        }
+        String token = UUID.randomUUID().toString();
+        if (mailOutboxRepository.claim(ids, token, now, now + LEASE_MILLIS) == 0) {
+            return ClaimedBatch.EMPTY;
+        }
+        return new ClaimedBatch(token, mailOutboxRepository.findClaimed(token));
+    }
+
+    private void send(ClaimedBatch claimed) {
+        List<MailOutboxEntity> batch = claimed.mails();
+        Map<MimeMessage, MailOutboxEntity> messages = new IdentityHashMap<>();
+        Map<MailOutboxEntity, Exception> failures = new IdentityHashMap<>();
+        for (MailOutboxEntity entity : batch) {
+            try {
+                messages.put(buildMessage(entity.toEnvelope()), entity);
+            } catch (RuntimeException e) {
+                failures.put(entity, e);
+            }
+        }
+        if (!messages.isEmpty()) {
+            sendMessages(messages, failures);
+        }
+
+        long now = System.currentTimeMillis();
+        OffsetDateTime updateTime = OffsetDateTime.now();
+        List<MailOutboxEntity> updated = new ArrayList<>(batch.size());
+        for (MailOutboxEntity entity : batch) {
+            Exception failure = failures.get(entity);
+            if (failure == null) {
+                markSent(entity);
+            } else {
+                markFailed(entity, failure, now);
+            }
+            entity.setUpdateTime(updateTime);
+            updated.add(entity);
+        }
+        int released = mailOutboxRepository.release(updated, claimed.token());
+        if (released < updated.size()) {
+            // Only possible when sending took longer than the lease
+            logger.warn("Lost the claim of {} of {} mails before writing back, " +
+                    "they may be sent again.", updated.size() - released, updated.size());
+        }
+        if (!failures.isEmpty()) {
+            logger.warn("Failed to send {} of {} mails, will retry later.",
+                    failures.size(), batch.size());
+        }
+    }
+
+    private void sendMessages(Map<MimeMessage, MailOutboxEntity> messages,
+                              Map<MailOutboxEntity, Exception> failures) {
+        try {
+            mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            if (failedMessages.isEmpty()) {
+                messages.values().forEach(entity -> failures.put(entity, e));
+                return;
+            }
+            failedMessages.forEach((message, exception) -> {
+                MailOutboxEntity entity = messages.get(message);
+                if (entity != null) {
+                    failures.put(entity, exception);
+                }
+            });
+        } catch (MailException e) {
+            messages.values().forEach(entity -> failures.put(entity, e));
+        }
+    }
+
+    private MimeMessage buildMessage(MailEnvelope envelope) {
+        return new MimeMailMessageBuilder(mailSender)
+                .setTo(envelope.getTo())
+                .setFrom(envelope.getFrom())
+                .setSubject(envelope.getSubject())
+                .setText(envelope.getContent(), envelope.isHtml())
+                .build()
+                .getMimeMessage();
+    }
+
+    private void markSent(MailOutboxEntity entity) {
+        entity.setStatus(MailOutboxStatus.SENT);
+        entity.setAttempts(entity.getAttempts() + 1);
+        entity.setClaimToken(null);
+        entity.setLastError(null);
+    }
+
+    private void markFailed(MailOutboxEntity entity, Exception failure, long now) {
+        int attempts = entity.getAttempts() + 1;
+        entity.setAttempts(attempts);
+        entity.setClaimToken(null);
+        entity.setLastError(StringUtils.abbreviate(
+                String.valueOf(failure.getMessage()), MAX_ERROR_LENGTH));
+        if (attempts >= MAX_ATTEMPTS) {
+            logger.error("Gave up sending mail {} after {} attempts.", entity.getId(), attempts);
+            entity.setStatus(MailOutboxStatus.FAILED);
+            return;
+        }
+        entity.setNextAttemptTime(now + backoff(attempts));
+    }
+
+    /**
+     * Exponential backoff with a jitter of 20% either way, so that
+     * mails failed together do not retry together.
+     */
+    private static long backoff(int attempts) {
+        long delay = Math.min(MAX_BACKOFF_MILLIS,
+                BASE_BACKOFF_MILLIS << Math.min(attempts - 1, 16));
+        long jitter = delay / 5;
+        return delay - jitter + ThreadLocalRandom.current().nextLong(2 * jitter + 1);
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeTime < PURGE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastPurgeTime = now;
+        long deleted = mailOutboxRepository.deleteSentBefore(
+                OffsetDateTime.now().minus(SENT_RETENTION));
+        if (deleted > 0) {
+            logger.debug("Purged {} sent mails from the outbox.", deleted);
+        }
+    }
+
+    private record ClaimedBatch(String token, List<MailOutboxEntity> mails) {
+        static final ClaimedBatch EMPTY = new ClaimedBatch(null, List.of());
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        stopped = true;
+        pollTask.cancel(false);
+        dispatchers.shutdown();
+        // Unfinished claims expire with their lease
+        if (!dispatchers.awaitTermination(10, TimeUnit.SECONDS)) {
+            dispatchers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.mail.outbox;
+
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.lamprism.lampray.push.mail.MailEnvelope;
+import tech.lamprism.lampray.push.mail.MailOutbox;
+import tech.lamprism.lampray.push.mail.outbox.persistence.MailOutboxEntity;
+import tech.lamprism.lampray.push.mail.outbox.persistence.MailOutboxRepository;
+
+import java.util.List;
+
+/**
+ * Records mails in the {@code mail_outbox} table. The rows join the
+ * transaction of the caller, so a mail is only sent if the business
+ * change that triggered it is committed.
+ *
+ * @author RollW
+ */
+@Service
+public class MailOutboxService implements MailOutbox {
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailOutboxDispatcher mailOutboxDispatcher;
+
+    public MailOutboxService(MailOutboxRepository mailOutboxRepository,
+                             MailOutboxDispatcher mailOutboxDispatcher) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailOutboxDispatcher = mailOutboxDispatcher;
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(List<MailEnvelope> envelopes) {
+        if (envelopes.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        mailOutboxRepository.saveAll(envelopes.stream()
+                .map(envelope -> MailOutboxEntity.toEntity(envelope, now))
+                .toList());
+        wakeUpAfterCommit();
+    }
+
+    private void wakeUpAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            mailOutboxDispatcher.wakeUp();
+            return;
+        }
+        // Do not let the dispatcher look for rows it cannot see yet
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                mailOutboxDispatcher.wakeUp();
+            }
+        });
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.mail.outbox.persistence
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.EnumType
+import jakarta.persistence.Enumerated
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.Index
+import jakarta.persistence.Lob
+import jakarta.persistence.Table
+import org.hibernate.annotations.JdbcTypeCode
+import org.hibernate.type.SqlTypes
+import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.push.mail.MailEnvelope
+import tech.lamprism.lampray.push.mail.outbox.MailOutboxResourceKind
+import tech.lamprism.lampray.push.mail.outbox.MailOutboxStatus
+import tech.rollw.common.web.system.SystemResourceKind
+import java.nio.charset.StandardCharsets
+import java.time.OffsetDateTime
+
+/**
+ * @author RollW
+ */
+@Entity
+@Table(
+    name = "mail_outbox",
+    indexes = [
+        Index(name = "index__status_next_attempt", columnList = "status, next_attempt_time")
+    ]
+)
+class MailOutboxEntity(
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private var id: Long? = null,
+
+    @Column(name = "sender", nullable = false, length = 255)
+    var sender: String = "",
+
+    @Column(name = "recipient", nullable = false, length = 255)
+    var recipient: String = "",
+
+    @Column(name = "subject", nullable = false, length = 512)
+    var subject: String = "",
+
+    /**
+     * Content in UTF-8.
+     */
+    @Lob
+    @Column(name = "content", nullable = false)
+    var content: ByteArray = ByteArray(0),
+
+    @Column(name = "html", nullable = false)
+    var html: Boolean = false,
+
+    @Column(name = "status", nullable = false, length = 24)
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    var status: MailOutboxStatus = MailOutboxStatus.PENDING,
+
+    @Column(name = "attempts", nullable = false)
+    var attempts: Int = 0,
+
+    /**
+     * Time in epoch milliseconds after which the mail is due. Also
+     * pushed forward when the mail is claimed by a dispatcher, so an
+     * unfinished claim expires by itself.
+     */
+    @Column(name = "next_attempt_time", nullable = false)
+    var nextAttemptTime: Long = 0,
+
+    @Column(name = "claim_token", length = 64)
+    var claimToken: String? = null,
+
+    @Column(name = "last_error", length = 512)
+    var lastError: String? = null,
+
+    @Column(name = "create_time", nullable = false)
+    private var createTime: OffsetDateTime = OffsetDateTime.now(),
+
+    @Column(name = "update_time", nullable = false)
+    private var updateTime: OffsetDateTime = OffsetDateTime.now()
+) : DataEntity<Long> {
+    override fun getEntityId(): Long? = id
+
+    fun getId(): Long? = id
+
+    override fun getSystemResourceKind(): SystemResourceKind = MailOutboxResourceKind
+
+    override fun getCreateTime(): OffsetDateTime = createTime
+
+    override fun getUpdateTime(): OffsetDateTime = updateTime
+
+    fun setUpdateTime(updateTime: OffsetDateTime) {
+        this.updateTime = updateTime
+    }
+
+    fun toEnvelope(): MailEnvelope = MailEnvelope(
+        sender,
+        recipient,
+        subject,
+        String(content, StandardCharsets.UTF_8),
+        html
+    )
+
+    companion object {
+        @JvmStatic
+        fun MailEnvelope.toEntity(nextAttemptTime: Long) = MailOutboxEntity(
+            sender = from,
+            recipient = to,
+            subject = subject ?: "",
+            content = (content ?: "").toByteArray(StandardCharsets.UTF_8),
+            html = isHtml,
+            nextAttemptTime = nextAttemptTime
+        )
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.mail.outbox.persistence
+
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import org.springframework.data.domain.Sort
+import org.springframework.data.jpa.domain.Specification
+import org.springframework.stereotype.Repository
+import tech.lamprism.lampray.common.data.CommonRepository
+import tech.lamprism.lampray.push.mail.outbox.MailOutboxStatus
+import java.time.OffsetDateTime
+
+/**
+ * @author RollW
+ */
+@Repository
+class MailOutboxRepository(
+    mailOutboxDao: MailOutboxDao,
+    private val entityManager: EntityManager
+) : CommonRepository<MailOutboxEntity, Long>(mailOutboxDao) {
+
+    /**
+     * Finds ids of pending mails due at the time, earliest first.
+     */
+    fun findDueIds(time: Long, limit: Int): List<Long> {
+        val spec = Specification<MailOutboxEntity> { root, _, cb ->
+            cb.and(
+                cb.equal(root.get(MailOutboxEntity_.status), MailOutboxStatus.PENDING),
+                cb.lessThanOrEqualTo(root.get(MailOutboxEntity_.nextAttemptTime), time)
+            )
+        }
+        val due: List<MailOutboxEntity> = findBy(spec) {
+            it.sortBy(EARLIEST_FIRST).limit(limit).all()
+        }
+        return due.mapNotNull { it.getId() }
+    }
+
+    /**
+     * Claims the mails that are still due, by tagging them with the
+     * token and pushing their next attempt to the end of the lease.
+     * A mail claimed by another dispatcher in the meantime is skipped,
+     * since it is no longer due.
+     *
+     * @return the number of claimed mails
+     */
+    @Transactional
+    fun claim(ids: Collection<Long>, token: String, time: Long, leaseUntil: Long): Int {
+        if (ids.isEmpty()) {
+            return 0
+        }
+        val cb = entityManager.criteriaBuilder
+        val update = cb.createCriteriaUpdate(MailOutboxEntity::class.java)
+        val root = update.from(MailOutboxEntity::class.java)
+        update.set(root.get(MailOutboxEntity_.claimToken), token)
+            .set(root.get(MailOutboxEntity_.nextAttemptTime), leaseUntil)
+            .where(
+                root.get(MailOutboxEntity_.id).`in`(ids),
+                cb.equal(root.get(MailOutboxEntity_.status), MailOutboxStatus.PENDING),
+                cb.lessThanOrEqualTo(root.get(MailOutboxEntity_.nextAttemptTime), time)
+            )
+        return entityManager.createQuery(update).executeUpdate()
+    }
+
+    fun findClaimed(token: String): List<MailOutboxEntity> = findAll { root, _, cb ->
+        cb.and(
+            cb.equal(root.get(MailOutboxEntity_.claimToken), token),
+            cb.equal(root.get(MailOutboxEntity_.status), MailOutboxStatus.PENDING)
+        )
+    }
+
+    /**
+     * Writes back the outcome of claimed mails, releasing the claim.
+     * A mail is only written while it still holds the token, so a
+     * dispatcher whose lease expired and whose mails were claimed
+     * again cannot overwrite the newer claim.
+     *
+     * @return the number of mails written
+     */
+    @Transactional
+    fun release(mails: Collection<MailOutboxEntity>, token: String): Int {
+        val cb = entityManager.criteriaBuilder
+        var released = 0
+        for (mail in mails) {
+            val update = cb.createCriteriaUpdate(MailOutboxEntity::class.java)
+            val root = update.from(MailOutboxEntity::class.java)
+            update.set(root.get(MailOutboxEntity_.status), mail.status)
+                .set(root.get(MailOutboxEntity_.attempts), mail.attempts)
+                .set(root.get(MailOutboxEntity_.nextAttemptTime), mail.nextAttemptTime)
+                .set(root.get(MailOutboxEntity_.lastError), mail.lastError)
+                .set(root.get(MailOutboxEntity_.claimToken), null as String?)
+                .set(root.get(MailOutboxEntity_.updateTime), mail.getUpdateTime())
+                .where(
+                    cb.equal(root.get(MailOutboxEntity_.id), mail.getId()),
+                    cb.equal(root.get(MailOutboxEntity_.claimToken), token)
+                )
+            released += entityManager.createQuery(update).executeUpdate()
+        }
+        return released
+    }
+
+    /**
+     * Deletes sent mails last updated before the time.
+     */
+    @Transactional
+    fun deleteSentBefore(time: OffsetDateTime): Long = delete(
+        Specification { root, _, cb ->
+            cb.and(
+                cb.equal(root.get(MailOutboxEntity_.status), MailOutboxStatus.SENT),
+                cb.lessThan(root.get(MailOutboxEntity_.updateTime), time)
+            )
+        }
+    )
+
+    companion object {
+        private val EARLIEST_FIRST = Sort.by(
+            Sort.Order.asc(MailOutboxEntity_.NEXT_ATTEMPT_TIME),
+            Sort.Order.asc(MailOutboxEntity_.ID)
+        )
+    }
+}
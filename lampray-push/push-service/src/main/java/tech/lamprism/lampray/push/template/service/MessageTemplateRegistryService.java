@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.template.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import space.lingu.NonNull;
+import space.lingu.Nullable;
+import tech.lamprism.lampray.push.template.MessageTemplate;
+import tech.lamprism.lampray.push.template.MessageTemplateKeys;
+import tech.lamprism.lampray.push.template.MessageTemplateRegistry;
+import tech.lamprism.lampray.system.resource.LocalizedMessageResource;
+import tech.lamprism.lampray.system.resource.LocalizedMessageResourceChangeEvent;
+import tech.lamprism.lampray.system.resource.LocalizedMessageResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads each template once per requested locale and keeps it compiled.
+ * <p>
+ * For a locale like {@code zh_CN}, the locales {@code zh_CN}, {@code zh}
+ * and the root locale are tried in turn. For each of them a localized
+ * message resource of the key is preferred over the default resource
+ * on the classpath. Templates of a key are dropped when its localized
+ * message resources change.
+ *
+ * @author RollW
+ */
+@Service
+public class MessageTemplateRegistryService implements MessageTemplateRegistry {
+    private final LocalizedMessageResourceLoader localizedMessageResourceLoader;
+
+    private final Map<TemplateId, MessageTemplate> templates = new ConcurrentHashMap<>();
+
+    public MessageTemplateRegistryService(LocalizedMessageResourceLoader localizedMessageResourceLoader) {
+        this.localizedMessageResourceLoader = localizedMessageResourceLoader;
+    }
+
+    @NonNull
+    @Override
+    public MessageTemplate getTemplate(@NonNull String key, @Nullable Locale locale) {
+        TemplateId id = new TemplateId(key, locale == null ? Locale.ROOT : locale);
+        MessageTemplate template = templates.get(id);
+        if (template != null) {
+            return template;
+        }
+        return templates.computeIfAbsent(id, this::load);
+    }
+
+    @Override
+    public void invalidate(@NonNull String key) {
+        templates.keySet().removeIf(id -> id.key().equals(key));
+    }
+
+    @EventListener
+    public void onLocalizedMessageResourceChange(LocalizedMessageResourceChangeEvent event) {
+        invalidate(event.getKey());
+    }
+
+    private MessageTemplate load(TemplateId id) {
+        String defaultResource = MessageTemplateKeys.getDefaultResource(id.key());
+        for (Locale candidate : getCandidates(id.locale())) {
+            LocalizedMessageResource resource =
+                    localizedMessageResourceLoader.getMessageResource(id.key(), candidate);
+            // The loader falls back by itself, but a less specific message
+            // must not take precedence over a bundled localized template
+            if (resource != null && resource.getLocale().equals(candidate)) {
+                return MessageTemplate.compile(resource.getValue());
+            }
+            String text = defaultResource == null
+                    ? null
+                    : readClasspath(localize(defaultResource, candidate));
+            if (text != null) {
+                return MessageTemplate.compile(text);
+            }
+        }
+        throw new IllegalArgumentException("No template found for key: " + id.key());
+    }
+
+    private static List<Locale> getCandidates(Locale locale) {
+        List<Locale> candidates = new ArrayList<>(3);
+        if (!locale.equals(Locale.ROOT)) {
+            candidates.add(locale);
+            if (!locale.getCountry().isEmpty() || !locale.getVariant().isEmpty()) {
+                candidates.add(new Locale(locale.getLanguage()));
+            }
+        }
+        candidates.add(Locale.ROOT);
+        return candidates;
+    }
+
+    /**
+     * Inserts the locale before the extension, {@code a/b.ext}
+     * becomes {@code a/b_zh_CN.ext}.
+     */
+    private static String localize(String resource, Locale locale) {
+        if (locale.equals(Locale.ROOT)) {
+            return resource;
+        }
+        int extension = resource.lastIndexOf('.');
+        if (extension < resource.lastIndexOf('/') + 1) {
+            return resource + "_" + locale;
+        }
+        return resource.substring(0, extension) + "_" + locale + resource.substring(extension);
+    }
+
+    @Nullable
+    private static String readClasspath(String path) {
+        ClassPathResource resource = new ClassPathResource(path);
+        if (!resource.exists()) {
+            return null;
+        }
+        try (InputStream inputStream = resource.getInputStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read template: " + path, e);
+        }
+    }
+
+    private record TemplateId(String key, Locale locale) {
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.push.mail.outbox;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import tech.lamprism.lampray.push.mail.MailEnvelope;
+import tech.lamprism.lampray.push.mail.outbox.persistence.MailOutboxEntity;
+import tech.lamprism.lampray.push.mail.outbox.persistence.MailOutboxRepository;
+
+import java.net.ServerSocket;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sends mails of the outbox to an embedded SMTP server.
+ *
+ * @author RollW
+ */
+class MailOutboxDispatcherTest {
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final MailOutboxRepository repository = mock(MailOutboxRepository.class);
+    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+    private MailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        taskScheduler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.destroy();
+        }
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    void sendsClaimedMailsAndReleasesWithToken() throws Exception {
+        List<MailOutboxEntity> mails = List.of(
+                mail("alice@lampray.test", "Hello"),
+                mail("bob@lampray.test", "World")
+        );
+        ArgumentCaptor<String> claimToken = stubClaim(mails);
+        when(repository.release(anyCollection(), anyString()))
+                .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
+
+        dispatcher = new MailOutboxDispatcher(repository, mailSender(greenMail.getSmtp().getPort()),
+                taskScheduler);
+        dispatcher.wakeUp();
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 2));
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, received.length);
+        assertEquals(List.of("Hello", "World"),
+                List.of(received[0].getSubject(), received[1].getSubject()));
+
+        ArgumentCaptor<String> releaseToken = ArgumentCaptor.forClass(String.class);
+        verify(repository, timeout(5000)).release(anyCollection(), releaseToken.capture());
+        // The final write is only applied to rows still holding the claim
+        assertEquals(claimToken.getValue(), releaseToken.getValue());
+        for (MailOutboxEntity mail : mails) {
+            assertEquals(MailOutboxStatus.SENT, mail.getStatus());
+            assertEquals(1, mail.getAttempts());
+            assertNull(mail.getClaimToken());
+            assertNull(mail.getLastError());
+        }
+    }
+
+    @Test
+    void failedMailsAreRetriedLater() throws Exception {
+        List<MailOutboxEntity> mails = List.of(mail("alice@lampray.test", "Hello"));
+        ArgumentCaptor<String> claimToken = stubClaim(mails);
+        when(repository.release(anyCollection(), anyString())).thenReturn(1);
+
+        long before = System.currentTimeMillis();
+        dispatcher = new MailOutboxDispatcher(repository, mailSender(unusedPort()), taskScheduler);
+        dispatcher.wakeUp();
+
+        verify(repository, timeout(10000)).release(anyCollection(), anyString());
+        assertNotNull(claimToken.getValue());
+        MailOutboxEntity mail = mails.get(0);
+        assertEquals(MailOutboxStatus.PENDING, mail.getStatus());
+        assertEquals(1, mail.getAttempts());
+        assertNull(mail.getClaimToken());
+        assertNotNull(mail.getLastError());
+        assertTrue(mail.getNextAttemptTime() > before);
+    }
+
+    @Test
+    void lostClaimIsNotAnError() throws Exception {
+        List<MailOutboxEntity> mails = List.of(mail("alice@lampray.test", "Hello"));
+        stubClaim(mails);
+        // Another dispatcher took the mail over after the lease expired
+        when(repository.release(anyCollection(), anyString())).thenReturn(0);
+
+        dispatcher = new MailOutboxDispatcher(repository, mailSender(greenMail.getSmtp().getPort()),
+                taskScheduler);
+        dispatcher.wakeUp();
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        verify(repository, timeout(5000)).release(anyCollection(), anyString());
+    }
+
+    private ArgumentCaptor<String> stubClaim(List<MailOutboxEntity> mails) {
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        when(repository.findDueIds(anyLong(), anyInt()))
+                .thenReturn(List.of(1L))
+                .thenReturn(List.of());
+        when(repository.claim(anyCollection(), token.capture(), anyLong(), anyLong()))
+                .thenReturn(mails.size());
+        when(repository.findClaimed(anyString())).thenAnswer(invocation -> {
+            String claimed = invocation.getArgument(0);
+            mails.forEach(mail -> mail.setClaimToken(claimed));
+            return mails;
+        });
+        return token;
+    }
+
+    private static MailOutboxEntity mail(String to, String subject) {
+        return MailOutboxEntity.toEntity(
+                new MailEnvelope("noreply@lampray.test", to, subject, "Content of " + subject, false),
+                0L
+        );
+    }
+
+    private static JavaMailSenderImpl mailSender(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(port);
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        mailSender.getJavaMailProperties().put("mail.smtp.timeout", "2000");
+        return mailSender;
+    }
+
+    private static int unusedPort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.system.resource;
+
+import space.lingu.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Published after localized message resources of a key are set
+ * or removed.
+ *
+ * @author RollW
+ */
+public final class LocalizedMessageResourceChangeEvent {
+    private final String key;
+    @Nullable
+    private final Locale locale;
+
+    /**
+     * @param key    the key changed
+     * @param locale the locale changed, or null if all locales of
+     *               the key changed
+     */
+    public LocalizedMessageResourceChangeEvent(String key, @Nullable Locale locale) {
+        this.key = key;
+        this.locale = locale;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Nullable
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @Override
+    public String toString() {
+        return "LocalizedMessageResourceChangeEvent{" +
+                "key='" + key + '\'' +
+                ", locale=" + locale +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.system.resource.data
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.Table
+import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.common.data.changelog.ChangeLogEntry
+import tech.lamprism.lampray.system.resource.LocalizedMessageResourceKind
+import tech.rollw.common.web.system.SystemResourceKind
+import java.time.Instant
+import java.time.OffsetDateTime
+import java.time.ZoneOffset
+
+/**
+ * Marks the localized messages of a key as changed. The ids form
+ * the change version nodes refresh their message bundles from.
+ *
+ * @author RollW
+ */
+@Entity
+@Table(name = "localized_message_change")
+class LocalizedMessageChangeEntity(
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private var id: Long? = null,
+
+    @Column(name = "key", nullable = false, length = 255)
+    override var key: String = "",
+
+    /**
+     * The node that made the change.
+     */
+    @Column(name = "origin", nullable = false, length = 64)
+    override var origin: String = "",
+
+    /**
+     * Time of the change in epoch milliseconds. Only tells when to
+     * purge the change, ids give the order of changes.
+     */
+    @Column(name = "change_time", nullable = false)
+    var changeTime: Long = 0
+) : DataEntity<Long>, ChangeLogEntry {
+    override fun getEntityId(): Long? = id
+
+    override fun getId(): Long? = id
+
+    override fun getSystemResourceKind(): SystemResourceKind = LocalizedMessageResourceKind
+
+    override fun getCreateTime(): OffsetDateTime =
+        OffsetDateTime.ofInstant(Instant.ofEpochMilli(changeTime), ZoneOffset.UTC)
+
+    override fun getUpdateTime(): OffsetDateTime = getCreateTime()
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.system.resource.data
+
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import org.springframework.data.domain.Sort
+import org.springframework.data.jpa.domain.Specification
+import org.springframework.stereotype.Repository
+import tech.lamprism.lampray.common.data.CommonRepository
+import tech.lamprism.lampray.common.data.changelog.ChangeLogSource
+
+/**
+ * @author RollW
+ */
+@Repository
+class LocalizedMessageChangeRepository(
+    localizedMessageChangeDao: LocalizedMessageChangeDao,
+    private val entityManager: EntityManager
+) : CommonRepository<LocalizedMessageChangeEntity, Long>(localizedMessageChangeDao),
+    ChangeLogSource<LocalizedMessageChangeEntity> {
+
+    override fun findAfter(sequence: Long, limit: Int): List<LocalizedMessageChangeEntity> {
+        val spec = Specification<LocalizedMessageChangeEntity> { root, _, cb ->
+            cb.greaterThan(root.get(LocalizedMessageChangeEntity_.id), sequence)
+        }
+        return findBy(spec) {
+            it.sortBy(SEQUENCE_ORDER).limit(limit).all()
+        }
+    }
+
+    override fun findLatestSequence(): Long {
+        val cb = entityManager.criteriaBuilder
+        val query = cb.createQuery(Long::class.javaObjectType)
+        val root = query.from(LocalizedMessageChangeEntity::class.java)
+        query.select(cb.max(root.get(LocalizedMessageChangeEntity_.id)))
+        return entityManager.createQuery(query).singleResult ?: 0
+    }
+
+    @Transactional
+    override fun deleteBefore(time: Long): Long = delete(
+        Specification { root, _, cb ->
+            cb.lessThan(root.get(LocalizedMessageChangeEntity_.changeTime), time)
+        }
+    )
+
+    companion object {
+        private val SEQUENCE_ORDER = Sort.by(Sort.Order.asc(LocalizedMessageChangeEntity_.ID))
+    }
+}
@@ -46,6 +46,15 @@ class LocalizedMessageRepository(
             criteriaBuilder.equal(root.get(LocalizedMessageEntity_.key), key)
         }
 
+    fun findByKeys(keys: Collection<String>): List<LocalizedMessageEntity> {
+        if (keys.isEmpty()) {
+            return emptyList()
+        }
+        return findAll { root, _, _ ->
+            root.get(LocalizedMessageEntity_.key).`in`(keys)
+        }
+    }
+
     fun deleteByKey(key: String) {
         delete { root, _, criteriaBuilder ->
             criteriaBuilder.and(
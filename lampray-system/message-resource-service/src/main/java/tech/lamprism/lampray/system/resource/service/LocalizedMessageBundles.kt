@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.system.resource.service
+
+import org.springframework.stereotype.Component
+import tech.lamprism.lampray.system.resource.LocalizedMessage
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageRepository
+import java.util.Locale
+
+/**
+ * All localized messages held in memory, one bundle per locale.
+ *
+ * Bundles are loaded from the database on first use and never mutated
+ * afterwards. A change copies only the bundles it touches and replaces
+ * the whole set, so lookups neither lock nor touch the database.
+ *
+ * @author RollW
+ */
+@Component
+class LocalizedMessageBundles(
+    private val localizedMessageRepository: LocalizedMessageRepository
+) {
+    @Volatile
+    private var bundles: Map<Locale, Map<String, LocalizedMessage>>? = null
+    private val lock = Any()
+
+    /**
+     * Finds the message of the key in the first locale having it.
+     */
+    fun find(key: String, locales: List<Locale>): LocalizedMessage? {
+        val bundles = getBundles()
+        for (locale in locales) {
+            val message = bundles[locale]?.get(key)
+            if (message != null) {
+                return message
+            }
+        }
+        return null
+    }
+
+    fun findAll(): List<LocalizedMessage> =
+        getBundles().values.flatMap { it.values }
+
+    fun findAll(key: String): List<LocalizedMessage> =
+        getBundles().values.mapNotNull { it[key] }
+
+    fun put(message: LocalizedMessage) = update {
+        bundle(message.locale)[message.key] = message
+    }
+
+    fun remove(key: String) = update {
+        removeKey(key)
+    }
+
+    fun remove(key: String, locale: Locale) = update {
+        if (contains(key, locale)) {
+            bundle(locale).remove(key)
+        }
+    }
+
+    /**
+     * Replaces all messages of the keys with the given messages,
+     * e.g. after reloading the keys from the database.
+     */
+    fun replace(keys: Collection<String>, messages: List<LocalizedMessage>) = update {
+        keys.forEach(::removeKey)
+        messages.forEach { bundle(it.locale)[it.key] = it }
+    }
+
+    private fun getBundles(): Map<Locale, Map<String, LocalizedMessage>> {
+        bundles?.let { return it }
+        synchronized(lock) {
+            bundles?.let { return it }
+            val loaded = localizedMessageRepository.findAll()
+                .groupBy({ it.locale }, { it.lock() })
+                .mapValues { (_, messages) -> messages.associateBy { it.key } }
+            bundles = loaded
+            return loaded
+        }
+    }
+
+    private fun update(action: Update.() -> Unit) {
+        synchronized(lock) {
+            // Not loaded yet, the change will be read with all others
+            val current = bundles ?: return
+            bundles = Update(current).apply(action).build()
+        }
+    }
+
+    private class Update(
+        private val current: Map<Locale, Map<String, LocalizedMessage>>
+    ) {
+        private val bundles = HashMap(current)
+        private val copied = HashSet<Locale>()
+
+        fun contains(key: String, locale: Locale) =
+            bundles[locale]?.containsKey(key) == true
+
+        fun bundle(locale: Locale): MutableMap<String, LocalizedMessage> {
+            if (copied.add(locale)) {
+                bundles[locale] = HashMap(current[locale] ?: emptyMap())
+            }
+            @Suppress("UNCHECKED_CAST")
+            return bundles[locale] as MutableMap<String, LocalizedMessage>
+        }
+
+        fun removeKey(key: String) {
+            for (locale in current.keys) {
+                if (contains(key, locale)) {
+                    bundle(locale).remove(key)
+                }
+            }
+        }
+
+        fun build(): Map<Locale, Map<String, LocalizedMessage>> =
+            bundles.filterValues { it.isNotEmpty() }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.system.resource.service
+
+import org.springframework.stereotype.Component
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageChangeEntity
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageChangeRepository
+import java.util.UUID
+
+/**
+ * Records keys of changed localized messages for other nodes to
+ * refresh.
+ *
+ * @author RollW
+ */
+@Component
+class LocalizedMessageChangeLog(
+    private val localizedMessageChangeRepository: LocalizedMessageChangeRepository
+) {
+    /**
+     * Identifies changes made by this node.
+     */
+    val origin: String = UUID.randomUUID().toString()
+
+    fun record(key: String) {
+        localizedMessageChangeRepository.save(
+            LocalizedMessageChangeEntity(
+                key = key,
+                origin = origin,
+                changeTime = System.currentTimeMillis()
+            )
+        )
+    }
+}
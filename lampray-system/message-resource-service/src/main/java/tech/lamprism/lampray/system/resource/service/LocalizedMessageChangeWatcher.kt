@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.system.resource.service
+
+import org.slf4j.logger
+import org.springframework.beans.factory.DisposableBean
+import org.springframework.beans.factory.annotation.Qualifier
+import org.springframework.context.ApplicationEventPublisher
+import org.springframework.scheduling.TaskScheduler
+import org.springframework.stereotype.Component
+import tech.lamprism.lampray.common.data.changelog.ChangeLogPoller
+import tech.lamprism.lampray.system.resource.LocalizedMessageResourceChangeEvent
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageChangeEntity
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageChangeRepository
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageRepository
+import java.time.Duration
+
+/**
+ * Keeps [LocalizedMessageBundles] up to date with changes made by
+ * other nodes. Only the changed keys are reloaded.
+ *
+ * @author RollW
+ * @see ChangeLogPoller
+ */
+@Component
+class LocalizedMessageChangeWatcher(
+    localizedMessageChangeRepository: LocalizedMessageChangeRepository,
+    private val localizedMessageRepository: LocalizedMessageRepository,
+    localizedMessageChangeLog: LocalizedMessageChangeLog,
+    private val localizedMessageBundles: LocalizedMessageBundles,
+    private val eventPublisher: ApplicationEventPublisher,
+    @Qualifier("mainTaskScheduler") taskScheduler: TaskScheduler
+) : DisposableBean {
+    private val poller = ChangeLogPoller(
+        "localized message", localizedMessageChangeRepository,
+        localizedMessageChangeLog.origin, ::reload
+    )
+
+    init {
+        poller.start(taskScheduler, POLL_INTERVAL)
+    }
+
+    private fun reload(changes: List<LocalizedMessageChangeEntity>) {
+        val changedKeys = changes.mapTo(LinkedHashSet()) { it.key }
+        val messages = localizedMessageRepository.findByKeys(changedKeys)
+            .map { it.lock() }
+        localizedMessageBundles.replace(changedKeys, messages)
+        changedKeys.forEach {
+            eventPublisher.publishEvent(LocalizedMessageResourceChangeEvent(it, null))
+        }
+        logger.debug("Reloaded {} localized message keys changed on other nodes.", changedKeys.size)
+    }
+
+    override fun destroy() {
+        poller.stop()
+    }
+
+    companion object {
+        private val logger = logger<LocalizedMessageChangeWatcher>()
+
+        private val POLL_INTERVAL: Duration = Duration.ofSeconds(5)
+    }
+}
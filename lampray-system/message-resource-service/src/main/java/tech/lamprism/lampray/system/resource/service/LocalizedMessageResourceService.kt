@@ -16,31 +16,50 @@
 
 package tech.lamprism.lampray.system.resource.service
 
+import jakarta.transaction.Transactional
+import org.springframework.context.ApplicationEventPublisher
 import org.springframework.stereotype.Service
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
 import tech.lamprism.lampray.system.resource.LocalizedMessageResource
+import tech.lamprism.lampray.system.resource.LocalizedMessageResourceChangeEvent
 import tech.lamprism.lampray.system.resource.LocalizedMessageResourceProvider
 import tech.lamprism.lampray.system.resource.SimpleLocalizedMessageResource
 import tech.lamprism.lampray.system.resource.data.LocalizedMessageEntity
 import tech.lamprism.lampray.system.resource.data.LocalizedMessageRepository
 import java.time.OffsetDateTime
 import java.util.Locale
+import java.util.concurrent.ConcurrentHashMap
 import java.util.function.Supplier
 
 /**
+ * Resolves localized messages from [LocalizedMessageBundles] in memory.
+ * A message missing in the requested locale falls back to its parent
+ * locales, then to the fallback locale and its parents, then to
+ * [Locale.ROOT].
+ *
  * @author RollW
  */
 @Service
 class LocalizedMessageResourceService(
-    private val localizedMessageRepository: LocalizedMessageRepository
+    private val localizedMessageRepository: LocalizedMessageRepository,
+    private val localizedMessageBundles: LocalizedMessageBundles,
+    private val localizedMessageChangeLog: LocalizedMessageChangeLog,
+    private val eventPublisher: ApplicationEventPublisher
 ) : LocalizedMessageResourceProvider {
+    @Volatile
     private var _fallbackLocale: Locale = Locale.ROOT
 
+    private val localeChains = ConcurrentHashMap<Locale, List<Locale>>()
+
     override fun setFallbackLocale(locale: Locale) {
         _fallbackLocale = locale
+        localeChains.clear()
     }
 
     override fun getFallbackLocale(): Locale = _fallbackLocale
 
+    @Transactional
     override fun setMessageResource(
         key: String,
         value: String,
@@ -58,11 +77,16 @@ class LocalizedMessageResourceService(
             return
         }
         val time = OffsetDateTime.now()
-        localizedMessageEntity.apply {
+        val message = localizedMessageEntity.apply {
             this.value = value
             this.updateTime = time
         }.let {
             localizedMessageRepository.save(it)
+        }.lock()
+        localizedMessageChangeLog.record(key)
+        afterCommit {
+            localizedMessageBundles.put(message)
+            eventPublisher.publishEvent(LocalizedMessageResourceChangeEvent(key, locale))
         }
     }
 
@@ -74,21 +98,31 @@ class LocalizedMessageResourceService(
         )
     }
 
+    @Transactional
     override fun removeMessageResource(key: String) {
         localizedMessageRepository.deleteByKey(key)
+        localizedMessageChangeLog.record(key)
+        afterCommit {
+            localizedMessageBundles.remove(key)
+            eventPublisher.publishEvent(LocalizedMessageResourceChangeEvent(key, null))
+        }
     }
 
+    @Transactional
     override fun removeMessageResource(key: String, locale: Locale) {
         localizedMessageRepository.deleteByKey(key, locale)
+        localizedMessageChangeLog.record(key)
+        afterCommit {
+            localizedMessageBundles.remove(key, locale)
+            eventPublisher.publishEvent(LocalizedMessageResourceChangeEvent(key, locale))
+        }
     }
 
     override fun getMessageResource(
         key: String,
         locale: Locale
     ): LocalizedMessageResource? {
-        val localizedMessageEntity = localizedMessageRepository
-            .findByKey(key, locale).orElse(null)
-        return localizedMessageEntity?.lock()
+        return localizedMessageBundles.find(key, getLocaleChain(locale))
     }
 
     override fun getMessageResource(
@@ -104,19 +138,45 @@ class LocalizedMessageResourceService(
         locale: Locale,
         defaultValueProvider: Supplier<String>
     ): LocalizedMessageResource? {
-        val localizedMessageEntity = localizedMessageRepository
-            .findByKey(key, locale).orElse(null)
-        if (localizedMessageEntity != null) {
-            return localizedMessageEntity.lock()
-        }
-        return SimpleLocalizedMessageResource(key, defaultValueProvider.get(), locale)
+        return getMessageResource(key, locale)
+            ?: SimpleLocalizedMessageResource(key, defaultValueProvider.get(), locale)
     }
 
     override fun getMessageResources(): List<LocalizedMessageResource> {
-        return localizedMessageRepository.findAll().map { it.lock() }
+        return localizedMessageBundles.findAll()
     }
 
     override fun getMessageResources(key: String): List<LocalizedMessageResource> {
-        return localizedMessageRepository.findByKey(key).map { it.lock() }
+        return localizedMessageBundles.findAll(key)
+    }
+
+    private fun getLocaleChain(locale: Locale): List<Locale> =
+        localeChains.computeIfAbsent(locale) {
+            val chain = LinkedHashSet<Locale>()
+            addWithParents(chain, locale)
+            addWithParents(chain, _fallbackLocale)
+            chain.add(Locale.ROOT)
+            chain.toList()
+        }
+
+    private fun addWithParents(chain: MutableSet<Locale>, locale: Locale) {
+        chain.add(locale)
+        if (locale.variant.isNotEmpty()) {
+            chain.add(Locale(locale.language, locale.country))
+        }
+        if (locale.country.isNotEmpty()) {
+            chain.add(Locale(locale.language))
+        }
+    }
+
+    private fun afterCommit(action: () -> Unit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action()
+            return
+        }
+        // Readers must not see messages that may still be rolled back
+        TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+            override fun afterCommit() = action()
+        })
     }
 }
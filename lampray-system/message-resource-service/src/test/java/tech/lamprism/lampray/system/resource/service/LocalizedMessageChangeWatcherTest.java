@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.system.resource.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+import tech.lamprism.lampray.system.resource.LocalizedMessage;
+import tech.lamprism.lampray.system.resource.LocalizedMessageResourceChangeEvent;
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageChangeEntity;
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageChangeRepository;
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageEntity;
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class LocalizedMessageChangeWatcherTest {
+    private static final String ORIGIN = "self";
+
+    private final LocalizedMessageChangeRepository changeRepository = mock(LocalizedMessageChangeRepository.class);
+    private final LocalizedMessageRepository messageRepository = mock(LocalizedMessageRepository.class);
+    private final LocalizedMessageChangeLog changeLog = mock(LocalizedMessageChangeLog.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final LocalizedMessageBundles bundles = new LocalizedMessageBundles(messageRepository);
+    private Runnable poll;
+
+    @BeforeEach
+    void setUp() {
+        when(changeLog.getOrigin()).thenReturn(ORIGIN);
+        when(messageRepository.findAll()).thenReturn(List.of(
+                message("title", Locale.ENGLISH, "Title"),
+                message("footer", Locale.ENGLISH, "Footer")
+        ));
+        // loaded before any change
+        bundles.findAll();
+        new LocalizedMessageChangeWatcher(changeRepository, messageRepository,
+                changeLog, bundles, eventPublisher, taskScheduler);
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).scheduleWithFixedDelay(task.capture(), any(Instant.class), any(Duration.class));
+        poll = task.getValue();
+    }
+
+    @Test
+    void reloadsKeysChangedByOtherNodes() {
+        changes(change(1, "title", "other"));
+        when(messageRepository.findByKeys(Set.of("title"))).thenReturn(List.of(
+                message("title", Locale.ENGLISH, "New title"),
+                message("title", Locale.CHINESE, "新标题")
+        ));
+
+        poll.run();
+
+        assertEquals("New title", find("title", Locale.ENGLISH));
+        assertEquals("新标题", find("title", Locale.CHINESE));
+        assertEquals("Footer", find("footer", Locale.ENGLISH));
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        LocalizedMessageResourceChangeEvent changed = (LocalizedMessageResourceChangeEvent) event.getValue();
+        assertEquals("title", changed.getKey());
+        assertNull(changed.getLocale());
+    }
+
+    @Test
+    void dropsKeysRemovedByOtherNodes() {
+        changes(change(1, "footer", "other"));
+        when(messageRepository.findByKeys(Set.of("footer"))).thenReturn(List.of());
+
+        poll.run();
+
+        assertNull(bundles.find("footer", List.of(Locale.ENGLISH)));
+        assertEquals("Title", find("title", Locale.ENGLISH));
+    }
+
+    @Test
+    void skipsOwnChanges() {
+        changes(change(1, "title", ORIGIN));
+
+        poll.run();
+
+        verify(messageRepository, never()).findByKeys(anyCollection());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    private String find(String key, Locale locale) {
+        LocalizedMessage message = bundles.find(key, List.of(locale));
+        return message == null ? null : message.getValue();
+    }
+
+    private void changes(LocalizedMessageChangeEntity... changes) {
+        when(changeRepository.findLatestSequence()).thenReturn(0L);
+        when(changeRepository.findAfter(eq(0L), anyInt())).thenReturn(List.of(changes));
+        when(changeRepository.findAfter(eq((long) changes.length), anyInt())).thenReturn(List.of());
+    }
+
+    private static LocalizedMessageChangeEntity change(long id, String key, String origin) {
+        return new LocalizedMessageChangeEntity(id, key, origin, System.currentTimeMillis());
+    }
+
+    private static LocalizedMessageEntity message(String key, Locale locale, String value) {
+        return new LocalizedMessageEntity(null, key, value, locale, OffsetDateTime.now());
+    }
+}
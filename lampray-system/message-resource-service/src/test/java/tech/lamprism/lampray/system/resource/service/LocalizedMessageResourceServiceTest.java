@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.system.resource.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import tech.lamprism.lampray.system.resource.LocalizedMessageResource;
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageEntity;
+import tech.lamprism.lampray.system.resource.data.LocalizedMessageRepository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class LocalizedMessageResourceServiceTest {
+    private static final String KEY = "greeting";
+    private static final Locale ZH_CN_VARIANT = new Locale("zh", "CN", "pinyin");
+
+    private final LocalizedMessageRepository repository = mock(LocalizedMessageRepository.class);
+    private LocalizedMessageResourceService service;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAll()).thenReturn(List.of(
+                message(Locale.ROOT, "root"),
+                message(Locale.ENGLISH, "en"),
+                message(Locale.CHINESE, "zh"),
+                message(Locale.SIMPLIFIED_CHINESE, "zh_CN"),
+                message(Locale.GERMANY, "de_DE")
+        ));
+        service = new LocalizedMessageResourceService(repository,
+                new LocalizedMessageBundles(repository),
+                mock(LocalizedMessageChangeLog.class),
+                mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void exactLocaleComesFirst() {
+        assertEquals("zh_CN", value(Locale.SIMPLIFIED_CHINESE));
+        assertEquals("en", value(Locale.ENGLISH));
+    }
+
+    @Test
+    void fallsBackFromVariantToCountryToLanguage() {
+        assertEquals("zh_CN", value(ZH_CN_VARIANT));
+        assertEquals("zh", value(Locale.TRADITIONAL_CHINESE));
+    }
+
+    @Test
+    void fallsBackToRootWithoutFallbackLocale() {
+        assertEquals("root", value(Locale.FRANCE));
+        // the language only is not expanded to countries
+        assertEquals("root", value(Locale.GERMAN));
+    }
+
+    @Test
+    void fallsBackToFallbackLocaleAndItsParentsBeforeRoot() {
+        service.setFallbackLocale(Locale.US);
+
+        assertEquals("en", value(Locale.FRANCE));
+        // own parents still come before the fallback locale
+        assertEquals("zh", value(Locale.TRADITIONAL_CHINESE));
+    }
+
+    @Test
+    void changedFallbackLocaleReplacesCachedChains() {
+        assertEquals("root", value(Locale.FRANCE));
+
+        service.setFallbackLocale(Locale.GERMANY);
+        assertEquals("de_DE", value(Locale.FRANCE));
+
+        service.setFallbackLocale(Locale.ROOT);
+        assertEquals("root", value(Locale.FRANCE));
+    }
+
+    @Test
+    void missingKeyHasNoMessageUnlessDefaultGiven() {
+        assertNull(service.getMessageResource("missing", Locale.ENGLISH));
+
+        LocalizedMessageResource resource =
+                service.getMessageResource("missing", Locale.ENGLISH, "default");
+        assertEquals("default", resource.getValue());
+        assertEquals(Locale.ENGLISH, resource.getLocale());
+        assertEquals("missing", resource.getKey());
+    }
+
+    private String value(Locale locale) {
+        LocalizedMessageResource resource = service.getMessageResource(KEY, locale);
+        return resource == null ? null : resource.getValue();
+    }
+
+    private static LocalizedMessageEntity message(Locale locale, String value) {
+        return new LocalizedMessageEntity(null, KEY, value, locale, OffsetDateTime.now());
+    }
+}
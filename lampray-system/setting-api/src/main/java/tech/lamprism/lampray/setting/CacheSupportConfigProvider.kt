@@ -31,7 +31,9 @@ class CacheSupportConfigProvider(
 
     private fun rawKeyOf(key: String) = "R$key"
 
-    private fun specKeyOf(spec: SettingSpecification<*, *>) = "S${spec.keyName}"
+    private fun specKeyOf(spec: SettingSpecification<*, *>) = specKeyOf(spec.keyName)
+
+    private fun specKeyOf(key: String) = "S$key"
 
     override fun get(key: String): String? {
         val valueWrapper = cache.get(rawKeyOf(key))
@@ -97,6 +99,7 @@ class CacheSupportConfigProvider(
                 return@also
             }
             cache.put(rawKeyOf(key), value)
+            cache.evictIfPresent(specKeyOf(key))
         }
     }
 
@@ -129,4 +132,10 @@ class CacheSupportConfigProvider(
             cache.evictIfPresent(specKeyOf(spec))
         }
     }
+
+    override fun invalidate(key: String) {
+        delegate.invalidate(key)
+        cache.evictIfPresent(rawKeyOf(key))
+        cache.evictIfPresent(specKeyOf(key))
+    }
 }
\ No newline at end of file
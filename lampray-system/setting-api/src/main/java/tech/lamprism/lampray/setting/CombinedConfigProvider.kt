@@ -17,12 +17,30 @@
 package tech.lamprism.lampray.setting
 
 import tech.lamprism.lampray.setting.SettingSpecification.Companion.keyName
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.LongSupplier
 
 /**
+ * Combines config providers, assuming the list order of providers
+ * is the priority order. The first provider with a value wins.
+ *
+ * Values are read from a merged view of all providers, built with one
+ * [list] call per provider for the specifications of the
+ * [specificationProvider], so a lookup is a single hash lookup. Other
+ * keys are resolved on first use and kept in the view as well. The
+ * view is dropped and rebuilt on the next read after a value is set,
+ * reset or invalidated, or once it is older than [viewLifetime], so
+ * a value changed in a provider behind its back is picked up in time.
+ *
  * @author RollW
  */
-class CombinedConfigProvider(
-    private val configProviders: List<ConfigProvider>
+class CombinedConfigProvider @JvmOverloads constructor(
+    private val configProviders: List<ConfigProvider>,
+    private val specificationProvider: SettingSpecificationProvider? = null,
+    private val viewLifetime: Duration = DEFAULT_VIEW_LIFETIME,
+    private val nanoTime: LongSupplier = LongSupplier(System::nanoTime)
 ) : ConfigProvider {
     private val _metadata = ConfigReader.Metadata(
         "Composed Config Provider",
@@ -31,17 +49,16 @@ class CombinedConfigProvider(
             .toList()
     )
 
+    @Volatile
+    private var mergedView: MergedView? = null
+    private val version = AtomicLong()
+    private val buildLock = Any()
+
     override val metadata: ConfigReader.Metadata
         get() = _metadata
 
     override fun get(key: String): String? {
-        for (reader in configProviders) {
-            val value = reader[key]
-            if (value != null) {
-                return value
-            }
-        }
-        return null
+        return view().getRaw(key)
     }
 
     override fun get(key: String, defaultValue: String?): String? {
@@ -49,70 +66,32 @@ class CombinedConfigProvider(
     }
 
     override fun <T, V> get(specification: SettingSpecification<T, V>): T? {
-        for (reader in configProviders) {
-            val value = reader[specification]
-            if (value != null) {
-                return value
-            }
+        val value = view().getEntry(specification).resolved
+        if (value.source == SettingSource.NONE) {
+            return null
         }
-        return null
+        @Suppress("UNCHECKED_CAST")
+        return value.value as T?
     }
 
     override fun <T, V> get(specification: SettingSpecification<T, V>, defaultValue: T): T {
         return this[specification] ?: defaultValue
     }
 
+    @Suppress("UNCHECKED_CAST")
     override fun <T, V> getValue(specification: SettingSpecification<T, V>): ConfigValue<T, V> {
-        val defaultValue = SnapshotConfigValue(
-            specification.defaultValue,
-            SettingSource.NONE,
-            specification
-        )
-        if (configProviders.isEmpty()) {
-            return defaultValue
-        }
-
-        val layers = mutableListOf<ConfigValue<T, V>>()
-        for (reader in configProviders) {
-            // Query cost is low, so we get all layers' values.
-            val value = reader.getValue(specification)
-            if (value is LayeredConfigValue) {
-                // Flatten layered values
-                layers.addAll(value.layers)
-            } else {
-                layers.add(value)
-            }
-        }
-        if (layers.all { it.source != SettingSource.NONE }) {
-            layers.add(defaultValue)
-        }
-        return LayeredConfigValueImpl(specification, layers)
+        return view().getEntry(specification).layered as ConfigValue<T, V>
     }
 
     override fun list(specifications: List<SettingSpecification<*, *>>): List<ConfigValue<*, *>> {
-        val valuesByConfigProviders = configProviders.map { it.list(specifications) }
-        return specifications.map { spec ->
-            for (configValues in valuesByConfigProviders) {
-                // Only the first non-null value is activated currently,
-                // we assume that the list order of configProviders is the priority order.
-                // Values in the later providers are ignored.
-                val value = configValues
-                    .sortedBy { it.source.priority }
-                    .filter { it.specification.keyName == spec.keyName }
-                    .firstOrNull { it.value != null }
-                if (value != null) {
-                    return@map value
-                }
-            }
-            @Suppress("UNCHECKED_CAST")
-            SnapshotConfigValue(spec.defaultValue, SettingSource.NONE, spec as SettingSpecification<Any?, Any?>)
-        }
+        val view = view()
+        return specifications.map { view.getEntry(it).resolved }
     }
 
     override fun set(key: String, value: String?): SettingSource {
         for (provider in configProviders) {
             if (provider.supports(key)) {
-                return provider.set(key, value)
+                return provider.set(key, value).also { changed() }
             }
         }
         return SettingSource.NONE
@@ -121,7 +100,7 @@ class CombinedConfigProvider(
     override fun <T, V> set(spec: SettingSpecification<T, V>, value: T?): SettingSource {
         for (provider in configProviders) {
             if (provider.supports(spec)) {
-                return provider.set(spec, value)
+                return provider.set(spec, value).also { changed() }
             }
         }
         return SettingSource.NONE
@@ -136,10 +115,132 @@ class CombinedConfigProvider(
                 resetSource = provider.reset(spec)
             }
         }
+        changed()
         return resetSource
     }
 
     override fun supports(key: String): Boolean {
         return configProviders.any { it.supports(key) }
     }
-}
\ No newline at end of file
+
+    override fun invalidate(key: String) {
+        configProviders.forEach { it.invalidate(key) }
+        changed()
+    }
+
+    private fun changed() {
+        version.incrementAndGet()
+        mergedView = null
+    }
+
+    private fun view(): MergedView {
+        currentView()?.let { return it }
+        synchronized(buildLock) {
+            currentView()?.let { return it }
+            val expectedVersion = version.get()
+            val builtAt = nanoTime.asLong
+            val specifications = specificationProvider?.settingSpecifications ?: emptyList()
+            val view = MergedView(resolve(specifications), builtAt)
+            // Changed while building, the view may miss the change
+            if (version.get() == expectedVersion) {
+                mergedView = view
+            }
+            return view
+        }
+    }
+
+    private fun currentView(): MergedView? {
+        val view = mergedView ?: return null
+        if (nanoTime.asLong - view.builtAt >= viewLifetime.toNanos()) {
+            return null
+        }
+        return view
+    }
+
+    private fun resolve(specifications: List<SettingSpecification<*, *>>): Map<String, Entry> {
+        if (specifications.isEmpty()) {
+            return emptyMap()
+        }
+        // Values are listed in the order of the specifications
+        val valuesByConfigProviders = configProviders.map { it.list(specifications) }
+        val entries = HashMap<String, Entry>(specifications.size * 2)
+        specifications.forEachIndexed { index, spec ->
+            @Suppress("UNCHECKED_CAST")
+            entries[spec.keyName] = merge(
+                spec as SettingSpecification<Any?, Any?>,
+                valuesByConfigProviders.map { it[index] as ConfigValue<Any?, Any?> }
+            )
+        }
+        return entries
+    }
+
+    private fun <T, V> merge(
+        specification: SettingSpecification<T, V>,
+        values: List<ConfigValue<T, V>>
+    ): Entry {
+        val defaultValue = SnapshotConfigValue(
+            specification.defaultValue,
+            SettingSource.NONE,
+            specification
+        )
+        if (values.isEmpty()) {
+            return Entry(defaultValue, defaultValue)
+        }
+        val layers = mutableListOf<ConfigValue<T, V>>()
+        for (value in values) {
+            if (value is LayeredConfigValue) {
+                // Flatten layered values
+                layers.addAll(value.layers)
+            } else {
+                layers.add(value)
+            }
+        }
+        if (layers.all { it.source != SettingSource.NONE }) {
+            layers.add(defaultValue)
+        }
+        // Only the first non-null value is activated currently,
+        // values in the later providers are ignored.
+        val resolved = values.firstOrNull { it.value != null } ?: defaultValue
+        return Entry(resolved, LayeredConfigValueImpl(specification, layers))
+    }
+
+    private class Entry(
+        /**
+         * The value activated from the providers, or the default value.
+         */
+        val resolved: ConfigValue<*, *>,
+
+        /**
+         * Values of all layers.
+         */
+        val layered: ConfigValue<*, *>
+    )
+
+    private class RawValue(val value: String?)
+
+    private inner class MergedView(
+        private val entries: Map<String, Entry>,
+        val builtAt: Long
+    ) {
+        private val resolvedEntries = ConcurrentHashMap<String, Entry>()
+        private val rawValues = ConcurrentHashMap<String, RawValue>()
+
+        fun getEntry(specification: SettingSpecification<*, *>): Entry {
+            val key = specification.keyName
+            return entries[key] ?: resolvedEntries.computeIfAbsent(key) {
+                resolve(listOf(specification)).getValue(key)
+            }
+        }
+
+        fun getRaw(key: String): String? {
+            return rawValues.computeIfAbsent(key) {
+                RawValue(configProviders.firstNotNullOfOrNull { it[key] })
+            }.value
+        }
+    }
+
+    companion object {
+        @JvmField
+        val DEFAULT_VIEW_LIFETIME: Duration = Duration.ofSeconds(30)
+    }
+}
@@ -19,5 +19,13 @@ package tech.lamprism.lampray.setting
 /**
  * @author RollW
  */
+@JvmDefaultWithoutCompatibility
 interface ConfigProvider : ConfigReader, ConfigWriter {
+    /**
+     * Drop anything held locally for the key, so that the next read
+     * sees the current value. Called when the setting is known to be
+     * changed elsewhere, e.g. on another node.
+     */
+    fun invalidate(key: String) {
+    }
 }
\ No newline at end of file
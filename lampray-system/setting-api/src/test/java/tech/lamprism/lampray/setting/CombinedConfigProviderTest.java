@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.setting;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author RollW
+ */
+class CombinedConfigProviderTest {
+    private static final AttributedSettingSpecification<String, String> FIRST = spec("first", "first default");
+    private static final AttributedSettingSpecification<String, String> SECOND = spec("second", "second default");
+    private static final AttributedSettingSpecification<String, String> UNDECLARED = spec("undeclared", null);
+
+    private final MapConfigProvider database = new MapConfigProvider(SettingSource.DATABASE, Set.of(FIRST.getKey().getName()));
+    private final MapConfigProvider local = new MapConfigProvider(SettingSource.LOCAL, null);
+    private final AtomicLong now = new AtomicLong();
+    private final CombinedConfigProvider provider = new CombinedConfigProvider(
+            List.of(database, local), specifications(FIRST, SECOND),
+            Duration.ofSeconds(30), now::get);
+
+    @Test
+    void firstProviderWithValueWins() {
+        database.values.put("first", "database");
+        local.values.put("first", "local");
+        local.values.put("second", "local");
+
+        assertEquals("database", provider.get(FIRST));
+        assertEquals("local", provider.get(SECOND));
+        assertEquals("database", provider.get("first"));
+        assertEquals("local", provider.get("second"));
+    }
+
+    @Test
+    void missingValueFallsBackToTheGivenDefault() {
+        assertNull(provider.get(FIRST));
+        assertNull(provider.get("first"));
+        assertEquals("fallback", provider.get(FIRST, "fallback"));
+        assertEquals("fallback", provider.get("first", "fallback"));
+    }
+
+    @Test
+    void layeredValueKeepsAllLayers() {
+        database.values.put("first", "database");
+        local.values.put("first", "local");
+
+        ConfigValue<String, String> value = provider.getValue(FIRST);
+
+        List<ConfigValue<String, String>> layers = ((LayeredConfigValue<String, String>) value).getLayers();
+        assertEquals(List.of(SettingSource.NONE, SettingSource.LOCAL, SettingSource.DATABASE),
+                layers.stream().map(ConfigValue::getSource).toList());
+        assertEquals("first default", layers.get(0).getValue());
+    }
+
+    @Test
+    void listKeepsThePrecedenceAndTheOrder() {
+        database.values.put("first", "database");
+        local.values.put("second", "local");
+
+        List<ConfigValue<?, ?>> values = provider.list(List.of(SECOND, FIRST));
+
+        assertEquals(List.of("local", "database"), values.stream().map(ConfigValue::getValue).toList());
+        assertEquals(List.of(SettingSource.LOCAL, SettingSource.DATABASE),
+                values.stream().map(ConfigValue::getSource).toList());
+    }
+
+    @Test
+    void declaredSpecificationsAreListedOncePerProvider() {
+        provider.get(FIRST);
+        provider.get(SECOND);
+        provider.list(List.of(FIRST, SECOND));
+
+        assertEquals(1, database.lists);
+        assertEquals(1, local.lists);
+    }
+
+    @Test
+    void undeclaredSpecificationIsResolvedOnFirstUse() {
+        local.values.put("undeclared", "local");
+
+        assertEquals("local", provider.get(UNDECLARED));
+        assertEquals("local", provider.get(UNDECLARED));
+
+        // one for the declared specifications, one for the undeclared
+        assertEquals(2, local.lists);
+    }
+
+    @Test
+    void setGoesToTheFirstSupportingProvider() {
+        provider.get(SECOND);
+
+        assertEquals(SettingSource.LOCAL, provider.set(SECOND, "set"));
+        assertEquals(SettingSource.DATABASE, provider.set(FIRST, "set"));
+
+        assertEquals("set", local.values.get("second"));
+        assertEquals("set", database.values.get("first"));
+        assertEquals("set", provider.get(SECOND));
+        assertEquals("set", provider.get(FIRST));
+    }
+
+    @Test
+    void resetAppliesToAllSupportingProviders() {
+        database.values.put("first", "database");
+        local.values.put("first", "local");
+        provider.get(FIRST);
+
+        provider.reset(FIRST);
+
+        assertNull(provider.get(FIRST));
+    }
+
+    @Test
+    void invalidateRebuildsTheView() {
+        database.values.put("first", "old");
+        assertEquals("old", provider.get(FIRST));
+        database.values.put("first", "new");
+
+        provider.invalidate("first");
+
+        assertEquals("new", provider.get(FIRST));
+        assertEquals("first", database.invalidated);
+        assertEquals("first", local.invalidated);
+    }
+
+    @Test
+    void viewIsRebuiltOnceExpired() {
+        local.values.put("second", "old");
+        assertEquals("old", provider.get(SECOND));
+        assertEquals("old", provider.get("second"));
+        // changed behind the back of the combined provider
+        local.values.put("second", "new");
+
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertEquals("old", provider.get(SECOND));
+        assertEquals("old", provider.get("second"));
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals("new", provider.get(SECOND));
+        assertEquals("new", provider.get("second"));
+        assertEquals(2, local.lists);
+    }
+
+    private static AttributedSettingSpecification<String, String> spec(String key, String defaultValue) {
+        return new SettingSpecificationBuilder<>(SettingKey.ofString(key))
+                .setTextDescription(key)
+                .setDefaultValue(defaultValue)
+                .setRequired(false)
+                .setSupportedSources(SettingSource.VALUES)
+                .build();
+    }
+
+    @SafeVarargs
+    private static SettingSpecificationProvider specifications(
+            AttributedSettingSpecification<String, String>... specifications) {
+        return new SettingSpecificationProvider() {
+            @Override
+            public AttributedSettingSpecification<?, ?> getSettingSpecification(String key) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<AttributedSettingSpecification<?, ?>> getSettingSpecifications() {
+                return List.of(specifications);
+            }
+        };
+    }
+
+    /**
+     * Holds string values of one source, supporting only the given keys
+     * or all keys if null.
+     */
+    private static final class MapConfigProvider implements ConfigProvider {
+        private final Map<String, String> values = new HashMap<>();
+        private final SettingSource source;
+        private final Set<String> supportedKeys;
+        private int lists;
+        private String invalidated;
+
+        MapConfigProvider(SettingSource source, Set<String> supportedKeys) {
+            this.source = source;
+            this.supportedKeys = supportedKeys;
+        }
+
+        @Override
+        public Metadata getMetadata() {
+            return new Metadata(source.name());
+        }
+
+        @Override
+        public String get(String key) {
+            return values.get(key);
+        }
+
+        @Override
+        public String get(String key, String defaultValue) {
+            return values.getOrDefault(key, defaultValue);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T, V> T get(SettingSpecification<T, V> specification) {
+            return (T) values.get(specification.getKey().getName());
+        }
+
+        @Override
+        public <T, V> T get(SettingSpecification<T, V> specification, T defaultValue) {
+            T value = get(specification);
+            return value == null ? defaultValue : value;
+        }
+
+        @Override
+        public <T, V> ConfigValue<T, V> getValue(SettingSpecification<T, V> specification) {
+            T value = get(specification);
+            return new SnapshotConfigValue<>(value, value == null ? SettingSource.NONE : source, specification);
+        }
+
+        @Override
+        public List<ConfigValue<?, ?>> list(List<? extends SettingSpecification<?, ?>> specifications) {
+            lists++;
+            return specifications.stream()
+                    .<ConfigValue<?, ?>>map(this::getValue)
+                    .toList();
+        }
+
+        @Override
+        public SettingSource set(String key, String value) {
+            values.put(key, value);
+            return source;
+        }
+
+        @Override
+        public <T, V> SettingSource set(SettingSpecification<T, V> spec, T value) {
+            values.put(spec.getKey().getName(), (String) value);
+            return source;
+        }
+
+        @Override
+        public <T, V> SettingSource reset(SettingSpecification<T, V> spec) {
+            values.remove(spec.getKey().getName());
+            return source;
+        }
+
+        @Override
+        public boolean supports(String key) {
+            return supportedKeys == null || supportedKeys.contains(key);
+        }
+
+        @Override
+        public void invalidate(String key) {
+            invalidated = key;
+        }
+    }
+}
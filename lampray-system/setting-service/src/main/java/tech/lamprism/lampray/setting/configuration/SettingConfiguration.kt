@@ -47,7 +47,7 @@ class SettingConfiguration {
     ): ConfigProvider {
         return CacheSupportConfigProvider(
             EventProxyConfigProvider(
-                CombinedConfigProvider(configProviders.sortByPriority()),
+                CombinedConfigProvider(configProviders.sortByPriority(), specificationProvider),
                 specificationProvider,
                 applicationEventPublisher
             ), cacheManager["config-cache"]!!
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.setting.service
+
+import org.springframework.stereotype.Component
+import tech.lamprism.lampray.setting.data.SystemSettingChangeEntity
+import tech.lamprism.lampray.setting.data.SystemSettingChangeRepository
+import java.util.UUID
+
+/**
+ * Records changes of settings stored in the database, so that other
+ * nodes can tell which keys to drop from their caches.
+ *
+ * @author RollW
+ */
+@Component
+class SystemSettingChangeLog(
+    private val systemSettingChangeRepository: SystemSettingChangeRepository
+) {
+    /**
+     * Identifies changes made by this node.
+     */
+    val origin: String = UUID.randomUUID().toString()
+
+    /**
+     * Records a change of the key. Joins the current transaction,
+     * if any, so the change is only visible with the new value.
+     */
+    fun record(key: String) {
+        systemSettingChangeRepository.save(
+            SystemSettingChangeEntity(
+                key = key,
+                origin = origin,
+                changeTime = System.currentTimeMillis()
+            )
+        )
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.setting.service
+
+import org.slf4j.logger
+import org.springframework.beans.factory.DisposableBean
+import org.springframework.beans.factory.annotation.Qualifier
+import org.springframework.context.ApplicationEventPublisher
+import org.springframework.scheduling.TaskScheduler
+import org.springframework.stereotype.Component
+import tech.lamprism.lampray.common.data.changelog.ChangeLogPoller
+import tech.lamprism.lampray.setting.ConfigProvider
+import tech.lamprism.lampray.setting.SettingSpecification
+import tech.lamprism.lampray.setting.SettingSpecificationProvider
+import tech.lamprism.lampray.setting.data.SystemSettingChangeEntity
+import tech.lamprism.lampray.setting.data.SystemSettingChangeRepository
+import tech.lamprism.lampray.setting.event.SettingValueChangedEvent
+import java.time.Duration
+
+/**
+ * Polls the change log of settings stored in the database and
+ * invalidates keys changed by other nodes, so a setting changed on
+ * one node takes effect on all nodes within seconds.
+ *
+ * @author RollW
+ * @see ChangeLogPoller
+ */
+@Component
+class SystemSettingChangeWatcher(
+    systemSettingChangeRepository: SystemSettingChangeRepository,
+    systemSettingChangeLog: SystemSettingChangeLog,
+    private val configProvider: ConfigProvider,
+    private val settingSpecificationProvider: SettingSpecificationProvider,
+    private val applicationEventPublisher: ApplicationEventPublisher,
+    @Qualifier("mainTaskScheduler") taskScheduler: TaskScheduler
+) : DisposableBean {
+    private val poller = ChangeLogPoller(
+        "setting", systemSettingChangeRepository,
+        systemSettingChangeLog.origin, ::applyChanges
+    )
+
+    init {
+        poller.start(taskScheduler, POLL_INTERVAL)
+    }
+
+    private fun applyChanges(changes: List<SystemSettingChangeEntity>) {
+        changes.mapTo(LinkedHashSet()) { it.key }
+            .forEach(::applyChange)
+    }
+
+    private fun applyChange(key: String) {
+        configProvider.invalidate(key)
+        val specification = try {
+            @Suppress("UNCHECKED_CAST")
+            settingSpecificationProvider.getSettingSpecification(key) as SettingSpecification<Any?, Any?>
+        } catch (_: Exception) {
+            // not a declared setting, nothing is listening to it
+            return
+        }
+        applicationEventPublisher.publishEvent(
+            SettingValueChangedEvent(specification, configProvider[specification])
+        )
+        logger.debug("Setting '{}' changed on another node.", key)
+    }
+
+    override fun destroy() {
+        poller.stop()
+    }
+
+    companion object {
+        private val logger = logger<SystemSettingChangeWatcher>()
+
+        private val POLL_INTERVAL: Duration = Duration.ofSeconds(2)
+    }
+}
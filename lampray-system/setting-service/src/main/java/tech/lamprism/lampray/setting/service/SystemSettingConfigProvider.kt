@@ -16,6 +16,7 @@
 
 package tech.lamprism.lampray.setting.service
 
+import jakarta.transaction.Transactional
 import org.springframework.stereotype.Service
 import tech.lamprism.lampray.setting.ConfigPath
 import tech.lamprism.lampray.setting.ConfigProvider
@@ -38,6 +39,7 @@ import tech.lamprism.lampray.setting.data.SystemSettingRepository
 class SystemSettingConfigProvider(
     private val systemSettingRepository: SystemSettingRepository,
     private val settingSpecificationProvider: SettingSpecificationProvider,
+    private val systemSettingChangeLog: SystemSettingChangeLog,
 ) : ConfigProvider {
 
     override val metadata: ConfigReader.Metadata =
@@ -101,7 +103,9 @@ class SystemSettingConfigProvider(
         }
     }
 
+    @Transactional
     override fun set(key: String, value: String?): SettingSource {
+        systemSettingChangeLog.record(key)
         val setting = systemSettingRepository.findById(key)
             .orElse(null)
         if (setting != null) {
@@ -117,7 +121,9 @@ class SystemSettingConfigProvider(
         return SettingSource.DATABASE
     }
 
+    @Transactional
     override fun <T, V> set(spec: SettingSpecification<T, V>, value: T?): SettingSource {
+        systemSettingChangeLog.record(spec.keyName)
         val setting = systemSettingRepository.findById(spec.keyName)
             .orElse(null)
         val value = with(SettingSpecificationHelper) {
@@ -136,10 +142,12 @@ class SystemSettingConfigProvider(
         return SettingSource.DATABASE
     }
 
+    @Transactional
     override fun <T, V> reset(spec: SettingSpecification<T, V>): SettingSource {
         val setting = systemSettingRepository.findById(spec.keyName)
             .orElse(null) ?: return SettingSource.NONE
         systemSettingRepository.delete(setting)
+        systemSettingChangeLog.record(spec.keyName)
         return SettingSource.DATABASE
     }
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.setting.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+import tech.lamprism.lampray.setting.AttributedSettingSpecification;
+import tech.lamprism.lampray.setting.ConfigProvider;
+import tech.lamprism.lampray.setting.SettingSpecificationProvider;
+import tech.lamprism.lampray.setting.data.SystemSettingChangeEntity;
+import tech.lamprism.lampray.setting.data.SystemSettingChangeRepository;
+import tech.lamprism.lampray.setting.event.SettingValueChangedEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class SystemSettingChangeWatcherTest {
+    private static final String ORIGIN = "self";
+
+    private final SystemSettingChangeRepository repository = mock(SystemSettingChangeRepository.class);
+    private final SystemSettingChangeLog changeLog = mock(SystemSettingChangeLog.class);
+    private final ConfigProvider configProvider = mock(ConfigProvider.class);
+    private final SettingSpecificationProvider specificationProvider = mock(SettingSpecificationProvider.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private Runnable poll;
+
+    @BeforeEach
+    void setUp() {
+        when(changeLog.getOrigin()).thenReturn(ORIGIN);
+        new SystemSettingChangeWatcher(repository, changeLog, configProvider,
+                specificationProvider, eventPublisher, taskScheduler);
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).scheduleWithFixedDelay(task.capture(), any(Instant.class), any(Duration.class));
+        poll = task.getValue();
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void invalidatesKeysChangedByOtherNodes() {
+        AttributedSettingSpecification specification = mock(AttributedSettingSpecification.class);
+        when(specificationProvider.getSettingSpecification("declared")).thenReturn(specification);
+        when(configProvider.get(specification)).thenReturn("new value");
+        changes(change(1, "declared", "other"), change(2, "declared", "other"),
+                change(3, "own", ORIGIN));
+
+        poll.run();
+
+        verify(configProvider, times(1)).invalidate("declared");
+        verify(configProvider, never()).invalidate("own");
+        ArgumentCaptor<ApplicationEvent> event = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        SettingValueChangedEvent<?, ?> changed = (SettingValueChangedEvent<?, ?>) event.getValue();
+        assertSame(specification, changed.getSpecification());
+        assertEquals("new value", changed.getValue());
+    }
+
+    @Test
+    void undeclaredKeyIsOnlyInvalidated() {
+        when(specificationProvider.getSettingSpecification("undeclared"))
+                .thenThrow(new IllegalArgumentException("undeclared"));
+        changes(change(1, "undeclared", "other"));
+
+        poll.run();
+
+        verify(configProvider).invalidate("undeclared");
+        verify(eventPublisher, never()).publishEvent(any(ApplicationEvent.class));
+    }
+
+    @Test
+    void changesArePolledOnce() {
+        changes(change(1, "key", "other"));
+
+        poll.run();
+        poll.run();
+
+        verify(configProvider, times(1)).invalidate("key");
+    }
+
+    @Test
+    void failedPollIsRetried() {
+        when(repository.findLatestSequence()).thenReturn(0L);
+        when(repository.findAfter(anyLong(), anyInt()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(List.of(change(1, "key", "other")))
+                .thenReturn(List.of());
+
+        poll.run();
+        verify(configProvider, never()).invalidate("key");
+        poll.run();
+
+        verify(configProvider).invalidate("key");
+    }
+
+    private void changes(SystemSettingChangeEntity... changes) {
+        when(repository.findLatestSequence()).thenReturn(0L);
+        when(repository.findAfter(eq(0L), anyInt())).thenReturn(List.of(changes));
+        when(repository.findAfter(eq((long) changes.length), anyInt())).thenReturn(List.of());
+    }
+
+    private static SystemSettingChangeEntity change(long id, String key, String origin) {
+        return new SystemSettingChangeEntity(id, key, origin, System.currentTimeMillis());
+    }
+}
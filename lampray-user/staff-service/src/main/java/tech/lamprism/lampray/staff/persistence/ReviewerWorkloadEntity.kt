@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.staff.persistence
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.Id
+import jakarta.persistence.Table
+import jakarta.persistence.Temporal
+import jakarta.persistence.TemporalType
+import jakarta.persistence.Version
+import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.staff.StaffResourceKind
+import tech.rollw.common.web.system.SystemResourceKind
+import java.time.OffsetDateTime
+
+/**
+ * The weight of the pending review tasks assigned to a reviewer,
+ * shared by all nodes.
+ *
+ * @author RollW
+ */
+@Entity
+@Table(name = "reviewer_workload")
+class ReviewerWorkloadEntity(
+    @Id
+    @Column(name = "reviewer_id", nullable = false)
+    var reviewerId: Long = 0,
+
+    @Column(name = "workload", nullable = false)
+    var workload: Int = 0,
+
+    @Version
+    @Column(name = "version", nullable = false)
+    var version: Long? = null,
+
+    @Column(name = "update_time", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private var updateTime: OffsetDateTime = OffsetDateTime.now()
+) : DataEntity<Long> {
+    override fun getEntityId(): Long = reviewerId
+
+    override fun getSystemResourceKind(): SystemResourceKind = StaffResourceKind
+
+    override fun getCreateTime(): OffsetDateTime = updateTime
+
+    override fun getUpdateTime(): OffsetDateTime = updateTime
+}
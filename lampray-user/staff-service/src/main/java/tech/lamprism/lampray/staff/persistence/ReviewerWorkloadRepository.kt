@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.staff.persistence
+
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import org.springframework.stereotype.Repository
+import tech.lamprism.lampray.common.data.CommonRepository
+import java.time.OffsetDateTime
+
+/**
+ * @author RollW
+ */
+@Repository
+class ReviewerWorkloadRepository(
+    reviewerWorkloadDao: ReviewerWorkloadDao,
+    private val entityManager: EntityManager
+) : CommonRepository<ReviewerWorkloadEntity, Long>(reviewerWorkloadDao) {
+
+    /**
+     * Reads the current workload of the reviewer from the database,
+     * even if the persistence context holds an older copy.
+     */
+    @Transactional
+    fun findCurrent(reviewerId: Long): ReviewerWorkloadEntity? {
+        val workload = entityManager.find(ReviewerWorkloadEntity::class.java, reviewerId)
+            ?: return null
+        entityManager.refresh(workload)
+        return workload
+    }
+
+    /**
+     * Sets the workload of the reviewer if the row is still at the
+     * expected version.
+     *
+     * @return false if the row was changed since, or does not exist
+     */
+    @Transactional
+    fun compareAndSetWorkload(
+        reviewerId: Long,
+        expectedVersion: Long,
+        workload: Int
+    ): Boolean {
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val update = criteriaBuilder.createCriteriaUpdate(ReviewerWorkloadEntity::class.java)
+        val root = update.from(ReviewerWorkloadEntity::class.java)
+        update.set(root.get(ReviewerWorkloadEntity_.workload), workload)
+        update.set(root.get(ReviewerWorkloadEntity_.version), expectedVersion + 1)
+        update.set(root.get(ReviewerWorkloadEntity_.updateTime), OffsetDateTime.now())
+        update.where(
+            criteriaBuilder.equal(root.get(ReviewerWorkloadEntity_.reviewerId), reviewerId),
+            criteriaBuilder.equal(root.get(ReviewerWorkloadEntity_.version), expectedVersion)
+        )
+        return entityManager.createQuery(update).executeUpdate() > 0
+    }
+
+    /**
+     * Adds the delta to the workload of the reviewer in one statement,
+     * never going below zero.
+     *
+     * @return false if the reviewer has no workload row
+     */
+    @Transactional
+    fun addWorkload(reviewerId: Long, delta: Int): Boolean {
+        val criteriaBuilder = entityManager.criteriaBuilder
+        val update = criteriaBuilder.createCriteriaUpdate(ReviewerWorkloadEntity::class.java)
+        val root = update.from(ReviewerWorkloadEntity::class.java)
+        val added = criteriaBuilder.sum(root.get(ReviewerWorkloadEntity_.workload), delta)
+        update.set(
+            root.get(ReviewerWorkloadEntity_.workload),
+            criteriaBuilder.selectCase<Int>()
+                .`when`(criteriaBuilder.lessThan(added, 0), 0)
+                .otherwise(added)
+        )
+        update.set(
+            root.get(ReviewerWorkloadEntity_.version),
+            criteriaBuilder.sum(root.get(ReviewerWorkloadEntity_.version), 1L)
+        )
+        update.set(root.get(ReviewerWorkloadEntity_.updateTime), OffsetDateTime.now())
+        update.where(criteriaBuilder.equal(root.get(ReviewerWorkloadEntity_.reviewerId), reviewerId))
+        return entityManager.createQuery(update).executeUpdate() > 0
+    }
+}
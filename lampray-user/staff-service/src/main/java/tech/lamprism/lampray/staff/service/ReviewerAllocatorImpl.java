@@ -18,148 +18,107 @@ package tech.lamprism.lampray.staff.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import tech.lamprism.lampray.content.ContentIdentity;
 import tech.lamprism.lampray.content.ContentType;
 import tech.lamprism.lampray.content.review.ReviewerAllocator;
-import tech.lamprism.lampray.content.review.persistence.ReviewJobEntity;
-import tech.lamprism.lampray.content.review.persistence.ReviewJobRepository;
-import tech.lamprism.lampray.content.review.persistence.ReviewTaskEntity;
-import tech.lamprism.lampray.content.review.persistence.ReviewTaskRepository;
 import tech.lamprism.lampray.staff.AttributedStaff;
 import tech.lamprism.lampray.staff.OnStaffEventListener;
 import tech.lamprism.lampray.staff.Staff;
 import tech.lamprism.lampray.staff.StaffType;
+import tech.lamprism.lampray.staff.persistence.ReviewerWorkloadEntity;
+import tech.lamprism.lampray.staff.persistence.ReviewerWorkloadRepository;
 import tech.lamprism.lampray.staff.persistence.StaffRepository;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.concurrent.Executor;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ScheduledFuture;
 
 /**
+ * Allocates reviewers by the workload stored in the reviewer workload
+ * table, which is shared by all nodes.
+ * <p>
+ * Each node mirrors the table in a {@link ReviewerWorkloadHeap} to find
+ * the candidate, then takes the candidate with a compare-and-set on its
+ * row. Joins the transaction of the caller, so workloads change with
+ * the tasks they count, and changes the mirror only once the
+ * transaction commits. If the row was changed by another node before
+ * it is taken, the mirror is corrected at once and the next candidate
+ * is tried. If it changes while being taken, the candidate is kept and
+ * the workload is added to it, as the failed update may still lock the
+ * row and moving on to another row could deadlock with a node locking
+ * them the other way round. The mirror is reloaded from the table
+ * periodically to pick up workloads released on other nodes.
+ *
  * @author RollW
  */
 @Service
-public class ReviewerAllocatorImpl implements ReviewerAllocator, OnStaffEventListener {
+public class ReviewerAllocatorImpl implements ReviewerAllocator, OnStaffEventListener, DisposableBean {
     private static final Logger logger = LoggerFactory.getLogger(ReviewerAllocatorImpl.class);
 
-    private final ReviewTaskRepository reviewTaskRepository;
-    private final ReviewJobRepository reviewJobRepository;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final Duration RELOAD_INTERVAL = Duration.ofMinutes(1);
+
+    private final ReviewerWorkloadRepository reviewerWorkloadRepository;
     private final StaffRepository staffRepository;
 
-    private final Map<Long, Integer> weights = new HashMap<>();
-    private final TreeMap<Integer, Deque<Long>> staffReviewingCount = new TreeMap<>();
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-    private final Executor executor;
+    private final ReviewerWorkloadHeap workloadHeap = new ReviewerWorkloadHeap();
+    private final ScheduledFuture<?> reloadTask;
 
-    public ReviewerAllocatorImpl(ReviewTaskRepository reviewTaskRepository,
-                                 ReviewJobRepository reviewJobRepository,
+    public ReviewerAllocatorImpl(ReviewerWorkloadRepository reviewerWorkloadRepository,
                                  StaffRepository staffRepository,
-                                 @Qualifier("mainScheduledExecutorService") Executor executor) {
-        this.reviewTaskRepository = reviewTaskRepository;
-        this.reviewJobRepository = reviewJobRepository;
+                                 @Qualifier("mainTaskScheduler") TaskScheduler taskScheduler) {
+        this.reviewerWorkloadRepository = reviewerWorkloadRepository;
         this.staffRepository = staffRepository;
-        this.executor = executor;
-        startAsyncLoad();
-    }
-
-    private void startAsyncLoad() {
-        executor.execute(this::loadStaffReviewingCount);
+        this.reloadTask = taskScheduler.scheduleWithFixedDelay(this::loadWorkloadsSafely,
+                Instant.now(), RELOAD_INTERVAL);
     }
 
-
-    private void loadStaffReviewingCount() {
-        lock.writeLock().lock();
+    private void loadWorkloadsSafely() {
         try {
-            weights.clear();
-            staffReviewingCount.clear();
-
-            final int batchSize = 200;
-            int offset = 0;
-            long totalTasks = reviewTaskRepository.countPendingTasks();
-
-            while (offset < totalTasks) {
-                List<ReviewTaskEntity> pendingTasks = reviewTaskRepository.findPendingTasksBatch(offset, batchSize);
-                if (pendingTasks.isEmpty()) {
-                    break;
-                }
-
-                List<String> jobIds = pendingTasks.stream()
-                        .map(ReviewTaskEntity::getReviewJobId)
-                        .distinct()
-                        .toList();
-
-                List<ReviewJobEntity> jobs = reviewJobRepository.findAllById(jobIds);
-                Map<String, ReviewJobEntity> jobMap = new HashMap<>();
-                for (ReviewJobEntity job : jobs) {
-                    jobMap.put(job.getResourceId(), job);
-                }
-
-                for (ReviewTaskEntity task : pendingTasks) {
-                    ReviewJobEntity job = jobMap.get(task.getReviewJobId());
-                    if (job != null) {
-                        long reviewerId = task.getReviewerId();
-                        int weight = job.getReviewContentType().getWeight();
-                        weights.put(reviewerId, weights.getOrDefault(reviewerId, 0) + weight);
-                    }
-                }
-
-                offset += batchSize;
-            }
-
-            List<? extends AttributedStaff> staffs = loadStaffs();
-            for (AttributedStaff staff : staffs) {
-                if (staff != null) {
-                    weights.putIfAbsent(staff.getUserId(), 0);
-                }
-            }
+            loadWorkloads();
+        } catch (RuntimeException e) {
+            logger.error("Failed to load reviewer workloads.", e);
+        }
+    }
 
-            for (Map.Entry<Long, Integer> entry : weights.entrySet()) {
-                long staffId = entry.getKey();
-                int weight = entry.getValue();
-                Deque<Long> deque = staffReviewingCount.computeIfAbsent(weight, k -> new ArrayDeque<>());
-                deque.addLast(staffId);
+    private void loadWorkloads() {
+        Map<Long, Integer> workloads = new HashMap<>();
+        for (ReviewerWorkloadEntity workload : reviewerWorkloadRepository.findAll()) {
+            workloads.put(workload.getReviewerId(), workload.getWorkload());
+        }
+        for (AttributedStaff staff : loadStaffs()) {
+            if (staff != null && !workloads.containsKey(staff.getUserId())) {
+                insertWorkload(staff.getUserId());
+                workloads.put(staff.getUserId(), 0);
             }
-
-            logger.info("Load ReviewerAllocator staffs: {}, weights: {}",
-                    weights.size(), staffReviewingCount.size());
-        } finally {
-            lock.writeLock().unlock();
         }
+        workloadHeap.reset(workloads);
+        logger.debug("Load ReviewerAllocator staffs: {}", workloads.size());
     }
 
     private List<? extends AttributedStaff> loadStaffs() {
         return staffRepository.findByTypes(Set.of(StaffType.ADMIN, StaffType.REVIEWER));
     }
 
-    private void remappingReviewer(long reviewer, int original, int newWeight) {
-        lock.writeLock().lock();
+    private void insertWorkload(long reviewerId) {
         try {
-            weights.put(reviewer, newWeight);
-
-            Deque<Long> originalDeque = staffReviewingCount.get(original);
-            if (originalDeque != null) {
-                originalDeque.removeFirstOccurrence(reviewer);
-                if (originalDeque.isEmpty()) {
-                    staffReviewingCount.remove(original);
-                }
-            }
-
-            Deque<Long> newDeque = staffReviewingCount.getOrDefault(newWeight, new ArrayDeque<>());
-            if (!newDeque.contains(reviewer)) {
-                newDeque.addLast(reviewer);
-            }
-            staffReviewingCount.put(newWeight, newDeque);
-        } finally {
-            lock.writeLock().unlock();
+            reviewerWorkloadRepository.save(
+                    new ReviewerWorkloadEntity(reviewerId, 0, null, OffsetDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // Inserted by another node
+            logger.debug("Workload of reviewer {} already exists.", reviewerId);
         }
     }
 
@@ -172,68 +131,66 @@ public class ReviewerAllocatorImpl implements ReviewerAllocator, OnStaffEventLis
         if (canAutoReview(contentIdentity.getContentType()) && allowAutoReviewer) {
             return AUTO_REVIEWER;
         }
-
-        lock.writeLock().lock();
-        try {
-            Map.Entry<Integer, Deque<Long>> entry = staffReviewingCount.firstEntry();
-            if (entry == null) {
+        int weight = contentIdentity.getContentType().getWeight();
+        ReviewerWorkloadHeap.Candidate candidate = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            candidate = workloadHeap.peek();
+            if (candidate == null) {
                 return AUTO_REVIEWER;
             }
-
-            Deque<Long> ids = entry.getValue();
-            if (ids == null || ids.isEmpty()) {
-                staffReviewingCount.remove(entry.getKey());
-                Map.Entry<Integer, Deque<Long>> next = staffReviewingCount.firstEntry();
-                if (next == null) {
-                    return AUTO_REVIEWER;
-                }
-                ids = next.getValue();
-                if (ids == null || ids.isEmpty()) {
-                    return AUTO_REVIEWER;
-                }
-                entry = next;
+            long reviewerId = candidate.reviewerId();
+            ReviewerWorkloadEntity current = reviewerWorkloadRepository.findCurrent(reviewerId);
+            if (current == null) {
+                workloadHeap.remove(reviewerId);
+                continue;
             }
-
-            // Pick the first reviewer from the deque (round-robin among same-weight)
-            long reviewerId = ids.removeFirst();
-            if (ids.isEmpty()) {
-                staffReviewingCount.remove(entry.getKey());
-            } else {
-                staffReviewingCount.put(entry.getKey(), ids);
+            if (current.getWorkload() > candidate.workload()) {
+                // Taken by another node since, may no longer be the best
+                workloadHeap.setWorkload(reviewerId, current.getWorkload());
+                continue;
             }
-
-            int addedWeight = contentIdentity.getContentType().getWeight();
-            // Put reviewer into new weight bucket and update weights map
-            int newWeight = entry.getKey() + addedWeight;
-            weights.put(reviewerId, newWeight);
-            Deque<Long> newDeque = staffReviewingCount.getOrDefault(newWeight, new ArrayDeque<>());
-            newDeque.addLast(reviewerId);
-            staffReviewingCount.put(newWeight, newDeque);
-
-            return reviewerId;
-        } finally {
-            lock.writeLock().unlock();
+            int workload = current.getWorkload() + weight;
+            if (reviewerWorkloadRepository.compareAndSetWorkload(
+                    reviewerId, current.getVersion(), workload)) {
+                afterCommit(() -> workloadHeap.setWorkload(reviewerId, workload));
+                return reviewerId;
+            }
+            // Taken by another node meanwhile, keep it rather than lock another row
+            break;
+        }
+        if (candidate == null) {
+            return AUTO_REVIEWER;
+        }
+        // Contended, settle for the last candidate seen
+        long reviewerId = candidate.reviewerId();
+        if (!reviewerWorkloadRepository.addWorkload(reviewerId, weight)) {
+            workloadHeap.remove(reviewerId);
+            return AUTO_REVIEWER;
         }
+        afterCommit(() -> workloadHeap.addWorkload(reviewerId, weight));
+        return reviewerId;
+    }
+
+    @Override
+    public void acquireReviewer(long reviewerId, ContentIdentity contentIdentity) {
+        changeWorkload(reviewerId, contentIdentity, 1);
     }
 
     @Override
     public void releaseReviewer(long reviewerId, ContentIdentity contentIdentity) {
+        changeWorkload(reviewerId, contentIdentity, -1);
+    }
+
+    private void changeWorkload(long reviewerId, ContentIdentity contentIdentity, int sign) {
         if (reviewerId == AUTO_REVIEWER) {
             return;
         }
-        if (contentIdentity == null) return;
-
-        lock.writeLock().lock();
-        try {
-            Integer weight = weights.get(reviewerId);
-            if (weight == null) {
-                return;
-            }
-            int decrement = (contentIdentity.getContentType() == null) ? 0 : contentIdentity.getContentType().getWeight();
-            int newWeight = Math.max(0, weight - decrement);
-            remappingReviewer(reviewerId, weight, newWeight);
-        } finally {
-            lock.writeLock().unlock();
+        if (contentIdentity == null || contentIdentity.getContentType() == null) {
+            return;
+        }
+        int delta = sign * contentIdentity.getContentType().getWeight();
+        if (reviewerWorkloadRepository.addWorkload(reviewerId, delta)) {
+            afterCommit(() -> workloadHeap.addWorkload(reviewerId, delta));
         }
     }
 
@@ -246,17 +203,26 @@ public class ReviewerAllocatorImpl implements ReviewerAllocator, OnStaffEventLis
         if (staff == null) {
             return;
         }
-        lock.writeLock().lock();
-        try {
-            long userId = staff.getUserId();
-            weights.putIfAbsent(userId, 0);
-            Deque<Long> deque = staffReviewingCount.getOrDefault(0, new ArrayDeque<>());
-            if (!deque.contains(userId)) {
-                deque.addLast(userId);
-            }
-            staffReviewingCount.put(0, deque);
-        } finally {
-            lock.writeLock().unlock();
+        insertWorkload(staff.getUserId());
+        afterCommit(() -> workloadHeap.addIfAbsent(staff.getUserId(), 0));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
         }
+        // A rolled back change must not stay in the mirror until the next reload
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        reloadTask.cancel(false);
     }
 }
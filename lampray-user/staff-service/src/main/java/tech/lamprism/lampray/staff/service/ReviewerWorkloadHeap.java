@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.staff.service;
+
+import space.lingu.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A binary min-heap of reviewers ordered by their workload, indexed by
+ * reviewer id so that the workload of any reviewer is changed in
+ * O(log n). Reviewers with the same workload are ordered by the time
+ * their workload last changed, which takes turns among them.
+ * <p>
+ * Changes are serialized by a lock held only for the heap operation.
+ * The reviewer on top is published after each change, so reading the
+ * current best candidate takes no lock.
+ *
+ * @author RollW
+ */
+final class ReviewerWorkloadHeap {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    private long[] reviewers = new long[INITIAL_CAPACITY];
+    private int[] workloads = new int[INITIAL_CAPACITY];
+    private long[] sequences = new long[INITIAL_CAPACITY];
+    private int size;
+    private long sequence;
+
+    private volatile Candidate top;
+
+    /**
+     * Gets the reviewer with the least workload, without locking.
+     *
+     * @return the candidate, or null if there is no reviewer
+     */
+    @Nullable
+    Candidate peek() {
+        return top;
+    }
+
+    /**
+     * Adds the reviewer with the given workload if not present.
+     */
+    void addIfAbsent(long reviewerId, int workload) {
+        lock.lock();
+        try {
+            if (positions.containsKey(reviewerId)) {
+                return;
+            }
+            ensureCapacity(size + 1);
+            int index = size++;
+            reviewers[index] = reviewerId;
+            workloads[index] = Math.max(0, workload);
+            sequences[index] = ++sequence;
+            positions.put(reviewerId, index);
+            siftUp(index);
+            publishTop();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the delta to the workload of the reviewer, the workload
+     * never goes below zero.
+     *
+     * @return false if the reviewer is not present
+     */
+    boolean addWorkload(long reviewerId, int delta) {
+        lock.lock();
+        try {
+            Integer index = positions.get(reviewerId);
+            if (index == null) {
+                return false;
+            }
+            int previous = workloads[index];
+            workloads[index] = Math.max(0, previous + delta);
+            sequences[index] = ++sequence;
+            if (workloads[index] < previous) {
+                siftUp(index);
+            } else {
+                siftDown(index);
+            }
+            publishTop();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the workload of the reviewer, adding the reviewer if not present.
+     */
+    void setWorkload(long reviewerId, int workload) {
+        lock.lock();
+        try {
+            Integer index = positions.get(reviewerId);
+            if (index == null) {
+                ensureCapacity(size + 1);
+                index = size++;
+                reviewers[index] = reviewerId;
+                positions.put(reviewerId, index);
+            }
+            workloads[index] = Math.max(0, workload);
+            sequences[index] = ++sequence;
+            siftDown(index);
+            siftUp(index);
+            publishTop();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void remove(long reviewerId) {
+        lock.lock();
+        try {
+            Integer index = positions.remove(reviewerId);
+            if (index == null) {
+                return;
+            }
+            int last = --size;
+            if (index != last) {
+                move(last, index);
+                siftDown(index);
+                siftUp(index);
+            }
+            publishTop();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces all reviewers with the given workloads, in O(n).
+     */
+    void reset(Map<Long, Integer> workloadsById) {
+        lock.lock();
+        try {
+            positions.clear();
+            size = 0;
+            ensureCapacity(workloadsById.size());
+            for (Map.Entry<Long, Integer> entry : workloadsById.entrySet()) {
+                int index = size++;
+                reviewers[index] = entry.getKey();
+                workloads[index] = Math.max(0, entry.getValue());
+                sequences[index] = ++sequence;
+                positions.put(entry.getKey(), index);
+            }
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+            publishTop();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(index, parent)) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = (index << 1) + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && less(right, left)) {
+                smallest = right;
+            }
+            if (!less(smallest, index)) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private boolean less(int i, int j) {
+        if (workloads[i] != workloads[j]) {
+            return workloads[i] < workloads[j];
+        }
+        return sequences[i] < sequences[j];
+    }
+
+    private void swap(int i, int j) {
+        long reviewer = reviewers[i];
+        int workload = workloads[i];
+        long seq = sequences[i];
+        move(j, i);
+        reviewers[j] = reviewer;
+        workloads[j] = workload;
+        sequences[j] = seq;
+        positions.put(reviewer, j);
+    }
+
+    private void move(int from, int to) {
+        reviewers[to] = reviewers[from];
+        workloads[to] = workloads[from];
+        sequences[to] = sequences[from];
+        positions.put(reviewers[to], to);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= reviewers.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, reviewers.length << 1);
+        reviewers = Arrays.copyOf(reviewers, newCapacity);
+        workloads = Arrays.copyOf(workloads, newCapacity);
+        sequences = Arrays.copyOf(sequences, newCapacity);
+    }
+
+    private void publishTop() {
+        top = size == 0 ? null : new Candidate(reviewers[0], workloads[0]);
+    }
+
+    /**
+     * The reviewer with the least workload at the time of the last change.
+     */
+    record Candidate(long reviewerId, int workload) {
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.staff.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Assigns and releases reviews on a heap of 10k reviewers from 64
+ * threads at once, the way {@code ReviewerAllocatorImpl} does: peek the
+ * best candidate, add the weight of the content to it, and later take
+ * the weight off again.
+ * <p>
+ * Run with {@code -Dlampray.benchmark.operations=1000000} to time that
+ * many assignments per thread count; the results are printed.
+ *
+ * @author RollW
+ */
+class ReviewerWorkloadHeapBenchmarkTest {
+    private static final String OPERATIONS_PROPERTY = "lampray.benchmark.operations";
+    private static final int REVIEWERS = 10_000;
+    private static final int ASSIGNERS = 64;
+    private static final int OPERATIONS = 20_000;
+    private static final int MAX_WEIGHT = 3;
+
+    @Test
+    void concurrentAssignmentsLeaveNoWorkload() throws Exception {
+        ReviewerWorkloadHeap heap = newHeap();
+
+        assign(heap, ASSIGNERS, OPERATIONS);
+
+        assertEquals(REVIEWERS, heap.size());
+        for (int i = 0; i < REVIEWERS; i++) {
+            ReviewerWorkloadHeap.Candidate candidate = heap.peek();
+            assertNotNull(candidate);
+            assertEquals(0, candidate.workload());
+            heap.remove(candidate.reviewerId());
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = OPERATIONS_PROPERTY, matches = "\\d+")
+    void benchmark() throws Exception {
+        int operations = Integer.getInteger(OPERATIONS_PROPERTY);
+        // Warms up the JIT before timing.
+        assign(newHeap(), ASSIGNERS, OPERATIONS);
+
+        for (int assigners : new int[]{1, 8, ASSIGNERS}) {
+            ReviewerWorkloadHeap heap = newHeap();
+            long start = System.nanoTime();
+            assign(heap, assigners, operations);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf(Locale.ROOT, "%d reviewers, %d assigners: %d assignments in %d ms (%d/s)%n",
+                    REVIEWERS, assigners, operations, millis,
+                    operations * 1000L / Math.max(millis, 1));
+        }
+    }
+
+    private static ReviewerWorkloadHeap newHeap() {
+        Map<Long, Integer> workloads = new HashMap<>();
+        for (long reviewerId = 0; reviewerId < REVIEWERS; reviewerId++) {
+            workloads.put(reviewerId, 0);
+        }
+        ReviewerWorkloadHeap heap = new ReviewerWorkloadHeap();
+        heap.reset(workloads);
+        return heap;
+    }
+
+    /**
+     * Splits the assignments among the assigners. Each one keeps the
+     * assignments it made and releases them in the order made, a few at
+     * a time, so workloads rise and fall as reviews are finished.
+     */
+    private static void assign(ReviewerWorkloadHeap heap, int assigners,
+                               int operations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(assigners);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(assigners);
+            for (int i = 0; i < assigners; i++) {
+                int share = operations / assigners + (i < operations % assigners ? 1 : 0);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    assign(heap, share);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assign(ReviewerWorkloadHeap heap, int operations) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int pending = 16;
+        long[] reviewers = new long[pending];
+        int[] weights = new int[pending];
+        for (int i = 0; i < operations; i++) {
+            int slot = i % pending;
+            if (i >= pending) {
+                heap.addWorkload(reviewers[slot], -weights[slot]);
+            }
+            ReviewerWorkloadHeap.Candidate candidate = heap.peek();
+            int weight = random.nextInt(1, MAX_WEIGHT + 1);
+            heap.addWorkload(candidate.reviewerId(), weight);
+            reviewers[slot] = candidate.reviewerId();
+            weights[slot] = weight;
+        }
+        for (int i = Math.max(0, operations - pending); i < operations; i++) {
+            int slot = i % pending;
+            heap.addWorkload(reviewers[slot], -weights[slot]);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.staff.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author RollW
+ */
+class ReviewerWorkloadHeapTest {
+
+    @Test
+    void emptyHeapHasNoCandidate() {
+        ReviewerWorkloadHeap heap = new ReviewerWorkloadHeap();
+
+        assertNull(heap.peek());
+        assertFalse(heap.addWorkload(1, 1));
+        heap.remove(1);
+        assertEquals(0, heap.size());
+    }
+
+    @Test
+    void drainsInWorkloadOrder() {
+        Map<Long, Integer> workloads = new LinkedHashMap<>();
+        Random random = new Random(42);
+        for (long reviewerId = 0; reviewerId < 1_000; reviewerId++) {
+            workloads.put(reviewerId, random.nextInt(20));
+        }
+        ReviewerWorkloadHeap heap = new ReviewerWorkloadHeap();
+        heap.reset(workloads);
+
+        List<Long> expected = new ArrayList<>(workloads.keySet());
+        // Stable sort keeps the order of insertion among equal workloads
+        expected.sort(Comparator.comparing(workloads::get));
+        assertEquals(expected, drain(heap));
+    }
+
+    @Test
+    void equalWorkloadsTakeTurns() {
+        ReviewerWorkloadHeap heap = new ReviewerWorkloadHeap();
+        heap.addIfAbsent(1, 0);
+        heap.addIfAbsent(2, 0);
+        heap.addIfAbsent(3, 0);
+        assertEquals(1, heap.peek().reviewerId());
+
+        // Back to the same workload, but changed last
+        heap.addWorkload(1, 1);
+        heap.addWorkload(1, -1);
+        assertEquals(2, heap.peek().reviewerId());
+
+        heap.addWorkload(2, 1);
+        heap.addWorkload(2, -1);
+        assertEquals(List.of(3L, 1L, 2L), drain(heap));
+    }
+
+    @Test
+    void workloadNeverGoesBelowZero() {
+        ReviewerWorkloadHeap heap = new ReviewerWorkloadHeap();
+        heap.addIfAbsent(1, 2);
+        heap.addIfAbsent(2, -5);
+        assertEquals(new ReviewerWorkloadHeap.Candidate(2, 0), heap.peek());
+
+        assertTrue(heap.addWorkload(1, -10));
+        // Both at zero, reviewer 2 changed first
+        assertEquals(new ReviewerWorkloadHeap.Candidate(2, 0), heap.peek());
+        heap.remove(2);
+        assertEquals(new ReviewerWorkloadHeap.Candidate(1, 0), heap.peek());
+    }
+
+    @Test
+    void addIfAbsentKeepsExistingWorkload() {
+        ReviewerWorkloadHeap heap = new ReviewerWorkloadHeap();
+        heap.addIfAbsent(1, 5);
+        heap.addIfAbsent(2, 3);
+        heap.addIfAbsent(1, 0);
+
+        assertEquals(2, heap.size());
+        assertEquals(new ReviewerWorkloadHeap.Candidate(2, 3), heap.peek());
+    }
+
+    @Test
+    void setWorkloadMovesReviewerBothWays() {
+        ReviewerWorkloadHeap heap = new ReviewerWorkloadHeap();
+        for (long reviewerId = 1; reviewerId <= 5; reviewerId++) {
+            heap.setWorkload(reviewerId, (int) reviewerId);
+        }
+        heap.setWorkload(5, 0);
+        assertEquals(new ReviewerWorkloadHeap.Candidate(5, 0), heap.peek());
+
+        heap.setWorkload(5, 10);
+        heap.setWorkload(6, 2);
+        assertEquals(List.of(1L, 2L, 6L, 3L, 4L, 5L), drain(heap));
+    }
+
+    @Test
+    void matchesReferenceOrderUnderRandomChanges() {
+        ReviewerWorkloadHeap heap = new ReviewerWorkloadHeap();
+        Map<Long, int[]> reference = new HashMap<>();
+        Random random = new Random(7);
+        long sequence = 0;
+        for (int step = 0; step < 20_000; step++) {
+            long reviewerId = random.nextInt(64);
+            int operation = random.nextInt(4);
+            switch (operation) {
+                case 0 -> {
+                    int workload = random.nextInt(10);
+                    heap.setWorkload(reviewerId, workload);
+                    reference.put(reviewerId, new int[]{workload, (int) ++sequence});
+                }
+                case 1 -> {
+                    int delta = random.nextInt(7) - 3;
+                    int[] entry = reference.get(reviewerId);
+                    assertEquals(entry != null, heap.addWorkload(reviewerId, delta));
+                    if (entry != null) {
+                        entry[0] = Math.max(0, entry[0] + delta);
+                        entry[1] = (int) ++sequence;
+                    }
+                }
+                case 2 -> {
+                    heap.remove(reviewerId);
+                    reference.remove(reviewerId);
+                }
+                default -> {
+                    int workload = random.nextInt(10);
+                    heap.addIfAbsent(reviewerId, workload);
+                    if (!reference.containsKey(reviewerId)) {
+                        reference.put(reviewerId, new int[]{workload, (int) ++sequence});
+                    }
+                }
+            }
+            assertEquals(reference.size(), heap.size());
+            ReviewerWorkloadHeap.Candidate expected = reference.entrySet().stream()
+                    .min(Comparator.<Map.Entry<Long, int[]>>comparingInt(e -> e.getValue()[0])
+                            .thenComparingInt(e -> e.getValue()[1]))
+                    .map(e -> new ReviewerWorkloadHeap.Candidate(e.getKey(), e.getValue()[0]))
+                    .orElse(null);
+            assertEquals(expected, heap.peek(), "Step " + step);
+        }
+    }
+
+    private static List<Long> drain(ReviewerWorkloadHeap heap) {
+        List<Long> order = new ArrayList<>();
+        ReviewerWorkloadHeap.Candidate candidate;
+        while ((candidate = heap.peek()) != null) {
+            order.add(candidate.reviewerId());
+            heap.remove(candidate.reviewerId());
+        }
+        return order;
+    }
+}
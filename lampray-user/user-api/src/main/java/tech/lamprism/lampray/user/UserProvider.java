@@ -31,4 +31,9 @@ public interface UserProvider {
     AttributedUserDetails getUser(UserTrait userTrait) throws UserViewException;
 
     List<AttributedUserDetails> getUsers();
+
+    /**
+     * Gets users in the order of their ids, starting after the given id.
+     */
+    List<AttributedUserDetails> getUsers(long afterId, int limit);
 }
@@ -16,6 +16,7 @@
 
 package tech.lamprism.lampray.user.repository
 
+import org.springframework.data.domain.Sort
 import org.springframework.data.jpa.domain.Specification
 import org.springframework.stereotype.Repository
 import tech.lamprism.lampray.common.data.CommonRepository
@@ -29,8 +30,23 @@ class UserRepository(
     userDao: UserDao
 ) : CommonRepository<UserEntity, Long>(userDao) {
 
-    fun searchBy(keyword: String): List<UserEntity> {
-        return findAll(createSearchBySpec(keyword))
+    /**
+     * Finds users whose username starts with the keyword. Only prefixes
+     * are matched, so the lookup can use the index of usernames.
+     */
+    fun searchBy(keyword: String, limit: Int): List<UserEntity> {
+        return findBy(createSearchBySpec(keyword)) {
+            it.sortBy(BY_USERNAME).limit(limit).all()
+        }
+    }
+
+    fun findPage(afterId: Long, limit: Int): List<UserEntity> {
+        val spec = Specification<UserEntity> { root, _, builder ->
+            builder.greaterThan(root.get(UserEntity_.id), afterId)
+        }
+        return findBy(spec) {
+            it.sortBy(BY_ID).limit(limit).all()
+        }
     }
 
     fun findByUsername(username: String): Optional<UserEntity> {
@@ -59,6 +75,18 @@ class UserRepository(
 
     private fun createSearchBySpec(keyword: String): Specification<UserEntity> =
         Specification<UserEntity> { root, _, builder ->
-            builder.like(root.get(UserEntity_.username), keyword)
+            builder.like(root.get(UserEntity_.username), escapeLike(keyword) + "%", ESCAPE)
         }
+
+    private fun escapeLike(keyword: String): String = keyword
+        .replace("$ESCAPE", "$ESCAPE$ESCAPE")
+        .replace("%", "$ESCAPE%")
+        .replace("_", "${ESCAPE}_")
+
+    companion object {
+        private const val ESCAPE = '!'
+
+        private val BY_ID = Sort.by(Sort.Order.asc(UserEntity_.ID))
+        private val BY_USERNAME = Sort.by(Sort.Order.asc(UserEntity_.USERNAME))
+    }
 }
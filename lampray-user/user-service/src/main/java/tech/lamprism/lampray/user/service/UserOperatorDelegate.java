@@ -16,6 +16,7 @@
 
 package tech.lamprism.lampray.user.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import tech.lamprism.lampray.user.User;
 import tech.lamprism.lampray.user.filter.UserInfoFilter;
@@ -35,4 +36,6 @@ public interface UserOperatorDelegate {
     PasswordEncoder getPasswordEncoder();
 
     UserInfoFilter getUserInfoFilter();
+
+    ApplicationEventPublisher getEventPublisher();
 }
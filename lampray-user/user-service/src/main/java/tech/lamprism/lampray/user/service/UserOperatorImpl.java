@@ -23,6 +23,7 @@ import tech.lamprism.lampray.user.Role;
 import tech.lamprism.lampray.user.User;
 import tech.lamprism.lampray.user.UserOperator;
 import tech.lamprism.lampray.user.UserViewException;
+import tech.lamprism.lampray.user.event.UserUpdatedEvent;
 import tech.lamprism.lampray.user.filter.UserFilteringInfo;
 import tech.lamprism.lampray.user.filter.UserFilteringInfoType;
 import tech.rollw.common.web.CommonErrorCode;
@@ -94,11 +95,7 @@ public class UserOperatorImpl implements UserOperator {
         if (!updateFlag) {
             return this;
         }
-        user = userBuilder
-                .setUpdateTime(OffsetDateTime.now())
-                .build();
-        delegate.updateUser(user);
-        updateFlag = false;
+        saveUser();
         return this;
     }
 
@@ -260,12 +257,17 @@ public class UserOperatorImpl implements UserOperator {
             updateFlag = true;
             return this;
         }
+        saveUser();
+        return this;
+    }
+
+    private void saveUser() {
         user = userBuilder
                 .setUpdateTime(OffsetDateTime.now())
                 .build();
         delegate.updateUser(user);
         updateFlag = false;
-        return this;
+        delegate.getEventPublisher().publishEvent(new UserUpdatedEvent(user));
     }
 
     public Long getId() {
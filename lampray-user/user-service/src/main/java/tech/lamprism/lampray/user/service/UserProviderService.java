@@ -16,6 +16,7 @@
 
 package tech.lamprism.lampray.user.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import space.lingu.NonNull;
@@ -46,13 +47,16 @@ public class UserProviderService implements SystemResourceProvider<Long>,
     private final UserRepository userRepository;
     private final UserInfoFilter userInfoFilter;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserProviderService(UserRepository userRepository,
                                UserInfoFilter userInfoFilter,
-                               PasswordEncoder passwordEncoder) {
+                               PasswordEncoder passwordEncoder,
+                               ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.userInfoFilter = userInfoFilter;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -129,4 +133,9 @@ public class UserProviderService implements SystemResourceProvider<Long>,
         return userInfoFilter;
     }
 
+    @Override
+    public ApplicationEventPublisher getEventPublisher() {
+        return eventPublisher;
+    }
+
 }
@@ -49,6 +49,8 @@ import java.util.List;
 @Service
 public class UserServiceImpl implements UserSignatureProvider,
         UserManageService, UserSearchService, UserProvider {
+    private static final int MAX_SEARCH_SIZE = 100;
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserInfoFilter userInfoFilter;
@@ -157,6 +159,13 @@ public class UserServiceImpl implements UserSignatureProvider,
         );
     }
 
+    @Override
+    public List<AttributedUserDetails> getUsers(long afterId, int limit) {
+        return Collections.unmodifiableList(
+                userRepository.findPage(afterId, limit)
+        );
+    }
+
     @Override
     public List<AttributedUser> findUsers(@NonNull String keyword) {
         List<AttributedUser> res = new ArrayList<>();
@@ -164,7 +173,7 @@ public class UserServiceImpl implements UserSignatureProvider,
         if (user != null) {
             res.add(user);
         }
-        res.addAll(userRepository.searchBy(keyword));
+        res.addAll(userRepository.searchBy(keyword, MAX_SEARCH_SIZE));
 
         return res.stream()
                 .distinct()
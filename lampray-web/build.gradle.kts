@@ -32,6 +32,7 @@ dependencies {
     implementation(project(":lampray-user:staff-service"))
     implementation(project(":lampray-user:user-details-service"))
     implementation(project(":lampray-file:storage-service"))
+    implementation(project(":lampray-push:push-service"))
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation(libs.rollw.web.common.spring.boot.starter)
     implementation("com.fasterxml.jackson.module:jackson-module-kotlin")
@@ -43,6 +44,8 @@ dependencies {
     implementation(libs.spring.shell.starter)
     implementation(libs.sshd.core)
     implementation(libs.picocli)
+    implementation(libs.lucene.core)
+    implementation(libs.lucene.analysis.common)
     implementation("org.springframework.boot:spring-boot-starter-websocket")
     implementation("org.springframework.boot:spring-boot-starter-aop")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
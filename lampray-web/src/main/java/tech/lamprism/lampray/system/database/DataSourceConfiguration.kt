@@ -18,10 +18,12 @@ package tech.lamprism.lampray.system.database
 
 import com.zaxxer.hikari.HikariConfig
 import com.zaxxer.hikari.HikariDataSource
+import org.hibernate.cfg.AvailableSettings
 import org.slf4j.logger
 import org.springframework.beans.factory.annotation.Qualifier
 import org.springframework.boot.autoconfigure.domain.EntityScan
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
 import org.springframework.context.annotation.Primary
@@ -34,6 +36,8 @@ import javax.sql.DataSource
 
 private val logger = logger<DataSourceConfiguration>()
 
+private const val JDBC_BATCH_SIZE = 100
+
 /**
  * Data source configuration with HikariCP connection pool support for multiple database types.
  *
@@ -96,6 +100,18 @@ class DataSourceConfiguration(
         })
     }
 
+    /**
+     * Sends inserts and updates of a flush in JDBC batches. Statements
+     * are ordered by entity so that consecutive rows share a batch.
+     */
+    @Bean
+    fun jdbcBatchingCustomizer() = HibernatePropertiesCustomizer { properties ->
+        properties[AvailableSettings.STATEMENT_BATCH_SIZE] = JDBC_BATCH_SIZE
+        properties[AvailableSettings.ORDER_INSERTS] = true
+        properties[AvailableSettings.ORDER_UPDATES] = true
+        properties[AvailableSettings.BATCH_VERSIONED_DATA] = true
+    }
+
     /**
      * Builds DatabaseConfig from configuration provider settings.
      */
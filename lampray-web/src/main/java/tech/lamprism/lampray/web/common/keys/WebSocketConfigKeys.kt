@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.common.keys
+
+import org.springframework.stereotype.Component
+import tech.lamprism.lampray.setting.AttributedSettingSpecification
+import tech.lamprism.lampray.setting.SettingKey
+import tech.lamprism.lampray.setting.SettingSource
+import tech.lamprism.lampray.setting.SettingSpecificationBuilder
+import tech.lamprism.lampray.setting.SettingSpecificationSupplier
+
+/**
+ * @author RollW
+ */
+@Component
+object WebSocketConfigKeys : SettingSpecificationSupplier {
+
+    @JvmField
+    val HEARTBEAT_INTERVAL =
+        SettingSpecificationBuilder(SettingKey.ofLong("websocket.heartbeat.interval"))
+            .setTextDescription(
+                "Interval in milliseconds of WebSocket heartbeats. A ping is sent to " +
+                        "a connection that has been idle for this long."
+            )
+            .setDefaultValue(30 * 1000)
+            .setRequired(false)
+            .setSupportedSources(SettingSource.VALUES)
+            .build()
+
+    @JvmField
+    val HEARTBEAT_TIMEOUT =
+        SettingSpecificationBuilder(SettingKey.ofLong("websocket.heartbeat.timeout"))
+            .setTextDescription(
+                "Timeout in milliseconds of WebSocket connections. A connection that has " +
+                        "not answered a ping or sent anything for this long is closed. " +
+                        "Should be larger than 'websocket.heartbeat.interval'."
+            )
+            .setDefaultValue(90 * 1000)
+            .setRequired(false)
+            .setSupportedSources(SettingSource.VALUES)
+            .build()
+
+    const val CLUSTER_BUS_IN_PROCESS = "in-process"
+    const val CLUSTER_BUS_TCP = "tcp"
+    const val CLUSTER_BUS_TCP_LOOPBACK = "tcp-loopback"
+
+    @JvmField
+    val CLUSTER_NODE_ID =
+        SettingSpecificationBuilder(SettingKey.ofString("websocket.cluster.node-id"))
+            .setTextDescription(
+                "Id of this node among the nodes delivering chat messages. " +
+                        "A random id is used if empty."
+            )
+            .setDefaultValue("")
+            .setRequired(false)
+            .setSupportedSources(SettingSource.LOCAL_ONLY)
+            .build()
+
+    @JvmField
+    val CLUSTER_BUS =
+        SettingSpecificationBuilder(SettingKey.ofString("websocket.cluster.bus"))
+            .setTextDescription(
+                "Bus forwarding chat messages to the node holding the connections " +
+                        "of a user. '$CLUSTER_BUS_IN_PROCESS' only reaches nodes in the " +
+                        "same process, '$CLUSTER_BUS_TCP' connects to the nodes in " +
+                        "'websocket.cluster.peers', '$CLUSTER_BUS_TCP_LOOPBACK' passes " +
+                        "messages through loopback sockets in the same process and is " +
+                        "meant for testing."
+            )
+            .setAllowAnyValue(false)
+            .setValueEntries(listOf(CLUSTER_BUS_IN_PROCESS, CLUSTER_BUS_TCP, CLUSTER_BUS_TCP_LOOPBACK))
+            .setDefaultValue(CLUSTER_BUS_IN_PROCESS)
+            .setRequired(false)
+            .setSupportedSources(SettingSource.LOCAL_ONLY)
+            .build()
+
+    @JvmField
+    val CLUSTER_BIND_ADDRESS =
+        SettingSpecificationBuilder(SettingKey.ofString("websocket.cluster.bind-address"))
+            .setTextDescription(
+                "Address in form of host:port the '$CLUSTER_BUS_TCP' bus listens on " +
+                        "for other nodes."
+            )
+            .setDefaultValue("0.0.0.0:5110")
+            .setRequired(false)
+            .setSupportedSources(SettingSource.LOCAL_ONLY)
+            .build()
+
+    @JvmField
+    val CLUSTER_PEERS =
+        SettingSpecificationBuilder(SettingKey.ofStringSet("websocket.cluster.peers"))
+            .setTextDescription(
+                "Addresses in form of host:port of the other nodes the " +
+                        "'$CLUSTER_BUS_TCP' bus connects to, for example " +
+                        "[\"10.0.0.2:5110\", \"10.0.0.3:5110\"]. Every node should " +
+                        "list all other nodes."
+            )
+            .setRequired(false)
+            .setSupportedSources(SettingSource.LOCAL_ONLY)
+            .build()
+
+    private val keys = listOf(
+        HEARTBEAT_INTERVAL, HEARTBEAT_TIMEOUT,
+        CLUSTER_NODE_ID, CLUSTER_BUS,
+        CLUSTER_BIND_ADDRESS, CLUSTER_PEERS
+    )
+
+    override val specifications: List<AttributedSettingSpecification<*, *>>
+        get() = keys
+}
@@ -24,6 +24,7 @@ import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import space.lingu.NonNull;
 import tech.lamprism.lampray.server.AutoInferredAddressProvider;
 
@@ -67,6 +68,25 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * Runs the periodic and delayed tasks of background services, which
+     * schedule on this instead of starting threads of their own. Kept
+     * apart from the async executor, so that flushes and polls neither
+     * wait behind async work nor take its threads.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler mainTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        int cpuCount = Runtime.getRuntime().availableProcessors();
+        scheduler.setPoolSize(Math.max(2, Math.min(8, cpuCount)));
+        scheduler.setThreadNamePrefix("scheduler-main-");
+        scheduler.setTaskDecorator(new AddressContextTaskDecorator(autoInferredAddressProvider));
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(5);
+        return scheduler;
+    }
+
     /**
      * Task decorator that automatically manages address context.
      */
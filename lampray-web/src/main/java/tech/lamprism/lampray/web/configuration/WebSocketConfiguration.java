@@ -22,7 +22,18 @@ import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
 import org.springframework.web.socket.server.standard.ServerEndpointExporter;
+import tech.lamprism.lampray.setting.ConfigReader;
+import tech.lamprism.lampray.web.common.keys.WebSocketConfigKeys;
 import tech.lamprism.lampray.web.ws.WebSocketContextConfigurator;
+import tech.lamprism.lampray.web.ws.cluster.InProcessNodeMessageBus;
+import tech.lamprism.lampray.web.ws.cluster.NodeMessageBus;
+import tech.lamprism.lampray.web.ws.cluster.TcpLoopbackNodeMessageBus;
+import tech.lamprism.lampray.web.ws.cluster.TcpNodeMessageBus;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * @author RollW
@@ -43,4 +54,23 @@ public class WebSocketConfiguration implements WebSocketConfigurer {
     public WebSocketContextConfigurator webSocketContextInitializer() {
         return new WebSocketContextConfigurator();
     }
+
+    @Bean
+    public NodeMessageBus nodeMessageBus(ConfigReader configReader) {
+        String bus = configReader.get(WebSocketConfigKeys.CLUSTER_BUS);
+        if (Objects.equals(bus, WebSocketConfigKeys.CLUSTER_BUS_TCP)) {
+            InetSocketAddress bindAddress = TcpNodeMessageBus.parseAddress(
+                    configReader.get(WebSocketConfigKeys.CLUSTER_BIND_ADDRESS));
+            List<InetSocketAddress> peers = configReader
+                    .get(WebSocketConfigKeys.CLUSTER_PEERS, Set.of())
+                    .stream()
+                    .map(TcpNodeMessageBus::parseAddress)
+                    .toList();
+            return new TcpNodeMessageBus(bindAddress, peers);
+        }
+        if (Objects.equals(bus, WebSocketConfigKeys.CLUSTER_BUS_TCP_LOOPBACK)) {
+            return new TcpLoopbackNodeMessageBus();
+        }
+        return new InProcessNodeMessageBus();
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2023-2025 RollW
+ * Copyright (C) 2023-2026 RollW
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,37 +16,28 @@
 
 package tech.lamprism.lampray.web.controller;
 
-import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
-import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import space.lingu.NonNull;
 import tech.lamprism.lampray.LampException;
 import tech.lamprism.lampray.setting.ConfigReader;
-import tech.lamprism.lampray.web.ExternalEndpointProvider;
 import tech.lamprism.lampray.web.common.keys.ResourceConfigKeys;
+import tech.lamprism.lampray.web.resource.FrontendResourceProvider;
+import tech.lamprism.lampray.web.resource.IndexedResource;
+import tech.lamprism.lampray.web.resource.IndexedResourceResponses;
 import tech.rollw.common.web.CommonErrorCode;
 
-import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.Date;
-import java.util.Objects;
+import java.util.regex.Pattern;
 
 /**
  * @author RollW
@@ -55,23 +46,23 @@ import java.util.Objects;
 public class FrontendResourceController {
     private static final Logger logger = LoggerFactory.getLogger(FrontendResourceController.class);
 
-    private static final String ASSETS_PATH = "/assets/";
+    // Build outputs named like "assets/index-BxT3k9aZ.js", content changes imply a new name
+    private static final Pattern FINGERPRINTED_PATH =
+            Pattern.compile("^assets/.+-[A-Za-z0-9_-]{8}\\.\\w+$");
 
-    private static final String CONFIG_JS_TEMPLATE =
-            "window.config={server:{" +
-                    "host:\"{host}\"," +
-                    "httpProtocol:\"{httpProtocol}\"," +
-                    "wsProtocol:\"{wsProtocol}\"" +
-                    "}}";
+    private static final CacheControl REVALIDATE_CACHE_CONTROL = CacheControl.noCache();
+    // TODO: make this configurable
+    private static final CacheControl DEFAULT_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(30));
+    private static final CacheControl FINGERPRINTED_CACHE_CONTROL =
+            CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
 
-    private final ClassPathResource index = new ClassPathResource(ASSETS_PATH + "index.html");
     private final ConfigReader configReader;
-    private final ExternalEndpointProvider externalEndpointProvider;
+    private final FrontendResourceProvider frontendResourceProvider;
 
     public FrontendResourceController(ConfigReader configReader,
-                                      ExternalEndpointProvider externalEndpointProvider) {
+                                      FrontendResourceProvider frontendResourceProvider) {
         this.configReader = configReader;
-        this.externalEndpointProvider = externalEndpointProvider;
+        this.frontendResourceProvider = frontendResourceProvider;
     }
 
     @GetMapping(value = "/{*path}")
@@ -85,117 +76,35 @@ public class FrontendResourceController {
             throw new LampException(CommonErrorCode.ERROR_NOT_FOUND);
         }
         String removed = removePrefix(path);
-        if (onConfigJs(removed, request, response)) {
+        if (removed.equals(FrontendResourceProvider.CONFIG_JS)) {
+            IndexedResourceResponses.write(frontendResourceProvider.getConfigJs(request),
+                    REVALIDATE_CACHE_CONTROL, request, response);
             return;
         }
-        ServletOutputStream outputStream = response.getOutputStream();
-        if (removed.isEmpty()) {
-            fallback(response);
-            return;
+        IndexedResource indexHtml = frontendResourceProvider.getIndexHtml();
+        if (indexHtml == null) {
+            throw new LampException(CommonErrorCode.ERROR_NOT_FOUND);
         }
         String extension = FilenameUtils.getExtension(removed);
-        if (StringUtils.isEmpty(extension)) {
-            fallback(response);
-            return;
-        }
-        Resource resource = loadResource(removed);
-        if (!resource.exists()) {
-            fallback(response);
+        IndexedResource resource = StringUtils.isEmpty(extension)
+                ? null
+                : frontendResourceProvider.getIndex().get(removed);
+        if (resource == null) {
+            IndexedResourceResponses.write(indexHtml, REVALIDATE_CACHE_CONTROL, request, response);
             return;
         }
         logger.debug("Serving frontend resource: '{}'", path);
-        setContentType(response, removed);
-        resource.getInputStream().transferTo(outputStream);
-    }
-
-    private boolean onConfigJs(String path,
-                               HttpServletRequest request,
-                               HttpServletResponse response) throws IOException {
-        if (!path.equals("config.js")) {
-            return false;
-        }
-
-        String baseUrl = externalEndpointProvider.getExternalApiEndpoint();
-        HostAndPath hostAndPath = getHostAndPath(request, baseUrl);
-        String wsProtocol = "https".equals(hostAndPath.httpProtocol()) ? "wss" : "ws";
-
-        String configJs = CONFIG_JS_TEMPLATE
-                .replace("{host}", hostAndPath.host())
-                .replace("{httpProtocol}", hostAndPath.httpProtocol())
-                .replace("{wsProtocol}", wsProtocol);
-
-        response.setContentType("text/javascript");
-        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
-        response.getOutputStream().write(configJs.getBytes(StandardCharsets.UTF_8));
-        return true;
-    }
-
-    @NonNull
-    private HostAndPath getHostAndPath(HttpServletRequest request, String baseUrl) {
-        String host;
-        String httpProtocol;
-        try {
-            URL url = new URL(baseUrl);
-            host = url.getHost();
-            if (url.getPort() != -1 &&
-                    !((url.getPort() == 80 && "http".equals(url.getProtocol())) ||
-                            (url.getPort() == 443 && "https".equals(url.getProtocol())))) {
-                host = host + ":" + url.getPort();
-            }
-            httpProtocol = url.getProtocol();
-        } catch (MalformedURLException e) {
-            // Simple fallback
-            logger.warn("Failed to parse address '{}', using request fallback", baseUrl, e);
-            host = request.getServerName();
-            int port = request.getServerPort();
-            if (port != 80 && port != 443) {
-                host = host + ":" + port;
-            }
-            httpProtocol = request.getScheme();
-        }
-        return new HostAndPath(host, httpProtocol);
-    }
-
-    private record HostAndPath(String host, String httpProtocol) {
-    }
-
-
-    private Resource loadResource(String path) {
-        String resourceSource = configReader.get(ResourceConfigKeys.RESOURCE_SOURCE);
-        if (Objects.equals(resourceSource, ResourceConfigKeys.EMBEDDED_RESOURCE)) {
-            return loadEmbeddedResource(path);
-        }
-        return loadFileResource(path);
+        IndexedResourceResponses.write(resource, getCacheControl(resource), request, response);
     }
 
-    private Resource loadEmbeddedResource(String path) {
-        if (!index.exists()) {
-            throw new LampException(CommonErrorCode.ERROR_NOT_FOUND);
+    private CacheControl getCacheControl(IndexedResource resource) {
+        if (resource.getMimeType().startsWith(MediaType.TEXT_HTML_VALUE)) {
+            return REVALIDATE_CACHE_CONTROL;
         }
-        ClassPathResource accessed = new ClassPathResource(ASSETS_PATH + path);
-        if (!accessed.exists()) {
-            return index;
+        if (FINGERPRINTED_PATH.matcher(resource.getPath()).matches()) {
+            return FINGERPRINTED_CACHE_CONTROL;
         }
-        return accessed;
-    }
-
-    // private final Map<String, FileSystemResource> resourceCache = new ConcurrentHashMap<>();
-
-    private Resource loadFileResource(String path) {
-        FileSystemResource index = new FileSystemResource(
-                new File(configReader.get(ResourceConfigKeys.RESOURCE_SOURCE),
-                        "index.html")
-        );
-        if (!index.exists()) {
-            throw new LampException(CommonErrorCode.ERROR_NOT_FOUND);
-        }
-        FileSystemResource accessed = new FileSystemResource(
-                new File(configReader.get(ResourceConfigKeys.RESOURCE_SOURCE), path)
-        );
-        if (!accessed.exists()) {
-            return index;
-        }
-        return accessed;
+        return DEFAULT_CACHE_CONTROL;
     }
 
     private String removePrefix(String path) {
@@ -204,34 +113,4 @@ public class FrontendResourceController {
         }
         return path;
     }
-
-    private void setContentType(HttpServletResponse response, String path) {
-        MediaTypeFactory.getMediaType(path).ifPresent(mediaType ->
-                response.setContentType(mediaType.toString())
-        );
-        CacheControl cacheControl = CacheControl.maxAge(Duration.ofDays(30));
-        // TODO: make this configurable
-        response.setHeader("Cache-Control", cacheControl.getHeaderValue());
-        response.setHeader("Expires", new Date(System.currentTimeMillis() + 86400000).toString());
-        response.setHeader("Vary", "Accept-Encoding");
-    }
-
-    private void fallback(HttpServletResponse response) throws IOException {
-        Resource indexHtml = getIndexHtml();
-        if (!indexHtml.exists()) {
-            throw new LampException(CommonErrorCode.ERROR_NOT_FOUND);
-        }
-        response.setContentType(MediaType.TEXT_HTML_VALUE);
-        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
-        indexHtml.getInputStream().transferTo(response.getOutputStream());
-    }
-
-    private Resource getIndexHtml() {
-        String source = configReader.get(ResourceConfigKeys.RESOURCE_SOURCE);
-        if (Objects.equals(source, ResourceConfigKeys.EMBEDDED_RESOURCE)) {
-            return index;
-        }
-        return new FileSystemResource(new File(source, "index.html"));
-    }
-
-}
\ No newline at end of file
+}
@@ -16,23 +16,35 @@
 
 package tech.lamprism.lampray.web.controller.article;
 
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import tech.lamprism.lampray.content.ContentDetails;
+import tech.lamprism.lampray.content.ContentIdentity;
+import tech.lamprism.lampray.content.ContentProviderFactory;
 import tech.lamprism.lampray.content.ContentPublishProvider;
+import tech.lamprism.lampray.content.ContentType;
 import tech.lamprism.lampray.content.UncreatedContent;
 import tech.lamprism.lampray.content.article.ArticleDetailsMetadata;
 import tech.lamprism.lampray.content.common.ContentException;
 import tech.lamprism.lampray.user.UserIdentity;
 import tech.lamprism.lampray.web.common.ApiContext;
+import tech.lamprism.lampray.web.common.ParamValidate;
 import tech.lamprism.lampray.web.controller.Api;
 import tech.lamprism.lampray.web.controller.article.model.ArticleCreateRequest;
 import tech.lamprism.lampray.web.controller.article.model.ArticleInfoView;
+import tech.lamprism.lampray.web.domain.search.SearchDocumentType;
+import tech.lamprism.lampray.web.domain.search.SearchResult;
+import tech.lamprism.lampray.web.domain.search.SearchService;
 import tech.rollw.common.web.HttpResponseEntity;
 import tech.rollw.common.web.UserErrorCode;
 import tech.rollw.common.web.system.ContextThread;
 import tech.rollw.common.web.system.ContextThreadAware;
 
+import java.util.Comparator;
+import java.util.List;
+
 /**
  * @author RollW
  */
@@ -40,11 +52,48 @@ import tech.rollw.common.web.system.ContextThreadAware;
 public class ArticleController {
     private final ContentPublishProvider contentPublishProvider;
     private final ContextThreadAware<ApiContext> apiContextThreadAware;
+    private final SearchService searchService;
+    private final ContentProviderFactory contentProviderFactory;
 
     public ArticleController(ContentPublishProvider contentPublishProvider,
-                             ContextThreadAware<ApiContext> apiContextThreadAware) {
+                             ContextThreadAware<ApiContext> apiContextThreadAware,
+                             SearchService searchService,
+                             ContentProviderFactory contentProviderFactory) {
         this.contentPublishProvider = contentPublishProvider;
         this.apiContextThreadAware = apiContextThreadAware;
+        this.searchService = searchService;
+        this.contentProviderFactory = contentProviderFactory;
+    }
+
+    /**
+     * Searches published articles, best match first.
+     *
+     * @param cursor count of results to skip, i.e. the total size of
+     *               the previous pages
+     */
+    @GetMapping("/articles/search")
+    public HttpResponseEntity<List<ArticleInfoView>> searchArticles(
+            @RequestParam("keyword") String keyword,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false, defaultValue = "20") int limit) {
+        ParamValidate.notEmpty(keyword, "keyword");
+
+        SearchResult result = searchService.search(
+                SearchDocumentType.ARTICLE, keyword, cursor, limit);
+        if (result.ids().isEmpty()) {
+            return HttpResponseEntity.success(List.of());
+        }
+        List<ContentDetails> articles = contentProviderFactory
+                .getContentProvider(ContentType.ARTICLE)
+                .getContentDetails(result.ids().stream()
+                        .map(id -> ContentIdentity.of(id, ContentType.ARTICLE))
+                        .toList());
+        return HttpResponseEntity.success(articles.stream()
+                .sorted(Comparator.comparingInt(article ->
+                        result.ids().indexOf(article.getContentId())))
+                .map(ArticleInfoView::from)
+                .toList()
+        );
     }
 
     @PostMapping("/articles")
@@ -17,6 +17,7 @@
 package tech.lamprism.lampray.web.controller.article.model;
 
 import tech.lamprism.lampray.content.ContentAccessAuthType;
+import tech.lamprism.lampray.content.ContentMetadata;
 import tech.lamprism.lampray.content.ContentMetadataDetails;
 import tech.lamprism.lampray.content.ContentStatus;
 import tech.lamprism.lampray.content.article.Article;
@@ -35,13 +36,17 @@ public record ArticleMetaVo(
         OffsetDateTime createTime,
         OffsetDateTime updateTime,
         ContentAccessAuthType accessAuthType,
-        ContentStatus contentStatus
+        ContentStatus contentStatus,
+        long likeCount,
+        long dislikeCount,
+        long favoriteCount
 ) {
     public static ArticleMetaVo from(ContentMetadataDetails<?> contentMetadataDetails) {
         if (!(contentMetadataDetails.getContentDetails() instanceof Article article)) {
             return null;
         }
         StructuralText content = article.getContent();
+        ContentMetadata metadata = contentMetadataDetails.getContentMetadata();
         return new ArticleMetaVo(
                 article.getEntityId(),
                 article.getTitle(),
@@ -50,7 +55,10 @@ public record ArticleMetaVo(
                 article.getCreateTime(),
                 article.getUpdateTime(),
                 contentMetadataDetails.getContentAccessAuthType(),
-                contentMetadataDetails.getContentStatus()
+                contentMetadataDetails.getContentStatus(),
+                metadata.getLikeCount(),
+                metadata.getDislikeCount(),
+                metadata.getFavoriteCount()
         );
     }
 
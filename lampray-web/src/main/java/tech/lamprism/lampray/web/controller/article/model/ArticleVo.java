@@ -19,6 +19,7 @@ package tech.lamprism.lampray.web.controller.article.model;
 import tech.lamprism.lampray.content.Content;
 import tech.lamprism.lampray.content.ContentAccessAuthType;
 import tech.lamprism.lampray.content.ContentDetails;
+import tech.lamprism.lampray.content.ContentMetadata;
 import tech.lamprism.lampray.content.ContentMetadataDetails;
 import tech.lamprism.lampray.content.structuraltext.StructuralText;
 import tech.lamprism.lampray.web.controller.content.vo.ContentVo;
@@ -35,12 +36,16 @@ public record ArticleVo(
         long userId,
         OffsetDateTime createTime,
         OffsetDateTime updateTime,
-        ContentAccessAuthType accessAuthType
+        ContentAccessAuthType accessAuthType,
+        long likeCount,
+        long dislikeCount,
+        long favoriteCount
         // TODO: add more fields
 ) implements ContentVo {
 
     public static ArticleVo of(ContentMetadataDetails<?> contentMetadataDetails) {
         ContentDetails contentDetails = contentMetadataDetails.getContentDetails();
+        ContentMetadata metadata = contentMetadataDetails.getContentMetadata();
         return new ArticleVo(
                 contentDetails.getContentId(),
                 contentDetails.getTitle(),
@@ -48,7 +53,10 @@ public record ArticleVo(
                 contentDetails.getUserId(),
                 contentDetails.getCreateTime(),
                 contentDetails.getUpdateTime(),
-                contentMetadataDetails.getContentAccessAuthType()
+                contentMetadataDetails.getContentAccessAuthType(),
+                metadata.getLikeCount(),
+                metadata.getDislikeCount(),
+                metadata.getFavoriteCount()
         );
     }
 
@@ -63,7 +71,8 @@ public record ArticleVo(
                 contentDetails.getUserId(),
                 contentDetails.getCreateTime(),
                 contentDetails.getUpdateTime(),
-                ContentAccessAuthType.PUBLIC
+                ContentAccessAuthType.PUBLIC,
+                0, 0, 0
         );
     }
 
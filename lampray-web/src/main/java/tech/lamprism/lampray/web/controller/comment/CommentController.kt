@@ -19,8 +19,10 @@ import org.springframework.web.bind.annotation.GetMapping
 import org.springframework.web.bind.annotation.PathVariable
 import org.springframework.web.bind.annotation.PostMapping
 import org.springframework.web.bind.annotation.RequestBody
+import org.springframework.web.bind.annotation.RequestParam
 import tech.lamprism.lampray.content.ContentAccessCredential
 import tech.lamprism.lampray.content.ContentAccessCredentials
+import tech.lamprism.lampray.content.ContentIdentity
 import tech.lamprism.lampray.content.ContentPublishProvider
 import tech.lamprism.lampray.content.ContentType
 import tech.lamprism.lampray.content.SimpleUncreatedContent
@@ -28,6 +30,7 @@ import tech.lamprism.lampray.content.collection.ContentCollectionIdentity
 import tech.lamprism.lampray.content.collection.ContentCollectionProviderFactory
 import tech.lamprism.lampray.content.collection.ContentCollectionType
 import tech.lamprism.lampray.content.comment.CommentDetailsMetadata
+import tech.lamprism.lampray.content.comment.service.CommentService
 import tech.lamprism.lampray.web.common.ApiContext
 import tech.lamprism.lampray.web.controller.Api
 import tech.lamprism.lampray.web.controller.comment.model.CommentRequest
@@ -43,7 +46,8 @@ import tech.rollw.common.web.system.ContextThreadAware
 class CommentController(
     private val apiContextThreadAware: ContextThreadAware<ApiContext>,
     private val contentPublishProvider: ContentPublishProvider,
-    private val contentCollectionProviderFactory: ContentCollectionProviderFactory
+    private val contentCollectionProviderFactory: ContentCollectionProviderFactory,
+    private val commentService: CommentService
 ) {
     @PostMapping("/{contentType}/{contentId}/comments")
     fun createComment(
@@ -75,12 +79,27 @@ class CommentController(
         )
     }
 
+    /**
+     * Gets comments of the content. When a limit is given, returns a
+     * page of top-level comments older than the cursor, which is the
+     * id of the last comment of the previous page.
+     */
     @GetMapping("/{contentType}/{contentId}/comments")
     fun getComments(
         @PathVariable("contentId") contentId: String,
-        @PathVariable("contentType") type: String
+        @PathVariable("contentType") type: String,
+        @RequestParam(value = "cursor", required = false) cursor: String?,
+        @RequestParam(value = "limit", required = false) limit: Int?
     ): HttpResponseEntity<List<CommentVo>> {
         val contentType = getContentType(type)
+        if (limit != null) {
+            val comments = commentService.getTopLevelComments(
+                ContentIdentity.of(contentId, contentType),
+                cursor,
+                limit
+            ).mapNotNull { CommentVo.of(it) }
+            return HttpResponseEntity.success(comments)
+        }
         val collectionType = getFromContentType(contentType)
         val context = apiContextThreadAware.contextThread
             .context
@@ -99,6 +118,20 @@ class CommentController(
     }
 
 
+    /**
+     * Gets the comment with all replies under it, where each comment
+     * comes before its replies.
+     */
+    @GetMapping("/comments/{commentId}/thread")
+    fun getCommentThread(
+        @PathVariable("commentId") commentId: String,
+        @RequestParam(value = "limit", required = false, defaultValue = "100") limit: Int
+    ): HttpResponseEntity<List<CommentVo>> {
+        val comments = commentService.getCommentTree(commentId, limit)
+            .mapNotNull { CommentVo.of(it) }
+        return HttpResponseEntity.success(comments)
+    }
+
     @GetMapping("/user/comments")
     fun getCommentsOfCurrentUser(): HttpResponseEntity<List<CommentVo>> {
         val context = apiContextThreadAware.contextThread
@@ -17,6 +17,7 @@ package tech.lamprism.lampray.web.controller.comment.model
 
 import tech.lamprism.lampray.content.ContentDetails
 import tech.lamprism.lampray.content.ContentType
+import tech.lamprism.lampray.content.comment.Comment
 import tech.lamprism.lampray.content.comment.CommentDetailsMetadata
 import tech.lamprism.lampray.content.structuraltext.StructuralText
 import tech.lamprism.lampray.web.controller.content.vo.ContentVo
@@ -33,7 +34,9 @@ data class CommentVo(
     val contentId: String,
     val contentType: ContentType,
     val createTime: OffsetDateTime,
-    val updateTime: OffsetDateTime
+    val updateTime: OffsetDateTime,
+    val replyCount: Int = 0,
+    val descendantCount: Int = 0
 ) : ContentVo {
 
     override fun id(): String = id
@@ -63,7 +66,9 @@ data class CommentVo(
                 metadata.contentId,
                 metadata.contentType,
                 contentDetails.createTime,
-                contentDetails.updateTime
+                contentDetails.updateTime,
+                (contentDetails as? Comment)?.replyCount ?: 0,
+                (contentDetails as? Comment)?.descendantCount ?: 0
             )
         }
     }
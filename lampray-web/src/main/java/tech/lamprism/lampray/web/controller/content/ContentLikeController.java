@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.controller.content;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import tech.lamprism.lampray.content.ContentAccessCredential;
+import tech.lamprism.lampray.content.ContentAccessCredentials;
+import tech.lamprism.lampray.content.ContentAccessService;
+import tech.lamprism.lampray.content.ContentDetails;
+import tech.lamprism.lampray.content.ContentIdentity;
+import tech.lamprism.lampray.content.common.ContentErrorCode;
+import tech.lamprism.lampray.content.common.ContentException;
+import tech.lamprism.lampray.user.AttributedUser;
+import tech.lamprism.lampray.web.common.ApiContext;
+import tech.lamprism.lampray.web.common.ParameterMissingException;
+import tech.lamprism.lampray.web.controller.Api;
+import tech.lamprism.lampray.web.controller.content.vo.ContentLikeRequest;
+import tech.lamprism.lampray.web.controller.content.vo.UrlContentType;
+import tech.lamprism.lampray.web.domain.like.LikeType;
+import tech.lamprism.lampray.web.domain.like.UserLikeService;
+import tech.rollw.common.web.AuthErrorCode;
+import tech.rollw.common.web.HttpResponseEntity;
+import tech.rollw.common.web.system.ContextThreadAware;
+
+/**
+ * @author RollW
+ */
+@Api
+public class ContentLikeController {
+    private final ContentAccessService contentAccessService;
+    private final UserLikeService userLikeService;
+    private final ContextThreadAware<ApiContext> apiContextThreadAware;
+
+    public ContentLikeController(ContentAccessService contentAccessService,
+                                 UserLikeService userLikeService,
+                                 ContextThreadAware<ApiContext> apiContextThreadAware) {
+        this.contentAccessService = contentAccessService;
+        this.userLikeService = userLikeService;
+        this.apiContextThreadAware = apiContextThreadAware;
+    }
+
+    @GetMapping("/users/{userId}/{contentType}/{contentId}/like")
+    public HttpResponseEntity<LikeType> getLike(
+            @PathVariable("userId") Long userId,
+            @PathVariable("contentType") UrlContentType contentType,
+            @PathVariable("contentId") String contentId) {
+        AttributedUser user = getUser();
+        ContentDetails details = openContent(user, userId, contentType, contentId);
+        return HttpResponseEntity.success(
+                userLikeService.getLikeType(user.getUserId(), details)
+        );
+    }
+
+    @PutMapping("/users/{userId}/{contentType}/{contentId}/like")
+    public HttpResponseEntity<LikeType> setLike(
+            @PathVariable("userId") Long userId,
+            @PathVariable("contentType") UrlContentType contentType,
+            @PathVariable("contentId") String contentId,
+            @RequestBody ContentLikeRequest likeRequest) {
+        if (likeRequest.type() == null) {
+            throw new ParameterMissingException("type");
+        }
+        AttributedUser user = getUser();
+        ContentDetails details = openContent(user, userId, contentType, contentId);
+        return HttpResponseEntity.success(
+                userLikeService.setLike(user.getUserId(), details, likeRequest.type())
+                        .getLikeType()
+        );
+    }
+
+    private AttributedUser getUser() {
+        AttributedUser user = apiContextThreadAware.getContextThread()
+                .getContext()
+                .getUser();
+        if (user == null) {
+            throw new ContentException(AuthErrorCode.ERROR_UNAUTHORIZED_USE);
+        }
+        return user;
+    }
+
+    private ContentDetails openContent(AttributedUser user, long userId,
+                                       UrlContentType contentType,
+                                       String contentId) {
+        ContentDetails details = contentAccessService.openContent(
+                ContentIdentity.of(contentId, contentType.getContentType()),
+                ContentAccessCredentials.of(ContentAccessCredential.Type.USER, user)
+        );
+        if (details.getUserId() != userId) {
+            throw new ContentException(ContentErrorCode.ERROR_CONTENT_NOT_FOUND);
+        }
+        return details;
+    }
+}
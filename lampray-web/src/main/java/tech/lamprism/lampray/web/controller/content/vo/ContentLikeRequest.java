@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2023 RollW
+ * Copyright (C) 2023-2026 RollW
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,14 +14,14 @@
  * limitations under the License.
  */
 
-package tech.lamprism.lampray.web.common.keys;
+package tech.lamprism.lampray.web.controller.content.vo;
+
+import tech.lamprism.lampray.web.domain.like.LikeType;
 
 /**
  * @author RollW
  */
-public final class MessageTemplateKeys {
-    public static final String EMAIL_LOGIN_TOKEN_TEMPLATE = "email.login-token";
-
-    private MessageTemplateKeys() {
-    }
+public record ContentLikeRequest(
+        LikeType type
+) {
 }
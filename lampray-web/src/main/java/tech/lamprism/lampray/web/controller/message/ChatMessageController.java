@@ -17,9 +17,15 @@
 package tech.lamprism.lampray.web.controller.message;
 
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import tech.lamprism.lampray.web.common.ApiContext;
 import tech.lamprism.lampray.web.controller.Api;
+import tech.lamprism.lampray.web.domain.message.ChatMessageCursor;
+import tech.lamprism.lampray.web.domain.message.ChatMessageHistory;
 import tech.lamprism.lampray.web.domain.message.ChatMessageProvider;
+import tech.lamprism.lampray.web.domain.message.ChatPartner;
+import tech.lamprism.lampray.web.domain.message.ChatType;
 import tech.lamprism.lampray.web.domain.message.TransferredMessage;
 import tech.lamprism.lampray.user.UserIdentity;
 import tech.rollw.common.web.HttpResponseEntity;
@@ -49,4 +55,22 @@ public class ChatMessageController {
         List<TransferredMessage> messages = chatMessageProvider.getMessages(user);
         return HttpResponseEntity.success(messages);
     }
+
+    @GetMapping("/messages/{chatType}/{partnerId}")
+    public HttpResponseEntity<ChatMessageHistory> getHistory(
+            @PathVariable("chatType") ChatType chatType,
+            @PathVariable("partnerId") Long partnerId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false, defaultValue = "30") int limit) {
+        ApiContext context =
+                apiContextThreadAware.getContextThread().getContext();
+        UserIdentity user = context.getUser();
+        ChatMessageHistory history = chatMessageProvider.getHistory(
+                user,
+                new ChatPartner(partnerId, chatType),
+                cursor == null ? null : ChatMessageCursor.parse(cursor),
+                limit
+        );
+        return HttpResponseEntity.success(history);
+    }
 }
@@ -0,0 +1,315 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.controller.message;
+
+import com.google.common.primitives.Longs;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import tech.lamprism.lampray.setting.ConfigReader;
+import tech.lamprism.lampray.web.common.keys.WebSocketConfigKeys;
+import tech.lamprism.lampray.web.ws.UserWebSocketConnectionRegistry;
+import tech.lamprism.lampray.web.ws.cluster.NodeMessage;
+import tech.lamprism.lampray.web.ws.cluster.NodeMessageBus;
+import tech.lamprism.lampray.web.ws.cluster.NodeMessageListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers encoded chat frames to users wherever their connections
+ * are, on this node or on other nodes joined to the {@link NodeMessageBus}.
+ * <p>
+ * Each node announces the users it holds connections for, so every
+ * node keeps a table of the nodes owning the connections of remote
+ * users. A frame for remote users is sent once per owning node,
+ * carrying all target users on that node.
+ * <p>
+ * Messages to other nodes are queued per node and flushed in batches
+ * on the shared scheduler. Flushes never overlap, which keeps the
+ * messages in order per node. A flush is only scheduled when something
+ * was queued, so a single node never schedules one.
+ *
+ * @author RollW
+ */
+@Component
+public class ChatMessageRouter implements NodeMessageListener, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageRouter.class);
+
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final Duration FLUSH_DELAY = Duration.ofMillis(5);
+
+    private final UserWebSocketConnectionRegistry<MessageChatConnection> registry;
+    private final NodeMessageBus bus;
+    private final String nodeId;
+
+    /**
+     * Users connected to other nodes, mapped to those nodes.
+     */
+    private final Map<Long, Set<String>> remoteRoutes = new ConcurrentHashMap<>();
+    private final Map<String, Queue<NodeMessage>> outgoing = new ConcurrentHashMap<>();
+    private final TaskScheduler taskScheduler;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    public ChatMessageRouter(UserWebSocketConnectionRegistry<MessageChatConnection> registry,
+                             NodeMessageBus bus,
+                             ConfigReader configReader,
+                             @Qualifier("mainTaskScheduler") TaskScheduler taskScheduler) {
+        this.registry = registry;
+        this.bus = bus;
+        this.nodeId = resolveNodeId(configReader);
+        this.taskScheduler = taskScheduler;
+        bus.join(nodeId, this);
+        broadcast(NodeMessage.sync(nodeId));
+    }
+
+    private static String resolveNodeId(ConfigReader configReader) {
+        String nodeId = configReader.get(WebSocketConfigKeys.CLUSTER_NODE_ID);
+        if (StringUtils.isBlank(nodeId)) {
+            return UUID.randomUUID().toString();
+        }
+        return nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Gets the other nodes holding connections of the user.
+     */
+    Set<String> getRemoteNodes(long userId) {
+        Set<String> nodes = remoteRoutes.get(userId);
+        return nodes == null ? Set.of() : Set.copyOf(nodes);
+    }
+
+    /**
+     * Announces the current connection state of the user to other
+     * nodes. Called after a connection of the user opened or closed.
+     */
+    public void onConnectionChanged(long userId) {
+        boolean connected = !registry.getConnections(userId).isEmpty();
+        broadcast(connected
+                ? NodeMessage.attach(nodeId, userId)
+                : NodeMessage.detach(nodeId, userId));
+    }
+
+    /**
+     * Delivers the frame to all connections of the users.
+     */
+    public void deliver(Collection<Long> userIds, String frame) {
+        Map<String, List<Long>> remoteTargets = new HashMap<>();
+        for (Long userId : userIds) {
+            registry.getConnections(userId)
+                    .forEach(connection -> connection.sendText(frame));
+            Set<String> nodes = remoteRoutes.get(userId);
+            if (nodes == null) {
+                continue;
+            }
+            for (String node : nodes) {
+                remoteTargets.computeIfAbsent(node, key -> new ArrayList<>())
+                        .add(userId);
+            }
+        }
+        remoteTargets.forEach((node, targets) ->
+                enqueue(node, NodeMessage.frame(nodeId, Longs.toArray(targets), frame)));
+    }
+
+    /**
+     * Delivers the frame to the online members of a group, walking
+     * either the members or the online users, whichever is smaller.
+     */
+    public void deliverToGroup(Set<Long> members, String frame) {
+        int online = registry.getUserIds().size() + remoteRoutes.size();
+        if (members.size() <= online) {
+            deliver(members, frame);
+            return;
+        }
+        Set<Long> targets = new HashSet<>();
+        for (Long userId : registry.getUserIds()) {
+            if (members.contains(userId)) {
+                targets.add(userId);
+            }
+        }
+        for (Long userId : remoteRoutes.keySet()) {
+            if (members.contains(userId)) {
+                targets.add(userId);
+            }
+        }
+        deliver(targets, frame);
+    }
+
+    @Override
+    public void onMessages(List<NodeMessage> messages) {
+        for (NodeMessage message : messages) {
+            switch (message.type()) {
+                case FRAME -> deliverLocally(message.userIds(), message.frame());
+                case ATTACH -> attach(message.sourceNode(), message.userIds());
+                case DETACH -> detach(message.sourceNode(), message.userIds());
+                case SYNC -> answerSync(message.sourceNode());
+                case LEAVE -> removeNode(message.sourceNode());
+            }
+        }
+    }
+
+    private void deliverLocally(long[] userIds, String frame) {
+        for (long userId : userIds) {
+            registry.getConnections(userId)
+                    .forEach(connection -> connection.sendText(frame));
+        }
+    }
+
+    private void attach(String node, long[] userIds) {
+        for (long userId : userIds) {
+            remoteRoutes.compute(userId, (key, nodes) -> {
+                Set<String> current = nodes == null
+                        ? ConcurrentHashMap.newKeySet()
+                        : nodes;
+                current.add(node);
+                return current;
+            });
+        }
+    }
+
+    private void detach(String node, long[] userIds) {
+        for (long userId : userIds) {
+            detach(node, userId);
+        }
+    }
+
+    private void detach(String node, long userId) {
+        remoteRoutes.computeIfPresent(userId, (key, nodes) -> {
+            nodes.remove(node);
+            return nodes.isEmpty() ? null : nodes;
+        });
+    }
+
+    private void answerSync(String node) {
+        long[] userIds = Longs.toArray(registry.getUserIds());
+        if (userIds.length > 0) {
+            enqueue(node, NodeMessage.attach(nodeId, userIds));
+        }
+    }
+
+    private void removeNode(String node) {
+        outgoing.remove(node);
+        for (Long userId : remoteRoutes.keySet()) {
+            detach(node, userId);
+        }
+    }
+
+    private void broadcast(NodeMessage message) {
+        for (String node : bus.getNodes()) {
+            if (!node.equals(nodeId)) {
+                enqueue(node, message);
+            }
+        }
+    }
+
+    private void enqueue(String node, NodeMessage message) {
+        outgoing.computeIfAbsent(node, key -> new ConcurrentLinkedQueue<>())
+                .offer(message);
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                taskScheduler.schedule(this::runScheduledFlush,
+                        Instant.now().plus(FLUSH_DELAY));
+            } catch (RejectedExecutionException e) {
+                // shutting down, flushed by destroy
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    private void runScheduledFlush() {
+        // Reset first, messages queued from now on schedule another flush
+        flushScheduled.set(false);
+        flushSafely();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush messages to other nodes.", e);
+        }
+    }
+
+    private void flush() {
+        synchronized (flushLock) {
+            flushQueues();
+        }
+    }
+
+    private void flushQueues() {
+        for (Map.Entry<String, Queue<NodeMessage>> entry : outgoing.entrySet()) {
+            String node = entry.getKey();
+            Queue<NodeMessage> queue = entry.getValue();
+            List<NodeMessage> batch = new ArrayList<>();
+            NodeMessage message;
+            while ((message = queue.poll()) != null) {
+                batch.add(message);
+                if (batch.size() < MAX_BATCH_SIZE) {
+                    continue;
+                }
+                if (!send(node, batch)) {
+                    break;
+                }
+                batch = new ArrayList<>();
+            }
+            if (!batch.isEmpty()) {
+                send(node, batch);
+            }
+        }
+    }
+
+    private boolean send(String node, List<NodeMessage> batch) {
+        if (bus.send(node, batch)) {
+            return true;
+        }
+        // The node is gone, so are its users
+        logger.debug("Node '{}' is not reachable, dropped {} messages.", node, batch.size());
+        batch.clear();
+        removeNode(node);
+        return false;
+    }
+
+    @Override
+    public void destroy() {
+        broadcast(NodeMessage.leave(nodeId));
+        // Waits for a running flush, then sends the leave messages
+        flushSafely();
+        bus.leave(nodeId);
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2023 RollW
+ * Copyright (C) 2023-2026 RollW
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,77 +16,136 @@
 
 package tech.lamprism.lampray.web.controller.message;
 
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
+import jakarta.websocket.Session;
 import org.springframework.stereotype.Service;
-import tech.lamprism.lampray.web.ws.AbstractWebSocketMessageConnection;
 import tech.lamprism.lampray.web.ws.UserWebSocketConnectionRegistry;
 
-import jakarta.websocket.Session;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Objects;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Registry of chat connections, indexed by user id and by session id.
+ * <p>
+ * Connections of a user are held in a concurrent map keyed by session
+ * id, and each session id maps back to its user, so lookups, delivery
+ * to a user and cleanup of a session do not scan other connections.
+ * Updates to the connections of a user are atomic per user, and the
+ * map of a user is removed once its last connection is gone.
+ *
  * @author RollW
  */
 @Service
 public class MessageConnectionRegistry implements UserWebSocketConnectionRegistry<MessageChatConnection> {
-    private final Multimap<Long, MessageChatConnection> connections =
-            Multimaps.newSetMultimap(new ConcurrentHashMap<>(), HashSet::new);
+    private final Map<Long, Map<String, MessageChatConnection>> connections =
+            new ConcurrentHashMap<>();
+    private final Map<String, Long> sessionOwners = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
 
     @Override
     public void registerConnection(MessageChatConnection connection) {
-        long hasCurr = connections.get(connection.getUser().getUserId())
-                .stream()
-                .filter(conn -> Objects.equals(connection.getSession().getId(), conn.getSession().getId()))
-                .count();
-        if (hasCurr > 0) {
-            return;
+        long userId = connection.getUser().getUserId();
+        String sessionId = connection.getSession().getId();
+        connections.compute(userId, (key, userConnections) -> {
+            Map<String, MessageChatConnection> current = userConnections == null
+                    ? new ConcurrentHashMap<>()
+                    : userConnections;
+            if (current.putIfAbsent(sessionId, connection) == null) {
+                sessionOwners.put(sessionId, userId);
+                size.incrementAndGet();
+            }
+            return current;
+        });
+    }
+
+    @Override
+    public MessageChatConnection unregisterConnection(Session session) {
+        Long userId = sessionOwners.get(session.getId());
+        if (userId == null) {
+            return null;
         }
-        connections.put(connection.getUser().getUserId(), connection);
+        return remove(userId, session.getId());
     }
 
     @Override
     public void unregisterConnection(MessageChatConnection connection) {
-        connections.remove(connection.getUser().getUserId(), connection);
+        remove(connection.getUser().getUserId(), connection.getSession().getId());
     }
 
     @Override
     public void unregisterConnection(long userId) {
-        connections.removeAll(userId);
+        Map<String, MessageChatConnection> removed = connections.remove(userId);
+        if (removed == null) {
+            return;
+        }
+        removed.keySet().forEach(sessionId -> sessionOwners.remove(sessionId, userId));
+        size.addAndGet(-removed.size());
     }
 
     @Override
     public void unregisterConnection(long userId, Session session) {
-        connections.get(userId).stream()
-                .filter(connection -> Objects.equals(connection.getSession().getId(), session.getId()))
-                .forEach(connection -> connections.remove(userId, connection));
+        remove(userId, session.getId());
+    }
+
+    private MessageChatConnection remove(long userId, String sessionId) {
+        MessageChatConnection[] removed = new MessageChatConnection[1];
+        connections.computeIfPresent(userId, (key, userConnections) -> {
+            removed[0] = userConnections.remove(sessionId);
+            if (removed[0] != null) {
+                sessionOwners.remove(sessionId, userId);
+                size.decrementAndGet();
+            }
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+        return removed[0];
     }
 
     @Override
     public MessageChatConnection getConnection(long userId, Session session) {
-        return connections.get(userId).stream()
-                .filter(connection -> Objects.equals(connection.getSession().getId(), session.getId()))
-                .findFirst()
-                .orElse(null);
+        Map<String, MessageChatConnection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return null;
+        }
+        return userConnections.get(session.getId());
     }
 
     @Override
-    public Collection<MessageChatConnection> getConnections(
-            long userId) {
-        Collection<MessageChatConnection> userConnections =
-                connections.get(userId);
-        userConnections.stream()
-                .filter(AbstractWebSocketMessageConnection::isClosed)
-                .forEach(messageChatConnection ->
-                        connections.remove(userId, messageChatConnection));
-        return connections.get(userId);
+    public MessageChatConnection getConnection(Session session) {
+        Long userId = sessionOwners.get(session.getId());
+        if (userId == null) {
+            return null;
+        }
+        return getConnection(userId, session);
+    }
+
+    @Override
+    public Collection<MessageChatConnection> getConnections(long userId) {
+        Map<String, MessageChatConnection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return List.of();
+        }
+        return Collections.unmodifiableCollection(userConnections.values());
     }
 
     @Override
     public Collection<MessageChatConnection> getConnections() {
-        return connections.values();
+        List<MessageChatConnection> all = new ArrayList<>(size.get());
+        connections.values().forEach(userConnections -> all.addAll(userConnections.values()));
+        return all;
+    }
+
+    @Override
+    public Set<Long> getUserIds() {
+        return Collections.unmodifiableSet(connections.keySet());
+    }
+
+    @Override
+    public int size() {
+        return size.get();
     }
 }
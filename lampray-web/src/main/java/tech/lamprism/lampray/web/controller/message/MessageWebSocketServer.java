@@ -17,24 +17,29 @@
 package tech.lamprism.lampray.web.controller.message;
 
 
-import com.google.common.collect.Lists;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Controller;
 import tech.lamprism.lampray.web.common.ApiContext;
 import tech.lamprism.lampray.web.domain.message.ChatService;
-import tech.lamprism.lampray.web.domain.message.ChatType;
 import tech.lamprism.lampray.web.domain.message.TransferredMessage;
-import tech.lamprism.lampray.user.AttributedUser;
+import tech.lamprism.lampray.web.domain.message.event.ChatMessageRejectedEvent;
+import tech.lamprism.lampray.web.domain.usergroup.UserGroupProvider;
 import tech.lamprism.lampray.user.UserProvider;
 import tech.lamprism.lampray.web.ws.UserWebSocketConnectionRegistry;
 import tech.lamprism.lampray.web.ws.WebSocketContextConfigurator;
+import tech.lamprism.lampray.web.ws.WebSocketHeartbeatReaper;
 import tech.rollw.common.web.system.ContextThreadAware;
 
 import jakarta.websocket.*;
 import jakarta.websocket.server.ServerEndpoint;
 import java.io.IOException;
-import java.util.Collection;
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -52,15 +57,36 @@ public class MessageWebSocketServer {
     private final ContextThreadAware<ApiContext> apiContextThreadAware;
     private final UserProvider userProvider;
     private final ChatService chatService;
+    private final ObjectMapper objectMapper;
+    private final WebSocketHeartbeatReaper heartbeatReaper;
+    private final UserGroupProvider userGroupProvider;
+    private final ChatMessageRouter router;
+
+    /**
+     * Usernames of recent senders, so that a burst of messages
+     * does not look up the sender every time.
+     */
+    private final Cache<Long, String> senderNames = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
 
     public MessageWebSocketServer(UserWebSocketConnectionRegistry<MessageChatConnection> registry,
                                   ContextThreadAware<ApiContext> apiContextThreadAware,
                                   UserProvider userProvider,
-                                  ChatService chatService) {
+                                  ChatService chatService,
+                                  ObjectMapper objectMapper,
+                                  WebSocketHeartbeatReaper heartbeatReaper,
+                                  UserGroupProvider userGroupProvider,
+                                  ChatMessageRouter router) {
         this.registry = registry;
         this.apiContextThreadAware = apiContextThreadAware;
         this.userProvider = userProvider;
         this.chatService = chatService;
+        this.objectMapper = objectMapper;
+        this.heartbeatReaper = heartbeatReaper;
+        this.userGroupProvider = userGroupProvider;
+        this.router = router;
     }
 
     @OnOpen
@@ -69,20 +95,18 @@ public class MessageWebSocketServer {
         MessageChatConnection connection = new MessageChatConnection(session, registry);
         connection.onConnect();
         registry.registerConnection(connection);
+        heartbeatReaper.register(connection);
+        router.onConnectionChanged(connection.getUser().getUserId());
     }
 
     @OnClose
     public void onClose(Session session, CloseReason closeReason) {
-        ApiContext context = getContextFromSession(session);
-        Long currId = extractIdFromContext(context);
-        if (currId == null) {
+        MessageChatConnection connection = registry.unregisterConnection(session);
+        if (connection == null) {
             return;
         }
-
-        MessageChatConnection connection = registry.getConnection(
-                currId, session);
         connection.onDisconnect();
-        registry.unregisterConnection(connection);
+        router.onConnectionChanged(connection.getUser().getUserId());
     }
 
     @OnMessage
@@ -91,90 +115,116 @@ public class MessageWebSocketServer {
         ApiContext context = getContextFromSession(session);
         Long currId = extractIdFromContext(context);
 
-        long timestamp = System.currentTimeMillis();
-
-        if (message.getMessageType().isHeartbeat() && currId != null) {
-            MessageChatConnection connection =
-                    registry.getConnection(currId, session);
-            connection.onHeartbeat(timestamp);
-            // TODO: timeout check
+        // Any message from the client proves it alive
+        markActive(session);
+        if (message.getMessageType().isHeartbeat()) {
             return;
         }
 
         try {
             apiContextThreadAware.getContextThread().setContext(context);
-            TransferredMessage returnedMessage =
+            TransferredMessageVo returnedMessage =
                     makeViewObject(chatService.sendMessage(message));
+            // Encoded once, the same frame is shared by all receivers
+            String frame = encode(returnedMessage);
+            if (frame == null) {
+                return;
+            }
             if (returnedMessage.getMessageType().isError()) {
-                RemoteEndpoint.Async async = session.getAsyncRemote();
-                async.sendObject(returnedMessage);
+                sendToSession(currId, session, frame);
                 return;
             }
             if (currId == null) {
                 return;
             }
-            Collection<MessageChatConnection> connections =
-                    getConnections(returnedMessage);
-            connections.forEach(target -> {
-                RemoteEndpoint.Async async =
-                        target.getSession().getAsyncRemote();
-                async.sendObject(returnedMessage);
-            });
+            deliver(returnedMessage, frame);
         } finally {
             apiContextThreadAware.getContextThread().clearContext();
         }
     }
 
-    private TransferredMessage makeViewObject(TransferredMessage message) {
-        AttributedUser user =
-                userProvider.getUser(message.getSenderId());
-        // TODO: check user state that can receive message or not
+    /**
+     * Tells the sender of a message that the store rejected it after
+     * it had been delivered.
+     */
+    @EventListener
+    public void onMessageRejected(ChatMessageRejectedEvent event) {
+        TransferredMessage errorMessage = chatService.createRejectedMessage(event.getMessage());
+        String frame = encode(makeViewObject(errorMessage));
+        if (frame != null) {
+            router.deliver(List.of(errorMessage.getSenderId()), frame);
+        }
+    }
 
-        return TransferredMessageVo.fork(message, user);
+    @OnMessage
+    public void onPong(PongMessage pongMessage, Session session) {
+        markActive(session);
     }
 
-    private Collection<MessageChatConnection> getConnections(
-            TransferredMessage message) {
-        if (message.getMessageType().isError()) {
-            return List.of();
+    private void markActive(Session session) {
+        MessageChatConnection connection = registry.getConnection(session);
+        if (connection != null) {
+            connection.onHeartbeat(System.currentTimeMillis());
         }
-        return switch (message.getChatType()) {
-            case USER -> getConnectionsOfUser(message);
-            case GROUP -> getConnectionsOfGroup(message);
-            case SYSTEM -> List.of();
-        };
     }
 
-    private Collection<MessageChatConnection> getConnectionsOfUser(TransferredMessage message) {
-        if (message.getSenderId() == message.getReceiverId()) {
-            return registry.getConnections(message.getSenderId());
+    private void sendToSession(Long userId, Session session, String frame) {
+        MessageChatConnection connection = userId == null
+                ? registry.getConnection(session)
+                : registry.getConnection(userId, session);
+        if (connection != null) {
+            connection.sendText(frame);
+            return;
         }
-        Collection<MessageChatConnection> senderConnections =
-                registry.getConnections(message.getSenderId());
-        Collection<MessageChatConnection> targets =
-                registry.getConnections(message.getReceiverId());
-
-        List<MessageChatConnection> connections = Lists.newArrayList();
-        connections.addAll(senderConnections);
-        connections.addAll(targets);
-        return connections;
+        // Every frame goes through the bounded send queue of a connection,
+        // a session without one is not usable anymore.
+        closeUnregistered(session);
     }
 
-    private Collection<MessageChatConnection> getConnectionsOfGroup(
-            TransferredMessage message) {
-        if (message.getChatType() != ChatType.GROUP) {
-            throw new IllegalArgumentException("Not a group message.");
+    private void closeUnregistered(Session session) {
+        if (!session.isOpen()) {
+            return;
         }
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY,
+                    "Connection not registered."));
+        } catch (IOException e) {
+            logger.debug("Failed to close session {}.", session.getId(), e);
+        }
+    }
+
+    private String encode(TransferredMessageVo message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to encode message: {}", message, e);
+            return null;
+        }
+    }
+
+    private TransferredMessageVo makeViewObject(TransferredMessage message) {
+        String username = senderNames.get(message.getSenderId(),
+                senderId -> userProvider.getUser(senderId).getUsername());
+        // TODO: check user state that can receive message or not
 
-        List<MessageChatConnection> connections = Lists.newArrayList();
+        return TransferredMessageVo.fork(message, username);
+    }
 
-        // for test, we use a pre-defined group id
-        connections.addAll(registry.getConnections(1));
-        connections.addAll(registry.getConnections(2));
-        connections.addAll(registry.getConnections(3));
-        connections.addAll(registry.getConnections(4));
-        // TODO: replace with a real database
-        return connections;
+    private void deliver(TransferredMessage message, String frame) {
+        switch (message.getChatType()) {
+            case USER -> router.deliver(
+                    message.getSenderId() == message.getReceiverId()
+                            ? List.of(message.getSenderId())
+                            : List.of(message.getSenderId(), message.getReceiverId()),
+                    frame
+            );
+            case GROUP -> router.deliverToGroup(
+                    userGroupProvider.getMemberIds(message.getReceiverId()),
+                    frame
+            );
+            case SYSTEM -> {
+            }
+        }
     }
 
     @OnError
@@ -117,11 +117,16 @@ public record TransferredMessageVo(
 
     public static TransferredMessageVo fork(TransferredMessage transferredMessage,
                                             UserIdentity userIdentity) {
+        return fork(transferredMessage, userIdentity.getUsername());
+    }
+
+    public static TransferredMessageVo fork(TransferredMessage transferredMessage,
+                                            String username) {
         return new TransferredMessageVo(
                 transferredMessage.getMessageType(),
                 transferredMessage.getSenderId(),
                 transferredMessage.getReceiverId(),
-                userIdentity.getUsername(),
+                username,
                 transferredMessage.getChatType(),
                 transferredMessage.getContent(),
                 transferredMessage.getTimestamp()
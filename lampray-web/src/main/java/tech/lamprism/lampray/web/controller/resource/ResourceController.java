@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2023 RollW
+ * Copyright (C) 2023-2026 RollW
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,33 +16,59 @@
 
 package tech.lamprism.lampray.web.controller.resource;
 
-import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.core.io.ClassPathResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.CacheControl;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
+import tech.lamprism.lampray.LampException;
+import tech.lamprism.lampray.web.resource.IndexedResource;
+import tech.lamprism.lampray.web.resource.IndexedResourceResponses;
+import tech.lamprism.lampray.web.resource.ResourceIndex;
+import tech.rollw.common.web.CommonErrorCode;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.time.Duration;
 
 /**
+ * Serves the static resources bundled in the application. The resources
+ * are indexed once on creation, so requests neither touch the file system
+ * nor probe content types, and work the same inside a packed jar.
+ *
  * @author RollW
  */
 @RestController
 public class ResourceController {
+    private static final Logger logger = LoggerFactory.getLogger(ResourceController.class);
+
+    private static final String STATIC_LOCATION = "classpath:/static";
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(7));
+
+    private final ResourceIndex resourceIndex;
+
+    public ResourceController() throws IOException {
+        this.resourceIndex = ResourceIndex.scan(
+                new PathMatchingResourcePatternResolver(),
+                STATIC_LOCATION,
+                ResourceIndex.DEFAULT_IN_MEMORY_THRESHOLD
+        );
+        logger.debug("Indexed {} static resources.", resourceIndex.size());
+    }
 
     @GetMapping("/static/{*path}")
     public void getResource(@PathVariable("path") String path,
+                            HttpServletRequest request,
                             HttpServletResponse response) throws IOException {
-        ClassPathResource classPathResource =
-                new ClassPathResource("/static" + path);
-        String mimeType = Files.probeContentType(classPathResource.getFile().toPath());
-
-        response.setStatus(200);
-        response.setContentType(mimeType);
-        ServletOutputStream outputStream = response.getOutputStream();
-        classPathResource.getInputStream().transferTo(outputStream);
+        String relativePath = path.startsWith("/") ? path.substring(1) : path;
+        IndexedResource resource = resourceIndex.get(relativePath);
+        if (resource == null) {
+            throw new LampException(CommonErrorCode.ERROR_NOT_FOUND);
+        }
+        IndexedResourceResponses.write(resource, CACHE_CONTROL, request, response);
     }
-
 }
@@ -80,27 +80,30 @@ public class ReviewController {
     @GetMapping("/reviews/{jobId}")
     public HttpResponseEntity<ReviewJobDetailsView> getReviewJobDetail(
             @PathVariable("jobId") String jobId) {
-        ReviewJobDetails reviewJobDetails = reviewJobProvider.getReviewJobDetails(jobId);
         UserIdentity user = getCurrentUser();
-        boolean assigned = reviewJobDetails.getTasks().stream()
-                .anyMatch(task -> task.getReviewerId() == user.getOperatorId());
-        if (!assigned) {
+        if (!reviewJobProvider.isAssigned(jobId, user.getOperatorId())) {
             return HttpResponseEntity.of(AuthErrorCode.ERROR_PERMISSION_DENIED);
         }
 
+        ReviewJobDetails reviewJobDetails = reviewJobProvider.getReviewJobDetails(jobId);
         return HttpResponseEntity.success(ReviewJobDetailsView.from(reviewJobDetails));
     }
 
     /**
-     * Get current user's review infos.
+     * Get current user's review infos. When a limit is given, returns
+     * a page of jobs older than the cursor, which is the id of the last
+     * job of the previous page.
      */
     @GetMapping({"/reviews"})
     public HttpResponseEntity<List<ReviewJobView>> getReviewInfos(
             @RequestParam(value = "statues", required = false, defaultValue = "")
-            List<ReviewStatus> statues) {
+            List<ReviewStatus> statues,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
         UserIdentity user = getCurrentUser();
-        List<ReviewJobSummary> reviewJobInfos = reviewJobProvider
-                .getReviewJobs(user, statues);
+        List<ReviewJobSummary> reviewJobInfos = limit == null
+                ? reviewJobProvider.getReviewJobs(user, statues)
+                : reviewJobProvider.getReviewJobs(user.getOperatorId(), statues, cursor, limit);
         return HttpResponseEntity.success(reviewJobInfos
                 .stream()
                 .map(ReviewJobView::from)
@@ -112,11 +115,7 @@ public class ReviewController {
     public HttpResponseEntity<ReviewJobContentView> getReviewContent(
             @PathVariable("jobId") String jobId) {
         UserIdentity user = getCurrentUser();
-        ReviewJobDetails jobDetails = reviewJobProvider.getReviewJobDetails(jobId);
-
-        boolean assignedContent = jobDetails.getTasks().stream()
-                .anyMatch(task -> task.getReviewerId() ==  user.getOperatorId());
-        if (!assignedContent) {
+        if (!reviewJobProvider.isAssigned(jobId, user.getOperatorId())) {
             return HttpResponseEntity.of(AuthErrorCode.ERROR_PERMISSION_DENIED);
         }
 
@@ -83,8 +83,12 @@ public class ReviewManageController {
     @GetMapping("/reviews")
     public HttpResponseEntity<List<ReviewJobView>> getReviewJobs(
             @RequestParam(value = "statues", required = false, defaultValue = "")
-            List<ReviewStatus> statues) {
-        List<ReviewJobSummary> reviewJobInfos = reviewJobProvider.getReviewJobs(statues);
+            List<ReviewStatus> statues,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        List<ReviewJobSummary> reviewJobInfos = limit == null
+                ? reviewJobProvider.getReviewJobs(statues)
+                : reviewJobProvider.getReviewJobs(null, statues, cursor, limit);
         return HttpResponseEntity.success(reviewJobInfos
                 .stream()
                 .map(ReviewJobView::from)
@@ -96,11 +100,12 @@ public class ReviewManageController {
     public HttpResponseEntity<List<ReviewJobView>> getReviewJobsByUser(
             @PathVariable("userId") Long userId,
             @RequestParam(value = "statues", required = false, defaultValue = "")
-            List<ReviewStatus> statues) {
-        List<ReviewJobSummary> reviewJobInfos = reviewJobProvider.getReviewJobs(
-                UserTrait.of(userId),
-                statues
-        );
+            List<ReviewStatus> statues,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        List<ReviewJobSummary> reviewJobInfos = limit == null
+                ? reviewJobProvider.getReviewJobs(UserTrait.of(userId), statues)
+                : reviewJobProvider.getReviewJobs(userId, statues, cursor, limit);
         return HttpResponseEntity.success(reviewJobInfos
                 .stream()
                 .map(ReviewJobView::from)
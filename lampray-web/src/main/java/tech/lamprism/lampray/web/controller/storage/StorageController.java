@@ -20,8 +20,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import tech.lamprism.lampray.storage.FileStorage;
 import tech.lamprism.lampray.storage.StorageProvider;
+import tech.lamprism.lampray.storage.image.ImageDerivativeProvider;
+import tech.lamprism.lampray.storage.image.ImageDerivativeSpec;
 import tech.lamprism.lampray.web.controller.Api;
 
 import java.io.IOException;
@@ -32,17 +35,25 @@ import java.io.IOException;
 @Api
 public class StorageController {
     private final StorageProvider storageProvider;
+    private final ImageDerivativeProvider imageDerivativeProvider;
 
-    public StorageController(StorageProvider storageProvider) {
+    public StorageController(StorageProvider storageProvider,
+                             ImageDerivativeProvider imageDerivativeProvider) {
         this.storageProvider = storageProvider;
+        this.imageDerivativeProvider = imageDerivativeProvider;
     }
 
     // TODO: rewrite this method
     @GetMapping("/storages/{id}")
     public void getStorage(@PathVariable("id") String id,
+                           @RequestParam(value = "width", required = false) Integer width,
+                           @RequestParam(value = "format", required = false) String format,
                            HttpServletRequest request,
                            HttpServletResponse response) throws IOException {
-        FileStorage fileStorage = storageProvider.getFileStorage(id);
+        FileStorage fileStorage = width == null
+                ? storageProvider.getFileStorage(id)
+                : imageDerivativeProvider.getDerivative(id,
+                ImageDerivativeSpec.parse(width, format));
         try {
             DownloadHelper.downloadFile(
                     fileStorage, id, request,
@@ -34,10 +34,14 @@ import tech.lamprism.lampray.web.common.ApiContext;
 import tech.lamprism.lampray.web.common.ParamValidate;
 import tech.lamprism.lampray.web.controller.Api;
 import tech.lamprism.lampray.web.controller.user.model.UserCommonDetailsVo;
+import tech.lamprism.lampray.web.domain.search.SearchDocumentType;
+import tech.lamprism.lampray.web.domain.search.SearchResult;
+import tech.lamprism.lampray.web.domain.search.SearchService;
 import tech.rollw.common.web.AuthErrorCode;
 import tech.rollw.common.web.HttpResponseEntity;
 import tech.rollw.common.web.system.ContextThreadAware;
 
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -50,17 +54,20 @@ public class UserController {
     private final UserSearchService userSearchService;
     private final UserPersonalDataService userPersonalDataService;
     private final StorageUrlProvider storageUrlProvider;
+    private final SearchService searchService;
 
     public UserController(ContextThreadAware<ApiContext> apiContextThreadAware,
                           UserProvider userProvider,
                           UserSearchService userSearchService,
                           UserPersonalDataService userPersonalDataService,
-                          StorageUrlProvider storageUrlProvider) {
+                          StorageUrlProvider storageUrlProvider,
+                          SearchService searchService) {
         this.apiContextThreadAware = apiContextThreadAware;
         this.userProvider = userProvider;
         this.userSearchService = userSearchService;
         this.userPersonalDataService = userPersonalDataService;
         this.storageUrlProvider = storageUrlProvider;
+        this.searchService = searchService;
     }
 
     @GetMapping("/user")
@@ -102,19 +109,45 @@ public class UserController {
         ));
     }
 
+    /**
+     * Searches users. Without a limit, users are matched by id and by
+     * username prefix. With a limit, users are searched in the search
+     * index and paged, best match first.
+     *
+     * @param cursor count of results to skip, i.e. the total size of
+     *               the previous pages
+     */
     @GetMapping("/users/search")
     public HttpResponseEntity<List<UserCommonDetailsVo>> searchUsers(
-            @RequestParam("keyword") String keyword) {
+            @RequestParam("keyword") String keyword,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
         ParamValidate.notEmpty(keyword, "keyword");
 
-        // TODO: page support
-        List<AttributedUser> attributedUsers = userSearchService.findUsers(keyword);
+        List<AttributedUser> attributedUsers = limit == null
+                ? userSearchService.findUsers(keyword)
+                : searchUsers(keyword, cursor, limit);
         List<UserCommonDetailsVo> userCommonDetailsVos = attributedUsers.stream()
                 .map(this::toDetailsVo)
                 .toList();
         return HttpResponseEntity.success(userCommonDetailsVos);
     }
 
+    private List<AttributedUser> searchUsers(String keyword, String cursor, int limit) {
+        SearchResult result = searchService.search(
+                SearchDocumentType.USER, keyword, cursor, limit);
+        if (result.ids().isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = result.ids().stream()
+                .map(Long::parseLong)
+                .toList();
+        return userSearchService.findUsers(ids)
+                .stream()
+                .sorted(Comparator.comparingInt(user -> ids.indexOf(user.getUserId())))
+                .toList();
+    }
+
     private UserCommonDetailsVo toDetailsVo(AttributedUser user) {
         UserPersonalData userPersonalData =
                 userPersonalDataService.getPersonalData(user);
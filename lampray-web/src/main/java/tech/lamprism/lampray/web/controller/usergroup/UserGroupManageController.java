@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.controller.usergroup;
+
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import tech.lamprism.lampray.user.UserProvider;
+import tech.lamprism.lampray.web.controller.AdminApi;
+import tech.lamprism.lampray.web.controller.usergroup.model.UserGroupCreateRequest;
+import tech.lamprism.lampray.web.controller.usergroup.model.UserGroupVo;
+import tech.lamprism.lampray.web.domain.usergroup.UserGroupService;
+import tech.rollw.common.web.HttpResponseEntity;
+
+import java.util.Set;
+
+/**
+ * @author RollW
+ */
+@AdminApi
+public class UserGroupManageController {
+    private final UserGroupService userGroupService;
+    private final UserProvider userProvider;
+
+    public UserGroupManageController(UserGroupService userGroupService,
+                                     UserProvider userProvider) {
+        this.userGroupService = userGroupService;
+        this.userProvider = userProvider;
+    }
+
+    @PostMapping("/user-groups")
+    public HttpResponseEntity<UserGroupVo> createUserGroup(
+            @RequestBody UserGroupCreateRequest request) {
+        return HttpResponseEntity.success(UserGroupVo.from(
+                userGroupService.createUserGroup(request.name(), request.description())
+        ));
+    }
+
+    @GetMapping("/user-groups/{groupId}")
+    public HttpResponseEntity<UserGroupVo> getUserGroup(
+            @PathVariable("groupId") Long groupId) {
+        return HttpResponseEntity.success(UserGroupVo.from(
+                userGroupService.getUserGroup(groupId)
+        ));
+    }
+
+    @DeleteMapping("/user-groups/{groupId}")
+    public HttpResponseEntity<Void> deleteUserGroup(
+            @PathVariable("groupId") Long groupId) {
+        userGroupService.deleteUserGroup(groupId);
+        return HttpResponseEntity.success();
+    }
+
+    @GetMapping("/user-groups/{groupId}/members")
+    public HttpResponseEntity<Set<Long>> getMembers(
+            @PathVariable("groupId") Long groupId) {
+        userGroupService.getUserGroup(groupId);
+        return HttpResponseEntity.success(userGroupService.getMemberIds(groupId));
+    }
+
+    @PutMapping("/user-groups/{groupId}/members/{userId}")
+    public HttpResponseEntity<Void> addMember(
+            @PathVariable("groupId") Long groupId,
+            @PathVariable("userId") Long userId) {
+        // Throws if the user does not exist
+        userProvider.getUser(userId);
+        userGroupService.addMember(groupId, userId);
+        return HttpResponseEntity.success();
+    }
+
+    @DeleteMapping("/user-groups/{groupId}/members/{userId}")
+    public HttpResponseEntity<Void> removeMember(
+            @PathVariable("groupId") Long groupId,
+            @PathVariable("userId") Long userId) {
+        userGroupService.removeMember(groupId, userId);
+        return HttpResponseEntity.success();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.controller.usergroup.model;
+
+import tech.lamprism.lampray.web.domain.usergroup.UserGroup;
+
+import java.time.OffsetDateTime;
+
+/**
+ * @author RollW
+ */
+public record UserGroupVo(
+        long id,
+        String name,
+        String description,
+        OffsetDateTime createTime,
+        OffsetDateTime updateTime
+) {
+
+    public static UserGroupVo from(UserGroup userGroup) {
+        if (userGroup == null) {
+            return null;
+        }
+        return new UserGroupVo(
+                userGroup.getEntityId(),
+                userGroup.getName(),
+                userGroup.getDescription(),
+                userGroup.getCreateTime(),
+                userGroup.getUpdateTime()
+        );
+    }
+}
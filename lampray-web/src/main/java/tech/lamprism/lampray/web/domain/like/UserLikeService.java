@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.like;
+
+import tech.lamprism.lampray.content.ContentTrait;
+
+/**
+ * @author RollW
+ */
+public interface UserLikeService {
+    /**
+     * Gets the like of the user on the content, with {@link LikeType#NONE}
+     * if the user never liked or disliked it.
+     */
+    LikeType getLikeType(long userId, ContentTrait content);
+
+    /**
+     * Sets the like of the user on the content. The like counters of
+     * the content follow asynchronously.
+     */
+    UserLike setLike(long userId, ContentTrait content, LikeType likeType);
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.like.persistence
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.EnumType
+import jakarta.persistence.Enumerated
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.Index
+import jakarta.persistence.Table
+import jakarta.persistence.UniqueConstraint
+import org.hibernate.annotations.JdbcTypeCode
+import org.hibernate.type.SqlTypes
+import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.TimeAttributed
+import tech.lamprism.lampray.content.ContentType
+import tech.lamprism.lampray.web.domain.like.LikeType
+import tech.lamprism.lampray.web.domain.like.UserLike
+import tech.lamprism.lampray.web.domain.systembased.LampSystemResourceKind
+import tech.rollw.common.web.system.SystemResourceKind
+import java.time.OffsetDateTime
+
+/**
+ * @author RollW
+ */
+@Entity
+@Table(
+    name = "user_like",
+    uniqueConstraints = [
+        UniqueConstraint(
+            name = "index__user_like_content",
+            columnNames = ["user_id", "content_id", "content_type"]
+        )
+    ],
+    indexes = [
+        Index(name = "index__like_content", columnList = "content_id, content_type, like_type")
+    ]
+)
+class UserLikeEntity(
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private var id: Long? = null,
+
+    @Column(name = "user_id", nullable = false)
+    var userId: Long = 0,
+
+    @Column(name = "content_id", nullable = false, length = 64)
+    var contentId: String = "",
+
+    @Column(name = "content_type", nullable = false, length = 40)
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    var contentType: ContentType = ContentType.ARTICLE,
+
+    @Column(name = "like_type", nullable = false, length = 40)
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    var likeType: LikeType = LikeType.NONE,
+
+    @Column(name = "update_time", nullable = false)
+    private var updateTime: OffsetDateTime = OffsetDateTime.now()
+) : DataEntity<Long> {
+    override fun getEntityId(): Long? = id
+
+    fun getId(): Long? = id
+
+    override fun getSystemResourceKind(): SystemResourceKind =
+        LampSystemResourceKind.USER_LIKE
+
+    override fun getCreateTime(): OffsetDateTime = TimeAttributed.NONE_TIME
+
+    override fun getUpdateTime(): OffsetDateTime = updateTime
+
+    fun setUpdateTime(updateTime: OffsetDateTime) {
+        this.updateTime = updateTime
+    }
+
+    fun lock(): UserLike = UserLike(
+        id,
+        userId,
+        updateTime,
+        contentId,
+        contentType,
+        likeType
+    )
+}
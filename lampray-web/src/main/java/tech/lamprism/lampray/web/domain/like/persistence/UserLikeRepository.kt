@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.like.persistence
+
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import org.springframework.stereotype.Repository
+import tech.lamprism.lampray.common.data.CommonRepository
+import tech.lamprism.lampray.content.ContentType
+import tech.lamprism.lampray.web.domain.like.LikeType
+import java.time.OffsetDateTime
+
+/**
+ * @author RollW
+ */
+@Repository
+class UserLikeRepository(
+    userLikeDao: UserLikeDao,
+    private val entityManager: EntityManager
+) : CommonRepository<UserLikeEntity, Long>(userLikeDao) {
+    override fun <S : UserLikeEntity> save(entity: S): S {
+        return saveAndFlush(entity)
+    }
+
+    fun findLike(userId: Long, contentId: String, contentType: ContentType): UserLikeEntity? {
+        return findOne { root, _, cb ->
+            cb.and(
+                cb.equal(root.get(UserLikeEntity_.userId), userId),
+                cb.equal(root.get(UserLikeEntity_.contentId), contentId),
+                cb.equal(root.get(UserLikeEntity_.contentType), contentType)
+            )
+        }.orElse(null)
+    }
+
+    /**
+     * Reads the current like type of the row, rather than the one of
+     * the entity already loaded in the persistence context.
+     */
+    fun findLikeType(id: Long): LikeType? {
+        val cb = entityManager.criteriaBuilder
+        val query = cb.createQuery(LikeType::class.java)
+        val root = query.from(UserLikeEntity::class.java)
+        query.select(root.get(UserLikeEntity_.likeType))
+            .where(cb.equal(root.get(UserLikeEntity_.id), id))
+        return entityManager.createQuery(query).resultList.firstOrNull()
+    }
+
+    /**
+     * Sets the like type of the row if it still has the expected one.
+     *
+     * @return false if the row was changed since, in which case it is
+     * left as is
+     */
+    @Transactional
+    fun compareAndSetLikeType(
+        id: Long,
+        expected: LikeType,
+        likeType: LikeType,
+        updateTime: OffsetDateTime
+    ): Boolean {
+        val cb = entityManager.criteriaBuilder
+        val update = cb.createCriteriaUpdate(UserLikeEntity::class.java)
+        val root = update.from(UserLikeEntity::class.java)
+        update.set(root.get(UserLikeEntity_.likeType), likeType)
+        update.set(root.get(UserLikeEntity_.updateTime), updateTime)
+        update.where(
+            cb.equal(root.get(UserLikeEntity_.id), id),
+            cb.equal(root.get(UserLikeEntity_.likeType), expected)
+        )
+        return entityManager.createQuery(update).executeUpdate() > 0
+    }
+
+    /**
+     * Counts the likes of the type on the contents, grouped in one query.
+     *
+     * @return counts by content id, contents without likes are left out
+     */
+    fun countByContents(
+        likeType: LikeType,
+        contentType: ContentType,
+        contentIds: Collection<String>
+    ): Map<String, Long> {
+        if (contentIds.isEmpty()) {
+            return emptyMap()
+        }
+        val cb = entityManager.criteriaBuilder
+        val query = cb.createTupleQuery()
+        val root = query.from(UserLikeEntity::class.java)
+        val contentId = root.get(UserLikeEntity_.contentId)
+        query.multiselect(contentId, cb.count(root))
+            .where(
+                contentId.`in`(contentIds),
+                cb.equal(root.get(UserLikeEntity_.contentType), contentType),
+                cb.equal(root.get(UserLikeEntity_.likeType), likeType)
+            )
+            .groupBy(contentId)
+        return entityManager.createQuery(query).resultList.associate {
+            it.get(0, String::class.java) to it.get(1, Long::class.javaObjectType)
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.like.service;
+
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import space.lingu.Nullable;
+import tech.lamprism.lampray.content.ContentTrait;
+import tech.lamprism.lampray.content.ContentType;
+import tech.lamprism.lampray.content.counter.ContentCountSource;
+import tech.lamprism.lampray.content.counter.ContentCountType;
+import tech.lamprism.lampray.content.counter.ContentCounterService;
+import tech.lamprism.lampray.web.domain.like.LikeType;
+import tech.lamprism.lampray.web.domain.like.UserLike;
+import tech.lamprism.lampray.web.domain.like.UserLikeService;
+import tech.lamprism.lampray.web.domain.like.persistence.UserLikeEntity;
+import tech.lamprism.lampray.web.domain.like.persistence.UserLikeRepository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Keeps one like row per user and content, and moves the like counters
+ * of the content along when the like changes. The rows are also the
+ * source the like counters are reconciled against.
+ * <p>
+ * A row only changes by a conditional update on its previous like type,
+ * and counters only move after the change that won is committed, so
+ * concurrent requests of the same user never count a like twice.
+ *
+ * @author RollW
+ */
+@Service
+public class UserLikeServiceImpl implements UserLikeService, ContentCountSource {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final UserLikeRepository userLikeRepository;
+    private final ContentCounterService contentCounterService;
+
+    public UserLikeServiceImpl(UserLikeRepository userLikeRepository,
+                               ContentCounterService contentCounterService) {
+        this.userLikeRepository = userLikeRepository;
+        this.contentCounterService = contentCounterService;
+    }
+
+    @Override
+    public LikeType getLikeType(long userId, ContentTrait content) {
+        UserLikeEntity like = userLikeRepository.findLike(userId,
+                content.getContentId(), content.getContentType());
+        return like == null ? LikeType.NONE : like.getLikeType();
+    }
+
+    @Override
+    @Transactional
+    public UserLike setLike(long userId, ContentTrait content, LikeType likeType) {
+        UserLikeEntity like = userLikeRepository.findLike(userId,
+                content.getContentId(), content.getContentType());
+        OffsetDateTime now = OffsetDateTime.now();
+        if (like == null) {
+            return insertLike(userId, content, likeType, now);
+        }
+        LikeType current = like.getLikeType();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && current != likeType; attempt++) {
+            if (userLikeRepository.compareAndSetLikeType(like.getId(), current, likeType, now)) {
+                countChange(content, current, likeType);
+                return new UserLike(like.getId(), userId, now,
+                        content.getContentId(), content.getContentType(), likeType);
+            }
+            // Changed by a concurrent request, which counted its own change
+            LikeType changed = userLikeRepository.findLikeType(like.getId());
+            current = changed == null ? LikeType.NONE : changed;
+        }
+        // Either already set, or left to the concurrent requests
+        return new UserLike(like.getId(), userId, like.getUpdateTime(),
+                content.getContentId(), content.getContentType(), current);
+    }
+
+    private UserLike insertLike(long userId, ContentTrait content,
+                                LikeType likeType, OffsetDateTime now) {
+        UserLikeEntity like = new UserLikeEntity();
+        like.setUserId(userId);
+        like.setContentId(content.getContentId());
+        like.setContentType(content.getContentType());
+        if (likeType == LikeType.NONE) {
+            return like.lock();
+        }
+        like.setLikeType(likeType);
+        like.setUpdateTime(now);
+        // A concurrent first like of the same user fails on the unique
+        // key and is rolled back, so the row is inserted and counted once
+        UserLike saved = userLikeRepository.save(like).lock();
+        countChange(content, LikeType.NONE, likeType);
+        return saved;
+    }
+
+    /**
+     * Moves the counters of the content from the previous like type to
+     * the current one, once the change is committed.
+     */
+    private void countChange(ContentTrait content, LikeType previous, LikeType current) {
+        afterCommit(() -> {
+            ContentCountType previousCount = toCountType(previous);
+            if (previousCount != null) {
+                contentCounterService.increment(content, previousCount, -1);
+            }
+            ContentCountType currentCount = toCountType(current);
+            if (currentCount != null) {
+                contentCounterService.increment(content, currentCount, 1);
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public boolean supports(ContentCountType countType) {
+        return toLikeType(countType) != null;
+    }
+
+    @Override
+    public Map<String, Long> count(ContentCountType countType,
+                                   ContentType contentType,
+                                   Collection<String> contentIds) {
+        LikeType likeType = toLikeType(countType);
+        if (likeType == null) {
+            return Map.of();
+        }
+        return userLikeRepository.countByContents(likeType, contentType, contentIds);
+    }
+
+    @Nullable
+    private static ContentCountType toCountType(LikeType likeType) {
+        return switch (likeType) {
+            case LIKE -> ContentCountType.LIKE;
+            case DISLIKE -> ContentCountType.DISLIKE;
+            case NONE -> null;
+        };
+    }
+
+    @Nullable
+    private static LikeType toLikeType(ContentCountType countType) {
+        return switch (countType) {
+            case LIKE -> LikeType.LIKE;
+            case DISLIKE -> LikeType.DISLIKE;
+            case FAVORITE -> null;
+        };
+    }
+}
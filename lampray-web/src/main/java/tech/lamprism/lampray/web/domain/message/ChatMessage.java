@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2023 RollW
+ * Copyright (C) 2023-2026 RollW
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,112 @@
 
 package tech.lamprism.lampray.web.domain.message;
 
+import java.util.Comparator;
 
 /**
+ * A recorded chat message.
+ *
  * @author RollW
  */
 public class ChatMessage {
-    private String content;
-    private long sender;
-    private long receiver;
-    private long time;
-    private boolean read;
-    private boolean withdraw;
+    /**
+     * Orders messages by send time, ties are broken by id.
+     */
+    public static final Comparator<ChatMessage> CHRONOLOGICAL =
+            Comparator.comparingLong(ChatMessage::getTimestamp)
+                    .thenComparing(ChatMessage::getId);
+
+    private final String id;
+    private final String conversationId;
+    private final TransferredMessageType messageType;
+    private final long senderId;
+    private final long receiverId;
+    private final ChatType chatType;
+    private final MessageContent content;
+    private final long timestamp;
+
+    public ChatMessage(String id, String conversationId,
+                       TransferredMessageType messageType,
+                       long senderId, long receiverId,
+                       ChatType chatType, MessageContent content,
+                       long timestamp) {
+        this.id = id;
+        this.conversationId = conversationId;
+        this.messageType = messageType;
+        this.senderId = senderId;
+        this.receiverId = receiverId;
+        this.chatType = chatType;
+        this.content = content;
+        this.timestamp = timestamp;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getConversationId() {
+        return conversationId;
+    }
+
+    public TransferredMessageType getMessageType() {
+        return messageType;
+    }
+
+    public long getSenderId() {
+        return senderId;
+    }
+
+    public long getReceiverId() {
+        return receiverId;
+    }
+
+    public ChatType getChatType() {
+        return chatType;
+    }
+
+    public MessageContent getContent() {
+        return content;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public ChatMessageCursor toCursor() {
+        return new ChatMessageCursor(timestamp, id);
+    }
+
+    /**
+     * Checks whether the message is sent before the cursor.
+     */
+    public boolean isBefore(ChatMessageCursor cursor) {
+        if (timestamp != cursor.timestamp()) {
+            return timestamp < cursor.timestamp();
+        }
+        return id.compareTo(cursor.id()) < 0;
+    }
 
+    public TransferredMessage toTransferredMessage() {
+        return new SimpleTransferredMessage(
+                messageType,
+                senderId,
+                receiverId,
+                chatType,
+                content,
+                timestamp
+        );
+    }
 
-    // TODO: message
+    public static ChatMessage of(String id, TransferredMessage message) {
+        return new ChatMessage(
+                id,
+                ConversationKeys.of(message),
+                message.getMessageType(),
+                message.getSenderId(),
+                message.getReceiverId(),
+                message.getChatType(),
+                message.getContent(),
+                message.getTimestamp()
+        );
+    }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.message;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Position in the history of a conversation. Pages are fetched backwards
+ * from the cursor, i.e. only messages sent before it are returned.
+ *
+ * @author RollW
+ */
+public record ChatMessageCursor(
+        long timestamp,
+        String id
+) {
+    private static final char SEPARATOR = '-';
+
+    /**
+     * Encodes the cursor to an opaque string passed to clients.
+     */
+    public String encode() {
+        return Long.toString(timestamp) + SEPARATOR + id;
+    }
+
+    /**
+     * Parses the cursor encoded by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static ChatMessageCursor parse(String cursor) {
+        int index = StringUtils.indexOf(cursor, SEPARATOR);
+        if (index <= 0 || index == cursor.length() - 1) {
+            throw new IllegalArgumentException("Invalid message cursor: " + cursor);
+        }
+        try {
+            long timestamp = Long.parseLong(cursor.substring(0, index));
+            return new ChatMessageCursor(timestamp, cursor.substring(index + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid message cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.message;
+
+import space.lingu.Nullable;
+
+import java.util.List;
+
+/**
+ * A page of chat history, in chronological order.
+ *
+ * @param messages   messages of the page, oldest first
+ * @param nextCursor cursor of the older page, null if there are
+ *                   no older messages
+ * @author RollW
+ */
+public record ChatMessageHistory(
+        List<ChatMessage> messages,
+        @Nullable String nextCursor
+) {
+    public static ChatMessageHistory of(List<ChatMessage> messages, boolean hasMore) {
+        if (!hasMore || messages.isEmpty()) {
+            return new ChatMessageHistory(messages, null);
+        }
+        return new ChatMessageHistory(messages, messages.get(0).toCursor().encode());
+    }
+}
@@ -16,6 +16,7 @@
 
 package tech.lamprism.lampray.web.domain.message;
 
+import space.lingu.Nullable;
 import tech.rollw.common.web.system.Operator;
 
 import java.util.List;
@@ -29,4 +30,14 @@ public interface ChatMessageProvider {
     List<TransferredMessage> getMessages(Operator user);
 
     List<TransferredMessage> getMessages(Operator user, ChatPartner chatPartner);
+
+    /**
+     * Gets a page of the history with the chat partner.
+     *
+     * @param cursor the cursor returned by the previous page,
+     *               or null to start from the latest message
+     * @param limit  max count of messages in the page
+     */
+    ChatMessageHistory getHistory(Operator user, ChatPartner chatPartner,
+                                  @Nullable ChatMessageCursor cursor, int limit);
 }
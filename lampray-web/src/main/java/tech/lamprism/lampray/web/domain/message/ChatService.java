@@ -31,4 +31,13 @@ public interface ChatService {
      */
     // required to set the ApiContext
     TransferredMessage sendMessage(TransferredMessage message);
+
+    /**
+     * Creates the error message telling the sender that a message,
+     * already delivered, was rejected by the store.
+     *
+     * @param message the rejected message
+     * @return error message to send to the sender
+     */
+    TransferredMessage createRejectedMessage(ChatMessage message);
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.message;
+
+/**
+ * Builds the key of the conversation a message belongs to. Both
+ * participants of a user chat share the same key.
+ *
+ * @author RollW
+ */
+public final class ConversationKeys {
+    private static final String USER_PREFIX = "user:";
+    private static final String GROUP_PREFIX = "group:";
+    private static final String SYSTEM_PREFIX = "system:";
+
+    public static String of(TransferredMessage message) {
+        return switch (message.getChatType()) {
+            case USER -> ofUsers(message.getSenderId(), message.getReceiverId());
+            case GROUP -> ofGroup(message.getReceiverId());
+            // Read back by the user receiving them
+            case SYSTEM -> ofSystem(message.getReceiverId());
+        };
+    }
+
+    public static String of(long userId, ChatPartner chatPartner) {
+        return switch (chatPartner.type()) {
+            case USER -> ofUsers(userId, chatPartner.id());
+            case GROUP -> ofGroup(chatPartner.id());
+            case SYSTEM -> ofSystem(userId);
+        };
+    }
+
+    public static String ofUsers(long userId, long anotherUserId) {
+        return USER_PREFIX + Math.min(userId, anotherUserId) + ":" +
+                Math.max(userId, anotherUserId);
+    }
+
+    public static String ofGroup(long groupId) {
+        return GROUP_PREFIX + groupId;
+    }
+
+    public static String ofSystem(long userId) {
+        return SYSTEM_PREFIX + userId;
+    }
+
+    private ConversationKeys() {
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.message.event;
+
+import org.springframework.context.ApplicationEvent;
+import space.lingu.NonNull;
+import tech.lamprism.lampray.web.domain.message.ChatMessage;
+
+/**
+ * Published when the database rejected an appended chat message, which
+ * was already delivered but will never be stored.
+ *
+ * @author RollW
+ */
+public class ChatMessageRejectedEvent extends ApplicationEvent {
+    @NonNull
+    private final ChatMessage message;
+
+    public ChatMessageRejectedEvent(@NonNull ChatMessage message) {
+        super(message);
+        this.message = message;
+    }
+
+    @NonNull
+    public ChatMessage getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.message.persistence
+
+import jakarta.persistence.Column
+import jakarta.persistence.Convert
+import jakarta.persistence.Entity
+import jakarta.persistence.EnumType
+import jakarta.persistence.Enumerated
+import jakarta.persistence.Id
+import jakarta.persistence.Index
+import jakarta.persistence.Lob
+import jakarta.persistence.Table
+import org.hibernate.annotations.Generated
+import org.hibernate.annotations.JdbcTypeCode
+import org.hibernate.generator.EventType
+import org.hibernate.type.SqlTypes
+import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.web.domain.message.ChatMessage
+import tech.lamprism.lampray.web.domain.message.ChatMessageResourceKind
+import tech.lamprism.lampray.web.domain.message.ChatType
+import tech.lamprism.lampray.web.domain.message.MessageContent
+import tech.lamprism.lampray.web.domain.message.TransferredMessageType
+import java.time.OffsetDateTime
+
+/**
+ * @author RollW
+ */
+@Entity
+@Table(
+    name = "chat_message",
+    indexes = [
+        Index(name = "index__conversation_send_time", columnList = "conversation_id, send_time")
+    ]
+)
+class ChatMessageEntity(
+    @Column(name = "id", nullable = false, insertable = false, updatable = false)
+    @Generated(event = [EventType.INSERT])
+    private var id: Long? = null,
+
+    @Id
+    @Column(name = "resource_id", nullable = false, length = 64, unique = true)
+    private var resourceId: String,
+
+    @Column(name = "conversation_id", nullable = false, length = 64)
+    var conversationId: String,
+
+    @Column(name = "message_type", nullable = false, length = 40)
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    var messageType: TransferredMessageType = TransferredMessageType.NORMAL,
+
+    @Column(name = "chat_type", nullable = false, length = 40)
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    var chatType: ChatType = ChatType.USER,
+
+    @Column(name = "sender_id", nullable = false)
+    var senderId: Long,
+
+    @Column(name = "receiver_id", nullable = false)
+    var receiverId: Long,
+
+    @Convert(converter = MessageContentAttributeConverter::class)
+    @Lob
+    @Column(name = "content", nullable = false)
+    var content: MessageContent,
+
+    /**
+     * Send time in epoch milliseconds, keeps the precision
+     * of the transferred message on all databases.
+     */
+    @Column(name = "send_time", nullable = false)
+    var sendTime: Long,
+
+    @Column(name = "create_time", nullable = false)
+    private var createTime: OffsetDateTime = OffsetDateTime.now()
+) : DataEntity<String> {
+    override fun getEntityId(): String = resourceId
+
+    fun getId(): Long? = id
+
+    override fun getSystemResourceKind() = ChatMessageResourceKind
+
+    override fun getCreateTime(): OffsetDateTime = createTime
+
+    override fun getUpdateTime(): OffsetDateTime = createTime
+
+    fun lock(): ChatMessage = ChatMessage(
+        resourceId,
+        conversationId,
+        messageType,
+        senderId,
+        receiverId,
+        chatType,
+        content,
+        sendTime
+    )
+
+    companion object {
+        @JvmStatic
+        fun ChatMessage.toEntity() = ChatMessageEntity(
+            resourceId = id,
+            conversationId = conversationId,
+            messageType = messageType,
+            chatType = chatType,
+            senderId = senderId,
+            receiverId = receiverId,
+            content = content,
+            sendTime = timestamp
+        )
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.message.persistence
+
+import jakarta.persistence.EntityManager
+import jakarta.transaction.Transactional
+import org.springframework.data.domain.Sort
+import org.springframework.data.jpa.domain.Specification
+import org.springframework.stereotype.Repository
+import tech.lamprism.lampray.common.data.CommonRepository
+import tech.lamprism.lampray.web.domain.message.ChatMessageCursor
+import tech.lamprism.lampray.web.domain.message.ChatType
+
+/**
+ * @author RollW
+ */
+@Repository
+class ChatMessageRepository(
+    chatMessageDao: ChatMessageDao,
+    private val entityManager: EntityManager
+) : CommonRepository<ChatMessageEntity, String>(chatMessageDao) {
+
+    /**
+     * Inserts new messages, flushing every [batchSize] entities.
+     *
+     * Messages are never updated, so they are persisted directly
+     * instead of being merged one by one.
+     */
+    @Transactional
+    fun insertAll(entities: Collection<ChatMessageEntity>, batchSize: Int) {
+        entities.forEachIndexed { index, entity ->
+            entityManager.persist(entity)
+            if ((index + 1) % batchSize == 0) {
+                entityManager.flush()
+                entityManager.clear()
+            }
+        }
+        entityManager.flush()
+        entityManager.clear()
+    }
+
+    /**
+     * Finds the latest messages of the conversation sent before
+     * the cursor, newest first.
+     */
+    fun findLatest(
+        conversationId: String,
+        cursor: ChatMessageCursor?,
+        limit: Int
+    ): List<ChatMessageEntity> {
+        val spec = Specification<ChatMessageEntity> { root, _, cb ->
+            val inConversation = cb.equal(root.get(ChatMessageEntity_.conversationId), conversationId)
+            if (cursor == null) {
+                return@Specification inConversation
+            }
+            val sendTime = root.get(ChatMessageEntity_.sendTime)
+            cb.and(
+                inConversation,
+                cb.or(
+                    cb.lessThan(sendTime, cursor.timestamp),
+                    cb.and(
+                        cb.equal(sendTime, cursor.timestamp),
+                        cb.lessThan(root.get(ChatMessageEntity_.resourceId), cursor.id)
+                    )
+                )
+            )
+        }
+        return findBy(spec) {
+            it.sortBy(LATEST_FIRST).limit(limit).all()
+        }
+    }
+
+    /**
+     * Finds the latest messages the user could see, newest first:
+     * messages sent by or to the user, and messages of the given groups.
+     */
+    fun findLatestOfUser(userId: Long, groupIds: Collection<Long>, limit: Int): List<ChatMessageEntity> {
+        val spec = Specification<ChatMessageEntity> { root, _, cb ->
+            val chatType = root.get(ChatMessageEntity_.chatType)
+            val receiverId = root.get(ChatMessageEntity_.receiverId)
+            val direct = cb.and(
+                cb.notEqual(chatType, ChatType.GROUP),
+                cb.or(
+                    cb.equal(root.get(ChatMessageEntity_.senderId), userId),
+                    cb.equal(receiverId, userId)
+                )
+            )
+            if (groupIds.isEmpty()) {
+                return@Specification direct
+            }
+            cb.or(
+                direct,
+                cb.and(cb.equal(chatType, ChatType.GROUP), receiverId.`in`(groupIds))
+            )
+        }
+        return findBy(spec) {
+            it.sortBy(LATEST_FIRST).limit(limit).all()
+        }
+    }
+
+    companion object {
+        private val LATEST_FIRST = Sort.by(
+            Sort.Order.desc(ChatMessageEntity_.SEND_TIME),
+            Sort.Order.desc(ChatMessageEntity_.RESOURCE_ID)
+        )
+    }
+}
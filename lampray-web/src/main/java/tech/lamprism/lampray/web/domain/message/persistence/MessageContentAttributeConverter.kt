@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.message.persistence
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import jakarta.persistence.Converter
+import tech.lamprism.lampray.common.data.BinaryObjectAttributeConverter
+import tech.lamprism.lampray.web.domain.message.MessageContent
+
+/**
+ * @author RollW
+ */
+@Converter(autoApply = true)
+class MessageContentAttributeConverter(
+    objectMapper: ObjectMapper
+) : BinaryObjectAttributeConverter<MessageContent>(objectMapper) {
+
+    override fun getValueType(): Class<MessageContent> = MessageContent::class.java
+
+    override fun getEmptyValue(): MessageContent? = null
+
+}
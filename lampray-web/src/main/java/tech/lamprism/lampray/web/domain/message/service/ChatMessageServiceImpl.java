@@ -17,23 +17,31 @@
 package tech.lamprism.lampray.web.domain.message.service;
 
 import org.springframework.stereotype.Service;
+import space.lingu.Nullable;
+import tech.lamprism.lampray.LampException;
 import tech.lamprism.lampray.web.common.ApiContext;
 import tech.lamprism.lampray.user.UserIdentity;
+import tech.lamprism.lampray.web.domain.message.ChatMessage;
+import tech.lamprism.lampray.web.domain.message.ChatMessageCursor;
+import tech.lamprism.lampray.web.domain.message.ChatMessageHistory;
 import tech.lamprism.lampray.web.domain.message.ChatMessageProvider;
 import tech.lamprism.lampray.web.domain.message.ChatPartner;
 import tech.lamprism.lampray.web.domain.message.ChatService;
 import tech.lamprism.lampray.web.domain.message.ChatType;
+import tech.lamprism.lampray.web.domain.message.ConversationKeys;
 import tech.lamprism.lampray.web.domain.message.ErrorMessageContent;
 import tech.lamprism.lampray.web.domain.message.TransferredMessage;
 import tech.lamprism.lampray.web.domain.message.TransferredMessageType;
+import tech.lamprism.lampray.web.domain.usergroup.UserGroup;
+import tech.lamprism.lampray.web.domain.usergroup.UserGroupProvider;
 import tech.rollw.common.web.AuthErrorCode;
+import tech.rollw.common.web.CommonErrorCode;
 import tech.rollw.common.web.ErrorCode;
 import tech.rollw.common.web.ErrorCodeMessageProvider;
 import tech.rollw.common.web.system.ContextThread;
 import tech.rollw.common.web.system.ContextThreadAware;
 import tech.rollw.common.web.system.Operator;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -44,26 +52,52 @@ import java.util.Locale;
 public class ChatMessageServiceImpl implements ChatService, ChatMessageProvider {
     private final ContextThreadAware<ApiContext> apiContextThreadAware;
     private final ErrorCodeMessageProvider errorCodeMessageProvider;
+    private final ChatMessageStore chatMessageStore;
+    private final UserGroupProvider userGroupProvider;
 
-
-    // TODO: for test, replace with a real database
-    private final List<TransferredMessage> messages = new ArrayList<>();
+    private static final int MAX_RECENT_MESSAGES = 200;
 
     public ChatMessageServiceImpl(ContextThreadAware<ApiContext> apiContextThreadAware,
-                                  ErrorCodeMessageProvider errorCodeMessageProvider) {
+                                  ErrorCodeMessageProvider errorCodeMessageProvider,
+                                  ChatMessageStore chatMessageStore,
+                                  UserGroupProvider userGroupProvider) {
         this.apiContextThreadAware = apiContextThreadAware;
         this.errorCodeMessageProvider = errorCodeMessageProvider;
+        this.chatMessageStore = chatMessageStore;
+        this.userGroupProvider = userGroupProvider;
     }
 
     @Override
     public TransferredMessage sendMessage(TransferredMessage message) {
         TransferredMessage handledMessage = handleMessage(message);
-        if (handledMessage.getMessageType().canRecord()) {
-            messages.add(handledMessage);
+        if (handledMessage.getMessageType().canRecord() &&
+                chatMessageStore.append(handledMessage) == null) {
+            // Not delivered, the sender may send it again
+            ApiContext context = apiContextThreadAware.getContextThread().getContext();
+            return createErrorMessage(
+                    handledMessage,
+                    createErrorMessageContent(
+                            CommonErrorCode.ERROR_TIMEOUT,
+                            "[Server] Too many messages waiting to be stored, try again later.",
+                            context.getLocale()
+                    )
+            );
         }
         return handledMessage;
     }
 
+    @Override
+    public TransferredMessage createRejectedMessage(ChatMessage message) {
+        return createErrorMessage(
+                message.toTransferredMessage(),
+                createErrorMessageContent(
+                        CommonErrorCode.ERROR_ILLEGAL_ARGUMENT,
+                        "[Server] Message could not be stored.",
+                        Locale.getDefault()
+                )
+        );
+    }
+
     private TransferredMessage handleMessage(TransferredMessage message) {
         ContextThread<ApiContext> contextThread =
                 apiContextThreadAware.getContextThread();
@@ -115,25 +149,33 @@ public class ChatMessageServiceImpl implements ChatService, ChatMessageProvider
                     )
             );
         }
-        if (message.getReceiverId() == 3) {
+        return message.fork(System.currentTimeMillis());
+    }
+
+    private TransferredMessage sendMessageToGroup(TransferredMessage message) {
+        ApiContext context = apiContextThreadAware.getContextThread()
+                .getContext();
+        UserIdentity sender = context.getUser();
+        if (message.getSenderId() != sender.getUserId()) {
             return createErrorMessage(
                     message,
                     createErrorMessageContent(
                             AuthErrorCode.ERROR_NOT_HAS_ROLE,
-                            "[Client] You have been blocked by the receiver.",
+                            "[Client] Message sender id not match.",
+                            context.getLocale()
+                    )
+            );
+        }
+        if (!userGroupProvider.isMember(message.getReceiverId(), sender.getUserId())) {
+            return createErrorMessage(
+                    message,
+                    createErrorMessageContent(
+                            AuthErrorCode.ERROR_NOT_HAS_ROLE,
+                            "[Client] Not a member of the group.",
                             context.getLocale()
                     )
             );
         }
-        return message.fork(System.currentTimeMillis());
-    }
-
-    private TransferredMessage sendMessageToGroup(TransferredMessage message) {
-        ApiContext context = apiContextThreadAware.getContextThread()
-                .getContext();
-        UserIdentity sender = context.getUser();
-        // TODO: check if the sender is a member of the group
-
         return message.fork(System.currentTimeMillis());
     }
 
@@ -158,20 +200,33 @@ public class ChatMessageServiceImpl implements ChatService, ChatMessageProvider
 
     @Override
     public List<TransferredMessage> getMessages(Operator user) {
-        long userId = user.getOperatorId();
-        return messages.stream()
-                .filter(message -> message.getChatType() == ChatType.GROUP
-                        || message.getSenderId() == userId || message.getReceiverId() == userId)
+        List<Long> groupIds = userGroupProvider.getUserGroupsOfUser(user.getOperatorId())
+                .stream()
+                .map(UserGroup::getEntityId)
+                .toList();
+        return chatMessageStore.getLatestOfUser(user.getOperatorId(), groupIds, MAX_RECENT_MESSAGES)
+                .stream()
+                .map(ChatMessage::toTransferredMessage)
                 .toList();
     }
 
     @Override
     public List<TransferredMessage> getMessages(Operator user, ChatPartner chatPartner) {
-        long userId = user.getOperatorId();
-        return messages.stream()
-                .filter(message -> message.getChatType() == chatPartner.type())
-                .filter(message -> message.getSenderId() == userId && message.getReceiverId() == chatPartner.id()
-                        || message.getSenderId() == chatPartner.id() && message.getReceiverId() == userId)
+        return getHistory(user, chatPartner, null, ChatMessageStore.MAX_PAGE_SIZE)
+                .messages()
+                .stream()
+                .map(ChatMessage::toTransferredMessage)
                 .toList();
     }
+
+    @Override
+    public ChatMessageHistory getHistory(Operator user, ChatPartner chatPartner,
+                                         @Nullable ChatMessageCursor cursor, int limit) {
+        if (chatPartner.type() == ChatType.GROUP &&
+                !userGroupProvider.isMember(chatPartner.id(), user.getOperatorId())) {
+            throw new LampException(AuthErrorCode.ERROR_NOT_HAS_ROLE);
+        }
+        String conversationId = ConversationKeys.of(user.getOperatorId(), chatPartner);
+        return chatMessageStore.getHistory(conversationId, cursor, limit);
+    }
 }
@@ -0,0 +1,420 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.message.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import space.lingu.Nullable;
+import tech.lamprism.lampray.common.data.ResourceIdGenerator;
+import tech.lamprism.lampray.web.domain.message.ChatMessage;
+import tech.lamprism.lampray.web.domain.message.ChatMessageCursor;
+import tech.lamprism.lampray.web.domain.message.ChatMessageHistory;
+import tech.lamprism.lampray.web.domain.message.ChatMessageResourceKind;
+import tech.lamprism.lampray.web.domain.message.ChatType;
+import tech.lamprism.lampray.web.domain.message.ConversationKeys;
+import tech.lamprism.lampray.web.domain.message.TransferredMessage;
+import tech.lamprism.lampray.web.domain.message.event.ChatMessageRejectedEvent;
+import tech.lamprism.lampray.web.domain.message.persistence.ChatMessageEntity;
+import tech.lamprism.lampray.web.domain.message.persistence.ChatMessageRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Predicate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Durable store of chat messages.
+ * <p>
+ * Appended messages are visible at once through a bounded ring of the
+ * most recent messages per conversation, and written to the database in
+ * batches in the background on the shared scheduler. History pages are
+ * served from the ring when it covers them, otherwise from the database
+ * by keyset pagination on {@code (conversation_id, send_time)}, merged
+ * with the messages not written yet.
+ * <p>
+ * Reads never wait for the writer: a failed write is logged and retried
+ * in the background, while unwritten messages are served from memory.
+ * At most {@link #MAX_UNWRITTEN_MESSAGES} messages wait to be written,
+ * further appends are refused until the database catches up. When a
+ * batch fails, its messages are retried one by one, and a message the
+ * database rejects outright is removed and reported with a
+ * {@link ChatMessageRejectedEvent}, so that it cannot hold back the
+ * others.
+ *
+ * @author RollW
+ */
+@Service
+public class ChatMessageStore implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageStore.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final int RING_CAPACITY = 64;
+    private static final int MAX_CACHED_CONVERSATIONS = 10_000;
+    private static final Duration CONVERSATION_IDLE_TIME = Duration.ofMinutes(30);
+
+    public static final int MAX_UNWRITTEN_MESSAGES = 10_000;
+
+    private static final int BATCH_SIZE = 100;
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(200);
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ResourceIdGenerator resourceIdGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Cache<String, RecentMessageRing> rings = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_CONVERSATIONS)
+            .expireAfterAccess(CONVERSATION_IDLE_TIME)
+            .build();
+
+    /**
+     * Messages to write in the next flush.
+     */
+    private final Queue<ChatMessage> pendingMessages = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    /**
+     * Messages appended and not written yet, including those of a
+     * running flush. Removed only once written or rejected.
+     */
+    private final NavigableSet<ChatMessage> unwrittenMessages =
+            new ConcurrentSkipListSet<>(ChatMessage.CHRONOLOGICAL);
+    private final AtomicInteger unwrittenCount = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private final TaskScheduler taskScheduler;
+    private final ScheduledFuture<?> flushTask;
+
+    public ChatMessageStore(ChatMessageRepository chatMessageRepository,
+                            ResourceIdGenerator resourceIdGenerator,
+                            ApplicationEventPublisher eventPublisher,
+                            @Qualifier("mainTaskScheduler") TaskScheduler taskScheduler) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.resourceIdGenerator = resourceIdGenerator;
+        this.eventPublisher = eventPublisher;
+        this.taskScheduler = taskScheduler;
+        this.flushTask = taskScheduler.scheduleWithFixedDelay(this::flushQuietly,
+                Instant.now().plus(FLUSH_INTERVAL), FLUSH_INTERVAL);
+    }
+
+    /**
+     * Appends the message. The message is readable at once, while
+     * the write to the database is deferred to the next batch.
+     *
+     * @return the appended message, or null if too many messages
+     * are waiting to be written
+     */
+    @Nullable
+    public ChatMessage append(TransferredMessage message) {
+        if (unwrittenCount.incrementAndGet() > MAX_UNWRITTEN_MESSAGES) {
+            unwrittenCount.decrementAndGet();
+            logger.debug("Refused a chat message of conversation {}, {} messages are not written yet.",
+                    ConversationKeys.of(message), MAX_UNWRITTEN_MESSAGES);
+            return null;
+        }
+        ChatMessage chatMessage = ChatMessage.of(
+                resourceIdGenerator.nextId(ChatMessageResourceKind.INSTANCE),
+                message
+        );
+        // Added before the ring, a ring being loaded in between reads
+        // it back, adding it again is no-op.
+        unwrittenMessages.add(chatMessage);
+        pendingMessages.add(chatMessage);
+        rings.asMap().computeIfPresent(chatMessage.getConversationId(), (key, ring) -> {
+            ring.add(chatMessage);
+            return ring;
+        });
+        if (pendingCount.incrementAndGet() >= BATCH_SIZE &&
+                flushScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flushQuietly, Instant.now());
+        }
+        return chatMessage;
+    }
+
+    /**
+     * Gets a page of the conversation history sent before the cursor.
+     *
+     * @param cursor null to start from the latest message
+     */
+    public ChatMessageHistory getHistory(String conversationId,
+                                         @Nullable ChatMessageCursor cursor,
+                                         int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        RecentMessageRing ring = rings.get(conversationId, this::loadRing);
+        ChatMessageHistory history = ring.page(cursor, size);
+        if (history != null) {
+            return history;
+        }
+        // Older than the ring holds, messages evicted from the
+        // ring may not be written yet.
+        NavigableSet<ChatMessage> unwritten = findUnwritten(message ->
+                message.getConversationId().equals(conversationId) &&
+                        (cursor == null || message.isBefore(cursor)));
+        List<ChatMessage> messages = merge(unwritten,
+                chatMessageRepository.findLatest(conversationId, cursor, size + 1), size + 1);
+        boolean hasMore = messages.size() > size;
+        if (hasMore) {
+            messages.remove(messages.size() - 1);
+        }
+        return ChatMessageHistory.of(Lists.reverse(messages), hasMore);
+    }
+
+    /**
+     * Gets the latest messages the user could see across
+     * conversations, oldest first.
+     */
+    public List<ChatMessage> getLatestOfUser(long userId, Collection<Long> groupIds, int limit) {
+        int size = Math.max(1, limit);
+        NavigableSet<ChatMessage> unwritten = findUnwritten(message ->
+                message.getChatType() == ChatType.GROUP
+                        ? groupIds.contains(message.getReceiverId())
+                        : message.getSenderId() == userId || message.getReceiverId() == userId);
+        List<ChatMessage> messages = merge(unwritten,
+                chatMessageRepository.findLatestOfUser(userId, groupIds, size), size);
+        return Lists.reverse(messages);
+    }
+
+    /**
+     * Gets the unwritten messages matching the filter. Taken before
+     * reading the database: a message written in between is then
+     * either found here or by the read.
+     */
+    private NavigableSet<ChatMessage> findUnwritten(Predicate<ChatMessage> filter) {
+        NavigableSet<ChatMessage> found = new TreeSet<>(ChatMessage.CHRONOLOGICAL);
+        for (ChatMessage message : unwrittenMessages) {
+            if (filter.test(message)) {
+                found.add(message);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Merges the written messages, newest first, into the unwritten
+     * ones, and gets the latest of both, newest first.
+     */
+    private static List<ChatMessage> merge(NavigableSet<ChatMessage> unwritten,
+                                           List<ChatMessageEntity> written,
+                                           int limit) {
+        // A message may be in both while its flush completes
+        written.forEach(entity -> unwritten.add(entity.lock()));
+        List<ChatMessage> messages = new ArrayList<>(Math.min(limit, unwritten.size()));
+        Iterator<ChatMessage> iterator = unwritten.descendingIterator();
+        while (iterator.hasNext() && messages.size() < limit) {
+            messages.add(iterator.next());
+        }
+        return messages;
+    }
+
+    /**
+     * Writes all pending messages to the database.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushScheduled.set(false);
+            List<ChatMessage> batch = new ArrayList<>();
+            ChatMessage message;
+            while ((message = pendingMessages.poll()) != null) {
+                batch.add(message);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            pendingCount.addAndGet(-batch.size());
+            try {
+                insert(batch);
+                written(batch);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to write a batch of {} chat messages, retrying one by one.",
+                        batch.size(), e);
+                insertOneByOne(batch);
+            }
+        }
+    }
+
+    private void insertOneByOne(List<ChatMessage> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            ChatMessage message = batch.get(i);
+            try {
+                insert(List.of(message));
+                written(List.of(message));
+            } catch (NonTransientDataAccessException e) {
+                // Would fail on every retry
+                logger.error("Removed chat message {} of conversation {}, rejected by the database.",
+                        message.getId(), message.getConversationId(), e);
+                reject(message);
+            } catch (RuntimeException e) {
+                // Likely the database is unavailable, keep the rest
+                // for the next attempt
+                List<ChatMessage> remaining = batch.subList(i, batch.size());
+                pendingMessages.addAll(remaining);
+                pendingCount.addAndGet(remaining.size());
+                throw e;
+            }
+        }
+    }
+
+    private void written(List<ChatMessage> messages) {
+        unwrittenMessages.removeAll(messages);
+        unwrittenCount.addAndGet(-messages.size());
+    }
+
+    private void reject(ChatMessage message) {
+        written(List.of(message));
+        RecentMessageRing ring = rings.getIfPresent(message.getConversationId());
+        if (ring != null) {
+            ring.remove(message);
+        }
+        eventPublisher.publishEvent(new ChatMessageRejectedEvent(message));
+    }
+
+    private void insert(List<ChatMessage> messages) {
+        chatMessageRepository.insertAll(
+                messages.stream().map(ChatMessageEntity::toEntity).toList(),
+                BATCH_SIZE
+        );
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Failed to write chat messages, will retry later.", e);
+        }
+    }
+
+    private RecentMessageRing loadRing(String conversationId) {
+        NavigableSet<ChatMessage> unwritten = findUnwritten(message ->
+                message.getConversationId().equals(conversationId));
+        List<ChatMessageEntity> latest =
+                chatMessageRepository.findLatest(conversationId, null, RING_CAPACITY);
+        RecentMessageRing ring = new RecentMessageRing(RING_CAPACITY,
+                latest.size() < RING_CAPACITY);
+        for (int i = latest.size() - 1; i >= 0; i--) {
+            ring.add(latest.get(i).lock());
+        }
+        // Messages the flush has not written yet
+        unwritten.forEach(ring::add);
+        return ring;
+    }
+
+    @Override
+    public void destroy() {
+        flushTask.cancel(false);
+        // Waits for a running flush under the flush lock
+        flushQuietly();
+    }
+
+    /**
+     * The most recent messages of a conversation in chronological order.
+     */
+    private static final class RecentMessageRing {
+        private final int capacity;
+        private final ArrayDeque<ChatMessage> messages;
+        /**
+         * Whether the ring holds the whole conversation.
+         */
+        private boolean complete;
+
+        RecentMessageRing(int capacity, boolean complete) {
+            this.capacity = capacity;
+            this.messages = new ArrayDeque<>(capacity);
+            this.complete = complete;
+        }
+
+        synchronized void add(ChatMessage message) {
+            ChatMessage last = messages.peekLast();
+            if (last == null || ChatMessage.CHRONOLOGICAL.compare(last, message) < 0) {
+                addLast(message);
+                return;
+            }
+            // Rarely out of order, walk back from the tail
+            List<ChatMessage> tail = new ArrayList<>();
+            while (!messages.isEmpty() &&
+                    ChatMessage.CHRONOLOGICAL.compare(messages.peekLast(), message) > 0) {
+                tail.add(messages.pollLast());
+            }
+            ChatMessage previous = messages.peekLast();
+            boolean duplicated = previous != null &&
+                    ChatMessage.CHRONOLOGICAL.compare(previous, message) == 0;
+            if (!duplicated) {
+                messages.addLast(message);
+            }
+            for (int i = tail.size() - 1; i >= 0; i--) {
+                messages.addLast(tail.get(i));
+            }
+            trim();
+        }
+
+        synchronized void remove(ChatMessage message) {
+            messages.removeIf(candidate -> candidate.getId().equals(message.getId()));
+        }
+
+        private void addLast(ChatMessage message) {
+            messages.addLast(message);
+            trim();
+        }
+
+        private void trim() {
+            while (messages.size() > capacity) {
+                messages.pollFirst();
+                complete = false;
+            }
+        }
+
+        /**
+         * Gets the page before the cursor, or null if the ring
+         * does not hold enough messages to answer it.
+         */
+        @Nullable
+        synchronized ChatMessageHistory page(@Nullable ChatMessageCursor cursor, int size) {
+            ArrayDeque<ChatMessage> page = new ArrayDeque<>(size);
+            Iterator<ChatMessage> iterator = messages.descendingIterator();
+            while (iterator.hasNext() && page.size() < size) {
+                ChatMessage message = iterator.next();
+                if (cursor == null || message.isBefore(cursor)) {
+                    page.addFirst(message);
+                }
+            }
+            boolean hasMore = iterator.hasNext() || !complete;
+            if (page.size() < size && !complete) {
+                return null;
+            }
+            return ChatMessageHistory.of(List.copyOf(page), hasMore);
+        }
+    }
+}
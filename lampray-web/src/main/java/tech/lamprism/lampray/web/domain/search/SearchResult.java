@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.search;
+
+import space.lingu.Nullable;
+
+import java.util.List;
+
+/**
+ * A page of search results, ranked by relevance.
+ *
+ * @param ids        ids of the matched documents, best match first
+ * @param totalHits  count of all matched documents
+ * @param nextCursor cursor of the next page, null if there are no
+ *                   more results to page to
+ * @author RollW
+ */
+public record SearchResult(
+        List<String> ids,
+        long totalHits,
+        @Nullable String nextCursor
+) {
+    public static SearchResult empty() {
+        return new SearchResult(List.of(), 0, null);
+    }
+}
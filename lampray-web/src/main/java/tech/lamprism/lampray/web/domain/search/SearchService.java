@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.search;
+
+import space.lingu.Nullable;
+
+/**
+ * @author RollW
+ */
+public interface SearchService {
+    /**
+     * Searches documents of the type by the keyword. Words of the
+     * keyword are all required, the last one also matches as a prefix.
+     *
+     * @param cursor the cursor of the previous page, which is the count
+     *               of results to skip, or null for the first page
+     * @param limit  max count of results, clamped to the page size limit
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    SearchResult search(SearchDocumentType type, String keyword,
+                        @Nullable String cursor, int limit);
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.search.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tech.lamprism.lampray.concurrent.CoalescingQueue;
+import tech.lamprism.lampray.content.Content;
+import tech.lamprism.lampray.content.ContentDetails;
+import tech.lamprism.lampray.content.ContentIdentity;
+import tech.lamprism.lampray.content.ContentMetadata;
+import tech.lamprism.lampray.content.ContentProviderFactory;
+import tech.lamprism.lampray.content.ContentStatus;
+import tech.lamprism.lampray.content.ContentType;
+import tech.lamprism.lampray.content.event.ContentStatusEvent;
+import tech.lamprism.lampray.content.event.ContentUpdatedEvent;
+import tech.lamprism.lampray.content.service.ContentMetadataService;
+import tech.lamprism.lampray.content.structuraltext.StructuralTextRenderer;
+import tech.lamprism.lampray.content.structuraltext.renderer.SimpleStructuralTextRenderer;
+import tech.lamprism.lampray.user.AttributedUser;
+import tech.lamprism.lampray.user.AttributedUserDetails;
+import tech.lamprism.lampray.user.UserProvider;
+import tech.lamprism.lampray.user.UserSearchService;
+import tech.lamprism.lampray.user.event.NewUserCreatedEvent;
+import tech.lamprism.lampray.user.event.UserUpdatedEvent;
+import tech.lamprism.lampray.web.domain.search.SearchDocument;
+import tech.lamprism.lampray.web.domain.search.SearchDocumentType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Keeps the search index in step with users and articles.
+ * <p>
+ * Change events only queue the id of the changed user or article. The
+ * queue is flushed periodically on the shared scheduler, one flush at a
+ * time, reading the current state of a batch from the database and
+ * indexing or removing each document. So the
+ * index converges to the database no matter in which order the events
+ * come, and a burst of changes to one article is indexed once. Users
+ * are searchable until canceled, articles only while published.
+ * <p>
+ * When the index is not built yet, it is built from the database in
+ * batches after the application is ready.
+ *
+ * @author RollW
+ */
+@Component
+public class SearchIndexer implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexer.class);
+
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(500);
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int MAX_TEXT_LENGTH = 100_000;
+
+    private final SearchServiceImpl searchService;
+    private final UserProvider userProvider;
+    private final UserSearchService userSearchService;
+    private final ContentMetadataService contentMetadataService;
+    private final ContentProviderFactory contentProviderFactory;
+    private final StructuralTextRenderer textRenderer = new SimpleStructuralTextRenderer();
+
+    // Documents are only queued by their keys, the value is a marker
+    private final CoalescingQueue<DocumentKey, Boolean> pending =
+            new CoalescingQueue<>(MAX_BATCH_SIZE, MAX_ATTEMPTS, Boolean::logicalOr);
+    private final Object flushLock = new Object();
+    private final TaskScheduler taskScheduler;
+    private volatile ScheduledFuture<?> flushTask;
+    private volatile boolean stopped = false;
+
+    public SearchIndexer(SearchServiceImpl searchService,
+                         UserProvider userProvider,
+                         UserSearchService userSearchService,
+                         ContentMetadataService contentMetadataService,
+                         ContentProviderFactory contentProviderFactory,
+                         @Qualifier("mainTaskScheduler") TaskScheduler taskScheduler) {
+        this.searchService = searchService;
+        this.userProvider = userProvider;
+        this.userSearchService = userSearchService;
+        this.contentMetadataService = contentMetadataService;
+        this.contentProviderFactory = contentProviderFactory;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Changes queued meanwhile are flushed once the index is built
+        taskScheduler.schedule(() -> {
+            rebuildIfNeeded();
+            synchronized (flushLock) {
+                if (stopped) {
+                    return;
+                }
+                flushTask = taskScheduler.scheduleWithFixedDelay(this::flushSafely,
+                        Instant.now().plus(FLUSH_INTERVAL), FLUSH_INTERVAL);
+            }
+        }, Instant.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCreated(NewUserCreatedEvent event) {
+        queue(SearchDocumentType.USER, Long.toString(event.getUser().getUserId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        queue(SearchDocumentType.USER, Long.toString(event.getUser().getUserId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentStatusChanged(ContentStatusEvent<?> event) {
+        queueContent(event.getContent());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentUpdated(ContentUpdatedEvent event) {
+        queueContent(event.getContent());
+    }
+
+    private void queueContent(Content content) {
+        if (content.getContentType() != ContentType.ARTICLE) {
+            return;
+        }
+        queue(SearchDocumentType.ARTICLE, content.getContentId());
+    }
+
+    private void queue(SearchDocumentType type, String id) {
+        pending.offer(new DocumentKey(type, id), Boolean.TRUE);
+    }
+
+    private void flushSafely() {
+        try {
+            while (flush()) {
+                // Keep flushing while the queue is backed up
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to update search index.", e);
+        }
+    }
+
+    /**
+     * Flushes one batch of queued documents.
+     *
+     * @return true if the batch was full and more may be queued
+     */
+    boolean flush() {
+        synchronized (flushLock) {
+            return flushBatch();
+        }
+    }
+
+    private boolean flushBatch() {
+        CoalescingQueue.Batch<DocumentKey, Boolean> batch = pending.drain();
+        if (batch.isEmpty()) {
+            return false;
+        }
+        Map<SearchDocumentType, List<String>> idsByType = new HashMap<>();
+        batch.values().keySet().forEach(key -> idsByType
+                .computeIfAbsent(key.type(), type -> new ArrayList<>())
+                .add(key.id()));
+        try {
+            List<String> userIds = idsByType.getOrDefault(SearchDocumentType.USER, List.of());
+            List<String> articleIds = idsByType.getOrDefault(SearchDocumentType.ARTICLE, List.of());
+            update(SearchDocumentType.USER, userIds, loadUsers(userIds));
+            update(SearchDocumentType.ARTICLE, articleIds, loadArticles(articleIds));
+        } catch (IOException e) {
+            requeue(batch);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            requeue(batch);
+            throw e;
+        }
+        logger.debug("Updated {} documents in search index.", batch.size());
+        return batch.isFull();
+    }
+
+    private void requeue(CoalescingQueue.Batch<DocumentKey, Boolean> batch) {
+        pending.requeue(batch, (key, queued) ->
+                logger.warn("Dropped {} from search index updates after {} attempts.",
+                        key, MAX_ATTEMPTS));
+    }
+
+    /**
+     * Indexes the loaded documents, and removes the ones that no longer
+     * exist or are not searchable.
+     */
+    private void update(SearchDocumentType type, List<String> ids,
+                        List<SearchDocument> documents) throws IOException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<String> removed = new HashSet<>(ids);
+        documents.forEach(document -> removed.remove(document.id()));
+        searchService.index(documents);
+        searchService.delete(type, removed);
+    }
+
+    private List<SearchDocument> loadUsers(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<AttributedUser> users = userSearchService.findUsers(
+                ids.stream().map(Long::parseLong).toList());
+        return users.stream()
+                .filter(user -> !user.isCanceled())
+                .map(this::toDocument)
+                .toList();
+    }
+
+    private List<SearchDocument> loadArticles(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<ContentIdentity> contents = ids.stream()
+                .map(id -> ContentIdentity.of(id, ContentType.ARTICLE))
+                .toList();
+        return loadPublishedArticles(contentMetadataService.getMetadata(contents));
+    }
+
+    private List<SearchDocument> loadPublishedArticles(List<ContentMetadata> metadata) {
+        List<ContentIdentity> published = metadata.stream()
+                .filter(current -> current.getContentStatus() == ContentStatus.PUBLISHED)
+                .map(current -> ContentIdentity.of(current.getContentId(), ContentType.ARTICLE))
+                .toList();
+        if (published.isEmpty()) {
+            return List.of();
+        }
+        return contentProviderFactory.getContentProvider(ContentType.ARTICLE)
+                .getContentDetails(published)
+                .stream()
+                .map(this::toDocument)
+                .toList();
+    }
+
+    private SearchDocument toDocument(AttributedUser user) {
+        return new SearchDocument(SearchDocumentType.USER,
+                Long.toString(user.getUserId()), user.getUsername(), null);
+    }
+
+    private SearchDocument toDocument(ContentDetails article) {
+        String text = article.getContent() == null
+                ? null
+                : textRenderer.render(article.getContent());
+        if (text != null && text.length() > MAX_TEXT_LENGTH) {
+            text = text.substring(0, MAX_TEXT_LENGTH);
+        }
+        return new SearchDocument(SearchDocumentType.ARTICLE,
+                article.getContentId(),
+                article.getTitle() == null ? "" : article.getTitle(),
+                text);
+    }
+
+    private void rebuildIfNeeded() {
+        if (!searchService.needsRebuild()) {
+            return;
+        }
+        logger.info("Building search index from the database.");
+        try {
+            searchService.clear();
+            int users = rebuildUsers();
+            int articles = rebuildArticles();
+            searchService.markBuilt();
+            logger.info("Built search index of {} users and {} articles.", users, articles);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to build search index, it will be built again on the next start.", e);
+        }
+    }
+
+    private int rebuildUsers() throws IOException {
+        int count = 0;
+        long afterId = 0;
+        List<AttributedUserDetails> users;
+        do {
+            users = userProvider.getUsers(afterId, MAX_BATCH_SIZE);
+            List<SearchDocument> documents = users.stream()
+                    .filter(user -> !user.isCanceled())
+                    .map(this::toDocument)
+                    .toList();
+            searchService.index(documents);
+            count += documents.size();
+            if (!users.isEmpty()) {
+                afterId = users.get(users.size() - 1).getUserId();
+            }
+        } while (users.size() == MAX_BATCH_SIZE);
+        return count;
+    }
+
+    private int rebuildArticles() throws IOException {
+        int count = 0;
+        Long afterId = null;
+        List<ContentMetadata> metadata;
+        do {
+            metadata = contentMetadataService.getMetadata(ContentType.ARTICLE, afterId, MAX_BATCH_SIZE);
+            List<SearchDocument> documents = loadPublishedArticles(metadata);
+            searchService.index(documents);
+            count += documents.size();
+            if (!metadata.isEmpty()) {
+                afterId = metadata.get(metadata.size() - 1).getId();
+            }
+        } while (metadata.size() == MAX_BATCH_SIZE);
+        return count;
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (flushLock) {
+            stopped = true;
+            if (flushTask == null) {
+                // Still building, the queue is only flushed after the build
+                return;
+            }
+            flushTask.cancel(false);
+        }
+        flushSafely();
+    }
+
+    private record DocumentKey(SearchDocumentType type, String id) {
+    }
+}
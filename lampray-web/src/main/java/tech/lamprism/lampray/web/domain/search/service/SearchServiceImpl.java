@@ -0,0 +1,366 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.search.service;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import space.lingu.Nullable;
+import tech.lamprism.lampray.setting.ConfigReader;
+import tech.lamprism.lampray.web.common.keys.SearchConfigKeys;
+import tech.lamprism.lampray.web.domain.search.SearchDocument;
+import tech.lamprism.lampray.web.domain.search.SearchDocumentType;
+import tech.lamprism.lampray.web.domain.search.SearchResult;
+import tech.lamprism.lampray.web.domain.search.SearchService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Search backed by an embedded Lucene index on the local file system.
+ * <p>
+ * Text is split by the standard tokenizer, with runs of CJK characters
+ * indexed as overlapping bigrams, so Chinese, Japanese and Korean text
+ * is searchable without a dictionary. The name of a document is also
+ * indexed as a whole, lower cased, to rank exact and prefix matches of
+ * it first.
+ * <p>
+ * Writes become visible to searches within {@link #REFRESH_INTERVAL},
+ * and are committed to disk every {@link #COMMIT_INTERVAL} and when
+ * closed. Paging is bounded by {@link #MAX_RESULT_WINDOW}, so the cost
+ * of a search depends on the terms matched rather than on the depth
+ * of the page or the size of the index.
+ *
+ * @author RollW
+ */
+@Service
+public class SearchServiceImpl implements SearchService, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(SearchServiceImpl.class);
+
+    /**
+     * Bump to rebuild the index from the database on the next start,
+     * e.g. after changing the analysis.
+     */
+    private static final String INDEX_VERSION = "1";
+    private static final String INDEX_VERSION_KEY = "lampray.index.version";
+
+    private static final String FIELD_KEY = "key";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_NAME_KEYWORD = "name_keyword";
+    private static final String FIELD_TEXT = "text";
+
+    private static final float NAME_BOOST = 2.0f;
+    private static final float NAME_KEYWORD_BOOST = 4.0f;
+    private static final float NAME_KEYWORD_PREFIX_BOOST = 2.0f;
+
+    private static final int MAX_KEYWORD_LENGTH = 256;
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_RESULT_WINDOW = 1000;
+
+    private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration COMMIT_INTERVAL = Duration.ofSeconds(30);
+
+    private final Analyzer analyzer = new CJKAnalyzer(CharArraySet.EMPTY_SET);
+    private final Directory directory;
+    private final IndexWriter indexWriter;
+    private final SearcherManager searcherManager;
+    private final ScheduledFuture<?> refreshTask;
+    private final ScheduledFuture<?> commitTask;
+    // Keeps refreshes and commits off the index once it is closing
+    private final Object maintenanceLock = new Object();
+    private boolean closed = false;
+
+    public SearchServiceImpl(ConfigReader configReader,
+                             @Qualifier("mainTaskScheduler") TaskScheduler taskScheduler) {
+        String indexPath = configReader.get(SearchConfigKeys.SEARCH_INDEX_PATH);
+        Path path = Path.of(Objects.requireNonNull(indexPath)).toAbsolutePath();
+        try {
+            this.directory = FSDirectory.open(path);
+            IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            this.indexWriter = new IndexWriter(directory, config);
+            this.searcherManager = new SearcherManager(indexWriter, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open search index: " + path, e);
+        }
+        logger.info("Opened search index at '{}'.", path);
+        this.refreshTask = taskScheduler.scheduleWithFixedDelay(this::refresh,
+                Instant.now().plus(REFRESH_INTERVAL), REFRESH_INTERVAL);
+        this.commitTask = taskScheduler.scheduleWithFixedDelay(this::commit,
+                Instant.now().plus(COMMIT_INTERVAL), COMMIT_INTERVAL);
+    }
+
+    @Override
+    public SearchResult search(SearchDocumentType type, String keyword,
+                               @Nullable String cursor, int limit) {
+        int offset = parseCursor(cursor);
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (offset >= MAX_RESULT_WINDOW) {
+            return SearchResult.empty();
+        }
+        Query query = buildQuery(type, keyword);
+        if (query == null) {
+            return SearchResult.empty();
+        }
+        int window = Math.min(offset + size, MAX_RESULT_WINDOW);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, window);
+                ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+                StoredFields storedFields = searcher.storedFields();
+                List<String> ids = new ArrayList<>(Math.max(0, scoreDocs.length - offset));
+                for (int i = offset; i < scoreDocs.length; i++) {
+                    Document document = storedFields.document(scoreDocs[i].doc, Set.of(FIELD_ID));
+                    ids.add(document.get(FIELD_ID));
+                }
+                long totalHits = topDocs.totalHits.value;
+                int next = offset + ids.size();
+                boolean hasMore = !ids.isEmpty() &&
+                        next < Math.min(totalHits, MAX_RESULT_WINDOW);
+                return new SearchResult(ids, totalHits,
+                        hasMore ? Integer.toString(next) : null);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to search index.", e);
+        }
+    }
+
+    private static int parseCursor(@Nullable String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(cursor);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid search cursor: " + cursor, e);
+        }
+    }
+
+    @Nullable
+    private Query buildQuery(SearchDocumentType type, String keyword) {
+        String normalized = StringUtils.truncate(
+                StringUtils.normalizeSpace(keyword), MAX_KEYWORD_LENGTH);
+        if (StringUtils.isEmpty(normalized)) {
+            return null;
+        }
+        List<String> terms = analyze(normalized);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder words = new BooleanQuery.Builder();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            BooleanQuery.Builder word = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(FIELD_NAME, term)), NAME_BOOST),
+                            BooleanClause.Occur.SHOULD)
+                    .add(new TermQuery(new Term(FIELD_TEXT, term)), BooleanClause.Occur.SHOULD);
+            if (i == terms.size() - 1) {
+                // The last word may still be being typed
+                word.add(new PrefixQuery(new Term(FIELD_NAME, term)), BooleanClause.Occur.SHOULD)
+                        .add(new PrefixQuery(new Term(FIELD_TEXT, term)), BooleanClause.Occur.SHOULD);
+            }
+            words.add(word.build(), BooleanClause.Occur.MUST);
+        }
+        String nameKeyword = normalized.toLowerCase(Locale.ROOT);
+        return new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(FIELD_TYPE, type.name())), BooleanClause.Occur.FILTER)
+                .add(words.build(), BooleanClause.Occur.MUST)
+                .add(new BoostQuery(new TermQuery(new Term(FIELD_NAME_KEYWORD, nameKeyword)),
+                        NAME_KEYWORD_BOOST), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(new PrefixQuery(new Term(FIELD_NAME_KEYWORD, nameKeyword)),
+                        NAME_KEYWORD_PREFIX_BOOST), BooleanClause.Occur.SHOULD)
+                .build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokenStream = analyzer.tokenStream(FIELD_NAME, text)) {
+            CharTermAttribute termAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(termAttribute.toString());
+            }
+            tokenStream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to analyze keyword.", e);
+        }
+        return terms;
+    }
+
+    /**
+     * Adds the documents, replacing the indexed ones with the same ids.
+     */
+    void index(Collection<SearchDocument> documents) throws IOException {
+        for (SearchDocument document : documents) {
+            indexWriter.updateDocument(keyTerm(document.type(), document.id()),
+                    toDocument(document));
+        }
+    }
+
+    void delete(SearchDocumentType type, Collection<String> ids) throws IOException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Term[] terms = ids.stream()
+                .map(id -> keyTerm(type, id))
+                .toArray(Term[]::new);
+        indexWriter.deleteDocuments(terms);
+    }
+
+    /**
+     * Checks whether the index is not built, or was built by an older
+     * version and needs to be built again from the database.
+     */
+    boolean needsRebuild() {
+        for (Map.Entry<String, String> entry : indexWriter.getLiveCommitData()) {
+            if (entry.getKey().equals(INDEX_VERSION_KEY)) {
+                return !entry.getValue().equals(INDEX_VERSION);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clears the index before rebuilding it.
+     */
+    void clear() throws IOException {
+        indexWriter.deleteAll();
+    }
+
+    /**
+     * Marks the index as built and commits it.
+     */
+    void markBuilt() throws IOException {
+        indexWriter.setLiveCommitData(Map.of(INDEX_VERSION_KEY, INDEX_VERSION).entrySet());
+        indexWriter.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    private static Term keyTerm(SearchDocumentType type, String id) {
+        return new Term(FIELD_KEY, type.name() + ":" + id);
+    }
+
+    private static Document toDocument(SearchDocument searchDocument) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_KEY,
+                searchDocument.type().name() + ":" + searchDocument.id(), Field.Store.NO));
+        document.add(new StringField(FIELD_TYPE, searchDocument.type().name(), Field.Store.NO));
+        document.add(new StoredField(FIELD_ID, searchDocument.id()));
+        document.add(new TextField(FIELD_NAME, searchDocument.name(), Field.Store.NO));
+        document.add(new StringField(FIELD_NAME_KEYWORD, StringUtils.truncate(
+                searchDocument.name().toLowerCase(Locale.ROOT), MAX_KEYWORD_LENGTH), Field.Store.NO));
+        if (searchDocument.text() != null) {
+            document.add(new TextField(FIELD_TEXT, searchDocument.text(), Field.Store.NO));
+        }
+        return document;
+    }
+
+    private void refresh() {
+        synchronized (maintenanceLock) {
+            if (closed) {
+                return;
+            }
+            try {
+                searcherManager.maybeRefresh();
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to refresh search index.", e);
+            }
+        }
+    }
+
+    private void commit() {
+        synchronized (maintenanceLock) {
+            if (closed) {
+                return;
+            }
+            try {
+                if (indexWriter.hasUncommittedChanges()) {
+                    indexWriter.commit();
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to commit search index.", e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        refreshTask.cancel(false);
+        commitTask.cancel(false);
+        // Waits for a running refresh or commit
+        synchronized (maintenanceLock) {
+            closed = true;
+        }
+        try {
+            searcherManager.close();
+            indexWriter.close();
+        } finally {
+            directory.close();
+        }
+    }
+}
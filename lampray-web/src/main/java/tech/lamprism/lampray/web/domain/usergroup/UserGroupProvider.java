@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.usergroup;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author RollW
+ */
+public interface UserGroupProvider {
+    UserGroup getUserGroup(long groupId);
+
+    List<UserGroup> getUserGroupsOfUser(long userId);
+
+    /**
+     * Gets ids of current members of the group. The returned set is
+     * a read-only view kept up to date with membership changes.
+     */
+    Set<Long> getMemberIds(long groupId);
+
+    boolean isMember(long groupId, long userId);
+}
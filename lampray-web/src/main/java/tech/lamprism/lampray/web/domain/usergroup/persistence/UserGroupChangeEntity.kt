@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.usergroup.persistence
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.Table
+import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.common.data.changelog.ChangeLogEntry
+import tech.lamprism.lampray.web.domain.systembased.LampSystemResourceKind
+import tech.rollw.common.web.system.SystemResourceKind
+import java.time.Instant
+import java.time.OffsetDateTime
+import java.time.ZoneOffset
+
+/**
+ * A change of the members of a group, or of the group itself.
+ *
+ * @author RollW
+ */
+@Entity
+@Table(name = "user_group_change")
+class UserGroupChangeEntity(
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private var id: Long? = null,
+
+    @Column(name = "group_id", nullable = false)
+    var groupId: Long = 0,
+
+    /**
+     * The node the change was made on.
+     */
+    @Column(name = "origin", nullable = false, length = 64)
+    override var origin: String = "",
+
+    /**
+     * Time of the change in epoch milliseconds. Only tells when to
+     * purge the change, ids give the order of changes.
+     */
+    @Column(name = "change_time", nullable = false)
+    var changeTime: Long = 0
+) : DataEntity<Long>, ChangeLogEntry {
+    override val key: String
+        get() = groupId.toString()
+
+    override fun getEntityId(): Long? = id
+
+    override fun getId(): Long? = id
+
+    override fun getSystemResourceKind(): SystemResourceKind = LampSystemResourceKind.USER_GROUP
+
+    override fun getCreateTime(): OffsetDateTime =
+        OffsetDateTime.ofInstant(Instant.ofEpochMilli(changeTime), ZoneOffset.UTC)
+
+    override fun getUpdateTime(): OffsetDateTime = getCreateTime()
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.usergroup.persistence
+
+import jakarta.persistence.Column
+import jakarta.persistence.Convert
+import jakarta.persistence.Entity
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.Lob
+import jakarta.persistence.Table
+import tech.lamprism.lampray.DataEntity
+import tech.lamprism.lampray.web.domain.systembased.LampSystemResourceKind
+import tech.lamprism.lampray.web.domain.usergroup.UserGroup
+import tech.rollw.common.web.system.SystemResourceKind
+import java.time.OffsetDateTime
+
+/**
+ * @author RollW
+ */
+@Entity
+@Table(name = "user_group")
+class UserGroupEntity(
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private var id: Long? = null,
+
+    @Column(name = "name", nullable = false, length = 255)
+    var name: String = "",
+
+    @Column(name = "description", nullable = false, length = 255)
+    var description: String = "",
+
+    @Convert(converter = UserGroupSettingsAttributeConverter::class)
+    @Lob
+    @Column(name = "settings")
+    var settings: Map<String, String> = emptyMap(),
+
+    @Column(name = "create_time", nullable = false)
+    private var createTime: OffsetDateTime = OffsetDateTime.now(),
+
+    @Column(name = "update_time", nullable = false)
+    private var updateTime: OffsetDateTime = OffsetDateTime.now(),
+
+    @Column(name = "deleted", nullable = false)
+    var deleted: Boolean = false
+) : DataEntity<Long> {
+    override fun getEntityId(): Long? = id
+
+    fun getId(): Long? = id
+
+    override fun getSystemResourceKind(): SystemResourceKind =
+        LampSystemResourceKind.USER_GROUP
+
+    override fun getCreateTime(): OffsetDateTime = createTime
+
+    override fun getUpdateTime(): OffsetDateTime = updateTime
+
+    fun setUpdateTime(updateTime: OffsetDateTime) {
+        this.updateTime = updateTime
+    }
+
+    fun lock(): UserGroup = UserGroup(
+        id,
+        name,
+        description,
+        settings,
+        createTime,
+        updateTime,
+        deleted
+    )
+
+    companion object {
+        @JvmStatic
+        fun UserGroup.toEntity() = UserGroupEntity(
+            id = entityId,
+            name = name,
+            description = description ?: "",
+            settings = settings ?: emptyMap(),
+            createTime = createTime,
+            updateTime = updateTime,
+            deleted = isDeleted
+        )
+    }
+}
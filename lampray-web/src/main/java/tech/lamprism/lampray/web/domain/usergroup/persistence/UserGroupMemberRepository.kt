@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.usergroup.persistence
+
+import org.springframework.stereotype.Repository
+import tech.lamprism.lampray.common.data.CommonRepository
+
+/**
+ * @author RollW
+ */
+@Repository
+class UserGroupMemberRepository(
+    userGroupMemberDao: UserGroupMemberDao
+) : CommonRepository<UserGroupMemberEntity, Long>(userGroupMemberDao) {
+    override fun <S : UserGroupMemberEntity> save(entity: S): S {
+        return saveAndFlush(entity)
+    }
+
+    /**
+     * Finds ids of current members of the group.
+     */
+    fun findMemberIds(groupId: Long): List<Long> {
+        return findAll { root, _, cb ->
+            cb.and(
+                cb.equal(root.get(UserGroupMemberEntity_.groupId), groupId),
+                cb.isFalse(root.get(UserGroupMemberEntity_.deleted))
+            )
+        }.map { it.userId }
+    }
+
+    /**
+     * Finds the membership record including removed ones.
+     */
+    fun findMember(groupId: Long, userId: Long): UserGroupMemberEntity? {
+        return findOne { root, _, cb ->
+            cb.and(
+                cb.equal(root.get(UserGroupMemberEntity_.groupId), groupId),
+                cb.equal(root.get(UserGroupMemberEntity_.userId), userId)
+            )
+        }.orElse(null)
+    }
+
+    fun findGroupsOfUser(userId: Long): List<UserGroupMemberEntity> {
+        return findAll { root, _, cb ->
+            cb.and(
+                cb.equal(root.get(UserGroupMemberEntity_.userId), userId),
+                cb.isFalse(root.get(UserGroupMemberEntity_.deleted))
+            )
+        }
+    }
+}
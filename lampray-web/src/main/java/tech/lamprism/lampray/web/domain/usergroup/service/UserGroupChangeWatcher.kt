@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.usergroup.service
+
+import org.springframework.beans.factory.DisposableBean
+import org.springframework.beans.factory.annotation.Qualifier
+import org.springframework.scheduling.TaskScheduler
+import org.springframework.stereotype.Component
+import tech.lamprism.lampray.common.data.changelog.ChangeLogPoller
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupChangeEntity
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupChangeRepository
+import java.time.Duration
+
+/**
+ * Polls the change log of groups and drops the member ids of groups
+ * changed by other nodes.
+ *
+ * @author RollW
+ * @see ChangeLogPoller
+ */
+@Component
+class UserGroupChangeWatcher(
+    userGroupChangeRepository: UserGroupChangeRepository,
+    userGroupChangeLog: UserGroupChangeLog,
+    private val userGroupService: UserGroupServiceImpl,
+    @Qualifier("mainTaskScheduler") taskScheduler: TaskScheduler
+) : DisposableBean {
+    private val poller = ChangeLogPoller(
+        "user group", userGroupChangeRepository,
+        userGroupChangeLog.origin, ::applyChanges
+    )
+
+    init {
+        poller.start(taskScheduler, POLL_INTERVAL)
+    }
+
+    private fun applyChanges(changes: List<UserGroupChangeEntity>) {
+        changes.mapTo(HashSet()) { it.groupId }
+            .forEach(userGroupService::invalidateMemberIds)
+    }
+
+    override fun destroy() {
+        poller.stop()
+    }
+
+    companion object {
+        private val POLL_INTERVAL: Duration = Duration.ofSeconds(2)
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.usergroup.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.stereotype.Service;
+import tech.lamprism.lampray.LampException;
+import tech.lamprism.lampray.web.domain.usergroup.UserGroup;
+import tech.lamprism.lampray.web.domain.usergroup.UserGroupMember;
+import tech.lamprism.lampray.web.domain.usergroup.UserGroupService;
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupEntity;
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupMemberEntity;
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupMemberRepository;
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupRepository;
+import tech.rollw.common.web.DataErrorCode;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member ids of each group are loaded once and then kept up to
+ * date on membership changes, instead of querying per message.
+ * Changes made on other nodes drop the group through the
+ * {@link UserGroupChangeWatcher}, loaded groups are also reloaded
+ * after a while in case a change is missed.
+ *
+ * @author RollW
+ */
+@Service
+public class UserGroupServiceImpl implements UserGroupService {
+    private final UserGroupRepository userGroupRepository;
+    private final UserGroupMemberRepository userGroupMemberRepository;
+    private final UserGroupChangeLog userGroupChangeLog;
+
+    private final LoadingCache<Long, Set<Long>> memberIds;
+
+    public UserGroupServiceImpl(UserGroupRepository userGroupRepository,
+                                UserGroupMemberRepository userGroupMemberRepository,
+                                UserGroupChangeLog userGroupChangeLog) {
+        this.userGroupRepository = userGroupRepository;
+        this.userGroupMemberRepository = userGroupMemberRepository;
+        this.userGroupChangeLog = userGroupChangeLog;
+        this.memberIds = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(MEMBER_IDS_LIFETIME)
+                .build(this::loadMemberIds);
+    }
+
+    private static final Duration MEMBER_IDS_LIFETIME = Duration.ofMinutes(10);
+
+    private Set<Long> loadMemberIds(long groupId) {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        boolean active = userGroupRepository.findById(groupId)
+                .map(entity -> !entity.getDeleted())
+                .orElse(false);
+        // Deleted or missing groups have no members
+        if (active) {
+            ids.addAll(userGroupMemberRepository.findMemberIds(groupId));
+        }
+        return ids;
+    }
+
+    @Override
+    public UserGroup getUserGroup(long groupId) {
+        return userGroupRepository.findById(groupId)
+                .filter(entity -> !entity.getDeleted())
+                .map(UserGroupEntity::lock)
+                .orElseThrow(() -> new LampException(DataErrorCode.ERROR_DATA_NOT_EXIST));
+    }
+
+    @Override
+    public List<UserGroup> getUserGroupsOfUser(long userId) {
+        List<Long> groupIds = userGroupMemberRepository.findGroupsOfUser(userId)
+                .stream()
+                .map(UserGroupMemberEntity::getGroupId)
+                .toList();
+        return userGroupRepository.findAllById(groupIds)
+                .stream()
+                .filter(entity -> !entity.getDeleted())
+                .map(UserGroupEntity::lock)
+                .toList();
+    }
+
+    @Override
+    public Set<Long> getMemberIds(long groupId) {
+        return Collections.unmodifiableSet(memberIds.get(groupId));
+    }
+
+    @Override
+    public boolean isMember(long groupId, long userId) {
+        return memberIds.get(groupId).contains(userId);
+    }
+
+    @Override
+    public UserGroup createUserGroup(String name, String description) {
+        OffsetDateTime now = OffsetDateTime.now();
+        UserGroupEntity entity = new UserGroupEntity(
+                null, name, description == null ? "" : description,
+                Collections.emptyMap(), now, now, false
+        );
+        return userGroupRepository.save(entity).lock();
+    }
+
+    @Override
+    public void deleteUserGroup(long groupId) {
+        UserGroupEntity entity = userGroupRepository.findById(groupId)
+                .orElseThrow(() -> new LampException(DataErrorCode.ERROR_DATA_NOT_EXIST));
+        entity.setDeleted(true);
+        entity.setUpdateTime(OffsetDateTime.now());
+        userGroupRepository.save(entity);
+        memberIds.invalidate(groupId);
+        userGroupChangeLog.record(groupId);
+    }
+
+    @Override
+    public UserGroupMember addMember(long groupId, long userId) {
+        getUserGroup(groupId);
+        OffsetDateTime now = OffsetDateTime.now();
+        UserGroupMemberEntity member = userGroupMemberRepository.findMember(groupId, userId);
+        if (member == null) {
+            member = new UserGroupMemberEntity(null, groupId, userId, now, now, false);
+        } else if (!member.getDeleted()) {
+            return member.lock();
+        } else {
+            member.setDeleted(false);
+            member.setUpdateTime(now);
+        }
+        UserGroupMember saved = userGroupMemberRepository.save(member).lock();
+        // Only updates loaded groups, others will be loaded with it.
+        // Updates in place so the loaded time is kept.
+        Set<Long> ids = memberIds.getIfPresent(groupId);
+        if (ids != null) {
+            ids.add(userId);
+        }
+        userGroupChangeLog.record(groupId);
+        return saved;
+    }
+
+    @Override
+    public void removeMember(long groupId, long userId) {
+        UserGroupMemberEntity member = userGroupMemberRepository.findMember(groupId, userId);
+        if (member == null || member.getDeleted()) {
+            return;
+        }
+        member.setDeleted(true);
+        member.setUpdateTime(OffsetDateTime.now());
+        userGroupMemberRepository.save(member);
+        Set<Long> ids = memberIds.getIfPresent(groupId);
+        if (ids != null) {
+            ids.remove(userId);
+        }
+        userGroupChangeLog.record(groupId);
+    }
+
+    /**
+     * Drops the loaded member ids of the group, the next read loads
+     * them again.
+     */
+    void invalidateMemberIds(long groupId) {
+        memberIds.invalidate(groupId);
+    }
+}
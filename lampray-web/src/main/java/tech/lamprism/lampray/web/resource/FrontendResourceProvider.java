@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.resource;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import space.lingu.NonNull;
+import space.lingu.Nullable;
+import tech.lamprism.lampray.setting.ConfigReader;
+import tech.lamprism.lampray.web.ExternalEndpointProvider;
+import tech.lamprism.lampray.web.common.keys.ResourceConfigKeys;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Stream;
+
+/**
+ * Holds the index of the frontend bundle, either embedded or from the
+ * configured local path. The bundle is indexed at startup and again
+ * when the resource source changes. A local path is also checked in
+ * the background for changed files, by their paths, sizes and
+ * modification times, and re-indexed when any of them changed.
+ * <p>
+ * The generated {@code config.js} is rendered once per external
+ * endpoint instead of per request.
+ *
+ * @author RollW
+ */
+@Component
+public class FrontendResourceProvider implements ApplicationListener<ApplicationStartedEvent>, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(FrontendResourceProvider.class);
+
+    public static final String INDEX_HTML = "index.html";
+    public static final String CONFIG_JS = "config.js";
+
+    private static final String EMBEDDED_LOCATION = "classpath:/assets";
+
+    private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(5);
+
+    private static final String CONFIG_JS_TEMPLATE =
+            "window.config={server:{" +
+                    "host:\"{host}\"," +
+                    "httpProtocol:\"{httpProtocol}\"," +
+                    "wsProtocol:\"{wsProtocol}\"" +
+                    "}}";
+
+    private final ConfigReader configReader;
+    private final ExternalEndpointProvider externalEndpointProvider;
+    private final TaskScheduler taskScheduler;
+    private final ResourcePatternResolver resourcePatternResolver =
+            new PathMatchingResourcePatternResolver();
+
+    private volatile SourceIndex sourceIndex;
+    private volatile RenderedConfig renderedConfig;
+    private volatile ScheduledFuture<?> refreshTask;
+
+    public FrontendResourceProvider(ConfigReader configReader,
+                                    ExternalEndpointProvider externalEndpointProvider,
+                                    @Qualifier("mainTaskScheduler") TaskScheduler taskScheduler) {
+        this.configReader = configReader;
+        this.externalEndpointProvider = externalEndpointProvider;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @Override
+    public void onApplicationEvent(@NonNull ApplicationStartedEvent event) {
+        // This will not be null, because the spec has a default value
+        @SuppressWarnings("DataFlowIssue")
+        boolean enabled = configReader.get(ResourceConfigKeys.FRONTEND_ENABLED);
+        if (!enabled) {
+            return;
+        }
+        ResourceIndex index = getIndex();
+        logger.info("Indexed {} frontend resources.", index.size());
+        refreshTask = taskScheduler.scheduleWithFixedDelay(this::refreshSafely,
+                Instant.now().plus(REFRESH_INTERVAL), REFRESH_INTERVAL);
+    }
+
+    @Override
+    public void destroy() {
+        ScheduledFuture<?> task = refreshTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    @NonNull
+    public ResourceIndex getIndex() {
+        String source = configReader.get(ResourceConfigKeys.RESOURCE_SOURCE);
+        SourceIndex current = sourceIndex;
+        if (current != null && Objects.equals(current.source(), source)) {
+            return current.index();
+        }
+        synchronized (this) {
+            current = sourceIndex;
+            if (current != null && Objects.equals(current.source(), source)) {
+                return current.index();
+            }
+            current = index(source);
+            sourceIndex = current;
+            return current.index();
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.error("Failed to refresh frontend resources.", e);
+        }
+    }
+
+    private synchronized void refresh() {
+        SourceIndex current = sourceIndex;
+        if (current == null || current.stamp() == null) {
+            return;
+        }
+        if (current.stamp().equals(stamp(current.source()))) {
+            return;
+        }
+        SourceIndex refreshed = index(current.source());
+        sourceIndex = refreshed;
+        logger.info("Frontend resources changed, indexed {} resources.",
+                refreshed.index().size());
+    }
+
+    @Nullable
+    public IndexedResource getIndexHtml() {
+        return getIndex().get(INDEX_HTML);
+    }
+
+    @NonNull
+    public IndexedResource getConfigJs(HttpServletRequest request) {
+        String baseUrl = externalEndpointProvider.getExternalApiEndpoint();
+        RenderedConfig current = renderedConfig;
+        if (current != null && Objects.equals(current.baseUrl(), baseUrl)) {
+            return current.configJs();
+        }
+        HostAndPath hostAndPath = parseHostAndPath(baseUrl);
+        if (hostAndPath == null) {
+            // depends on the request, cannot be shared
+            return renderConfigJs(getRequestHostAndPath(request));
+        }
+        IndexedResource configJs = renderConfigJs(hostAndPath);
+        renderedConfig = new RenderedConfig(baseUrl, configJs);
+        return configJs;
+    }
+
+    private SourceIndex index(String source) {
+        // Stamped before scanning, a change during the scan is picked
+        // up by the next refresh
+        String stamp = stamp(source);
+        return new SourceIndex(source, scan(source), stamp);
+    }
+
+    /**
+     * Gets a hash of the paths, sizes and modification times of the
+     * files under a local source, or null for the embedded source,
+     * which cannot change.
+     */
+    @Nullable
+    private static String stamp(String source) {
+        if (Objects.equals(source, ResourceConfigKeys.EMBEDDED_RESOURCE)) {
+            return null;
+        }
+        Path root = Path.of(source);
+        if (!Files.isDirectory(root)) {
+            return "";
+        }
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted().forEach(path -> {
+                try {
+                    BasicFileAttributes attributes =
+                            Files.readAttributes(path, BasicFileAttributes.class);
+                    if (!attributes.isRegularFile()) {
+                        return;
+                    }
+                    hasher.putString(root.relativize(path).toString(), StandardCharsets.UTF_8)
+                            .putLong(attributes.size())
+                            .putLong(attributes.lastModifiedTime().toMillis());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list frontend resources: " + source, e);
+        }
+        return hasher.hash().toString();
+    }
+
+    private ResourceIndex scan(String source) {
+        String location = Objects.equals(source, ResourceConfigKeys.EMBEDDED_RESOURCE)
+                ? EMBEDDED_LOCATION
+                : StringUtils.removeEnd(new File(source).toURI().toString(), "/");
+        try {
+            return ResourceIndex.scan(resourcePatternResolver, location,
+                    ResourceIndex.DEFAULT_IN_MEMORY_THRESHOLD);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to index frontend resources: " + location, e);
+        }
+    }
+
+    private IndexedResource renderConfigJs(HostAndPath hostAndPath) {
+        String wsProtocol = "https".equals(hostAndPath.httpProtocol()) ? "wss" : "ws";
+        String configJs = CONFIG_JS_TEMPLATE
+                .replace("{host}", hostAndPath.host())
+                .replace("{httpProtocol}", hostAndPath.httpProtocol())
+                .replace("{wsProtocol}", wsProtocol);
+        return IndexedResource.of(CONFIG_JS, "text/javascript",
+                configJs.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nullable
+    private HostAndPath parseHostAndPath(String baseUrl) {
+        try {
+            URL url = new URL(baseUrl);
+            String host = url.getHost();
+            if (url.getPort() != -1 &&
+                    !((url.getPort() == 80 && "http".equals(url.getProtocol())) ||
+                            (url.getPort() == 443 && "https".equals(url.getProtocol())))) {
+                host = host + ":" + url.getPort();
+            }
+            return new HostAndPath(host, url.getProtocol());
+        } catch (MalformedURLException e) {
+            logger.warn("Failed to parse address '{}', using request fallback", baseUrl, e);
+            return null;
+        }
+    }
+
+    @NonNull
+    private HostAndPath getRequestHostAndPath(HttpServletRequest request) {
+        // Simple fallback
+        String host = request.getServerName();
+        int port = request.getServerPort();
+        if (port != 80 && port != 443) {
+            host = host + ":" + port;
+        }
+        return new HostAndPath(host, request.getScheme());
+    }
+
+    private record HostAndPath(String host, String httpProtocol) {
+    }
+
+    private record SourceIndex(String source, ResourceIndex index, @Nullable String stamp) {
+    }
+
+    private record RenderedConfig(String baseUrl, IndexedResource configJs) {
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.resource;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.springframework.core.io.Resource;
+import space.lingu.NonNull;
+import space.lingu.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A resource whose metadata was resolved once when indexed. Small
+ * resources keep their content in memory, larger ones are streamed
+ * from the underlying {@link Resource}.
+ *
+ * @author RollW
+ */
+public final class IndexedResource {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final String path;
+    private final String mimeType;
+    private final String hash;
+    private final Map<ResourceEncoding, Content> contents;
+
+    IndexedResource(String path, String mimeType, String hash,
+                    Map<ResourceEncoding, Content> contents) {
+        if (!contents.containsKey(ResourceEncoding.IDENTITY)) {
+            throw new IllegalArgumentException("Missing identity content of resource: " + path);
+        }
+        this.path = path;
+        this.mimeType = mimeType;
+        this.hash = hash;
+        this.contents = Collections.unmodifiableMap(new EnumMap<>(contents));
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Gets the hash of the identity content.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    public long getLength() {
+        return getContent(ResourceEncoding.IDENTITY).getLength();
+    }
+
+    @NonNull
+    public Content getContent(ResourceEncoding encoding) {
+        return contents.getOrDefault(encoding, contents.get(ResourceEncoding.IDENTITY));
+    }
+
+    public boolean hasEncodedVariants() {
+        return contents.size() > 1;
+    }
+
+    /**
+     * Selects the most preferred content the client accepts.
+     */
+    @NonNull
+    public Content selectContent(Set<ResourceEncoding> accepted) {
+        for (ResourceEncoding encoding : ResourceEncoding.values()) {
+            Content content = contents.get(encoding);
+            if (content != null && accepted.contains(encoding)) {
+                return content;
+            }
+        }
+        return contents.get(ResourceEncoding.IDENTITY);
+    }
+
+    /**
+     * Gets the strong entity tag of the given encoded content.
+     */
+    public String getETag(ResourceEncoding encoding) {
+        if (encoding == ResourceEncoding.IDENTITY) {
+            return "\"" + hash + "\"";
+        }
+        return "\"" + hash + "-" + encoding.getToken() + "\"";
+    }
+
+    /**
+     * Checks whether the entity tag refers to the given encoded content.
+     * Tags of other encodings do not match, as a cached representation
+     * in another encoding is not the one that would be sent.
+     */
+    public boolean matchesETag(String eTag, ResourceEncoding encoding) {
+        String opaque = eTag.trim();
+        if (opaque.startsWith("W/")) {
+            opaque = opaque.substring(2);
+        }
+        return getContent(encoding).getEncoding() == encoding &&
+                getETag(encoding).equals(opaque);
+    }
+
+    public static IndexedResource of(String path, String mimeType, byte[] content) {
+        return new IndexedResource(path, mimeType, hash(content),
+                Map.of(ResourceEncoding.IDENTITY, new Content(ResourceEncoding.IDENTITY, content)));
+    }
+
+    static String hash(byte[] content) {
+        return HASH_FUNCTION.hashBytes(content).toString();
+    }
+
+    static String hash(Resource resource) throws IOException {
+        Hasher hasher = HASH_FUNCTION.newHasher();
+        byte[] buffer = new byte[8192];
+        try (InputStream inputStream = resource.getInputStream()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                hasher.putBytes(buffer, 0, read);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Content of a resource in one encoding.
+     */
+    public static final class Content {
+        private final ResourceEncoding encoding;
+        private final long length;
+        @Nullable
+        private final byte[] bytes;
+        @Nullable
+        private final Resource resource;
+
+        Content(ResourceEncoding encoding, byte[] bytes) {
+            this.encoding = encoding;
+            this.length = bytes.length;
+            this.bytes = bytes;
+            this.resource = null;
+        }
+
+        Content(ResourceEncoding encoding, Resource resource, long length) {
+            this.encoding = encoding;
+            this.length = length;
+            this.bytes = null;
+            this.resource = resource;
+        }
+
+        public ResourceEncoding getEncoding() {
+            return encoding;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public boolean isInMemory() {
+            return bytes != null;
+        }
+
+        public void writeTo(OutputStream outputStream) throws IOException {
+            if (bytes != null) {
+                outputStream.write(bytes);
+                return;
+            }
+            try (InputStream inputStream = resource.getInputStream()) {
+                inputStream.transferTo(outputStream);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.resource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Writes {@link IndexedResource}s to servlet responses, choosing the
+ * encoding by {@code Accept-Encoding} and answering conditional requests.
+ *
+ * @author RollW
+ */
+public final class IndexedResourceResponses {
+
+    public static void write(IndexedResource resource,
+                             CacheControl cacheControl,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        Set<ResourceEncoding> accepted = ResourceEncoding.parseAccepted(
+                request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        IndexedResource.Content content = resource.selectContent(accepted);
+
+        response.setHeader(HttpHeaders.ETAG, resource.getETag(content.getEncoding()));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        if (resource.hasEncodedVariants()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (isNotModified(resource, content.getEncoding(), request)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(resource.getMimeType());
+        if (resource.getMimeType().startsWith("text/") ||
+                resource.getMimeType().equals("application/javascript")) {
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        if (content.getEncoding() != ResourceEncoding.IDENTITY) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, content.getEncoding().getToken());
+        }
+        response.setContentLengthLong(content.getLength());
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+        content.writeTo(response.getOutputStream());
+    }
+
+    private static boolean isNotModified(IndexedResource resource,
+                                         ResourceEncoding encoding,
+                                         HttpServletRequest request) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String eTag : StringUtils.split(ifNoneMatch, ',')) {
+            if (eTag.trim().equals("*") || resource.matchesETag(eTag, encoding)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private IndexedResourceResponses() {
+    }
+}
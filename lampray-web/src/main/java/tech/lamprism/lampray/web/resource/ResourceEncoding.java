@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.resource;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Content encodings of indexed resources, declared in order of
+ * preference when the client accepts several of them.
+ *
+ * @author RollW
+ */
+public enum ResourceEncoding {
+    BROTLI("br", ".br"),
+    ZSTD("zstd", ".zst"),
+    GZIP("gzip", ".gz"),
+    IDENTITY("identity", ""),
+    ;
+
+    private final String token;
+    private final String fileSuffix;
+
+    ResourceEncoding(String token, String fileSuffix) {
+        this.token = token;
+        this.fileSuffix = fileSuffix;
+    }
+
+    /**
+     * The token used in {@code Accept-Encoding} and {@code Content-Encoding}.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * The suffix of a pre-built file of this encoding, e.g. {@code app.js.gz}.
+     */
+    public String getFileSuffix() {
+        return fileSuffix;
+    }
+
+    public static ResourceEncoding fromFileName(String fileName) {
+        for (ResourceEncoding value : values()) {
+            if (value != IDENTITY && fileName.endsWith(value.fileSuffix)) {
+                return value;
+            }
+        }
+        return IDENTITY;
+    }
+
+    /**
+     * Parses the {@code Accept-Encoding} header. Identity is always accepted.
+     */
+    public static Set<ResourceEncoding> parseAccepted(String acceptEncoding) {
+        EnumSet<ResourceEncoding> accepted = EnumSet.of(IDENTITY);
+        if (StringUtils.isBlank(acceptEncoding)) {
+            return accepted;
+        }
+        for (String part : StringUtils.split(acceptEncoding, ',')) {
+            String[] params = StringUtils.split(part, ';');
+            if (params.length == 0) {
+                continue;
+            }
+            String token = params[0].trim();
+            if (isRejected(params)) {
+                continue;
+            }
+            if (token.equals("*")) {
+                return EnumSet.allOf(ResourceEncoding.class);
+            }
+            for (ResourceEncoding value : values()) {
+                if (value.token.equalsIgnoreCase(token)) {
+                    accepted.add(value);
+                }
+            }
+        }
+        return accepted;
+    }
+
+    private static boolean isRejected(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (!param.startsWith("q=")) {
+                continue;
+            }
+            try {
+                return Double.parseDouble(param.substring(2)) <= 0;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.resource;
+
+import com.github.luben.zstd.Zstd;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import space.lingu.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An immutable index of resources under a root location, built once by
+ * scanning the location. Works for exploded directories and for packed
+ * jars alike, since resources are resolved by URI rather than as files.
+ * <p>
+ * Pre-built encoded siblings ({@code app.js.gz}, {@code app.js.br},
+ * {@code app.js.zst}) are attached to their resource. For compressible
+ * resources held in memory, missing gzip and zstd variants are generated
+ * while indexing.
+ *
+ * @author RollW
+ */
+public final class ResourceIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ResourceIndex.class);
+
+    public static final long DEFAULT_IN_MEMORY_THRESHOLD = 256 * 1024;
+
+    private static final int ZSTD_LEVEL = 19;
+
+    private static final Set<String> COMPRESSIBLE_TYPES = Set.of(
+            "application/javascript",
+            "application/json",
+            "application/xml",
+            "application/wasm",
+            "image/svg+xml",
+            "image/x-icon"
+    );
+
+    private static final ResourceIndex EMPTY = new ResourceIndex(Map.of());
+
+    private final Map<String, IndexedResource> resources;
+
+    private ResourceIndex(Map<String, IndexedResource> resources) {
+        this.resources = Map.copyOf(resources);
+    }
+
+    @Nullable
+    public IndexedResource get(String path) {
+        return resources.get(path);
+    }
+
+    public int size() {
+        return resources.size();
+    }
+
+    public static ResourceIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Scans all resources under the location.
+     *
+     * @param resolver          resolver of the location
+     * @param location          the root location, e.g. {@code classpath:/assets}
+     *                          or {@code file:/var/lampray/frontend}
+     * @param inMemoryThreshold resources not larger than this are held in memory
+     */
+    public static ResourceIndex scan(ResourcePatternResolver resolver,
+                                     String location,
+                                     long inMemoryThreshold) throws IOException {
+        Resource root = resolver.getResource(location);
+        if (!root.exists()) {
+            return EMPTY;
+        }
+        String rootUri = StringUtils.appendIfMissing(root.getURI().toString(), "/");
+        Map<String, Resource> found = new HashMap<>();
+        for (Resource resource : resolver.getResources(location + "/**")) {
+            String relativePath = getRelativePath(rootUri, resource.getURI().toString());
+            if (relativePath == null || !resource.isReadable()) {
+                continue;
+            }
+            found.put(relativePath, resource);
+        }
+
+        Map<String, IndexedResource> resources = new HashMap<>();
+        for (Map.Entry<String, Resource> entry : found.entrySet()) {
+            String path = entry.getKey();
+            ResourceEncoding encoding = ResourceEncoding.fromFileName(path);
+            if (encoding != ResourceEncoding.IDENTITY &&
+                    found.containsKey(path.substring(0, path.length() - encoding.getFileSuffix().length()))) {
+                // attached to the original resource below
+                continue;
+            }
+            resources.put(path, index(path, entry.getValue(), found, inMemoryThreshold));
+        }
+        logger.debug("Indexed {} resources under '{}'.", resources.size(), location);
+        return new ResourceIndex(resources);
+    }
+
+    private static IndexedResource index(String path, Resource resource,
+                                         Map<String, Resource> found,
+                                         long inMemoryThreshold) throws IOException {
+        String mimeType = MediaTypeFactory.getMediaType(path)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+        long length = resource.contentLength();
+        Map<ResourceEncoding, IndexedResource.Content> contents = new EnumMap<>(ResourceEncoding.class);
+        String hash;
+        byte[] bytes = null;
+        if (length <= inMemoryThreshold) {
+            bytes = readBytes(resource);
+            hash = IndexedResource.hash(bytes);
+            contents.put(ResourceEncoding.IDENTITY,
+                    new IndexedResource.Content(ResourceEncoding.IDENTITY, bytes));
+        } else {
+            hash = IndexedResource.hash(resource);
+            contents.put(ResourceEncoding.IDENTITY,
+                    new IndexedResource.Content(ResourceEncoding.IDENTITY, resource, length));
+        }
+
+        for (ResourceEncoding encoding : ResourceEncoding.values()) {
+            if (encoding == ResourceEncoding.IDENTITY) {
+                continue;
+            }
+            Resource encoded = found.get(path + encoding.getFileSuffix());
+            if (encoded == null) {
+                continue;
+            }
+            long encodedLength = encoded.contentLength();
+            contents.put(encoding, encodedLength <= inMemoryThreshold
+                    ? new IndexedResource.Content(encoding, readBytes(encoded))
+                    : new IndexedResource.Content(encoding, encoded, encodedLength));
+        }
+        if (bytes != null && isCompressible(mimeType)) {
+            putIfSmaller(contents, ResourceEncoding.GZIP, bytes, gzip(bytes));
+            putIfSmaller(contents, ResourceEncoding.ZSTD, bytes, Zstd.compress(bytes, ZSTD_LEVEL));
+        }
+        return new IndexedResource(path, mimeType, hash, contents);
+    }
+
+    private static void putIfSmaller(Map<ResourceEncoding, IndexedResource.Content> contents,
+                                     ResourceEncoding encoding,
+                                     byte[] original, byte[] encoded) {
+        if (contents.containsKey(encoding) || encoded.length >= original.length) {
+            return;
+        }
+        contents.put(encoding, new IndexedResource.Content(encoding, encoded));
+    }
+
+    private static boolean isCompressible(String mimeType) {
+        return mimeType.startsWith("text/") || COMPRESSIBLE_TYPES.contains(mimeType);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] readBytes(Resource resource) throws IOException {
+        try (InputStream inputStream = resource.getInputStream()) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    @Nullable
+    private static String getRelativePath(String rootUri, String resourceUri) {
+        if (!resourceUri.startsWith(rootUri)) {
+            return null;
+        }
+        String relativePath = resourceUri.substring(rootUri.length());
+        if (relativePath.isEmpty() || relativePath.endsWith("/")) {
+            return null;
+        }
+        return URLDecoder.decode(relativePath, StandardCharsets.UTF_8);
+    }
+}
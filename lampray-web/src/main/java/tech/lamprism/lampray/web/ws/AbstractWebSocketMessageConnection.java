@@ -30,6 +30,7 @@ public abstract class AbstractWebSocketMessageConnection<M>
         implements WebSocketMessageConnection<M> {
     protected final Session session;
     protected final ApiContext apiContext;
+    protected final WebSocketSendQueue sendQueue;
 
     protected final AtomicLong lastHeartbeatTime = new AtomicLong();
     protected final AtomicLong timeout = new AtomicLong(DEFAULT_TIMEOUT);
@@ -37,6 +38,7 @@ public abstract class AbstractWebSocketMessageConnection<M>
     public AbstractWebSocketMessageConnection(Session session) {
         this.session = session;
         this.apiContext = initContext(session);
+        this.sendQueue = new WebSocketSendQueue(session);
     }
 
     @Override
@@ -104,6 +106,16 @@ public abstract class AbstractWebSocketMessageConnection<M>
         return session == null || !session.isOpen();
     }
 
+    @Override
+    public boolean sendText(String frame) {
+        return sendQueue.offer(frame);
+    }
+
+    @Override
+    public boolean sendPing() {
+        return sendQueue.ping();
+    }
+
     @Override
     public void close() {
         if (session == null) {
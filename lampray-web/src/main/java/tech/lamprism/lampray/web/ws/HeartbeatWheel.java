@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel of deadlines, one bucket per tick.
+ * <p>
+ * An entry is due in the tick its deadline falls in. Entries are
+ * never scheduled into a tick already advanced over, nor further than
+ * one round ahead, so a bucket only ever holds entries of one round.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author RollW
+ */
+final class HeartbeatWheel<T> {
+    private final long startTime;
+    private final long tickMillis;
+    private final ArrayDeque<T>[] buckets;
+
+    /**
+     * The next tick to advance over.
+     */
+    private long nextTick = 0;
+
+    @SuppressWarnings("unchecked")
+    HeartbeatWheel(long startTime, long tickMillis, int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Size must be a power of two.");
+        }
+        this.startTime = startTime;
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Schedules the entry to be due at the deadline. A deadline in
+     * the past is due in the next tick, one past a round is due at
+     * the end of the round.
+     */
+    void schedule(T entry, long deadline) {
+        long tick = Math.max(toTick(deadline), nextTick);
+        tick = Math.min(tick, nextTick + buckets.length - 1);
+        bucketOf(tick).addLast(entry);
+    }
+
+    /**
+     * Removes the entries due up to the time, tick by tick, and
+     * passes them to the consumer. The consumer may schedule them
+     * again, they are then due in a later tick.
+     */
+    void advance(long now, Consumer<T> consumer) {
+        long currentTick = toTick(now);
+        while (nextTick <= currentTick) {
+            ArrayDeque<T> bucket = bucketOf(nextTick);
+            nextTick++;
+            // Entries scheduled into this bucket meanwhile are of the
+            // next round, the count keeps them for then
+            for (int count = bucket.size(); count > 0; count--) {
+                consumer.accept(bucket.pollFirst());
+            }
+        }
+    }
+
+    long getNextTick() {
+        return nextTick;
+    }
+
+    long toTick(long time) {
+        return Math.max(0, (time - startTime) / tickMillis);
+    }
+
+    private ArrayDeque<T> bucketOf(long tick) {
+        return buckets[(int) (tick & (buckets.length - 1))];
+    }
+}
@@ -18,6 +18,7 @@ package tech.lamprism.lampray.web.ws;
 
 import jakarta.websocket.Session;
 import java.util.Collection;
+import java.util.Set;
 
 /**
  * @author RollW
@@ -25,6 +26,14 @@ import java.util.Collection;
 public interface UserWebSocketConnectionRegistry<T extends WebSocketMessageConnection<?>> {
     void registerConnection(T connection);
 
+    /**
+     * Unregisters the connection of the session, no matter
+     * which user holds it.
+     *
+     * @return the removed connection, or null if not registered
+     */
+    T unregisterConnection(Session session);
+
     void unregisterConnection(T connection);
 
     void unregisterConnection(long userId);
@@ -33,7 +42,19 @@ public interface UserWebSocketConnectionRegistry<T extends WebSocketMessageConne
 
     T getConnection(long userId, Session session);
 
+    T getConnection(Session session);
+
     Collection<T> getConnections(long userId);
 
     Collection<T> getConnections();
+
+    /**
+     * Gets ids of users holding at least one connection.
+     */
+    Set<Long> getUserIds();
+
+    /**
+     * Gets count of registered connections.
+     */
+    int size();
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import tech.lamprism.lampray.setting.ConfigReader;
+import tech.lamprism.lampray.web.common.keys.WebSocketConfigKeys;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Sends heartbeat pings to idle WebSocket connections and closes the
+ * ones that stay silent past the timeout.
+ * <p>
+ * Idle deadlines of all connections are kept in a single hashed timing
+ * wheel. A connection is only checked when its deadline bucket comes up,
+ * and is then rescheduled by its last activity, so a tick costs only the
+ * connections due in it rather than all registered connections.
+ * Activity itself is recorded by {@link WebSocketMessageConnection#onHeartbeat(long)}
+ * and never touches the wheel.
+ *
+ * @author RollW
+ */
+@Component
+public class WebSocketHeartbeatReaper implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketHeartbeatReaper.class);
+
+    private static final long TICK_MILLIS = 1000;
+    /**
+     * Covers the max supported timeout in one round, so that
+     * buckets never hold entries of later rounds.
+     */
+    private static final int WHEEL_SIZE = 1024;
+    private static final long MIN_INTERVAL = TICK_MILLIS;
+
+    private final ConfigReader configReader;
+    private final Executor pingExecutor;
+
+    // Only accessed by the tick task, whose runs never overlap
+    private final HeartbeatWheel<WebSocketMessageConnection<?>> wheel =
+            new HeartbeatWheel<>(System.currentTimeMillis(), TICK_MILLIS, WHEEL_SIZE);
+    private final Queue<WebSocketMessageConnection<?>> registrations = new ConcurrentLinkedQueue<>();
+    private final ScheduledFuture<?> tickTask;
+
+    public WebSocketHeartbeatReaper(ConfigReader configReader,
+                                    @Qualifier("mainScheduledExecutorService") Executor pingExecutor,
+                                    @Qualifier("mainTaskScheduler") TaskScheduler taskScheduler) {
+        this.configReader = configReader;
+        this.pingExecutor = pingExecutor;
+        Duration tick = Duration.ofMillis(TICK_MILLIS);
+        this.tickTask = taskScheduler.scheduleAtFixedRate(this::tickQuietly,
+                Instant.now().plus(tick), tick);
+    }
+
+    /**
+     * Starts tracking the connection. It is dropped automatically
+     * once closed.
+     */
+    public void register(WebSocketMessageConnection<?> connection) {
+        connection.onHeartbeat(System.currentTimeMillis());
+        registrations.add(connection);
+    }
+
+    private void tickQuietly() {
+        try {
+            tick(System.currentTimeMillis());
+        } catch (Exception e) {
+            logger.error("Error while checking WebSocket heartbeats.", e);
+        }
+    }
+
+    void tick(long now) {
+        long interval = getInterval();
+        long timeout = getTimeout(interval);
+
+        WebSocketMessageConnection<?> registered;
+        while ((registered = registrations.poll()) != null) {
+            wheel.schedule(registered, registered.getLastHeartbeatTime() + interval);
+        }
+        wheel.advance(now, connection -> check(connection, now, interval, timeout));
+    }
+
+    private void check(WebSocketMessageConnection<?> connection,
+                       long now, long interval, long timeout) {
+        if (connection.isClosed()) {
+            return;
+        }
+        connection.setTimeout(timeout);
+        long lastActive = connection.getLastHeartbeatTime();
+        if (connection.isTimeout(now)) {
+            close(connection);
+            return;
+        }
+        wheel.schedule(connection, nextCheck(lastActive, now, interval, timeout));
+        if (now - lastActive >= interval) {
+            ping(connection);
+        }
+    }
+
+    /**
+     * Gets when to check the connection next. An idle connection that
+     * was just pinged is checked again when the timeout has passed or
+     * another interval has, whichever comes first. Otherwise it is
+     * checked when it has been idle for an interval.
+     */
+    static long nextCheck(long lastActive, long now, long interval, long timeout) {
+        if (now - lastActive >= interval) {
+            return Math.min(lastActive + timeout, now + interval) + 1;
+        }
+        return lastActive + interval;
+    }
+
+    private void ping(WebSocketMessageConnection<?> connection) {
+        // The queue writes the ping in turn with the frames,
+        // off the tick thread as writing may block.
+        pingExecutor.execute(connection::sendPing);
+    }
+
+    private void close(WebSocketMessageConnection<?> connection) {
+        Session session = connection.getSession();
+        logger.debug("Session {} heartbeat timeout, closing.", session.getId());
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY,
+                    "Heartbeat timeout."));
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Failed to close session {}.", session.getId(), e);
+        }
+    }
+
+    long getInterval() {
+        Long interval = configReader.get(WebSocketConfigKeys.HEARTBEAT_INTERVAL);
+        return Math.max(MIN_INTERVAL, Objects.requireNonNullElse(interval,
+                WebSocketMessageConnection.DEFAULT_TIMEOUT / 2));
+    }
+
+    long getTimeout(long interval) {
+        Long timeout = configReader.get(WebSocketConfigKeys.HEARTBEAT_TIMEOUT);
+        long value = Objects.requireNonNullElse(timeout, WebSocketMessageConnection.DEFAULT_TIMEOUT);
+        // at least one ping must have the chance to be answered
+        return Math.max(value, interval + TICK_MILLIS);
+    }
+
+    @Override
+    public void destroy() {
+        tickTask.cancel(false);
+    }
+}
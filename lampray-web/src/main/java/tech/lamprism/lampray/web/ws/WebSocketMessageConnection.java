@@ -48,6 +48,21 @@ public interface WebSocketMessageConnection<M> {
 
     void close();
 
+    /**
+     * Sends an encoded text frame without blocking.
+     *
+     * @return false if the frame is dropped, e.g. the client
+     * is too slow to receive or the connection is closed
+     */
+    boolean sendText(String frame);
+
+    /**
+     * Sends a ping in turn with the text frames, without blocking.
+     *
+     * @return false if the connection is closed
+     */
+    boolean sendPing();
+
     void onHeartbeat(long timestamp);
 
     long getLastHeartbeatTime();
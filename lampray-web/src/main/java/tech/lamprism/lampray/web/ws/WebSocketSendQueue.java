@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Bounded queue of outbound text frames of a session.
+ * <p>
+ * Frames are written by the async remote one at a time, the next frame
+ * is written when the previous one completes, so callers never block on
+ * a slow client. When the queue is full new frames are dropped, and the
+ * session is closed once too many frames were dropped in a row.
+ * <p>
+ * Pings take the same turn, a ping requested while a frame is being
+ * written goes out right after it, ahead of the queued frames. Pings
+ * requested meanwhile are sent as one.
+ *
+ * @author RollW
+ */
+public class WebSocketSendQueue implements SendHandler {
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketSendQueue.class);
+
+    public static final int DEFAULT_CAPACITY = 256;
+    public static final int DEFAULT_MAX_DROPPED = 64;
+
+    private static final ByteBuffer PING_PAYLOAD = ByteBuffer.allocate(0);
+
+    private final Session session;
+    private final int capacity;
+    private final int maxDropped;
+
+    private final ArrayDeque<String> frames;
+    private boolean sending;
+    private boolean pingPending;
+    private boolean closed;
+    private int dropped;
+
+    public WebSocketSendQueue(Session session) {
+        this(session, DEFAULT_CAPACITY, DEFAULT_MAX_DROPPED);
+    }
+
+    public WebSocketSendQueue(Session session, int capacity, int maxDropped) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.session = session;
+        this.capacity = capacity;
+        this.maxDropped = maxDropped;
+        this.frames = new ArrayDeque<>(Math.min(capacity, 16));
+    }
+
+    /**
+     * Offers a frame to send.
+     *
+     * @return false if the frame is dropped
+     */
+    public boolean offer(String frame) {
+        boolean tooSlow = false;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (!sending) {
+                sending = true;
+            } else if (frames.size() < capacity) {
+                frames.addLast(frame);
+                return true;
+            } else if (++dropped <= maxDropped) {
+                return false;
+            } else {
+                markClosed();
+                tooSlow = true;
+            }
+        }
+        if (tooSlow) {
+            closeSlowConsumer();
+            return false;
+        }
+        write(frame);
+        return true;
+    }
+
+    /**
+     * Sends a ping once the frame being written completes.
+     *
+     * @return false if the queue is closed
+     */
+    public boolean ping() {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (sending) {
+                pingPending = true;
+                return true;
+            }
+            sending = true;
+        }
+        writePing();
+        return true;
+    }
+
+    /**
+     * Gets count of frames waiting to be sent.
+     */
+    public synchronized int size() {
+        return frames.size();
+    }
+
+    @Override
+    public void onResult(SendResult result) {
+        if (!result.isOK()) {
+            logger.debug("Failed to send frame to session {}, closing.",
+                    session.getId(), result.getException());
+            synchronized (this) {
+                markClosed();
+            }
+            closeQuietly(new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY,
+                    "Failed to send."));
+            return;
+        }
+        synchronized (this) {
+            dropped = 0;
+        }
+        writeNext();
+    }
+
+    private void writeNext() {
+        String next;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (pingPending) {
+                pingPending = false;
+                next = null;
+            } else {
+                next = frames.pollFirst();
+                if (next == null) {
+                    sending = false;
+                    return;
+                }
+            }
+        }
+        if (next == null) {
+            writePing();
+        } else {
+            write(next);
+        }
+    }
+
+    private void writePing() {
+        try {
+            session.getAsyncRemote().sendPing(PING_PAYLOAD.duplicate());
+        } catch (IOException | RuntimeException e) {
+            onResult(new SendResult(e));
+            return;
+        }
+        // A written ping says nothing about the client reading,
+        // dropped frames are not reset by it.
+        writeNext();
+    }
+
+    private void markClosed() {
+        closed = true;
+        pingPending = false;
+        frames.clear();
+    }
+
+    private void write(String frame) {
+        try {
+            session.getAsyncRemote().sendText(frame, this);
+        } catch (RuntimeException e) {
+            // session closed concurrently
+            onResult(new SendResult(e));
+        }
+    }
+
+    private void closeSlowConsumer() {
+        logger.info("Session {} could not keep up, dropped more than {} frames, closing.",
+                session.getId(), maxDropped);
+        closeQuietly(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER,
+                "Too slow to receive messages."));
+    }
+
+    private void closeQuietly(CloseReason closeReason) {
+        if (!session.isOpen()) {
+            return;
+        }
+        try {
+            session.close(closeReason);
+        } catch (IOException e) {
+            logger.debug("Failed to close session {}.", session.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bus for nodes living in the same JVM, batches are handed to the
+ * listener of the target node on the calling thread.
+ * <p>
+ * This is the default for a single node deployment, where no message
+ * ever leaves the node.
+ *
+ * @author RollW
+ */
+public class InProcessNodeMessageBus implements NodeMessageBus {
+    private static final Logger logger = LoggerFactory.getLogger(InProcessNodeMessageBus.class);
+
+    private final Map<String, NodeMessageListener> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void join(String nodeId, NodeMessageListener listener) {
+        if (listeners.putIfAbsent(nodeId, listener) != null) {
+            throw new IllegalStateException("Node already joined: " + nodeId);
+        }
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        listeners.remove(nodeId);
+    }
+
+    @Override
+    public Set<String> getNodes() {
+        return Set.copyOf(listeners.keySet());
+    }
+
+    @Override
+    public boolean send(String targetNode, List<NodeMessage> messages) {
+        NodeMessageListener listener = listeners.get(targetNode);
+        if (listener == null) {
+            return false;
+        }
+        try {
+            listener.onMessages(messages);
+        } catch (RuntimeException e) {
+            logger.error("Node '{}' failed to handle {} messages.", targetNode, messages.size(), e);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        listeners.clear();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws.cluster;
+
+import space.lingu.Nullable;
+
+/**
+ * A message exchanged between nodes through a {@link NodeMessageBus}.
+ *
+ * @param type       type of the message
+ * @param sourceNode id of the node sending the message
+ * @param userIds    users the message is about
+ * @param frame      the encoded frame for {@link Type#FRAME}, otherwise null
+ * @author RollW
+ */
+public record NodeMessage(Type type,
+                          String sourceNode,
+                          long[] userIds,
+                          @Nullable String frame) {
+    private static final long[] NO_USERS = new long[0];
+
+    public enum Type {
+        /**
+         * Delivers the frame to connections of the users on the target node.
+         */
+        FRAME,
+        /**
+         * The users now have connections on the source node.
+         */
+        ATTACH,
+        /**
+         * The users no longer have connections on the source node.
+         */
+        DETACH,
+        /**
+         * The source node has joined and asks for the users
+         * connected to the target node.
+         */
+        SYNC,
+        /**
+         * The source node is leaving, all its users are gone.
+         */
+        LEAVE,
+    }
+
+    public static NodeMessage frame(String sourceNode, long[] userIds, String frame) {
+        return new NodeMessage(Type.FRAME, sourceNode, userIds, frame);
+    }
+
+    public static NodeMessage attach(String sourceNode, long... userIds) {
+        return new NodeMessage(Type.ATTACH, sourceNode, userIds, null);
+    }
+
+    public static NodeMessage detach(String sourceNode, long... userIds) {
+        return new NodeMessage(Type.DETACH, sourceNode, userIds, null);
+    }
+
+    public static NodeMessage sync(String sourceNode) {
+        return new NodeMessage(Type.SYNC, sourceNode, NO_USERS, null);
+    }
+
+    public static NodeMessage leave(String sourceNode) {
+        return new NodeMessage(Type.LEAVE, sourceNode, NO_USERS, null);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws.cluster;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Transport of {@link NodeMessage}s between nodes of the web tier.
+ * <p>
+ * Batches sent from one node to another are delivered in the order
+ * they were sent.
+ *
+ * @author RollW
+ */
+public interface NodeMessageBus extends AutoCloseable {
+    /**
+     * Joins the bus, the listener receives batches sent to the node.
+     *
+     * @throws IllegalStateException if the node id is already taken
+     */
+    void join(String nodeId, NodeMessageListener listener);
+
+    void leave(String nodeId);
+
+    /**
+     * Gets ids of the nodes that joined the bus, including the caller.
+     */
+    Set<String> getNodes();
+
+    /**
+     * Sends a batch of messages to the target node.
+     *
+     * @return false if the target node is not reachable
+     */
+    boolean send(String targetNode, List<NodeMessage> messages);
+
+    @Override
+    void close();
+}
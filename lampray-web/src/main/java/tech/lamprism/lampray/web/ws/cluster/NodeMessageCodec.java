@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws.cluster;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format of batches exchanged by the socket based buses.
+ * <p>
+ * A batch is its size followed by the messages, a message is its type,
+ * source node, user ids and frame, where a missing frame has a length
+ * of -1. Batches are flushed as a whole.
+ *
+ * @author RollW
+ */
+final class NodeMessageCodec {
+    private static final NodeMessage.Type[] TYPES = NodeMessage.Type.values();
+
+    /**
+     * Upper bound of the counts read, so a corrupted stream fails fast
+     * instead of allocating huge arrays.
+     */
+    private static final int MAX_COUNT = 1 << 20;
+    private static final int MAX_FRAME_LENGTH = 64 << 20;
+
+    private NodeMessageCodec() {
+    }
+
+    static void writeNodeId(DataOutputStream output, String nodeId) throws IOException {
+        output.writeUTF(nodeId);
+        output.flush();
+    }
+
+    static String readNodeId(DataInputStream input) throws IOException {
+        return input.readUTF();
+    }
+
+    static void writeBatch(DataOutputStream output,
+                           List<NodeMessage> messages) throws IOException {
+        output.writeInt(messages.size());
+        for (NodeMessage message : messages) {
+            output.writeByte(message.type().ordinal());
+            output.writeUTF(message.sourceNode());
+            output.writeInt(message.userIds().length);
+            for (long userId : message.userIds()) {
+                output.writeLong(userId);
+            }
+            if (message.frame() == null) {
+                output.writeInt(-1);
+                continue;
+            }
+            // Frames may exceed the 64 KiB limit of writeUTF
+            byte[] frame = message.frame().getBytes(StandardCharsets.UTF_8);
+            output.writeInt(frame.length);
+            output.write(frame);
+        }
+        output.flush();
+    }
+
+    static List<NodeMessage> readBatch(DataInputStream input) throws IOException {
+        int size = readCount(input, MAX_COUNT);
+        List<NodeMessage> messages = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int type = input.readUnsignedByte();
+            if (type >= TYPES.length) {
+                throw new IOException("Unknown message type: " + type);
+            }
+            String sourceNode = input.readUTF();
+            long[] userIds = new long[readCount(input, MAX_COUNT)];
+            for (int j = 0; j < userIds.length; j++) {
+                userIds[j] = input.readLong();
+            }
+            int frameLength = input.readInt();
+            String frame = null;
+            if (frameLength >= 0) {
+                if (frameLength > MAX_FRAME_LENGTH) {
+                    throw new IOException("Frame too large: " + frameLength);
+                }
+                byte[] bytes = new byte[frameLength];
+                input.readFully(bytes);
+                frame = new String(bytes, StandardCharsets.UTF_8);
+            }
+            messages.add(new NodeMessage(TYPES[type], sourceNode, userIds, frame));
+        }
+        return messages;
+    }
+
+    private static int readCount(DataInputStream input, int max) throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > max) {
+            throw new IOException("Invalid count: " + count);
+        }
+        return count;
+    }
+}
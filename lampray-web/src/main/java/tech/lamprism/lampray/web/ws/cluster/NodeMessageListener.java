@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws.cluster;
+
+import java.util.List;
+
+/**
+ * @author RollW
+ */
+@FunctionalInterface
+public interface NodeMessageListener {
+    /**
+     * Called with a batch of messages in the order they were sent
+     * by one source node.
+     */
+    void onMessages(List<NodeMessage> messages);
+}
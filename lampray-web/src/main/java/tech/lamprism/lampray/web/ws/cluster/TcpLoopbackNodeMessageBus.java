@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bus passing batches through TCP sockets on the loopback address.
+ * <p>
+ * Every node joining listens on its own ephemeral port, and batches
+ * to a node are written to one persistent connection, so they go
+ * through the same encoding and socket path a remote transport would.
+ * Node addresses are only known to this bus instance, it stands in for
+ * the {@link TcpNodeMessageBus} when running several nodes in one JVM.
+ *
+ * @author RollW
+ */
+public class TcpLoopbackNodeMessageBus implements NodeMessageBus {
+    private static final Logger logger = LoggerFactory.getLogger(TcpLoopbackNodeMessageBus.class);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+
+    @Override
+    public void join(String nodeId, NodeMessageListener listener) {
+        ServerSocket serverSocket;
+        try {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to listen for node: " + nodeId, e);
+        }
+        Endpoint endpoint = new Endpoint(nodeId, serverSocket, listener);
+        if (endpoints.putIfAbsent(nodeId, endpoint) != null) {
+            closeQuietly(serverSocket);
+            throw new IllegalStateException("Node already joined: " + nodeId);
+        }
+        endpoint.start();
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        Endpoint endpoint = endpoints.remove(nodeId);
+        Peer peer = peers.remove(nodeId);
+        if (peer != null) {
+            peer.close();
+        }
+        if (endpoint != null) {
+            endpoint.close();
+        }
+    }
+
+    @Override
+    public Set<String> getNodes() {
+        return Set.copyOf(endpoints.keySet());
+    }
+
+    @Override
+    public boolean send(String targetNode, List<NodeMessage> messages) {
+        Endpoint endpoint = endpoints.get(targetNode);
+        if (endpoint == null) {
+            return false;
+        }
+        Peer peer;
+        try {
+            peer = peers.computeIfAbsent(targetNode, key -> connect(endpoint));
+        } catch (UncheckedIOException e) {
+            logger.warn("Failed to connect to node '{}'.", targetNode, e);
+            return false;
+        }
+        try {
+            peer.write(messages);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Failed to send {} messages to node '{}'.", messages.size(), targetNode, e);
+            peers.remove(targetNode, peer);
+            peer.close();
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        peers.values().forEach(Peer::close);
+        peers.clear();
+        endpoints.values().forEach(Endpoint::close);
+        endpoints.clear();
+    }
+
+    private static Peer connect(Endpoint endpoint) {
+        try {
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), endpoint.getPort());
+            socket.setTcpNoDelay(true);
+            return new Peer(socket);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * Outgoing connection to a node, writes are serialized so that
+     * batches are not interleaved.
+     */
+    private static final class Peer {
+        private final Socket socket;
+        private final DataOutputStream output;
+
+        Peer(Socket socket) throws IOException {
+            this.socket = socket;
+            this.output = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        synchronized void write(List<NodeMessage> messages) throws IOException {
+            NodeMessageCodec.writeBatch(output, messages);
+        }
+
+        void close() {
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Listening side of a node, each accepted connection is read by
+     * its own thread, which keeps the order of batches per sender.
+     */
+    private static final class Endpoint {
+        private final String nodeId;
+        private final ServerSocket serverSocket;
+        private final NodeMessageListener listener;
+        private final Set<Socket> accepted = ConcurrentHashMap.newKeySet();
+
+        Endpoint(String nodeId, ServerSocket serverSocket,
+                 NodeMessageListener listener) {
+            this.nodeId = nodeId;
+            this.serverSocket = serverSocket;
+            this.listener = listener;
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        void start() {
+            Thread thread = new Thread(this::accept, "node-bus-accept-" + nodeId);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    accepted.add(socket);
+                    Thread thread = new Thread(() -> read(socket), "node-bus-read-" + nodeId);
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    if (!serverSocket.isClosed()) {
+                        logger.warn("Node '{}' failed to accept a connection.", nodeId, e);
+                    }
+                }
+            }
+        }
+
+        private void read(Socket socket) {
+            try (DataInputStream input = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()))) {
+                while (true) {
+                    List<NodeMessage> messages = NodeMessageCodec.readBatch(input);
+                    try {
+                        listener.onMessages(messages);
+                    } catch (RuntimeException e) {
+                        logger.error("Node '{}' failed to handle {} messages.",
+                                nodeId, messages.size(), e);
+                    }
+                }
+            } catch (EOFException ignored) {
+                // peer closed the connection
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    logger.warn("Node '{}' failed to read from a connection.", nodeId, e);
+                }
+            } finally {
+                accepted.remove(socket);
+                closeQuietly(socket);
+            }
+        }
+
+        void close() {
+            closeQuietly(serverSocket);
+            accepted.forEach(TcpLoopbackNodeMessageBus::closeQuietly);
+            accepted.clear();
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bus connecting nodes in different processes through TCP.
+ * <p>
+ * Each node listens on its bind address and connects to the configured
+ * peers when joining, both sides then tell each other their node id.
+ * Peers that are down at that time connect back once they join, as
+ * long as every node lists the others, so no node needs to retry.
+ * One connection is used for both directions, all batches to a node are
+ * written to the same connection, which keeps them in order.
+ * <p>
+ * Only one node can join an instance of this bus.
+ *
+ * @author RollW
+ */
+public class TcpNodeMessageBus implements NodeMessageBus {
+    private static final Logger logger = LoggerFactory.getLogger(TcpNodeMessageBus.class);
+
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(3);
+
+    private final SocketAddress bindAddress;
+    private final List<? extends SocketAddress> peerAddresses;
+    private final Duration connectTimeout;
+
+    /**
+     * Connections used to send to each node.
+     */
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    /**
+     * All open connections, a node connecting to this node while this
+     * node connects to it leaves two connections to the same node.
+     */
+    private final Set<Connection> open = ConcurrentHashMap.newKeySet();
+
+    private volatile String nodeId;
+    private volatile NodeMessageListener listener;
+    private volatile ServerSocket serverSocket;
+
+    public TcpNodeMessageBus(SocketAddress bindAddress,
+                             List<? extends SocketAddress> peerAddresses) {
+        this(bindAddress, peerAddresses, DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    public TcpNodeMessageBus(SocketAddress bindAddress,
+                             List<? extends SocketAddress> peerAddresses,
+                             Duration connectTimeout) {
+        this.bindAddress = bindAddress;
+        this.peerAddresses = List.copyOf(peerAddresses);
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * Parses an address in the form of {@code host:port}.
+     *
+     * @throws IllegalArgumentException if the address is malformed
+     */
+    public static InetSocketAddress parseAddress(String address) {
+        int index = address.lastIndexOf(':');
+        if (index <= 0 || index == address.length() - 1) {
+            throw new IllegalArgumentException("Address must be in form of host:port, got: " + address);
+        }
+        String host = address.substring(0, index).trim();
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        try {
+            return new InetSocketAddress(host, Integer.parseInt(address.substring(index + 1).trim()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid address: " + address, e);
+        }
+    }
+
+    @Override
+    public synchronized void join(String nodeId, NodeMessageListener listener) {
+        if (this.nodeId != null) {
+            throw new IllegalStateException("Node already joined: " + this.nodeId);
+        }
+        ServerSocket serverSocket;
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.bind(bindAddress);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to listen on " + bindAddress, e);
+        }
+        this.nodeId = nodeId;
+        this.listener = listener;
+        this.serverSocket = serverSocket;
+        startThread(this::accept, "node-bus-accept");
+        for (SocketAddress peerAddress : peerAddresses) {
+            connect(peerAddress);
+        }
+    }
+
+    /**
+     * Gets the address this node listens on, or null if no node joined.
+     */
+    public SocketAddress getLocalAddress() {
+        ServerSocket serverSocket = this.serverSocket;
+        return serverSocket == null ? null : serverSocket.getLocalSocketAddress();
+    }
+
+    @Override
+    public synchronized void leave(String nodeId) {
+        if (!nodeId.equals(this.nodeId)) {
+            return;
+        }
+        this.nodeId = null;
+        closeQuietly(serverSocket);
+        serverSocket = null;
+        new HashSet<>(open).forEach(Connection::close);
+        connections.clear();
+    }
+
+    @Override
+    public Set<String> getNodes() {
+        String nodeId = this.nodeId;
+        Set<String> nodes = new HashSet<>(connections.keySet());
+        if (nodeId != null) {
+            nodes.add(nodeId);
+        }
+        return Set.copyOf(nodes);
+    }
+
+    @Override
+    public boolean send(String targetNode, List<NodeMessage> messages) {
+        Connection connection = connections.get(targetNode);
+        if (connection == null) {
+            return false;
+        }
+        try {
+            connection.write(messages);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Failed to send {} messages to node '{}'.", messages.size(), targetNode, e);
+            connection.close();
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        String nodeId = this.nodeId;
+        if (nodeId != null) {
+            leave(nodeId);
+        }
+    }
+
+    private void connect(SocketAddress peerAddress) {
+        Socket socket = new Socket();
+        try {
+            socket.connect(peerAddress, (int) connectTimeout.toMillis());
+            // The joining node tells its id first
+            open(socket, true);
+        } catch (IOException e) {
+            // The peer connects to this node when it joins
+            logger.info("Node at {} is not reachable: {}", peerAddress, e.getMessage());
+            closeQuietly(socket);
+        }
+    }
+
+    private void accept() {
+        ServerSocket serverSocket = this.serverSocket;
+        while (serverSocket != null && !serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                startThread(() -> acceptConnection(socket), "node-bus-handshake");
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.warn("Failed to accept a node connection.", e);
+                }
+            }
+        }
+    }
+
+    private void acceptConnection(Socket socket) {
+        try {
+            open(socket, false);
+        } catch (IOException e) {
+            logger.warn("Failed to accept a connection from {}.", socket.getRemoteSocketAddress(), e);
+            closeQuietly(socket);
+        }
+    }
+
+    private void open(Socket socket, boolean initiator) throws IOException {
+        String localNode = this.nodeId;
+        if (localNode == null) {
+            throw new IOException("Node has left");
+        }
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout((int) connectTimeout.toMillis());
+        DataInputStream input = new DataInputStream(
+                new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(socket.getOutputStream()));
+        String remoteNode;
+        if (initiator) {
+            NodeMessageCodec.writeNodeId(output, localNode);
+            remoteNode = NodeMessageCodec.readNodeId(input);
+        } else {
+            remoteNode = NodeMessageCodec.readNodeId(input);
+            NodeMessageCodec.writeNodeId(output, localNode);
+        }
+        if (remoteNode.equals(localNode)) {
+            throw new IOException("Connected to itself: " + localNode);
+        }
+        socket.setSoTimeout(0);
+        Connection connection = new Connection(remoteNode, socket, input, output);
+        open.add(connection);
+        // The newest connection wins, the old one may be half-open
+        // if the node restarted
+        connections.put(remoteNode, connection);
+        if (this.nodeId == null) {
+            // left while connecting
+            connection.close();
+            return;
+        }
+        logger.debug("Node '{}' connected to node '{}'.", localNode, remoteNode);
+        startThread(connection::read, "node-bus-read-" + remoteNode);
+    }
+
+    private void onClosed(Connection connection) {
+        open.remove(connection);
+        if (!connections.remove(connection.node, connection)) {
+            return;
+        }
+        // Keeps sending through another connection to the node, if any
+        for (Connection other : open) {
+            if (other.node.equals(connection.node)) {
+                connections.putIfAbsent(other.node, other);
+                return;
+            }
+        }
+    }
+
+    private static void startThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * Connection to another node, writes are serialized so that
+     * batches are not interleaved, reads happen on its own thread,
+     * which keeps the order of batches from the node.
+     */
+    private final class Connection {
+        private final String node;
+        private final Socket socket;
+        private final DataInputStream input;
+        private final DataOutputStream output;
+
+        Connection(String node, Socket socket,
+                   DataInputStream input, DataOutputStream output) {
+            this.node = node;
+            this.socket = socket;
+            this.input = input;
+            this.output = output;
+        }
+
+        synchronized void write(List<NodeMessage> messages) throws IOException {
+            NodeMessageCodec.writeBatch(output, messages);
+        }
+
+        void read() {
+            try {
+                while (true) {
+                    List<NodeMessage> messages = NodeMessageCodec.readBatch(input);
+                    try {
+                        listener.onMessages(messages);
+                    } catch (RuntimeException e) {
+                        logger.error("Failed to handle {} messages from node '{}'.",
+                                messages.size(), node, e);
+                    }
+                }
+            } catch (EOFException ignored) {
+                // the node closed the connection
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    logger.warn("Failed to read from node '{}'.", node, e);
+                }
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            closeQuietly(socket);
+            onClosed(this);
+        }
+    }
+}
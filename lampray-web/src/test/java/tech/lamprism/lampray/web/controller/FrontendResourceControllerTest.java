@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.TaskScheduler;
+import tech.lamprism.lampray.LampException;
+import tech.lamprism.lampray.setting.ConfigReader;
+import tech.lamprism.lampray.web.ExternalEndpointProvider;
+import tech.lamprism.lampray.web.common.keys.ResourceConfigKeys;
+import tech.lamprism.lampray.web.resource.FrontendResourceProvider;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class FrontendResourceControllerTest {
+    private static final String INDEX_HTML = "<html>lampray</html>";
+    private static final String APP_JS = "console.log('lampray');\n".repeat(50);
+
+    @TempDir
+    Path root;
+
+    private final ConfigReader configReader = mock(ConfigReader.class);
+    private final ExternalEndpointProvider externalEndpointProvider = mock(ExternalEndpointProvider.class);
+    private final FrontendResourceController controller = new FrontendResourceController(configReader,
+            new FrontendResourceProvider(configReader, externalEndpointProvider, mock(TaskScheduler.class)));
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(root.resolve("index.html"), INDEX_HTML);
+        Files.createDirectory(root.resolve("assets"));
+        Files.writeString(root.resolve("assets/app-AbCd1234.js"), APP_JS);
+        Files.writeString(root.resolve("robots.txt"), "User-agent: *");
+        when(configReader.get(ResourceConfigKeys.FRONTEND_ENABLED)).thenReturn(true);
+        when(configReader.get(ResourceConfigKeys.RESOURCE_SOURCE)).thenReturn(root.toString());
+        when(externalEndpointProvider.getExternalApiEndpoint()).thenReturn("https://lampray.example");
+    }
+
+    @Test
+    void disabledFrontendIsNotFound() {
+        when(configReader.get(ResourceConfigKeys.FRONTEND_ENABLED)).thenReturn(false);
+
+        assertThrows(LampException.class, () -> get("/index.html", null, null));
+    }
+
+    @Test
+    void fingerprintedAssetIsCachedAsImmutable() throws IOException {
+        MockHttpServletResponse response = get("/assets/app-AbCd1234.js", null, null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(APP_JS, response.getContentAsString(StandardCharsets.UTF_8));
+        assertTrue(response.getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable"));
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void otherAssetIsCachedForALimitedTime() throws IOException {
+        MockHttpServletResponse response = get("/robots.txt", null, null);
+
+        assertEquals("User-agent: *", response.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals("max-age=2592000", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void routesAndMissingAssetsServeIndexHtml() throws IOException {
+        for (String path : new String[]{"/", "/articles/1", "/assets/missing.js"}) {
+            MockHttpServletResponse response = get(path, null, null);
+
+            assertEquals(200, response.getStatus());
+            assertEquals(INDEX_HTML, response.getContentAsString(StandardCharsets.UTF_8));
+            assertEquals("no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        }
+    }
+
+    @Test
+    void acceptedEncodingIsServedWithItsOwnETag() throws IOException {
+        MockHttpServletResponse identity = get("/assets/app-AbCd1234.js", null, null);
+        MockHttpServletResponse gzip = get("/assets/app-AbCd1234.js", "gzip", null);
+
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, gzip.getHeader(HttpHeaders.VARY));
+        assertNotEquals(identity.getHeader(HttpHeaders.ETAG), gzip.getHeader(HttpHeaders.ETAG));
+        try (GZIPInputStream inputStream = new GZIPInputStream(
+                new ByteArrayInputStream(gzip.getContentAsByteArray()))) {
+            assertArrayEquals(APP_JS.getBytes(StandardCharsets.UTF_8), inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    void matchingETagOfTheSelectedEncodingIsNotModified() throws IOException {
+        String eTag = get("/assets/app-AbCd1234.js", "gzip", null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = get("/assets/app-AbCd1234.js", "gzip", "W/" + eTag);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void eTagOfAnotherEncodingIsModified() throws IOException {
+        String gzipETag = get("/assets/app-AbCd1234.js", "gzip", null).getHeader(HttpHeaders.ETAG);
+
+        // A cache holding the gzip variant must not get a 304 for identity
+        MockHttpServletResponse response = get("/assets/app-AbCd1234.js", null, "\"other\", " + gzipETag);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(APP_JS, response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void configJsIsRenderedForTheExternalEndpoint() throws IOException {
+        MockHttpServletResponse response = get("/config.js", null, null);
+
+        assertEquals("no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertTrue(response.getContentAsString(StandardCharsets.UTF_8)
+                .contains("host:\"lampray.example\""));
+    }
+
+    private MockHttpServletResponse get(String path, String acceptEncoding,
+                                        String ifNoneMatch) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.servingResource(request, response, path);
+        return response;
+    }
+}
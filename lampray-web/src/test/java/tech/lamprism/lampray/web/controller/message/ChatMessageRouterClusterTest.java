@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.controller.message;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import tech.lamprism.lampray.setting.ConfigReader;
+import tech.lamprism.lampray.user.AttributedUser;
+import tech.lamprism.lampray.web.common.ApiContext;
+import tech.lamprism.lampray.web.common.keys.WebSocketConfigKeys;
+import tech.lamprism.lampray.web.ws.cluster.InProcessNodeMessageBus;
+import tech.lamprism.lampray.web.ws.cluster.NodeMessageBus;
+import tech.lamprism.lampray.web.ws.cluster.TcpLoopbackNodeMessageBus;
+import tech.lamprism.lampray.web.ws.cluster.TcpNodeMessageBus;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routes frames between two nodes, each with its own router and
+ * connections, over every bus.
+ *
+ * @author RollW
+ */
+class ChatMessageRouterClusterTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private ThreadPoolTaskScheduler taskScheduler;
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    enum Transport {
+        IN_PROCESS,
+        TCP_LOOPBACK,
+        TCP
+    }
+
+    @BeforeEach
+    void setUp() {
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (int i = closeables.size() - 1; i >= 0; i--) {
+            closeables.get(i).close();
+        }
+        taskScheduler.shutdown();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Transport.class)
+    void framesReachUsersOnEitherNode(Transport transport) {
+        Node[] nodes = start(transport);
+        Node first = nodes[0], second = nodes[1];
+        Queue<String> onFirst = first.connect(1);
+        Queue<String> onSecond = second.connect(2);
+        await(() -> first.router.getRemoteNodes(2).equals(Set.of("second"))
+                && second.router.getRemoteNodes(1).equals(Set.of("first")));
+
+        first.router.deliver(List.of(1L, 2L), "hello");
+        second.router.deliverToGroup(Set.of(1L, 2L, 3L), "group");
+
+        await(() -> onFirst.size() == 2 && onSecond.size() == 2);
+        assertEquals(Set.of("hello", "group"), Set.copyOf(onFirst));
+        assertEquals(Set.of("hello", "group"), Set.copyOf(onSecond));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Transport.class)
+    void framesToTheOtherNodeKeepTheirOrder(Transport transport) {
+        Node[] nodes = start(transport);
+        Queue<String> received = nodes[1].connect(2);
+        await(() -> !nodes[0].router.getRemoteNodes(2).isEmpty());
+
+        List<String> sent = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String frame = "frame-" + i;
+            sent.add(frame);
+            nodes[0].router.deliver(List.of(2L), frame);
+        }
+
+        await(() -> received.size() == sent.size());
+        assertEquals(sent, List.copyOf(received));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Transport.class)
+    void usersConnectedBeforeTheOtherNodeJoinedAreSynced(Transport transport) {
+        Node[] nodes = start(transport);
+        Node second = nodes[1];
+        second.connect(2);
+        await(() -> !nodes[0].router.getRemoteNodes(2).isEmpty());
+
+        Node third = transport == Transport.TCP
+                ? startNode("third", tcpBus(nodes[0].address, second.address))
+                : startNode("third", nodes[0].bus);
+
+        await(() -> third.router.getRemoteNodes(2).equals(Set.of("second")));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Transport.class)
+    void leavingNodeTakesItsUsers(Transport transport) {
+        Node[] nodes = start(transport);
+        Node first = nodes[0], second = nodes[1];
+        second.connect(2);
+        await(() -> !first.router.getRemoteNodes(2).isEmpty());
+
+        second.router.destroy();
+
+        await(() -> first.router.getRemoteNodes(2).isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Transport.class)
+    void disconnectedUserIsDetached(Transport transport) {
+        Node[] nodes = start(transport);
+        Node first = nodes[0], second = nodes[1];
+        Queue<String> received = second.connect(2);
+        await(() -> !first.router.getRemoteNodes(2).isEmpty());
+
+        second.disconnect(2);
+
+        await(() -> first.router.getRemoteNodes(2).isEmpty());
+        first.router.deliver(List.of(2L), "lost");
+        assertTrue(received.isEmpty());
+    }
+
+    private Node[] start(Transport transport) {
+        return switch (transport) {
+            case IN_PROCESS -> {
+                NodeMessageBus bus = closeable(new InProcessNodeMessageBus());
+                yield new Node[]{startNode("first", bus), startNode("second", bus)};
+            }
+            case TCP_LOOPBACK -> {
+                NodeMessageBus bus = closeable(new TcpLoopbackNodeMessageBus());
+                yield new Node[]{startNode("first", bus), startNode("second", bus)};
+            }
+            case TCP -> {
+                Node first = startNode("first", tcpBus());
+                yield new Node[]{first, startNode("second", tcpBus(first.address))};
+            }
+        };
+    }
+
+    private TcpNodeMessageBus tcpBus(SocketAddress... peers) {
+        return closeable(new TcpNodeMessageBus(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                List.of(peers), Duration.ofSeconds(1)));
+    }
+
+    private Node startNode(String nodeId, NodeMessageBus bus) {
+        ConfigReader configReader = mock(ConfigReader.class);
+        when(configReader.get(WebSocketConfigKeys.CLUSTER_NODE_ID)).thenReturn(nodeId);
+        MessageConnectionRegistry registry = new MessageConnectionRegistry();
+        ChatMessageRouter router = new ChatMessageRouter(registry, bus, configReader, taskScheduler);
+        closeables.add(router::destroy);
+        SocketAddress address = bus instanceof TcpNodeMessageBus tcp ? tcp.getLocalAddress() : null;
+        return new Node(bus, registry, router, address);
+    }
+
+    private <T extends AutoCloseable> T closeable(T closeable) {
+        closeables.add(closeable);
+        return closeable;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for the condition");
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private record Node(NodeMessageBus bus,
+                        MessageConnectionRegistry registry,
+                        ChatMessageRouter router,
+                        SocketAddress address) {
+        Queue<String> connect(long userId) {
+            Queue<String> frames = new ConcurrentLinkedQueue<>();
+            Session session = mock(Session.class);
+            RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+            doAnswer(invocation -> {
+                frames.add(invocation.getArgument(0));
+                invocation.<SendHandler>getArgument(1).onResult(new SendResult());
+                return null;
+            }).when(remote).sendText(anyString(), any(SendHandler.class));
+            when(session.getId()).thenReturn(router.getNodeId() + "-" + userId);
+            when(session.isOpen()).thenReturn(true);
+            when(session.getAsyncRemote()).thenReturn(remote);
+            Map<String, Object> properties = Map.of(ApiContext.class.getName(), context(userId));
+            when(session.getUserProperties()).thenReturn(properties);
+
+            registry.registerConnection(new MessageChatConnection(session, registry));
+            router.onConnectionChanged(userId);
+            return frames;
+        }
+
+        void disconnect(long userId) {
+            registry.unregisterConnection(userId);
+            router.onConnectionChanged(userId);
+        }
+
+        private static ApiContext context(long userId) {
+            AttributedUser user = mock(AttributedUser.class);
+            when(user.getUserId()).thenReturn(userId);
+            return new ApiContext("127.0.0.1", Locale.ROOT, null, user, null, null);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.controller.message;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+import tech.lamprism.lampray.setting.ConfigReader;
+import tech.lamprism.lampray.user.AttributedUser;
+import tech.lamprism.lampray.web.common.ApiContext;
+import tech.lamprism.lampray.web.ws.WebSocketSendQueue;
+import tech.lamprism.lampray.web.ws.cluster.InProcessNodeMessageBus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Broadcasts from many threads to many sessions through the router
+ * and the send queues of real connections.
+ *
+ * @author RollW
+ */
+class ChatMessageRouterLoadTest {
+    private static final int USERS = 100;
+    private static final int SESSIONS_PER_USER = 2;
+    private static final int SENDERS = 8;
+    private static final int FRAMES_PER_SENDER = 50;
+
+    private MessageConnectionRegistry registry;
+    private InProcessNodeMessageBus bus;
+    private ChatMessageRouter router;
+    private Map<MessageChatConnection, Queue<String>> received;
+    private Map<Session, CloseReason> closed;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MessageConnectionRegistry();
+        bus = new InProcessNodeMessageBus();
+        router = new ChatMessageRouter(registry, bus,
+                mock(ConfigReader.class), mock(TaskScheduler.class));
+        received = new HashMap<>();
+        closed = new ConcurrentHashMap<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.destroy();
+        bus.close();
+    }
+
+    @Test
+    void broadcastReachesEverySessionWithTheSameFrame() throws Exception {
+        Set<Long> members = new HashSet<>();
+        for (long userId = 0; userId < USERS; userId++) {
+            members.add(userId);
+            for (int i = 0; i < SESSIONS_PER_USER; i++) {
+                connect(userId, userId + "-" + i, true);
+            }
+        }
+
+        List<List<String>> sent = broadcastConcurrently(members);
+
+        assertEquals(USERS * SESSIONS_PER_USER, received.size());
+        assertTrue(closed.isEmpty());
+        received.values().forEach(frames -> assertReceivedAll(sent, frames));
+    }
+
+    @Test
+    void groupBroadcastSkipsNonMembers() throws Exception {
+        Set<Long> members = new HashSet<>();
+        List<MessageChatConnection> outsiders = new ArrayList<>();
+        for (long userId = 0; userId < USERS; userId++) {
+            MessageChatConnection connection = connect(userId, String.valueOf(userId), true);
+            if (userId % 2 == 0) {
+                members.add(userId);
+            } else {
+                outsiders.add(connection);
+            }
+        }
+        // members beyond the online users make the router walk the online users
+        for (long userId = USERS; userId < USERS * 4; userId++) {
+            members.add(userId);
+        }
+
+        List<List<String>> sent = broadcastConcurrently(members);
+
+        assertTrue(closed.isEmpty());
+        received.forEach((connection, frames) -> {
+            if (outsiders.contains(connection)) {
+                assertTrue(frames.isEmpty());
+            } else {
+                assertReceivedAll(sent, frames);
+            }
+        });
+    }
+
+    @Test
+    void slowSessionIsClosedWithoutHoldingBackOthers() throws Exception {
+        Set<Long> members = new HashSet<>();
+        for (long userId = 0; userId < USERS; userId++) {
+            members.add(userId);
+            connect(userId, String.valueOf(userId), true);
+        }
+        // never completes a write, so it gets more frames than it can
+        // queue and drop
+        MessageChatConnection slow = connect(USERS, "slow", false);
+        assertTrue(SENDERS * FRAMES_PER_SENDER > 1 + WebSocketSendQueue.DEFAULT_CAPACITY
+                + WebSocketSendQueue.DEFAULT_MAX_DROPPED);
+        members.add((long) USERS);
+
+        List<List<String>> sent = broadcastConcurrently(members);
+
+        assertEquals(Set.of(slow.getSession()), closed.keySet());
+        assertEquals(CloseReason.CloseCodes.TRY_AGAIN_LATER,
+                closed.get(slow.getSession()).getCloseCode());
+        // only the first frame was ever written, the rest waited behind it
+        assertEquals(1, received.get(slow).size());
+
+        received.forEach((connection, frames) -> {
+            if (connection != slow) {
+                assertReceivedAll(sent, frames);
+            }
+        });
+    }
+
+    /**
+     * Each sender broadcasts its own frames, every frame is a distinct
+     * instance, standing for a message encoded once by the sender.
+     */
+    private List<List<String>> broadcastConcurrently(Set<Long> members) throws Exception {
+        List<List<String>> sent = new ArrayList<>(SENDERS);
+        for (int sender = 0; sender < SENDERS; sender++) {
+            List<String> frames = new ArrayList<>(FRAMES_PER_SENDER);
+            for (int i = 0; i < FRAMES_PER_SENDER; i++) {
+                frames.add(new StringBuilder().append(sender).append(':').append(i).toString());
+            }
+            sent.add(frames);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(SENDERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>(SENDERS);
+            for (List<String> frames : sent) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    frames.forEach(frame -> router.deliverToGroup(members, frame));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return sent;
+    }
+
+    /**
+     * Checks the session got every frame of every sender, in the order
+     * of the sender, as the very instance the sender passed in.
+     */
+    private static void assertReceivedAll(List<List<String>> sent, Queue<String> frames) {
+        assertEquals(SENDERS * FRAMES_PER_SENDER, frames.size());
+        int[] next = new int[SENDERS];
+        for (String frame : frames) {
+            int sender = frame.charAt(0) - '0';
+            assertSame(sent.get(sender).get(next[sender]++), frame);
+        }
+    }
+
+    private MessageChatConnection connect(long userId, String sessionId,
+                                          boolean completes) throws IOException {
+        Queue<String> frames = new ConcurrentLinkedQueue<>();
+        Session session = mock(Session.class, withSettings().stubOnly());
+        RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class, withSettings().stubOnly());
+        doAnswer(invocation -> {
+            frames.add(invocation.getArgument(0));
+            if (completes) {
+                invocation.<SendHandler>getArgument(1).onResult(new SendResult());
+            }
+            return null;
+        }).when(remote).sendText(anyString(), any(SendHandler.class));
+        doAnswer(invocation -> {
+            closed.put(session, invocation.getArgument(0));
+            return null;
+        }).when(session).close(any(CloseReason.class));
+        when(session.getId()).thenReturn(sessionId);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAsyncRemote()).thenReturn(remote);
+        Map<String, Object> properties = Map.of(ApiContext.class.getName(), context(userId));
+        when(session.getUserProperties()).thenReturn(properties);
+
+        MessageChatConnection connection = new MessageChatConnection(session, registry);
+        registry.registerConnection(connection);
+        received.put(connection, frames);
+        return connection;
+    }
+
+    private static ApiContext context(long userId) {
+        AttributedUser user = mock(AttributedUser.class, withSettings().stubOnly());
+        when(user.getUserId()).thenReturn(userId);
+        return new ApiContext("127.0.0.1", Locale.ROOT, null, user, null, null);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.controller.message;
+
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.Test;
+import tech.lamprism.lampray.user.UserIdentity;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * @author RollW
+ */
+class MessageConnectionRegistryTest {
+    private static final int THREADS = 8;
+    private static final int USERS = 10;
+    private static final int CONNECTIONS_PER_THREAD = 250;
+
+    @Test
+    void indexesConnectionsByUserAndSession() {
+        MessageConnectionRegistry registry = new MessageConnectionRegistry();
+        MessageChatConnection first = connection(1, "s1");
+        MessageChatConnection second = connection(1, "s2");
+        MessageChatConnection other = connection(2, "s3");
+
+        registry.registerConnection(first);
+        registry.registerConnection(second);
+        registry.registerConnection(other);
+        // registering the same session again is a no-op
+        registry.registerConnection(first);
+
+        assertEquals(3, registry.size());
+        assertEquals(Set.of(1L, 2L), registry.getUserIds());
+        assertEquals(2, registry.getConnections(1).size());
+        assertSame(second, registry.getConnection(second.getSession()));
+        assertSame(other, registry.getConnection(2, other.getSession()));
+        assertNull(registry.getConnection(1, other.getSession()));
+
+        assertSame(first, registry.unregisterConnection(first.getSession()));
+        assertNull(registry.unregisterConnection(first.getSession()));
+        registry.unregisterConnection(1);
+
+        assertEquals(1, registry.size());
+        assertEquals(Set.of(2L), registry.getUserIds());
+        assertNull(registry.getConnection(second.getSession()));
+        assertTrue(registry.getConnections(1).isEmpty());
+    }
+
+    @Test
+    void concurrentRegisterKeepsEveryConnection() throws Exception {
+        MessageConnectionRegistry registry = new MessageConnectionRegistry();
+        List<List<MessageChatConnection>> perThread = connectionsPerThread();
+
+        runConcurrently(perThread, connections ->
+                connections.forEach(registry::registerConnection));
+
+        int total = THREADS * CONNECTIONS_PER_THREAD;
+        assertEquals(total, registry.size());
+        assertEquals(total, registry.getConnections().size());
+        int sum = 0;
+        for (long userId : registry.getUserIds()) {
+            sum += registry.getConnections(userId).size();
+        }
+        assertEquals(total, sum);
+        for (List<MessageChatConnection> connections : perThread) {
+            for (MessageChatConnection connection : connections) {
+                assertSame(connection, registry.getConnection(connection.getSession()));
+            }
+        }
+    }
+
+    @Test
+    void concurrentRegisterAndUnregisterLeavesNothingBehind() throws Exception {
+        MessageConnectionRegistry registry = new MessageConnectionRegistry();
+        List<List<MessageChatConnection>> perThread = connectionsPerThread();
+
+        runConcurrently(perThread, connections -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (MessageChatConnection connection : connections) {
+                registry.registerConnection(connection);
+                // users are shared by threads, so one thread empties the
+                // map of a user while others are adding to it
+                switch (random.nextInt(3)) {
+                    case 0 -> registry.unregisterConnection(connection.getSession());
+                    case 1 -> registry.unregisterConnection(connection);
+                    default -> registry.unregisterConnection(
+                            connection.getUser().getUserId(), connection.getSession());
+                }
+            }
+        });
+
+        assertEquals(0, registry.size());
+        assertTrue(registry.getUserIds().isEmpty());
+        assertTrue(registry.getConnections().isEmpty());
+        for (List<MessageChatConnection> connections : perThread) {
+            for (MessageChatConnection connection : connections) {
+                assertNull(registry.getConnection(connection.getSession()));
+            }
+        }
+    }
+
+    @Test
+    void concurrentUnregisterOfUsersKeepsSizeConsistent() throws Exception {
+        MessageConnectionRegistry registry = new MessageConnectionRegistry();
+        List<List<MessageChatConnection>> perThread = connectionsPerThread();
+
+        runConcurrently(perThread, connections -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (MessageChatConnection connection : connections) {
+                registry.registerConnection(connection);
+                if (random.nextInt(10) == 0) {
+                    registry.unregisterConnection(random.nextLong(USERS));
+                }
+            }
+        });
+
+        // the counter must agree with what is actually left
+        Set<String> sessions = new HashSet<>();
+        for (long userId : registry.getUserIds()) {
+            for (MessageChatConnection connection : registry.getConnections(userId)) {
+                assertTrue(sessions.add(connection.getSession().getId()));
+                assertSame(connection, registry.getConnection(connection.getSession()));
+            }
+        }
+        assertEquals(sessions.size(), registry.size());
+        assertEquals(sessions.size(), registry.getConnections().size());
+
+        for (long userId = 0; userId < USERS; userId++) {
+            registry.unregisterConnection(userId);
+        }
+        assertEquals(0, registry.size());
+        assertTrue(registry.getUserIds().isEmpty());
+    }
+
+    private static List<List<MessageChatConnection>> connectionsPerThread() {
+        List<List<MessageChatConnection>> perThread = new ArrayList<>(THREADS);
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<MessageChatConnection> connections = new ArrayList<>(CONNECTIONS_PER_THREAD);
+            for (int i = 0; i < CONNECTIONS_PER_THREAD; i++) {
+                connections.add(connection(i % USERS, thread + "-" + i));
+            }
+            perThread.add(connections);
+        }
+        return perThread;
+    }
+
+    private static void runConcurrently(List<List<MessageChatConnection>> perThread,
+                                        ThrowingConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>(THREADS);
+            for (List<MessageChatConnection> connections : perThread) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.accept(connections);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static MessageChatConnection connection(long userId, String sessionId) {
+        Session session = mock(Session.class, withSettings().stubOnly());
+        when(session.getId()).thenReturn(sessionId);
+        UserIdentity user = mock(UserIdentity.class, withSettings().stubOnly());
+        when(user.getUserId()).thenReturn(userId);
+        MessageChatConnection connection = mock(MessageChatConnection.class, withSettings().stubOnly());
+        when(connection.getSession()).thenReturn(session);
+        when(connection.getUser()).thenReturn(user);
+        return connection;
+    }
+
+    private interface ThrowingConsumer {
+        void accept(List<MessageChatConnection> connections) throws Exception;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.database;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import liquibase.database.core.SQLiteDatabase;
+import liquibase.datatype.DataTypeFactory;
+import liquibase.datatype.DataTypeInfo;
+import liquibase.datatype.DatabaseDataType;
+import liquibase.datatype.LiquibaseDataType;
+import liquibase.datatype.core.BigIntType;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import liquibase.sql.Sql;
+import liquibase.sql.UnparsedSql;
+import liquibase.sqlgenerator.SqlGeneratorChain;
+import liquibase.sqlgenerator.SqlGeneratorFactory;
+import liquibase.sqlgenerator.core.AbstractSqlGenerator;
+import liquibase.statement.core.AddUniqueConstraintStatement;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory H2 or temporary SQLite database created from the baseline
+ * Liquibase changelog, with a Hibernate session factory over the given
+ * entities. Liquibase cannot add unique constraints to existing SQLite
+ * tables, so they are created as unique indexes there, and auto-increment
+ * keys are declared as {@code INTEGER} as SQLite requires. Attribute
+ * converters are created by a bean factory holding an {@link ObjectMapper}.
+ * Records every SQL statement Hibernate prepares and counts the JDBC
+ * batches it executes.
+ *
+ * @author RollW
+ */
+final class BaselineSchemaDatabase implements AutoCloseable {
+    private static final String CHANGELOG_PATH = "db/changelog.yaml";
+    private static final String BASELINE_CONTEXT = "baseline";
+
+    static {
+        SqlGeneratorFactory.getInstance().register(new SQLiteUniqueConstraintGenerator());
+        DataTypeFactory.getInstance().register(new SQLiteBigIntType());
+    }
+
+    private final DataSource dataSource;
+    private final Connection keepAlive;
+    // The SQLite database file, null for H2.
+    private final Path file;
+    private final SessionFactory sessionFactory;
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+    private final AtomicInteger batches = new AtomicInteger();
+
+    private BaselineSchemaDatabase(DataSource dataSource, Path file, Map<String, Object> settings,
+                                   Class<?>... entities) throws SQLException, LiquibaseException {
+        this.dataSource = dataSource;
+        this.file = file;
+        // Holds an in-memory database open until close().
+        keepAlive = dataSource.getConnection();
+        try (Liquibase liquibase = new Liquibase(CHANGELOG_PATH,
+                new ClassLoaderResourceAccessor(),
+                new JdbcConnection(dataSource.getConnection()))) {
+            liquibase.update(new Contexts(BASELINE_CONTEXT));
+        }
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("objectMapper", new ObjectMapper());
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE,
+                        countingBatches(DataSource.class, dataSource))
+                .applySetting(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                    statements.add(sql);
+                    return sql;
+                })
+                .applySetting(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory))
+                .applySetting(AvailableSettings.GENERATE_STATISTICS, true)
+                .applySettings(settings)
+                .build();
+        MetadataSources sources = new MetadataSources(registry);
+        for (Class<?> entity : entities) {
+            sources.addAnnotatedClass(entity);
+        }
+        sessionFactory = sources.buildMetadata().buildSessionFactory();
+    }
+
+    /**
+     * Creates an in-memory H2 database.
+     */
+    static BaselineSchemaDatabase create(String name, Map<String, Object> settings,
+                                         Class<?>... entities) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        try {
+            return new BaselineSchemaDatabase(dataSource, null, settings, entities);
+        } catch (SQLException | LiquibaseException e) {
+            throw new IllegalStateException("Cannot create database " + name, e);
+        }
+    }
+
+    /**
+     * Creates an SQLite database in a temporary file, deleted on close.
+     */
+    static BaselineSchemaDatabase createSqlite(String name, Map<String, Object> settings,
+                                               Class<?>... entities) {
+        Path file = null;
+        try {
+            file = Files.createTempFile(name, ".db");
+            SQLiteDataSource dataSource = new SQLiteDataSource();
+            dataSource.setUrl("jdbc:sqlite:" + file);
+            dataSource.setBusyTimeout(10_000);
+            return new BaselineSchemaDatabase(dataSource, file, settings, entities);
+        } catch (IOException | SQLException | LiquibaseException e) {
+            deleteQuietly(file);
+            throw new IllegalStateException("Cannot create database " + name, e);
+        }
+    }
+
+    SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
+    Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Returns the statements prepared since the last call and clears
+     * them.
+     */
+    List<String> drainStatements() {
+        List<String> drained = List.copyOf(statements);
+        statements.clear();
+        return drained;
+    }
+
+    /**
+     * Returns the number of JDBC batches executed since the last call
+     * and resets it.
+     */
+    int drainBatches() {
+        return batches.getAndSet(0);
+    }
+
+    /**
+     * Wraps the data source, its connections and their prepared
+     * statements to count {@code executeBatch} calls.
+     */
+    private <T> T countingBatches(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    switch (method.getName()) {
+                        case "getConnection" -> result = countingBatches(Connection.class, (Connection) result);
+                        case "prepareStatement" ->
+                                result = countingBatches(PreparedStatement.class, (PreparedStatement) result);
+                        case "executeBatch" -> batches.incrementAndGet();
+                        default -> {
+                        }
+                    }
+                    return result;
+                }));
+    }
+
+    @Override
+    public void close() throws SQLException {
+        sessionFactory.close();
+        if (file == null) {
+            keepAlive.createStatement().execute("SHUTDOWN");
+        }
+        keepAlive.close();
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class SQLiteUniqueConstraintGenerator
+            extends AbstractSqlGenerator<AddUniqueConstraintStatement> {
+        @Override
+        public int getPriority() {
+            return PRIORITY_DATABASE;
+        }
+
+        @Override
+        public boolean supports(AddUniqueConstraintStatement statement, Database database) {
+            return database instanceof SQLiteDatabase;
+        }
+
+        @Override
+        public ValidationErrors validate(AddUniqueConstraintStatement statement, Database database,
+                                         SqlGeneratorChain<AddUniqueConstraintStatement> chain) {
+            return new ValidationErrors();
+        }
+
+        @Override
+        public Sql[] generateSql(AddUniqueConstraintStatement statement, Database database,
+                                 SqlGeneratorChain<AddUniqueConstraintStatement> chain) {
+            return new Sql[]{new UnparsedSql("CREATE UNIQUE INDEX "
+                    + database.escapeIndexName(null, null, statement.getConstraintName())
+                    + " ON " + database.escapeTableName(null, null, statement.getTableName())
+                    + " (" + database.escapeColumnNameList(statement.getColumnNames()) + ")")};
+        }
+    }
+
+    @DataTypeInfo(name = "bigint", aliases = {"java.sql.Types.BIGINT", "java.lang.Long"},
+            minParameters = 0, maxParameters = 0, priority = LiquibaseDataType.PRIORITY_DATABASE)
+    public static final class SQLiteBigIntType extends BigIntType {
+        @Override
+        public boolean supports(Database database) {
+            return database instanceof SQLiteDatabase;
+        }
+
+        @Override
+        public DatabaseDataType toDatabaseDataType(Database database) {
+            if (isAutoIncrement()) {
+                return new DatabaseDataType("INTEGER");
+            }
+            return super.toDatabaseDataType(database);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.database;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import tech.lamprism.lampray.common.data.generator.ULIDBasedResourceIdGenerator;
+import tech.lamprism.lampray.content.favorite.FavoriteItemResourceKind;
+import tech.lamprism.lampray.content.favorite.persistence.FavoriteItemDao;
+import tech.lamprism.lampray.content.favorite.persistence.FavoriteItemEntity;
+import tech.lamprism.lampray.content.favorite.persistence.FavoriteItemRepository;
+import tech.lamprism.lampray.content.review.ReviewTaskResourceKind;
+import tech.lamprism.lampray.content.review.persistence.ReviewTaskDao;
+import tech.lamprism.lampray.content.review.persistence.ReviewTaskEntity;
+import tech.lamprism.lampray.content.review.persistence.ReviewTaskRepository;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Inserts review tasks and favorite items into the baseline schema on
+ * H2 and SQLite through the {@code insertAll} and {@code saveAll} of
+ * their repositories, with the batching settings of
+ * {@code DataSourceConfiguration}.
+ * <p>
+ * The table ids come from a pooled sequence, so {@code insertAll} sends
+ * the rows in JDBC batches. The entities have assigned ids, so
+ * {@code saveAll} merges and selects every row before inserting it.
+ * <p>
+ * Run with {@code -Dlampray.benchmark.rows=100000} to time both paths
+ * on both databases; the results are printed.
+ *
+ * @author RollW
+ */
+class BulkInsertBenchmarkTest {
+    private static final String ROWS_PROPERTY = "lampray.benchmark.rows";
+    private static final int ROWS = 2_000;
+    private static final int BATCH_SIZE = 100;
+    private static final Map<String, Object> SETTINGS = Map.of(
+            AvailableSettings.STATEMENT_BATCH_SIZE, BATCH_SIZE,
+            AvailableSettings.ORDER_INSERTS, true,
+            AvailableSettings.ORDER_UPDATES, true,
+            AvailableSettings.BATCH_VERSIONED_DATA, true
+    );
+
+    enum Database {
+        H2 {
+            @Override
+            BaselineSchemaDatabase create() {
+                return BaselineSchemaDatabase.create("bulk_insert", SETTINGS, ENTITIES);
+            }
+        },
+        SQLITE {
+            @Override
+            BaselineSchemaDatabase create() {
+                return BaselineSchemaDatabase.createSqlite("bulk_insert", SETTINGS, ENTITIES);
+            }
+        };
+
+        private static final Class<?>[] ENTITIES = {ReviewTaskEntity.class, FavoriteItemEntity.class};
+
+        abstract BaselineSchemaDatabase create();
+    }
+
+    private BaselineSchemaDatabase database;
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Database.class)
+    void insertAllSendsTasksInBatches(Database type) throws SQLException {
+        database = type.create();
+        List<ReviewTaskEntity> tasks = newTasks(ROWS);
+        insertTasks(tasks, ReviewTaskRepository::insertAll);
+
+        List<String> statements = database.drainStatements();
+        assertEquals(0, count(statements, "select"));
+        assertEquals(1, count(statements, "insert"));
+        assertEquals(ROWS / BATCH_SIZE, database.drainBatches());
+        assertEquals(ROWS, countRows("review_job_task"));
+        assertDistinctIds(tasks, ReviewTaskEntity::getId);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Database.class)
+    void insertAllSendsFavoritesInBatches(Database type) throws SQLException {
+        database = type.create();
+        List<FavoriteItemEntity> items = newFavorites(ROWS);
+        insertFavorites(items, FavoriteItemRepository::insertAll);
+
+        List<String> statements = database.drainStatements();
+        assertEquals(0, count(statements, "select"));
+        assertEquals(1, count(statements, "insert"));
+        assertEquals(ROWS / BATCH_SIZE, database.drainBatches());
+        assertEquals(ROWS, countRows("favorite_item"));
+        assertDistinctIds(items, FavoriteItemEntity::getId);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Database.class)
+    void idsStayDistinctAcrossTransactions(Database type) throws SQLException {
+        database = type.create();
+        List<ReviewTaskEntity> tasks = new ArrayList<>();
+        // Sizes that leave part of a block unused in each transaction.
+        for (int size : new int[]{1, BATCH_SIZE + 1, 3 * BATCH_SIZE - 1}) {
+            List<ReviewTaskEntity> batch = newTasks(size);
+            insertTasks(batch, ReviewTaskRepository::insertAll);
+            tasks.addAll(batch);
+        }
+
+        assertEquals(tasks.size(), countRows("review_job_task"));
+        assertDistinctIds(tasks, ReviewTaskEntity::getId);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Database.class)
+    void saveAllSelectsEveryAssignedId(Database type) throws SQLException {
+        database = type.create();
+        insertTasks(newTasks(ROWS), ReviewTaskRepository::saveAll);
+
+        List<String> statements = database.drainStatements();
+        assertEquals(ROWS, count(statements, "select"));
+        assertEquals(ROWS / BATCH_SIZE, database.drainBatches());
+        assertEquals(ROWS, countRows("review_job_task"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Database.class)
+    @EnabledIfSystemProperty(named = ROWS_PROPERTY, matches = "\\d+")
+    void benchmark(Database type) {
+        database = type.create();
+        int rows = Integer.getInteger(ROWS_PROPERTY);
+        // Warms up the persisters and the JIT before timing.
+        insertTasks(newTasks(ROWS), ReviewTaskRepository::insertAll);
+        insertTasks(newTasks(ROWS), ReviewTaskRepository::saveAll);
+        insertFavorites(newFavorites(ROWS), FavoriteItemRepository::insertAll);
+
+        time(type, "tasks insertAll", rows,
+                () -> insertTasks(newTasks(rows), ReviewTaskRepository::insertAll));
+        time(type, "tasks saveAll", rows,
+                () -> insertTasks(newTasks(rows), ReviewTaskRepository::saveAll));
+        time(type, "favorites insertAll", rows,
+                () -> insertFavorites(newFavorites(rows), FavoriteItemRepository::insertAll));
+    }
+
+    private void time(Database type, String name, int rows, Runnable operation) {
+        database.drainStatements();
+        database.drainBatches();
+        long start = System.nanoTime();
+        operation.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf(Locale.ROOT, "%s %s: %d rows in %d ms (%d rows/s), %d statements, %d batches%n",
+                type, name, rows, millis, rows * 1000L / Math.max(millis, 1),
+                database.drainStatements().size(), database.drainBatches());
+    }
+
+    private void insertTasks(List<ReviewTaskEntity> tasks,
+                             BiConsumer<ReviewTaskRepository, List<ReviewTaskEntity>> operation) {
+        insert(entityManager -> new ReviewTaskRepository(
+                new JpaRepositoryFactory(entityManager).getRepository(ReviewTaskDao.class),
+                entityManager), tasks, operation);
+    }
+
+    private void insertFavorites(List<FavoriteItemEntity> items,
+                                 BiConsumer<FavoriteItemRepository, List<FavoriteItemEntity>> operation) {
+        insert(entityManager -> new FavoriteItemRepository(
+                new JpaRepositoryFactory(entityManager).getRepository(FavoriteItemDao.class),
+                entityManager), items, operation);
+    }
+
+    private <R, E> void insert(Function<EntityManager, R> repositoryFactory, List<E> entities,
+                               BiConsumer<R, List<E>> operation) {
+        SessionFactory sessionFactory = database.getSessionFactory();
+        try (EntityManager entityManager = sessionFactory.createEntityManager()) {
+            R repository = repositoryFactory.apply(entityManager);
+            entityManager.getTransaction().begin();
+            operation.accept(repository, entities);
+            entityManager.getTransaction().commit();
+        }
+    }
+
+    private int countRows(String table) throws SQLException {
+        try (Connection connection = database.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private static <E> void assertDistinctIds(List<E> entities, Function<E, Long> id) {
+        Set<Long> ids = new HashSet<>();
+        for (E entity : entities) {
+            Long value = id.apply(entity);
+            assertNotNull(value);
+            ids.add(value);
+        }
+        assertEquals(entities.size(), ids.size());
+    }
+
+    private static long count(List<String> statements, String kind) {
+        return statements.stream()
+                .filter(sql -> sql.regionMatches(true, 0, kind, 0, kind.length()))
+                .count();
+    }
+
+    private static List<ReviewTaskEntity> newTasks(int count) {
+        List<String> ids = new ULIDBasedResourceIdGenerator()
+                .nextIds(ReviewTaskResourceKind.INSTANCE, count);
+        List<ReviewTaskEntity> tasks = new ArrayList<>(count);
+        for (String id : ids) {
+            tasks.add(new ReviewTaskEntity.Builder()
+                    .setResourceId(id)
+                    .setReviewJobId("job-" + (tasks.size() % 50))
+                    .setReviewerId(tasks.size() % 20)
+                    .build());
+        }
+        return tasks;
+    }
+
+    private static List<FavoriteItemEntity> newFavorites(int count) {
+        List<String> ids = new ULIDBasedResourceIdGenerator()
+                .nextIds(FavoriteItemResourceKind.INSTANCE, count);
+        List<FavoriteItemEntity> items = new ArrayList<>(count);
+        for (String id : ids) {
+            items.add(new FavoriteItemEntity.Builder()
+                    .setResourceId(id)
+                    .setUserId(items.size() % 20)
+                    .setGroupId("group-" + (items.size() % 20))
+                    .setContentId("content-" + items.size())
+                    .build());
+        }
+        return items;
+    }
+}
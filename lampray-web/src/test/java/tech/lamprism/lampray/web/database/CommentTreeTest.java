@@ -0,0 +1,452 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.database;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.lamprism.lampray.common.data.ResourceIdGenerator;
+import tech.lamprism.lampray.common.data.generator.ULIDBasedResourceIdGenerator;
+import tech.lamprism.lampray.content.ContentAccessAuthType;
+import tech.lamprism.lampray.content.ContentIdentity;
+import tech.lamprism.lampray.content.ContentMetadata;
+import tech.lamprism.lampray.content.ContentOperator;
+import tech.lamprism.lampray.content.ContentStatus;
+import tech.lamprism.lampray.content.ContentType;
+import tech.lamprism.lampray.content.SimpleContentInfo;
+import tech.lamprism.lampray.content.SimpleUncreatedContent;
+import tech.lamprism.lampray.content.comment.Comment;
+import tech.lamprism.lampray.content.comment.CommentDetailsMetadata;
+import tech.lamprism.lampray.content.comment.CommentStatus;
+import tech.lamprism.lampray.content.comment.persistence.CommentDao;
+import tech.lamprism.lampray.content.comment.persistence.CommentEntity;
+import tech.lamprism.lampray.content.comment.persistence.CommentRepository;
+import tech.lamprism.lampray.content.comment.service.CommentContentProvider;
+import tech.lamprism.lampray.content.comment.service.CommentReplyCountListener;
+import tech.lamprism.lampray.content.comment.service.CommentService;
+import tech.lamprism.lampray.content.comment.service.CommentTreeBackfill;
+import tech.lamprism.lampray.content.event.ContentStatusEvent;
+import tech.lamprism.lampray.content.persistence.ContentMetadataDao;
+import tech.lamprism.lampray.content.persistence.ContentMetadataEntity;
+import tech.lamprism.lampray.content.persistence.ContentMetadataRepository;
+import tech.lamprism.lampray.content.persistence.StructuralTextAttributeConverter;
+import tech.lamprism.lampray.content.service.ContentMetadataService;
+import tech.lamprism.lampray.content.service.ContentMetadataServiceImpl;
+import tech.lamprism.lampray.content.structuraltext.StructuralText;
+import tech.lamprism.lampray.content.structuraltext.element.Document;
+import tech.lamprism.lampray.content.structuraltext.element.Text;
+import tech.lamprism.lampray.user.UserIdentity;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Publishes, reviews and deletes comments against the baseline schema
+ * and checks the paths and reply counts recorded for them, including
+ * those of old comments rebuilt by {@link CommentTreeBackfill} while
+ * their statuses change.
+ *
+ * @author RollW
+ */
+class CommentTreeTest {
+    private static final ContentIdentity ARTICLE = ContentIdentity.of("article", ContentType.ARTICLE);
+    private static final long USER_ID = 1;
+    private static final StructuralText TEXT = new Document(List.of(new Text("reply")));
+
+    private BaselineSchemaDatabase database;
+    private TransactionTemplate transactionTemplate;
+    private JpaTransactionManager transactionManager;
+    private CommentRepository commentRepository;
+    private ContentMetadataRepository contentMetadataRepository;
+    private ContentMetadataService contentMetadataService;
+    private CommentService commentService;
+    private CommentContentProvider commentContentProvider;
+    private CommentReplyCountListener replyCountListener;
+    private final ResourceIdGenerator resourceIdGenerator = new ULIDBasedResourceIdGenerator();
+
+    @BeforeEach
+    void setUp() {
+        database = BaselineSchemaDatabase.create("comment_tree", Map.of(),
+                CommentEntity.class, ContentMetadataEntity.class, StructuralTextAttributeConverter.class);
+        EntityManager entityManager = SharedEntityManagerCreator
+                .createSharedEntityManager(database.getSessionFactory());
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        commentRepository = new CommentRepository(
+                repositoryFactory.getRepository(CommentDao.class), entityManager);
+        contentMetadataRepository = new ContentMetadataRepository(
+                repositoryFactory.getRepository(ContentMetadataDao.class), entityManager);
+        contentMetadataService = new ContentMetadataServiceImpl(contentMetadataRepository);
+        commentService = new CommentService(commentRepository, contentMetadataService, resourceIdGenerator);
+        commentContentProvider = new CommentContentProvider(commentRepository, contentMetadataService);
+        replyCountListener = new CommentReplyCountListener(commentRepository);
+        transactionManager = new JpaTransactionManager(database.getSessionFactory());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        transactionTemplate.executeWithoutResult(status -> contentMetadataRepository.save(
+                metadata(ARTICLE.getContentId(), ARTICLE.getContentType(), ContentStatus.PUBLISHED)));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @Test
+    void repliesRecordPathsUnderTheirParents() {
+        String a = publish(null, ContentStatus.PUBLISHED);
+        String b = publish(a, ContentStatus.PUBLISHED);
+        String c = publish(b, ContentStatus.PUBLISHED);
+
+        assertEquals(a + "/", find(a).getPath());
+        assertEquals(a + "/" + b + "/", find(b).getPath());
+        assertEquals(a + "/" + b + "/" + c + "/", find(c).getPath());
+        assertEquals(List.of(b, c), commentService.getCommentTree(b, 10).stream()
+                .map(Comment::getResourceId)
+                .toList());
+    }
+
+    @Test
+    void replyBeyondMaxPathLengthAttachesToGrandparent() {
+        String parent = publish(null, ContentStatus.PUBLISHED);
+        String reply = publish(parent, ContentStatus.PUBLISHED);
+        while (find(reply).getParentId().equals(parent)) {
+            parent = reply;
+            reply = publish(parent, ContentStatus.PUBLISHED);
+        }
+
+        CommentEntity deepest = find(parent);
+        CommentEntity attached = find(reply);
+        assertEquals(deepest.getParentId(), attached.getParentId());
+        String grandparentPath = deepest.getPath().substring(0,
+                deepest.getPath().length() - parent.length() - 1);
+        assertEquals(grandparentPath + reply + "/", attached.getPath());
+        assertTrue(attached.getPath().length() <= Comment.MAX_PATH_LENGTH);
+        assertTrue(deepest.getPath().length() + reply.length() + 1 > Comment.MAX_PATH_LENGTH);
+        assertCounts(deepest.getParentId(), 2, 2);
+        assertCounts(parent, 0, 0);
+    }
+
+    @Test
+    void onlyPublishedRepliesAreCounted() {
+        String a = publish(null, ContentStatus.PUBLISHED);
+        String b = publish(a, ContentStatus.PUBLISHED);
+        String c = publish(b, ContentStatus.PUBLISHED);
+        String d = publish(b, ContentStatus.REVIEWING);
+
+        assertCounts(a, 1, 2);
+        assertCounts(b, 1, 1);
+        assertCounts(c, 0, 0);
+        assertCounts(d, 0, 0);
+    }
+
+    @Test
+    void reviewedReplyIsCountedOnce() {
+        String a = publish(null, ContentStatus.PUBLISHED);
+        String b = publish(a, ContentStatus.PUBLISHED);
+        String c = publish(b, ContentStatus.REVIEWING);
+
+        review(c, ContentStatus.PUBLISHED);
+        assertCounts(a, 1, 2);
+        assertCounts(b, 1, 1);
+
+        // The same event delivered again
+        transactionTemplate.executeWithoutResult(status ->
+                replyCountListener.onApplicationEvent(statusEvent(c,
+                        ContentStatus.REVIEWING, ContentStatus.PUBLISHED)));
+        assertCounts(a, 1, 2);
+        assertCounts(b, 1, 1);
+
+        review(c, ContentStatus.REVIEW_REJECTED);
+        assertCounts(a, 1, 1);
+        assertCounts(b, 0, 0);
+    }
+
+    @Test
+    void deletedAndForbiddenRepliesAreUncounted() {
+        String a = publish(null, ContentStatus.PUBLISHED);
+        String b = publish(a, ContentStatus.PUBLISHED);
+        String c = publish(b, ContentStatus.PUBLISHED);
+
+        operate(c, ContentOperator::delete);
+        assertCounts(a, 1, 1);
+        assertCounts(b, 0, 0);
+
+        operate(b, ContentOperator::forbidden);
+        assertCounts(a, 0, 0);
+
+        // Neither status is counted
+        operate(b, ContentOperator::delete);
+        assertCounts(a, 0, 0);
+    }
+
+    @Test
+    void backfillRebuildsOldComments() {
+        String a = insertOld(null, ContentStatus.PUBLISHED);
+        String b = insertOld(a, ContentStatus.PUBLISHED);
+        String c = insertOld(b, ContentStatus.PUBLISHED);
+        String d = insertOld(c, ContentStatus.REVIEWING);
+        String e = insertOld(a, ContentStatus.PUBLISHED);
+        String orphan = insertOld("missing", ContentStatus.PUBLISHED);
+
+        backfill(contentMetadataService);
+
+        assertEquals(a + "/", find(a).getPath());
+        assertEquals(a + "/" + b + "/" + c + "/" + d + "/", find(d).getPath());
+        assertEquals(a + "/" + e + "/", find(e).getPath());
+        assertEquals(orphan + "/", find(orphan).getPath());
+        assertCounts(a, 2, 3);
+        assertCounts(b, 1, 1);
+        assertCounts(c, 0, 0);
+        assertTrue(find(c).getCounted());
+        assertFalse(find(d).getCounted());
+
+        review(d, ContentStatus.PUBLISHED);
+        assertCounts(a, 2, 4);
+        assertCounts(b, 1, 2);
+        assertCounts(c, 1, 1);
+
+        operate(b, ContentOperator::delete);
+        assertCounts(a, 1, 3);
+    }
+
+    @Test
+    void statusCommittedBeforeRebuildIsCountedOnce() throws Exception {
+        String a = insertOld(null, ContentStatus.PUBLISHED);
+        String b = insertOld(a, ContentStatus.PUBLISHED);
+        String c = insertOld(b, ContentStatus.REVIEWING);
+        Comment stale = find(c).lock();
+
+        BlockingMetadataService blocking = new BlockingMetadataService();
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(() -> backfill(blocking.service));
+        blocking.awaitBlocked();
+
+        // The status commits before the counts change, as with reviews,
+        // so the rebuild counts the reply and the change must not again
+        transactionTemplate.executeWithoutResult(status -> updateStatus(c, ContentStatus.PUBLISHED));
+        CompletableFuture<Void> change = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status ->
+                        replyCountListener.onApplicationEvent(new ContentStatusEvent<>(stale,
+                                OffsetDateTime.now(), ContentStatus.REVIEWING, ContentStatus.PUBLISHED))));
+        assertWaiting(change);
+
+        blocking.release();
+        rebuild.get(30, TimeUnit.SECONDS);
+        change.get(30, TimeUnit.SECONDS);
+        assertCounts(a, 1, 2);
+        assertCounts(b, 1, 1);
+    }
+
+    @Test
+    void statusChangedDuringRebuildIsCountedUnderRecordedPath() throws Exception {
+        String a = insertOld(null, ContentStatus.PUBLISHED);
+        String b = insertOld(a, ContentStatus.PUBLISHED);
+        String c = insertOld(b, ContentStatus.REVIEWING);
+        Comment stale = find(c).lock();
+        assertNull(stale.getPath());
+
+        BlockingMetadataService blocking = new BlockingMetadataService();
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(() -> backfill(blocking.service));
+        blocking.awaitBlocked();
+
+        // The status and the counts change in one transaction, the
+        // rebuild does not see the status, and the change only knows
+        // the parent from the comment loaded before
+        CompletableFuture<Void> change = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    updateStatus(c, ContentStatus.PUBLISHED);
+                    replyCountListener.onApplicationEvent(new ContentStatusEvent<>(stale,
+                            OffsetDateTime.now(), ContentStatus.REVIEWING, ContentStatus.PUBLISHED));
+                }));
+        assertWaiting(change);
+
+        blocking.release();
+        rebuild.get(30, TimeUnit.SECONDS);
+        change.get(30, TimeUnit.SECONDS);
+        assertEquals(a + "/" + b + "/" + c + "/", find(c).getPath());
+        assertCounts(a, 1, 2);
+        assertCounts(b, 1, 1);
+    }
+
+    private static void assertWaiting(CompletableFuture<Void> future) {
+        assertThrows(TimeoutException.class, () -> future.get(500, TimeUnit.MILLISECONDS));
+    }
+
+    private String publish(String parentId, ContentStatus contentStatus) {
+        UserIdentity operator = mock(UserIdentity.class);
+        when(operator.getUserId()).thenReturn(USER_ID);
+        return transactionTemplate.execute(status -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            Comment comment = (Comment) commentService.publish(new SimpleUncreatedContent(
+                    ContentType.COMMENT, operator, null, TEXT,
+                    new CommentDetailsMetadata(ARTICLE.getContentType(), ARTICLE.getContentId(), parentId)
+            ), now);
+            // What ContentService does after the publisher
+            saveMetadata(comment.getResourceId(), contentStatus);
+            replyCountListener.onApplicationEvent(new ContentStatusEvent<>(
+                    comment, now, null, contentStatus));
+            return comment.getResourceId();
+        });
+    }
+
+    /**
+     * Inserts a comment as created before paths and counts were
+     * recorded.
+     */
+    private String insertOld(String parentId, ContentStatus contentStatus) {
+        String resourceId = resourceIdGenerator.nextId(ContentType.COMMENT.getSystemResourceKind());
+        OffsetDateTime now = OffsetDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            commentRepository.insert(CommentEntity.builder()
+                    .setResourceId(resourceId)
+                    .setUserId(USER_ID)
+                    .setParentId(parentId == null ? Comment.COMMENT_ROOT_ID : parentId)
+                    .setContent(TEXT)
+                    .setCreateTime(now)
+                    .setUpdateTime(now)
+                    .setCommentOnId(ARTICLE.getContentId())
+                    .setCommentOnType(ARTICLE.getContentType())
+                    .setCommentStatus(CommentStatus.NONE)
+                    .build());
+            saveMetadata(resourceId, contentStatus);
+        });
+        return resourceId;
+    }
+
+    /**
+     * Changes the status as a review does, through the event.
+     */
+    private void review(String resourceId, ContentStatus contentStatus) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ContentStatus previous = updateStatus(resourceId, contentStatus);
+            replyCountListener.onApplicationEvent(statusEvent(resourceId, previous, contentStatus));
+        });
+    }
+
+    private void operate(String resourceId, Consumer<ContentOperator> action) {
+        transactionTemplate.executeWithoutResult(status -> action.accept(
+                commentContentProvider.getContentOperator(
+                        ContentIdentity.of(resourceId, ContentType.COMMENT), true)));
+    }
+
+    private void backfill(ContentMetadataService metadataService) {
+        TaskScheduler taskScheduler = mock(TaskScheduler.class);
+        CommentTreeBackfill backfill = new CommentTreeBackfill(commentRepository,
+                metadataService, transactionManager, taskScheduler);
+        backfill.onApplicationEvent(mock(ContextRefreshedEvent.class));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(task.capture(), any(Instant.class));
+        task.getValue().run();
+    }
+
+    private ContentStatus updateStatus(String resourceId, ContentStatus contentStatus) {
+        ContentMetadata metadata = contentMetadataService.getMetadata(
+                ContentIdentity.of(resourceId, ContentType.COMMENT));
+        contentMetadataService.updateStatuses(List.of(metadata.toBuilder()
+                .setContentStatus(contentStatus)
+                .build()));
+        return metadata.getContentStatus();
+    }
+
+    private ContentStatusEvent<SimpleContentInfo> statusEvent(String resourceId,
+                                                              ContentStatus previous,
+                                                              ContentStatus current) {
+        return new ContentStatusEvent<>(new SimpleContentInfo(USER_ID, resourceId, ContentType.COMMENT),
+                OffsetDateTime.now(), previous, current);
+    }
+
+    private void saveMetadata(String resourceId, ContentStatus contentStatus) {
+        contentMetadataRepository.save(metadata(resourceId, ContentType.COMMENT, contentStatus));
+    }
+
+    private static ContentMetadataEntity metadata(String contentId, ContentType contentType,
+                                                  ContentStatus contentStatus) {
+        return ContentMetadataEntity.builder()
+                .setUserId(USER_ID)
+                .setContentId(contentId)
+                .setContentType(contentType)
+                .setContentStatus(contentStatus)
+                .setContentAccessAuthType(ContentAccessAuthType.PUBLIC)
+                .build();
+    }
+
+    private CommentEntity find(String resourceId) {
+        return commentRepository.findById(resourceId).orElseThrow();
+    }
+
+    private void assertCounts(String resourceId, int replyCount, int descendantCount) {
+        CommentEntity comment = find(resourceId);
+        assertEquals(replyCount, comment.getReplyCount(), "reply count of " + resourceId);
+        assertEquals(descendantCount, comment.getDescendantCount(), "descendant count of " + resourceId);
+    }
+
+    /**
+     * Blocks the rebuild once it holds the locks on the comments, right
+     * before it reads their statuses.
+     */
+    private final class BlockingMetadataService {
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final ContentMetadataService service = spy(contentMetadataService);
+
+        BlockingMetadataService() {
+            doAnswer(invocation -> {
+                blocked.countDown();
+                released.await(30, TimeUnit.SECONDS);
+                return invocation.callRealMethod();
+            }).when(service).getMetadata(anyList());
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertTrue(blocked.await(30, TimeUnit.SECONDS));
+        }
+
+        void release() {
+            released.countDown();
+        }
+    }
+}
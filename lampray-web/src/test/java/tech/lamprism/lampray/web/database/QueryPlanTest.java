@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.database;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import tech.lamprism.lampray.content.ContentType;
+import tech.lamprism.lampray.content.article.persistence.ArticleDao;
+import tech.lamprism.lampray.content.article.persistence.ArticleEntity;
+import tech.lamprism.lampray.content.article.persistence.ArticleRepository;
+import tech.lamprism.lampray.content.comment.persistence.CommentDao;
+import tech.lamprism.lampray.content.comment.persistence.CommentEntity;
+import tech.lamprism.lampray.content.comment.persistence.CommentRepository;
+import tech.lamprism.lampray.content.favorite.persistence.FavoriteGroupDao;
+import tech.lamprism.lampray.content.favorite.persistence.FavoriteGroupEntity;
+import tech.lamprism.lampray.content.favorite.persistence.FavoriteGroupRepository;
+import tech.lamprism.lampray.content.favorite.persistence.FavoriteItemDao;
+import tech.lamprism.lampray.content.favorite.persistence.FavoriteItemEntity;
+import tech.lamprism.lampray.content.favorite.persistence.FavoriteItemRepository;
+import tech.lamprism.lampray.content.persistence.StructuralTextAttributeConverter;
+import tech.lamprism.lampray.content.review.ReviewStatus;
+import tech.lamprism.lampray.content.review.ReviewTaskStatus;
+import tech.lamprism.lampray.content.review.persistence.ReviewJobDao;
+import tech.lamprism.lampray.content.review.persistence.ReviewJobEntity;
+import tech.lamprism.lampray.content.review.persistence.ReviewJobRepository;
+import tech.lamprism.lampray.content.review.persistence.ReviewTaskDao;
+import tech.lamprism.lampray.content.review.persistence.ReviewTaskEntity;
+import tech.lamprism.lampray.content.review.persistence.ReviewTaskRepository;
+import tech.lamprism.lampray.staff.persistence.StaffDao;
+import tech.lamprism.lampray.staff.persistence.StaffEntity;
+import tech.lamprism.lampray.staff.persistence.StaffRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the repository queries served by secondary indexes against the
+ * baseline schema on H2 and SQLite, and checks with {@code EXPLAIN}
+ * and {@code EXPLAIN QUERY PLAN} that none of them scans the whole
+ * table.
+ * <p>
+ * Queries that list a whole table by design, such as staff by types,
+ * are left out.
+ *
+ * @author RollW
+ */
+class QueryPlanTest {
+    private static final Class<?>[] ENTITIES = {
+            ArticleEntity.class, CommentEntity.class, ReviewJobEntity.class,
+            ReviewTaskEntity.class, StaffEntity.class, FavoriteGroupEntity.class,
+            FavoriteItemEntity.class, StructuralTextAttributeConverter.class
+    };
+
+    enum Database {
+        H2 {
+            @Override
+            BaselineSchemaDatabase create() {
+                return BaselineSchemaDatabase.create("query_plan", Map.of(), ENTITIES);
+            }
+
+            @Override
+            List<String> explain(Connection connection, String sql) throws SQLException {
+                return query(connection, "EXPLAIN " + sql, 1);
+            }
+
+            @Override
+            boolean scansTable(String step) {
+                return step.contains(".tableScan");
+            }
+        },
+        SQLITE {
+            @Override
+            BaselineSchemaDatabase create() {
+                return BaselineSchemaDatabase.createSqlite("query_plan", Map.of(), ENTITIES);
+            }
+
+            @Override
+            List<String> explain(Connection connection, String sql) throws SQLException {
+                // Rows of id, parent, notused and detail
+                return query(connection, "EXPLAIN QUERY PLAN " + sql, 4);
+            }
+
+            @Override
+            boolean scansTable(String step) {
+                // Also "SCAN comment USING INDEX ...", which walks the
+                // whole index, where a lookup reads "SEARCH"
+                return step.startsWith("SCAN ");
+            }
+        };
+
+        abstract BaselineSchemaDatabase create();
+
+        /**
+         * Returns the steps of the plan of the statement. Parameters
+         * are left unbound, the plan is chosen before binding.
+         */
+        abstract List<String> explain(Connection connection, String sql) throws SQLException;
+
+        abstract boolean scansTable(String step);
+
+        private static List<String> query(Connection connection, String sql,
+                                          int column) throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement(sql);
+                 ResultSet resultSet = statement.executeQuery()) {
+                List<String> plan = new ArrayList<>();
+                while (resultSet.next()) {
+                    plan.add(resultSet.getString(column));
+                }
+                return plan;
+            }
+        }
+    }
+
+    private static final Map<Database, BaselineSchemaDatabase> databases = new EnumMap<>(Database.class);
+
+    @BeforeAll
+    static void setUp() {
+        for (Database database : Database.values()) {
+            databases.put(database, database.create());
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        for (BaselineSchemaDatabase database : databases.values()) {
+            database.close();
+        }
+        databases.clear();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Database.class)
+    void articleQueriesUseIndexes(Database database) throws SQLException {
+        assertNoTableScans(database, entityManager -> {
+            ArticleRepository repository = new ArticleRepository(
+                    dao(entityManager, ArticleDao.class), entityManager);
+            repository.findAllByUserId(1);
+            repository.findByTitle("title", 1);
+            repository.findByTitles(List.of("first", "second"), 1);
+        });
+    }
+
+    @ParameterizedTest
+    @EnumSource(Database.class)
+    void commentQueriesUseIndexes(Database database) throws SQLException {
+        assertNoTableScans(database, entityManager -> {
+            CommentRepository repository = new CommentRepository(
+                    dao(entityManager, CommentDao.class), entityManager);
+            repository.findAllByUserId(1);
+            repository.findByContent("1", ContentType.ARTICLE);
+            repository.findByContentForUpdate("1", ContentType.ARTICLE);
+            repository.findTopLevel("1", ContentType.ARTICLE, null, 20);
+            repository.findTopLevel("1", ContentType.ARTICLE, "2", 20);
+            repository.findSubtree("1/", 100);
+            repository.findPathless("1", 100);
+            repository.addReplyCounts(List.of("1", "2"), 1);
+            repository.updateTree("3", "1/2/3/", 0, 0, true);
+        });
+    }
+
+    @ParameterizedTest
+    @EnumSource(Database.class)
+    void reviewJobQueriesUseIndexes(Database database) throws SQLException {
+        assertNoTableScans(database, entityManager -> {
+            ReviewJobRepository repository = new ReviewJobRepository(
+                    dao(entityManager, ReviewJobDao.class), entityManager);
+            repository.findByContent("1", ContentType.ARTICLE);
+            repository.findByContentAndStatus("1", ContentType.ARTICLE, ReviewStatus.PENDING);
+            repository.findByStatus(ReviewStatus.PENDING);
+            repository.findByStatuses(List.of(ReviewStatus.PENDING, ReviewStatus.REJECTED));
+            repository.findByReviewer(1, List.of(ReviewStatus.PENDING));
+            repository.findPage(1L, List.of(), "2", 20);
+            repository.findPage(null, List.of(ReviewStatus.PENDING), "2", 20);
+            repository.updateTaskCounts("1", Map.of(ReviewTaskStatus.APPROVED, 1));
+            repository.compareAndSetStatus("1", 0, ReviewStatus.APPROVED, OffsetDateTime.now());
+        });
+    }
+
+    @ParameterizedTest
+    @EnumSource(Database.class)
+    void reviewTaskQueriesUseIndexes(Database database) throws SQLException {
+        assertNoTableScans(database, entityManager -> {
+            ReviewTaskRepository repository = new ReviewTaskRepository(
+                    dao(entityManager, ReviewTaskDao.class), entityManager);
+            repository.findByJobId("1");
+            repository.findByReviewerId(1);
+            repository.existsByJobIdAndReviewerId("1", 1);
+            repository.findByJobIdAndReviewerId("1", 1);
+        });
+    }
+
+    @ParameterizedTest
+    @EnumSource(Database.class)
+    void staffAndFavoriteQueriesUseIndexes(Database database) throws SQLException {
+        assertNoTableScans(database, entityManager -> {
+            new StaffRepository(dao(entityManager, StaffDao.class)).findByUserId(1);
+            new FavoriteGroupRepository(dao(entityManager, FavoriteGroupDao.class)).findByUser(1);
+            new FavoriteItemRepository(dao(entityManager, FavoriteItemDao.class), entityManager)
+                    .countByContents(ContentType.ARTICLE, List.of("1", "2"));
+        });
+    }
+
+    private static <T> T dao(EntityManager entityManager, Class<T> daoType) {
+        return new JpaRepositoryFactory(entityManager).getRepository(daoType);
+    }
+
+    private static void assertNoTableScans(Database type,
+                                           Consumer<EntityManager> queries) throws SQLException {
+        BaselineSchemaDatabase database = databases.get(type);
+        try (EntityManager entityManager = database.getSessionFactory().createEntityManager()) {
+            entityManager.getTransaction().begin();
+            database.drainStatements();
+            try {
+                queries.accept(entityManager);
+            } finally {
+                entityManager.getTransaction().rollback();
+            }
+        }
+        List<String> statements = database.drainStatements();
+        assertFalse(statements.isEmpty());
+        List<String> scans = new ArrayList<>();
+        try (Connection connection = database.getConnection()) {
+            for (String sql : statements) {
+                List<String> plan = type.explain(connection, sql);
+                if (plan.stream().anyMatch(type::scansTable)) {
+                    scans.add(sql + "\n" + String.join("\n", plan));
+                }
+            }
+        }
+        assertTrue(scans.isEmpty(), () -> "Queries scanning a whole table:\n" +
+                String.join("\n\n", scans));
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.database;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.lamprism.lampray.common.data.generator.ULIDBasedResourceIdGenerator;
+import tech.lamprism.lampray.content.ContentType;
+import tech.lamprism.lampray.content.review.ReviewMark;
+import tech.lamprism.lampray.content.review.ReviewStatus;
+import tech.lamprism.lampray.content.review.ReviewTaskDetails;
+import tech.lamprism.lampray.content.review.ReviewTaskStatus;
+import tech.lamprism.lampray.content.review.ReviewerAllocator;
+import tech.lamprism.lampray.content.review.event.OnReviewStateChangeEvent;
+import tech.lamprism.lampray.content.review.feedback.ReviewFeedback;
+import tech.lamprism.lampray.content.review.feedback.ReviewVerdict;
+import tech.lamprism.lampray.content.review.persistence.ReviewJobDao;
+import tech.lamprism.lampray.content.review.persistence.ReviewJobEntity;
+import tech.lamprism.lampray.content.review.persistence.ReviewJobRepository;
+import tech.lamprism.lampray.content.review.persistence.ReviewTaskDao;
+import tech.lamprism.lampray.content.review.persistence.ReviewTaskEntity;
+import tech.lamprism.lampray.content.review.persistence.ReviewTaskRepository;
+import tech.lamprism.lampray.content.review.service.ReviewTaskCoordinatorImpl;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Submits feedback and claims tasks of one review job from many threads
+ * at once, each in its own transaction, and checks that the task
+ * counters and the status of the job match the tasks. Transitions
+ * racing on the same task must take effect once.
+ *
+ * @author RollW
+ */
+class ReviewTaskCoordinatorConcurrencyTest {
+    private static final int TASKS = 16;
+
+    private BaselineSchemaDatabase database;
+    private TransactionTemplate transactionTemplate;
+    private ReviewJobRepository reviewJobRepository;
+    private ReviewTaskRepository reviewTaskRepository;
+    private ReviewerAllocator reviewerAllocator;
+    private ReviewTaskCoordinatorImpl coordinator;
+    private final List<OnReviewStateChangeEvent> events = new CopyOnWriteArrayList<>();
+    private String jobId;
+    private List<ReviewTaskDetails> tasks;
+
+    @BeforeEach
+    void setUp() {
+        database = BaselineSchemaDatabase.create("review_concurrency", Map.of(),
+                ReviewJobEntity.class, ReviewTaskEntity.class);
+        EntityManager entityManager = SharedEntityManagerCreator
+                .createSharedEntityManager(database.getSessionFactory());
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        reviewJobRepository = new ReviewJobRepository(
+                repositoryFactory.getRepository(ReviewJobDao.class), entityManager);
+        reviewTaskRepository = new ReviewTaskRepository(
+                repositoryFactory.getRepository(ReviewTaskDao.class), entityManager);
+        transactionTemplate = new TransactionTemplate(
+                new JpaTransactionManager(database.getSessionFactory()));
+        reviewerAllocator = mock(ReviewerAllocator.class);
+        coordinator = new ReviewTaskCoordinatorImpl(
+                reviewTaskRepository, reviewJobRepository,
+                new ULIDBasedResourceIdGenerator(),
+                reviewerAllocator,
+                event -> {
+                    if (event instanceof OnReviewStateChangeEvent stateChangeEvent) {
+                        events.add(stateChangeEvent);
+                    }
+                });
+
+        jobId = new ULIDBasedResourceIdGenerator().nextId(null);
+        List<Long> reviewerIds = LongStream.range(0, TASKS).boxed().toList();
+        tasks = transactionTemplate.execute(status -> {
+            reviewJobRepository.save(ReviewJobEntity.builder()
+                    .setResourceId(jobId)
+                    .setReviewContentId("content")
+                    .setReviewContentType(ContentType.ARTICLE)
+                    .build());
+            return coordinator.createTasksForReviewers(jobId, reviewerIds);
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @Test
+    void concurrentApprovalsApproveJobOnce() throws Exception {
+        runConcurrently(tasks.stream()
+                .map(task -> (Runnable) () -> approve(task))
+                .toList());
+
+        ReviewJobEntity job = findJob();
+        assertEquals(0, job.getPendingTasks());
+        assertEquals(TASKS, job.getApprovedTasks());
+        assertEquals(ReviewStatus.APPROVED, job.getStatus());
+        assertEquals(1, events.size());
+        assertEquals(ReviewStatus.APPROVED, events.get(0).getCurrentStatus());
+        assertCountersMatchTasks(job);
+    }
+
+    @Test
+    void concurrentFeedbackAndClaimsKeepCountersInStep() throws Exception {
+        List<Runnable> actions = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            ReviewTaskDetails task = tasks.get(i);
+            if (i % 2 == 0) {
+                actions.add(() -> approve(task));
+            } else {
+                long claimer = TASKS + task.getReviewerId();
+                actions.add(() -> transactionTemplate.executeWithoutResult(status ->
+                        coordinator.claimTask(jobId, task.getTaskId(), claimer)));
+            }
+        }
+        runConcurrently(actions);
+
+        ReviewJobEntity job = findJob();
+        assertEquals(TASKS / 2, job.getPendingTasks());
+        assertEquals(TASKS / 2, job.getApprovedTasks());
+        assertEquals(TASKS / 2, job.getReturnedTasks());
+        assertEquals(ReviewStatus.PENDING, job.getStatus());
+        assertEquals(0, events.size());
+        assertCountersMatchTasks(job);
+    }
+
+    @Test
+    void racingFeedbackOnOneTaskCountsOnce() throws Exception {
+        ReviewTaskDetails task = tasks.get(0);
+        List<Runnable> actions = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            actions.add(() -> approve(task));
+        }
+
+        assertEquals(1, runRacing(actions));
+
+        ReviewJobEntity job = findJob();
+        assertEquals(TASKS - 1, job.getPendingTasks());
+        assertEquals(1, job.getApprovedTasks());
+        assertCountersMatchTasks(job);
+        verify(reviewerAllocator, times(1)).releaseReviewer(anyLong(), any());
+    }
+
+    @Test
+    void racingTransitionsOnOneTaskApplyOne() throws Exception {
+        ReviewTaskDetails task = tasks.get(0);
+        long reviewerId = task.getReviewerId();
+        long otherReviewerId = TASKS + reviewerId;
+        List<Runnable> actions = new ArrayList<>();
+        for (int i = 0; i < TASKS / 4; i++) {
+            actions.add(() -> approve(task));
+            actions.add(() -> transactionTemplate.executeWithoutResult(status ->
+                    coordinator.returnTask(jobId, task.getTaskId(), reviewerId)));
+            actions.add(() -> transactionTemplate.executeWithoutResult(status ->
+                    coordinator.claimTask(jobId, task.getTaskId(), otherReviewerId)));
+            actions.add(() -> transactionTemplate.executeWithoutResult(status ->
+                    coordinator.reassignTask(jobId, task.getTaskId(), reviewerId,
+                            otherReviewerId, "busy")));
+        }
+
+        assertEquals(1, runRacing(actions));
+
+        ReviewJobEntity job = findJob();
+        int finished = job.getApprovedTasks() + job.getReturnedTasks() + job.getCanceledTasks();
+        assertEquals(1, finished);
+        assertCountersMatchTasks(job);
+        verify(reviewerAllocator, times(1)).releaseReviewer(anyLong(), any());
+    }
+
+    @Test
+    void savingStaleJobKeepsCounters() {
+        ReviewJobEntity stale = findJob();
+        approve(tasks.get(0));
+
+        stale.setReviewMark(ReviewMark.REPORT);
+        transactionTemplate.executeWithoutResult(status -> reviewJobRepository.save(stale));
+
+        ReviewJobEntity job = findJob();
+        assertEquals(ReviewMark.REPORT, job.getReviewMark());
+        assertEquals(TASKS - 1, job.getPendingTasks());
+        assertEquals(1, job.getApprovedTasks());
+        assertCountersMatchTasks(job);
+    }
+
+    private void approve(ReviewTaskDetails task) {
+        transactionTemplate.executeWithoutResult(status ->
+                coordinator.submitFeedback(jobId, task.getTaskId(), task.getReviewerId(),
+                        new ReviewFeedback(ReviewVerdict.APPROVED, List.of(), null)));
+    }
+
+    /**
+     * Runs the actions at once, each action must either succeed or fail
+     * as the task is no longer pending.
+     *
+     * @return the number of actions that succeeded
+     */
+    private int runRacing(List<Runnable> actions) throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        runConcurrently(actions.stream()
+                .map(action -> (Runnable) () -> {
+                    try {
+                        action.run();
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException ignored) {
+                    }
+                })
+                .toList());
+        return succeeded.get();
+    }
+
+    private void runConcurrently(List<Runnable> actions) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(actions.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable action : actions) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    action.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                // Rethrows any failure of the action, such as a lock conflict
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ReviewJobEntity findJob() {
+        return transactionTemplate.execute(status ->
+                reviewJobRepository.findById(jobId).orElseThrow());
+    }
+
+    private void assertCountersMatchTasks(ReviewJobEntity job) {
+        Map<ReviewTaskStatus, Long> counts = transactionTemplate.execute(status ->
+                reviewTaskRepository.findByJobId(jobId).stream()
+                        .collect(Collectors.groupingBy(ReviewTaskEntity::getStatus,
+                                Collectors.counting())));
+        Function<ReviewTaskStatus, Integer> count = taskStatus ->
+                counts.getOrDefault(taskStatus, 0L).intValue();
+        assertEquals(count.apply(ReviewTaskStatus.PENDING), job.getPendingTasks());
+        assertEquals(count.apply(ReviewTaskStatus.APPROVED), job.getApprovedTasks());
+        assertEquals(count.apply(ReviewTaskStatus.REJECTED), job.getRejectedTasks());
+        assertEquals(count.apply(ReviewTaskStatus.RETURNED), job.getReturnedTasks());
+        assertEquals(count.apply(ReviewTaskStatus.CANCELED), job.getCanceledTasks());
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.database;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.lamprism.lampray.content.ContentIdentity;
+import tech.lamprism.lampray.content.ContentType;
+import tech.lamprism.lampray.staff.persistence.ReviewerWorkloadDao;
+import tech.lamprism.lampray.staff.persistence.ReviewerWorkloadEntity;
+import tech.lamprism.lampray.staff.persistence.ReviewerWorkloadRepository;
+import tech.lamprism.lampray.staff.persistence.StaffRepository;
+import tech.lamprism.lampray.staff.service.ReviewerAllocatorImpl;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Allocates reviewers from two {@link ReviewerAllocatorImpl} instances,
+ * standing for two nodes, sharing one reviewer workload table. Each
+ * node has its own mirror of the table, reloaded only when the test
+ * says so.
+ *
+ * @author RollW
+ */
+class ReviewerAllocatorClusterTest {
+    private static final ContentIdentity ARTICLE = ContentIdentity.of("article", ContentType.ARTICLE);
+    private static final int WEIGHT = ContentType.ARTICLE.getWeight();
+
+    private BaselineSchemaDatabase database;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    void setUp() {
+        database = BaselineSchemaDatabase.create("reviewer_allocator", Map.of(),
+                ReviewerWorkloadEntity.class);
+        entityManager = SharedEntityManagerCreator
+                .createSharedEntityManager(database.getSessionFactory());
+        transactionTemplate = new TransactionTemplate(
+                new JpaTransactionManager(database.getSessionFactory()));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (nodeA != null) {
+            nodeA.allocator.destroy();
+        }
+        if (nodeB != null) {
+            nodeB.allocator.destroy();
+        }
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @Test
+    void nodeWithStaleMirrorTakesNextReviewer() {
+        insertWorkloads(Map.of(1L, 0, 2L, 1));
+        nodeA = new Node(newRepository());
+        nodeB = new Node(newRepository());
+
+        assertEquals(1, nodeA.allocate());
+        // Node B still sees reviewer 1 without workload, the compare
+        // and set on its row fails and the mirror is corrected.
+        assertEquals(2, nodeB.allocate());
+        assertEquals(Map.of(1L, WEIGHT, 2L, 1 + WEIGHT), findWorkloads());
+
+        assertEquals(1, nodeB.allocate());
+        assertEquals(Map.of(1L, 2 * WEIGHT, 2L, 1 + WEIGHT), findWorkloads());
+    }
+
+    @Test
+    void contendedAllocationKeepsCandidate() {
+        insertWorkloads(Map.of(1L, 0, 2L, WEIGHT + 1));
+        AtomicBoolean contended = new AtomicBoolean(true);
+        ReviewerWorkloadRepository other = newRepository();
+        ReviewerWorkloadRepository repository = spy(newRepository());
+        // Another node changes the row between the read and the compare
+        // and set of this node.
+        doAnswer(invocation -> {
+            if (contended.get()) {
+                other.addWorkload(invocation.getArgument(0), 0);
+            }
+            return invocation.callRealMethod();
+        }).when(repository).compareAndSetWorkload(anyLong(), anyLong(), anyInt());
+        nodeA = new Node(repository);
+
+        assertEquals(1, nodeA.allocate());
+        verify(repository, times(1)).compareAndSetWorkload(anyLong(), anyLong(), anyInt());
+        verify(repository, times(1)).addWorkload(1L, WEIGHT);
+        assertEquals(Map.of(1L, WEIGHT, 2L, WEIGHT + 1), findWorkloads());
+
+        // The mirror got the weight on commit, so reviewer 1 is taken
+        // once more before reviewer 2.
+        contended.set(false);
+        assertEquals(1, nodeA.allocate());
+        assertEquals(2, nodeA.allocate());
+        assertEquals(Map.of(1L, 2 * WEIGHT, 2L, 2 * WEIGHT + 1), findWorkloads());
+    }
+
+    @Test
+    void rolledBackAllocationLeavesMirror() {
+        insertWorkloads(Map.of(1L, 0, 2L, 1));
+        nodeA = new Node(newRepository());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(1, nodeA.allocator.allocateReviewer(ARTICLE, false));
+            status.setRollbackOnly();
+        });
+        assertEquals(Map.of(1L, 0, 2L, 1), findWorkloads());
+
+        assertEquals(1, nodeA.allocate());
+        assertEquals(Map.of(1L, WEIGHT, 2L, 1), findWorkloads());
+    }
+
+    @Test
+    void reloadPicksUpReleasesOfOtherNodes() {
+        insertWorkloads(Map.of(1L, 0, 2L, 1));
+        nodeA = new Node(newRepository());
+        nodeB = new Node(newRepository());
+
+        assertEquals(1, nodeA.allocate());
+        transactionTemplate.executeWithoutResult(status ->
+                nodeB.allocator.releaseReviewer(1, ARTICLE));
+        assertEquals(Map.of(1L, 0, 2L, 1), findWorkloads());
+
+        // Node A still counts the released weight until it reloads
+        assertEquals(2, nodeA.allocate());
+        nodeA.reload();
+        assertEquals(1, nodeA.allocate());
+        assertEquals(Map.of(1L, WEIGHT, 2L, 1 + WEIGHT), findWorkloads());
+    }
+
+    @Test
+    void concurrentAllocationsOnBothNodesAreAllCounted() throws Exception {
+        insertWorkloads(Map.of(1L, 0, 2L, 0, 3L, 0, 4L, 0));
+        nodeA = new Node(newRepository());
+        nodeB = new Node(newRepository());
+        int threadsPerNode = 8;
+        int allocationsPerThread = 25;
+
+        Map<Long, AtomicInteger> allocations = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2 * threadsPerNode);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 2 * threadsPerNode; i++) {
+                Node node = i % 2 == 0 ? nodeA : nodeB;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < allocationsPerThread; j++) {
+                        allocations.computeIfAbsent(node.allocate(), id -> new AtomicInteger())
+                                .incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<Long, Integer> expected = allocations.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().get() * WEIGHT));
+        Map<Long, Integer> workloads = findWorkloads();
+        workloads.values().removeIf(workload -> workload == 0);
+        assertEquals(expected, workloads);
+        assertEquals(2 * threadsPerNode * allocationsPerThread * WEIGHT,
+                workloads.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    private ReviewerWorkloadRepository newRepository() {
+        return new ReviewerWorkloadRepository(
+                new JpaRepositoryFactory(entityManager).getRepository(ReviewerWorkloadDao.class),
+                entityManager);
+    }
+
+    private void insertWorkloads(Map<Long, Integer> workloads) {
+        ReviewerWorkloadRepository repository = newRepository();
+        transactionTemplate.executeWithoutResult(status -> workloads.forEach((reviewerId, workload) ->
+                repository.save(new ReviewerWorkloadEntity(reviewerId, workload, null, OffsetDateTime.now()))));
+    }
+
+    private Map<Long, Integer> findWorkloads() {
+        ReviewerWorkloadRepository repository = newRepository();
+        return transactionTemplate.execute(status -> repository.findAll().stream()
+                .collect(Collectors.toMap(ReviewerWorkloadEntity::getReviewerId,
+                        ReviewerWorkloadEntity::getWorkload)));
+    }
+
+    /**
+     * An allocator with its own mirror of the table, loaded on creation.
+     */
+    private final class Node {
+        private final ReviewerAllocatorImpl allocator;
+        private final Runnable reloadTask;
+
+        Node(ReviewerWorkloadRepository repository) {
+            TaskScheduler taskScheduler = mock(TaskScheduler.class);
+            doReturn(mock(ScheduledFuture.class)).when(taskScheduler)
+                    .scheduleWithFixedDelay(any(Runnable.class), any(Instant.class), any(Duration.class));
+            allocator = new ReviewerAllocatorImpl(repository, mock(StaffRepository.class), taskScheduler);
+            ArgumentCaptor<Runnable> reload = ArgumentCaptor.forClass(Runnable.class);
+            verify(taskScheduler).scheduleWithFixedDelay(reload.capture(),
+                    any(Instant.class), any(Duration.class));
+            reloadTask = reload.getValue();
+            reload();
+        }
+
+        void reload() {
+            transactionTemplate.executeWithoutResult(status -> reloadTask.run());
+        }
+
+        long allocate() {
+            return transactionTemplate.execute(status -> allocator.allocateReviewer(ARTICLE, false));
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.message.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.scheduling.TaskScheduler;
+import tech.lamprism.lampray.common.data.ResourceIdGenerator;
+import tech.lamprism.lampray.web.domain.message.ChatMessage;
+import tech.lamprism.lampray.web.domain.message.ChatMessageHistory;
+import tech.lamprism.lampray.web.domain.message.ChatType;
+import tech.lamprism.lampray.web.domain.message.ConversationKeys;
+import tech.lamprism.lampray.web.domain.message.SimpleTransferredMessage;
+import tech.lamprism.lampray.web.domain.message.StringMessageContent;
+import tech.lamprism.lampray.web.domain.message.TransferredMessageType;
+import tech.lamprism.lampray.web.domain.message.event.ChatMessageRejectedEvent;
+import tech.lamprism.lampray.web.domain.message.persistence.ChatMessageEntity;
+import tech.lamprism.lampray.web.domain.message.persistence.ChatMessageRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class ChatMessageStoreTest {
+    private static final long ALICE = 1;
+    private static final long BOB = 2;
+    private static final long GROUP = 10;
+    private static final String CONVERSATION = ConversationKeys.ofUsers(ALICE, BOB);
+
+    private final ChatMessageRepository repository = mock(ChatMessageRepository.class);
+    private final ResourceIdGenerator resourceIdGenerator = mock(ResourceIdGenerator.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final List<ChatMessageEntity> written = new ArrayList<>();
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    private ChatMessageStore store;
+
+    @BeforeEach
+    void setUp() {
+        AtomicLong ids = new AtomicLong();
+        when(resourceIdGenerator.nextId(any())).thenAnswer(invocation ->
+                "m%05d".formatted(ids.incrementAndGet()));
+        // Reads see nothing of the database unless a test writes
+        when(repository.findLatest(anyString(), any(), anyInt())).thenReturn(List.of());
+        when(repository.findLatestOfUser(anyLong(), anyCollection(), anyInt())).thenReturn(List.of());
+        doAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            return null;
+        }).when(repository).insertAll(anyCollection(), anyInt());
+        store = new ChatMessageStore(repository, resourceIdGenerator, eventPublisher,
+                mock(TaskScheduler.class));
+    }
+
+    @Test
+    void appendedMessagesAreReadInOrderBeforeTheyAreWritten() {
+        List<ChatMessage> appended = List.of(
+                append(ALICE, BOB, "hi"),
+                append(BOB, ALICE, "hello"),
+                append(ALICE, BOB, "how are you?")
+        );
+
+        ChatMessageHistory history = store.getHistory(CONVERSATION, null, 10);
+
+        assertEquals(ids(appended), ids(history.messages()));
+        assertNull(history.nextCursor());
+        assertEquals(ids(appended), ids(store.getLatestOfUser(BOB, Set.of(), 10)));
+        verify(repository, never()).insertAll(anyCollection(), anyInt());
+    }
+
+    @Test
+    void pagesOlderThanTheRingIncludeUnwrittenMessages() {
+        List<ChatMessage> appended = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            appended.add(append(ALICE, BOB, "message " + i));
+        }
+
+        ChatMessageHistory latest = store.getHistory(CONVERSATION, null, 30);
+        ChatMessageHistory older = store.getHistory(CONVERSATION,
+                appended.get(50).toCursor(), 30);
+
+        assertEquals(ids(appended.subList(70, 100)), ids(latest.messages()));
+        assertNotNull(latest.nextCursor());
+        assertEquals(ids(appended.subList(20, 50)), ids(older.messages()));
+        assertNotNull(older.nextCursor());
+        verify(repository, never()).insertAll(anyCollection(), anyInt());
+    }
+
+    @Test
+    void latestOfUserMergesWrittenAndUnwrittenMessages() {
+        ChatMessage first = append(ALICE, BOB, "first");
+        ChatMessage groupMessage = appendToGroup(BOB, GROUP, "group");
+        store.flush();
+        when(repository.findLatestOfUser(anyLong(), anyCollection(), anyInt()))
+                .thenReturn(List.of(entity(groupMessage), entity(first)));
+        ChatMessage unwritten = append(BOB, ALICE, "second");
+        appendToGroup(BOB, GROUP + 1, "other group");
+
+        List<ChatMessage> latest = store.getLatestOfUser(ALICE, Set.of(GROUP), 10);
+
+        assertEquals(ids(List.of(first, groupMessage, unwritten)), ids(latest));
+        assertEquals(ids(List.of(groupMessage, unwritten)),
+                ids(store.getLatestOfUser(ALICE, Set.of(GROUP), 2)));
+    }
+
+    @Test
+    void messageInBothTheDatabaseAndTheBufferIsReadOnce() {
+        ChatMessage message = append(ALICE, BOB, "hi");
+        when(repository.findLatestOfUser(anyLong(), anyCollection(), anyInt()))
+                .thenReturn(List.of(entity(message)));
+
+        assertEquals(ids(List.of(message)), ids(store.getLatestOfUser(ALICE, Set.of(), 10)));
+    }
+
+    @Test
+    void flushWritesPendingMessagesInOneBatch() {
+        List<ChatMessage> appended = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            appended.add(append(ALICE, BOB, "message " + i));
+        }
+
+        store.flush();
+        store.flush();
+
+        verify(repository).insertAll(anyCollection(), anyInt());
+        assertEquals(ids(appended), written.stream().map(ChatMessageEntity::getEntityId).toList());
+    }
+
+    @Test
+    void transientFailureKeepsMessagesReadableUntilWritten() {
+        doAnswer(invocation -> {
+            throw new TransientDataAccessResourceException("Database is down");
+        }).when(repository).insertAll(anyCollection(), anyInt());
+        List<ChatMessage> appended = List.of(append(ALICE, BOB, "a"), append(ALICE, BOB, "b"));
+
+        assertThrows(TransientDataAccessResourceException.class, store::flush);
+
+        assertEquals(ids(appended), ids(store.getLatestOfUser(ALICE, Set.of(), 10)));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        doAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            return null;
+        }).when(repository).insertAll(anyCollection(), anyInt());
+        store.flush();
+
+        assertEquals(ids(appended), written.stream().map(ChatMessageEntity::getEntityId).toList());
+        assertTrue(store.getLatestOfUser(ALICE, Set.of(), 10).isEmpty());
+    }
+
+    @Test
+    void rejectedMessageIsRemovedAndReported() {
+        ChatMessage good = append(ALICE, BOB, "good");
+        ChatMessage bad = append(ALICE, BOB, "bad");
+        ChatMessage after = append(BOB, ALICE, "after");
+        doAnswer(invocation -> {
+            Collection<ChatMessageEntity> entities = invocation.getArgument(0);
+            if (entities.stream().anyMatch(entity -> entity.getEntityId().equals(bad.getId()))) {
+                throw new DataIntegrityViolationException("Content too long");
+            }
+            written.addAll(entities);
+            return null;
+        }).when(repository).insertAll(anyCollection(), anyInt());
+        // Loads the ring before the flush
+        assertEquals(3, store.getHistory(CONVERSATION, null, 10).messages().size());
+
+        store.flush();
+
+        assertEquals(ids(List.of(good, after)),
+                written.stream().map(ChatMessageEntity::getEntityId).toList());
+        ArgumentCaptor<ChatMessageRejectedEvent> event =
+                ArgumentCaptor.forClass(ChatMessageRejectedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(bad.getId(), event.getValue().getMessage().getId());
+        assertEquals(ids(List.of(good, after)),
+                ids(store.getHistory(CONVERSATION, null, 10).messages()));
+    }
+
+    @Test
+    void appendsAreRefusedWhileTooManyMessagesAreUnwritten() {
+        doAnswer(invocation -> {
+            throw new TransientDataAccessResourceException("Database is down");
+        }).when(repository).insertAll(anyCollection(), anyInt());
+        for (int i = 0; i < ChatMessageStore.MAX_UNWRITTEN_MESSAGES; i++) {
+            assertNotNull(append(ALICE, BOB, "message " + i));
+        }
+
+        assertNull(append(ALICE, BOB, "one too many"));
+        assertThrows(TransientDataAccessResourceException.class, store::flush);
+        assertNull(append(ALICE, BOB, "still too many"));
+
+        doAnswer(invocation -> null).when(repository).insertAll(anyCollection(), anyInt());
+        store.flush();
+        assertNotNull(append(ALICE, BOB, "accepted again"));
+    }
+
+    private ChatMessage append(long senderId, long receiverId, String content) {
+        return store.append(new SimpleTransferredMessage(TransferredMessageType.NORMAL,
+                senderId, receiverId, ChatType.USER, new StringMessageContent(content),
+                clock.incrementAndGet()));
+    }
+
+    private ChatMessage appendToGroup(long senderId, long groupId, String content) {
+        return store.append(new SimpleTransferredMessage(TransferredMessageType.NORMAL,
+                senderId, groupId, ChatType.GROUP, new StringMessageContent(content),
+                clock.incrementAndGet()));
+    }
+
+    private static ChatMessageEntity entity(ChatMessage message) {
+        return ChatMessageEntity.toEntity(message);
+    }
+
+    private static List<String> ids(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getId).toList();
+    }
+}
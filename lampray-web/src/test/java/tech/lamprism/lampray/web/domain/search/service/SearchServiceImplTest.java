@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.search.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import tech.lamprism.lampray.setting.ConfigReader;
+import tech.lamprism.lampray.web.common.keys.SearchConfigKeys;
+import tech.lamprism.lampray.web.domain.search.SearchDocument;
+import tech.lamprism.lampray.web.domain.search.SearchDocumentType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Searches CJK text, which is indexed as overlapping bigrams instead
+ * of words.
+ *
+ * @author RollW
+ */
+class SearchServiceImplTest {
+    @TempDir
+    Path indexPath;
+
+    private ThreadPoolTaskScheduler taskScheduler;
+    private SearchServiceImpl searchService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ConfigReader configReader = mock(ConfigReader.class);
+        when(configReader.get(SearchConfigKeys.SEARCH_INDEX_PATH)).thenReturn(indexPath.toString());
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+        searchService = new SearchServiceImpl(configReader, taskScheduler);
+        searchService.index(List.of(
+                new SearchDocument(SearchDocumentType.ARTICLE, "1",
+                        "全文搜索引擎", "基于 Lucene 的全文检索"),
+                new SearchDocument(SearchDocumentType.ARTICLE, "2",
+                        "東京の天気", "今日は晴れです"),
+                new SearchDocument(SearchDocumentType.ARTICLE, "3",
+                        "검색 엔진", "한국어 문서"),
+                new SearchDocument(SearchDocumentType.ARTICLE, "4",
+                        "搜索", null)
+        ));
+        searchService.markBuilt();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        searchService.destroy();
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    void chineseWordMatchesByBigrams() {
+        assertEquals(List.of("1"), search("搜索引擎"));
+        assertEquals(List.of("1"), search("全文检索"));
+    }
+
+    @Test
+    void exactNameRanksFirst() {
+        assertEquals(List.of("4", "1"), search("搜索"));
+    }
+
+    @Test
+    void japaneseAndKoreanMatchByBigrams() {
+        assertEquals(List.of("2"), search("東京"));
+        assertEquals(List.of("2"), search("晴れ"));
+        assertEquals(List.of("3"), search("검색"));
+    }
+
+    @Test
+    void mixedScriptMatchesBothParts() {
+        assertEquals(List.of("1"), search("lucene 检索"));
+    }
+
+    @Test
+    void charactersOutOfOrderDoNotMatch() {
+        // "索擎" is not a bigram of "搜索引擎"
+        assertTrue(search("索擎").isEmpty());
+        assertTrue(search("引索").isEmpty());
+    }
+
+    private List<String> search(String keyword) {
+        return searchService.search(SearchDocumentType.ARTICLE, keyword, null, 10).ids();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.usergroup.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupChangeEntity;
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupChangeRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class UserGroupChangeWatcherTest {
+    private static final String ORIGIN = "self";
+
+    private final UserGroupChangeRepository repository = mock(UserGroupChangeRepository.class);
+    private final UserGroupChangeLog changeLog = mock(UserGroupChangeLog.class);
+    private final UserGroupServiceImpl service = mock(UserGroupServiceImpl.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private Runnable poll;
+
+    @BeforeEach
+    void setUp() {
+        when(changeLog.getOrigin()).thenReturn(ORIGIN);
+        new UserGroupChangeWatcher(repository, changeLog, service, taskScheduler);
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).scheduleWithFixedDelay(task.capture(), any(Instant.class), any(Duration.class));
+        poll = task.getValue();
+    }
+
+    @Test
+    void groupsChangedByOtherNodesAreInvalidated() {
+        changes(change(1, 7, "other"), change(2, 7, "other"), change(3, 8, ORIGIN));
+
+        poll.run();
+        poll.run();
+
+        verify(service, times(1)).invalidateMemberIds(7);
+        verify(service, never()).invalidateMemberIds(8);
+    }
+
+    private void changes(UserGroupChangeEntity... changes) {
+        when(repository.findLatestSequence()).thenReturn(0L);
+        when(repository.findAfter(eq(0L), anyInt())).thenReturn(List.of(changes));
+        when(repository.findAfter(eq((long) changes.length), anyInt())).thenReturn(List.of());
+    }
+
+    private static UserGroupChangeEntity change(long id, long groupId, String origin) {
+        return new UserGroupChangeEntity(id, groupId, origin, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.domain.usergroup.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupEntity;
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupMemberEntity;
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupMemberRepository;
+import tech.lamprism.lampray.web.domain.usergroup.persistence.UserGroupRepository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class UserGroupServiceImplTest {
+    private static final long GROUP_ID = 1;
+
+    private final UserGroupRepository groupRepository = mock(UserGroupRepository.class);
+    private final UserGroupMemberRepository memberRepository = mock(UserGroupMemberRepository.class);
+    private final UserGroupChangeLog changeLog = mock(UserGroupChangeLog.class);
+    private UserGroupServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        when(groupRepository.findById(GROUP_ID)).thenReturn(Optional.of(group(false)));
+        when(memberRepository.findMemberIds(GROUP_ID)).thenReturn(List.of(10L, 11L));
+        when(memberRepository.save(any(UserGroupMemberEntity.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        service = new UserGroupServiceImpl(groupRepository, memberRepository, changeLog);
+    }
+
+    @Test
+    void memberIdsAreLoadedOnce() {
+        assertEquals(Set.of(10L, 11L), service.getMemberIds(GROUP_ID));
+        assertTrue(service.isMember(GROUP_ID, 10L));
+        assertFalse(service.isMember(GROUP_ID, 12L));
+
+        verify(memberRepository, times(1)).findMemberIds(GROUP_ID);
+    }
+
+    @Test
+    void membershipChangesUpdateLoadedIdsAndAreRecorded() {
+        service.getMemberIds(GROUP_ID);
+        when(memberRepository.findMember(GROUP_ID, 11L)).thenReturn(member(11L, false));
+
+        service.addMember(GROUP_ID, 12L);
+        service.removeMember(GROUP_ID, 11L);
+
+        assertEquals(Set.of(10L, 12L), service.getMemberIds(GROUP_ID));
+        verify(memberRepository, times(1)).findMemberIds(GROUP_ID);
+        verify(changeLog, times(2)).record(GROUP_ID);
+    }
+
+    @Test
+    void unchangedMembershipIsNotRecorded() {
+        when(memberRepository.findMember(GROUP_ID, 10L)).thenReturn(member(10L, false));
+        when(memberRepository.findMember(GROUP_ID, 12L)).thenReturn(null);
+
+        service.addMember(GROUP_ID, 10L);
+        service.removeMember(GROUP_ID, 12L);
+
+        verify(changeLog, never()).record(GROUP_ID);
+    }
+
+    @Test
+    void deletedGroupHasNoMembers() {
+        service.getMemberIds(GROUP_ID);
+        UserGroupEntity group = group(false);
+        when(groupRepository.findById(GROUP_ID)).thenReturn(Optional.of(group));
+
+        service.deleteUserGroup(GROUP_ID);
+
+        assertTrue(group.getDeleted());
+        assertTrue(service.getMemberIds(GROUP_ID).isEmpty());
+        verify(changeLog).record(GROUP_ID);
+    }
+
+    @Test
+    void invalidatedMemberIdsAreReloaded() {
+        service.getMemberIds(GROUP_ID);
+        when(memberRepository.findMemberIds(GROUP_ID)).thenReturn(List.of(10L));
+
+        service.invalidateMemberIds(GROUP_ID);
+
+        assertEquals(Set.of(10L), service.getMemberIds(GROUP_ID));
+        verify(memberRepository, times(2)).findMemberIds(GROUP_ID);
+    }
+
+    private static UserGroupEntity group(boolean deleted) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return new UserGroupEntity(GROUP_ID, "group", "", Map.of(), now, now, deleted);
+    }
+
+    private static UserGroupMemberEntity member(long userId, boolean deleted) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return new UserGroupMemberEntity(userId, GROUP_ID, userId, now, now, deleted);
+    }
+}
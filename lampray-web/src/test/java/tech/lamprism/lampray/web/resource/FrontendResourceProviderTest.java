@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.resource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.scheduling.TaskScheduler;
+import tech.lamprism.lampray.setting.ConfigReader;
+import tech.lamprism.lampray.web.ExternalEndpointProvider;
+import tech.lamprism.lampray.web.common.keys.ResourceConfigKeys;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class FrontendResourceProviderTest {
+    private static final String APP_JS = "assets/app-AbCd1234.js";
+
+    @TempDir
+    Path root;
+
+    private final ConfigReader configReader = mock(ConfigReader.class);
+    private final ExternalEndpointProvider externalEndpointProvider = mock(ExternalEndpointProvider.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final ScheduledFuture<?> refreshTask = mock(ScheduledFuture.class);
+    private final FrontendResourceProvider provider =
+            new FrontendResourceProvider(configReader, externalEndpointProvider, taskScheduler);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        write("index.html", "<html>lampray</html>");
+        write(APP_JS, "console.log('lampray');");
+        when(configReader.get(ResourceConfigKeys.FRONTEND_ENABLED)).thenReturn(true);
+        when(configReader.get(ResourceConfigKeys.RESOURCE_SOURCE)).thenReturn(root.toString());
+        doReturn(refreshTask).when(taskScheduler)
+                .scheduleWithFixedDelay(any(Runnable.class), any(Instant.class), any(Duration.class));
+    }
+
+    @Test
+    void localSourceIsIndexedOnStart() throws IOException {
+        start();
+
+        assertEquals(2, provider.getIndex().size());
+        assertNotNull(provider.getIndexHtml());
+        assertEquals("console.log('lampray');", read(provider.getIndex().get(APP_JS)));
+    }
+
+    @Test
+    void unchangedSourceKeepsItsIndex() {
+        Runnable refresh = start();
+        ResourceIndex index = provider.getIndex();
+
+        refresh.run();
+
+        assertSame(index, provider.getIndex());
+    }
+
+    @Test
+    void changedFileIsIndexedAgainOnRefresh() throws IOException {
+        Runnable refresh = start();
+        ResourceIndex index = provider.getIndex();
+
+        Path appJs = write(APP_JS, "console.log('changed');");
+        Files.setLastModifiedTime(appJs, FileTime.from(Instant.now().plusSeconds(10)));
+        refresh.run();
+
+        assertNotSame(index, provider.getIndex());
+        assertEquals("console.log('changed');", read(provider.getIndex().get(APP_JS)));
+    }
+
+    @Test
+    void addedAndDeletedFilesAreIndexedAgainOnRefresh() throws IOException {
+        Runnable refresh = start();
+
+        write("assets/logo.svg", "<svg/>");
+        Files.delete(root.resolve(APP_JS));
+        refresh.run();
+
+        assertNotNull(provider.getIndex().get("assets/logo.svg"));
+        assertNull(provider.getIndex().get(APP_JS));
+    }
+
+    @Test
+    void changedSourceSettingIsIndexed() throws IOException {
+        start();
+        Path other = Files.createDirectory(root.resolve("other"));
+        Files.writeString(other.resolve("index.html"), "<html>other</html>");
+
+        when(configReader.get(ResourceConfigKeys.RESOURCE_SOURCE)).thenReturn(other.toString());
+
+        assertEquals(1, provider.getIndex().size());
+        assertEquals("<html>other</html>", read(provider.getIndexHtml()));
+    }
+
+    @Test
+    void disabledFrontendIsNotIndexed() {
+        when(configReader.get(ResourceConfigKeys.FRONTEND_ENABLED)).thenReturn(false);
+
+        provider.onApplicationEvent(mock(ApplicationStartedEvent.class));
+
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    void refreshIsCancelledOnDestroy() {
+        start();
+
+        provider.destroy();
+
+        verify(refreshTask).cancel(false);
+    }
+
+    @Test
+    void configJsIsRenderedOncePerEndpoint() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        when(externalEndpointProvider.getExternalApiEndpoint()).thenReturn("https://lampray.example");
+
+        IndexedResource configJs = provider.getConfigJs(request);
+
+        assertSame(configJs, provider.getConfigJs(request));
+        assertEquals("window.config={server:{host:\"lampray.example\"," +
+                "httpProtocol:\"https\",wsProtocol:\"wss\"}}", read(configJs));
+
+        when(externalEndpointProvider.getExternalApiEndpoint()).thenReturn("http://localhost:5100");
+        assertEquals("window.config={server:{host:\"localhost:5100\"," +
+                "httpProtocol:\"http\",wsProtocol:\"ws\"}}", read(provider.getConfigJs(request)));
+    }
+
+    private Runnable start() {
+        provider.onApplicationEvent(mock(ApplicationStartedEvent.class));
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).scheduleWithFixedDelay(refresh.capture(),
+                any(Instant.class), any(Duration.class));
+        return refresh.getValue();
+    }
+
+    private Path write(String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private static String read(IndexedResource resource) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        resource.getContent(ResourceEncoding.IDENTITY).writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
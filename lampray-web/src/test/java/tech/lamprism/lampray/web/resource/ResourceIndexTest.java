@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.resource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Indexes resources packed in a jar, the layout resources are served
+ * from in a packaged application.
+ *
+ * @author RollW
+ */
+class ResourceIndexTest {
+    private static final long IN_MEMORY_THRESHOLD = 1024;
+
+    private static final byte[] INDEX_HTML = "<html><body>lampray</body></html>\n"
+            .repeat(20).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] APP_JS = "console.log('lampray');\n"
+            .repeat(20).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] APP_JS_BR = {1, 2, 3};
+    private static final byte[] LARGE_IMAGE = new byte[(int) IN_MEMORY_THRESHOLD * 4];
+
+    @TempDir
+    Path tempDir;
+
+    private URLClassLoader classLoader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path jar = tempDir.resolve("resources.jar");
+        try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(jar))) {
+            putDirectory(outputStream, "assets/");
+            putDirectory(outputStream, "assets/images/");
+            putEntry(outputStream, "assets/index.html", INDEX_HTML);
+            putEntry(outputStream, "assets/app.js", APP_JS);
+            putEntry(outputStream, "assets/app.js.br", APP_JS_BR);
+            putEntry(outputStream, "assets/images/large image.png", LARGE_IMAGE);
+        }
+        classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null);
+    }
+
+    private ResourceIndex scan(String location) throws IOException {
+        return ResourceIndex.scan(new PathMatchingResourcePatternResolver(classLoader),
+                location, IN_MEMORY_THRESHOLD);
+    }
+
+    @Test
+    void indexesResourcesInJar() throws IOException {
+        ResourceIndex index = scan("classpath:/assets");
+
+        assertEquals(3, index.size());
+        IndexedResource indexHtml = index.get("index.html");
+        assertNotNull(indexHtml);
+        assertEquals("text/html", indexHtml.getMimeType());
+        assertEquals(INDEX_HTML.length, indexHtml.getLength());
+        assertArrayEquals(INDEX_HTML, read(indexHtml.getContent(ResourceEncoding.IDENTITY)));
+        assertEquals(IndexedResource.hash(INDEX_HTML), indexHtml.getHash());
+    }
+
+    @Test
+    void attachesPrebuiltVariants() throws IOException {
+        ResourceIndex index = scan("classpath:/assets");
+
+        assertNull(index.get("app.js.br"));
+        IndexedResource appJs = index.get("app.js");
+        assertNotNull(appJs);
+        assertTrue(appJs.hasEncodedVariants());
+        IndexedResource.Content brotli = appJs.selectContent(
+                Set.of(ResourceEncoding.BROTLI, ResourceEncoding.GZIP, ResourceEncoding.IDENTITY));
+        assertEquals(ResourceEncoding.BROTLI, brotli.getEncoding());
+        assertArrayEquals(APP_JS_BR, read(brotli));
+        // Generated for the in-memory resource
+        assertEquals(ResourceEncoding.GZIP,
+                appJs.selectContent(Set.of(ResourceEncoding.GZIP, ResourceEncoding.IDENTITY)).getEncoding());
+    }
+
+    @Test
+    void streamsLargeResourcesFromJar() throws IOException {
+        ResourceIndex index = scan("classpath:/assets");
+
+        IndexedResource image = index.get("images/large image.png");
+        assertNotNull(image);
+        assertEquals("image/png", image.getMimeType());
+        assertFalse(image.hasEncodedVariants());
+        IndexedResource.Content content = image.getContent(ResourceEncoding.IDENTITY);
+        assertFalse(content.isInMemory());
+        assertEquals(LARGE_IMAGE.length, content.getLength());
+        assertArrayEquals(LARGE_IMAGE, read(content));
+    }
+
+    @Test
+    void matchesOnlyTheETagOfTheSelectedEncoding() throws IOException {
+        IndexedResource appJs = scan("classpath:/assets").get("app.js");
+        assertNotNull(appJs);
+
+        String identity = appJs.getETag(ResourceEncoding.IDENTITY);
+        String brotli = appJs.getETag(ResourceEncoding.BROTLI);
+        assertTrue(appJs.matchesETag(identity, ResourceEncoding.IDENTITY));
+        assertTrue(appJs.matchesETag("W/" + brotli, ResourceEncoding.BROTLI));
+        assertFalse(appJs.matchesETag(brotli, ResourceEncoding.IDENTITY));
+        assertFalse(appJs.matchesETag(identity, ResourceEncoding.BROTLI));
+        assertFalse(appJs.matchesETag("\"other\"", ResourceEncoding.IDENTITY));
+    }
+
+    @Test
+    void missingLocationIsEmpty() throws IOException {
+        assertEquals(0, scan("classpath:/missing").size());
+    }
+
+    private static void putDirectory(JarOutputStream outputStream, String name) throws IOException {
+        outputStream.putNextEntry(new JarEntry(name));
+        outputStream.closeEntry();
+    }
+
+    private static void putEntry(JarOutputStream outputStream, String name,
+                                 byte[] content) throws IOException {
+        outputStream.putNextEntry(new JarEntry(name));
+        outputStream.write(content);
+        outputStream.closeEntry();
+    }
+
+    private static byte[] read(IndexedResource.Content content) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        content.writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+}
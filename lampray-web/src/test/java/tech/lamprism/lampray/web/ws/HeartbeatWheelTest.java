@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author RollW
+ */
+class HeartbeatWheelTest {
+    private static final long TICK = 10;
+    private static final int SIZE = 8;
+
+    private final HeartbeatWheel<String> wheel = new HeartbeatWheel<>(1000, TICK, SIZE);
+
+    @Test
+    void entryIsDueInTheTickOfItsDeadline() {
+        wheel.schedule("a", 1025);
+
+        assertTrue(advance(1019).isEmpty());
+        assertEquals(List.of("a"), advance(1020));
+        assertTrue(advance(1100).isEmpty());
+    }
+
+    @Test
+    void timeBeforeStartIsTheFirstTick() {
+        wheel.schedule("a", 0);
+
+        assertEquals(0, wheel.toTick(0));
+        assertEquals(List.of("a"), advance(1000));
+    }
+
+    @Test
+    void pastDeadlineIsDueInTheNextTick() {
+        advance(1050);
+        assertEquals(6, wheel.getNextTick());
+
+        wheel.schedule("late", 1010);
+
+        assertTrue(advance(1059).isEmpty());
+        assertEquals(List.of("late"), advance(1060));
+    }
+
+    @Test
+    void deadlinePastOneRoundIsDueAtTheEndOfTheRound() {
+        wheel.schedule("far", 1000 + 100 * TICK);
+
+        assertTrue(advance(1069).isEmpty());
+        assertEquals(List.of("far"), advance(1070));
+    }
+
+    @Test
+    void advancingOverManyTicksPassesEntriesInTickOrder() {
+        wheel.schedule("c", 1050);
+        wheel.schedule("a", 1010);
+        wheel.schedule("b", 1030);
+        wheel.schedule("a2", 1015);
+
+        assertEquals(List.of("a", "a2", "b", "c"), advance(2000));
+        assertEquals(101, wheel.getNextTick());
+    }
+
+    @Test
+    void entryScheduledAgainWhileAdvancingIsDueLater() {
+        wheel.schedule("a", 1020);
+        List<String> passed = new ArrayList<>();
+
+        // now is the deadline, but its tick has been advanced over
+        wheel.advance(1020, entry -> {
+            passed.add(entry);
+            wheel.schedule(entry, 1020);
+        });
+        assertEquals(List.of("a"), passed);
+
+        assertEquals(List.of("a"), advance(1030));
+    }
+
+    @Test
+    void entryScheduledARoundAheadWhileAdvancingWaitsForTheRound() {
+        wheel.schedule("a", 1000);
+        List<String> passed = new ArrayList<>();
+
+        // lands in the bucket being advanced over
+        wheel.advance(1000, entry -> {
+            passed.add(entry);
+            wheel.schedule(entry, 5000);
+        });
+        assertEquals(List.of("a"), passed);
+
+        assertTrue(advance(1000 + (SIZE - 1) * TICK).isEmpty());
+        assertEquals(List.of("a"), advance(1000 + SIZE * TICK));
+    }
+
+    @Test
+    void sizeMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HeartbeatWheel<String>(0, TICK, 6));
+    }
+
+    private List<String> advance(long now) {
+        List<String> passed = new ArrayList<>();
+        wheel.advance(now, passed::add);
+        return passed;
+    }
+}
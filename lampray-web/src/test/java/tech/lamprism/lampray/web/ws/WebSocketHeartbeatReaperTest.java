@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+import tech.lamprism.lampray.setting.ConfigReader;
+import tech.lamprism.lampray.web.common.keys.WebSocketConfigKeys;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class WebSocketHeartbeatReaperTest {
+    private static final long INTERVAL = 10_000;
+    private static final long TIMEOUT = 30_000;
+
+    private final ConfigReader configReader = mock(ConfigReader.class);
+    private WebSocketHeartbeatReaper reaper;
+    private Session session;
+    private RemoteEndpoint.Async remote;
+    private WebSocketMessageConnection<?> connection;
+    private long base;
+
+    @BeforeEach
+    void setUp() {
+        when(configReader.get(WebSocketConfigKeys.HEARTBEAT_INTERVAL)).thenReturn(INTERVAL);
+        when(configReader.get(WebSocketConfigKeys.HEARTBEAT_TIMEOUT)).thenReturn(TIMEOUT);
+        reaper = new WebSocketHeartbeatReaper(configReader, Runnable::run, mock(TaskScheduler.class));
+        session = mock(Session.class);
+        remote = mock(RemoteEndpoint.Async.class);
+        when(session.getAsyncRemote()).thenReturn(remote);
+        when(session.getId()).thenReturn("test");
+        when(session.isOpen()).thenReturn(true);
+        connection = new AbstractWebSocketMessageConnection<>(session) {
+        };
+        base = System.currentTimeMillis();
+        reaper.register(connection);
+        connection.onHeartbeat(base);
+        reaper.tick(base);
+    }
+
+    @Test
+    void pingsIdleConnectionAfterAnInterval() throws IOException {
+        reaper.tick(base + INTERVAL - 1000);
+        verify(remote, never()).sendPing(any(ByteBuffer.class));
+
+        reaper.tick(base + INTERVAL);
+        verify(remote, times(1)).sendPing(any(ByteBuffer.class));
+        // not pinged again before the next check
+        reaper.tick(base + 2 * INTERVAL - 1000);
+        verify(remote, times(1)).sendPing(any(ByteBuffer.class));
+    }
+
+    @Test
+    void activityPostponesThePing() throws IOException {
+        reaper.tick(base + INTERVAL);
+        verify(remote, times(1)).sendPing(any(ByteBuffer.class));
+
+        // the pong
+        connection.onHeartbeat(base + INTERVAL + 5000);
+        reaper.tick(base + 2 * INTERVAL + 1);
+        verify(remote, times(1)).sendPing(any(ByteBuffer.class));
+
+        reaper.tick(base + 2 * INTERVAL + 5000);
+        verify(remote, times(2)).sendPing(any(ByteBuffer.class));
+        verify(session, never()).close(any(CloseReason.class));
+    }
+
+    @Test
+    void closesConnectionSilentPastTheTimeout() throws IOException {
+        reaper.tick(base + INTERVAL);
+        reaper.tick(base + 2 * INTERVAL + 1);
+        verify(remote, times(2)).sendPing(any(ByteBuffer.class));
+        verify(session, never()).close(any(CloseReason.class));
+
+        reaper.tick(base + TIMEOUT + 1);
+
+        ArgumentCaptor<CloseReason> reason = ArgumentCaptor.forClass(CloseReason.class);
+        verify(session).close(reason.capture());
+        assertEquals(CloseReason.CloseCodes.GOING_AWAY, reason.getValue().getCloseCode());
+        assertEquals(TIMEOUT, connection.getTimeout());
+    }
+
+    @Test
+    void catchesUpAfterMissedTicks() throws IOException {
+        reaper.tick(base + 10 * TIMEOUT);
+
+        verify(session).close(any(CloseReason.class));
+        verify(remote, never()).sendPing(any(ByteBuffer.class));
+    }
+
+    @Test
+    void dropsClosedConnection() throws IOException {
+        when(session.isOpen()).thenReturn(false);
+
+        reaper.tick(base + INTERVAL);
+        when(session.isOpen()).thenReturn(true);
+        reaper.tick(base + 10 * TIMEOUT);
+
+        verify(remote, never()).sendPing(any(ByteBuffer.class));
+        verify(session, never()).close(any(CloseReason.class));
+    }
+
+    @Test
+    void pingWaitsForTheFrameBeingWritten() throws IOException {
+        connection.sendText("frame");
+
+        reaper.tick(base + INTERVAL);
+        verify(remote, never()).sendPing(any(ByteBuffer.class));
+
+        ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(remote).sendText(anyString(), handler.capture());
+        handler.getValue().onResult(new SendResult());
+        verify(remote, times(1)).sendPing(any(ByteBuffer.class));
+    }
+
+    @Test
+    void nextCheckOfActiveConnectionIsAnIntervalAfterItsActivity() {
+        assertEquals(15_000, WebSocketHeartbeatReaper.nextCheck(5_000, 8_000, INTERVAL, TIMEOUT));
+    }
+
+    @Test
+    void nextCheckOfPingedConnectionIsTheEarlierOfIntervalAndTimeout() {
+        assertEquals(22_001, WebSocketHeartbeatReaper.nextCheck(0, 12_000, INTERVAL, TIMEOUT));
+        assertEquals(30_001, WebSocketHeartbeatReaper.nextCheck(0, 25_000, INTERVAL, TIMEOUT));
+    }
+
+    @Test
+    void intervalAndTimeoutHaveFloors() {
+        when(configReader.get(WebSocketConfigKeys.HEARTBEAT_INTERVAL)).thenReturn(10L);
+        when(configReader.get(WebSocketConfigKeys.HEARTBEAT_TIMEOUT)).thenReturn(5_000L);
+
+        assertEquals(1000, reaper.getInterval());
+        // room for one ping to be answered
+        assertEquals(INTERVAL + 1000, reaper.getTimeout(INTERVAL));
+    }
+
+    @Test
+    void missingSettingsFallBackToDefaults() {
+        when(configReader.get(WebSocketConfigKeys.HEARTBEAT_INTERVAL)).thenReturn(null);
+        when(configReader.get(WebSocketConfigKeys.HEARTBEAT_TIMEOUT)).thenReturn(null);
+
+        assertEquals(WebSocketMessageConnection.DEFAULT_TIMEOUT / 2, reaper.getInterval());
+        assertEquals(WebSocketMessageConnection.DEFAULT_TIMEOUT,
+                reaper.getTimeout(WebSocketMessageConnection.DEFAULT_TIMEOUT / 2));
+    }
+}
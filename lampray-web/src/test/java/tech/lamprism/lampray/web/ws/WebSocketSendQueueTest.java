@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author RollW
+ */
+class WebSocketSendQueueTest {
+    private Session session;
+    private RemoteEndpoint.Async remote;
+
+    @BeforeEach
+    void setUp() {
+        session = mock(Session.class);
+        remote = mock(RemoteEndpoint.Async.class);
+        when(session.getAsyncRemote()).thenReturn(remote);
+        when(session.getId()).thenReturn("test");
+        when(session.isOpen()).thenReturn(true);
+    }
+
+    @Test
+    void writesOneFrameAtATime() {
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, 4, 4);
+
+        assertTrue(queue.offer("a"));
+        assertTrue(queue.offer("b"));
+        assertTrue(queue.offer("c"));
+
+        verify(remote, times(1)).sendText(anyString(), any(SendHandler.class));
+        assertEquals(2, queue.size());
+
+        queue.onResult(new SendResult());
+        queue.onResult(new SendResult());
+        queue.onResult(new SendResult());
+
+        ArgumentCaptor<String> frames = ArgumentCaptor.forClass(String.class);
+        verify(remote, times(3)).sendText(frames.capture(), any(SendHandler.class));
+        assertEquals(List.of("a", "b", "c"), frames.getAllValues());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void dropsFramesWhenFull() {
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, 2, 4);
+
+        assertTrue(queue.offer("in-flight"));
+        assertTrue(queue.offer("queued-1"));
+        assertTrue(queue.offer("queued-2"));
+        assertFalse(queue.offer("dropped"));
+
+        assertEquals(2, queue.size());
+        verify(remote, times(1)).sendText(anyString(), any(SendHandler.class));
+    }
+
+    @Test
+    void closesSlowConsumerAfterTooManyDrops() throws IOException {
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, 1, 2);
+
+        assertTrue(queue.offer("in-flight"));
+        assertTrue(queue.offer("queued"));
+        assertFalse(queue.offer("dropped-1"));
+        assertFalse(queue.offer("dropped-2"));
+        verify(session, never()).close(any(CloseReason.class));
+
+        assertFalse(queue.offer("dropped-3"));
+
+        ArgumentCaptor<CloseReason> reason = ArgumentCaptor.forClass(CloseReason.class);
+        verify(session).close(reason.capture());
+        assertEquals(CloseReason.CloseCodes.TRY_AGAIN_LATER, reason.getValue().getCloseCode());
+        assertEquals(0, queue.size());
+        // closed queue accepts nothing
+        assertFalse(queue.offer("after-close"));
+    }
+
+    @Test
+    void completedWriteResetsDropCount() throws IOException {
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, 1, 1);
+
+        queue.offer("in-flight");
+        queue.offer("queued");
+        assertFalse(queue.offer("dropped"));
+        queue.onResult(new SendResult());
+        assertTrue(queue.offer("queued-again"));
+        assertFalse(queue.offer("dropped-again"));
+
+        verify(session, never()).close(any(CloseReason.class));
+    }
+
+    @Test
+    void closesSessionWhenWriteFails() throws IOException {
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, 4, 4);
+
+        queue.offer("a");
+        queue.offer("b");
+        queue.onResult(new SendResult(new IOException("broken pipe")));
+
+        ArgumentCaptor<CloseReason> reason = ArgumentCaptor.forClass(CloseReason.class);
+        verify(session).close(reason.capture());
+        assertEquals(CloseReason.CloseCodes.CLOSED_ABNORMALLY, reason.getValue().getCloseCode());
+        assertEquals(0, queue.size());
+        assertFalse(queue.offer("c"));
+        verify(remote, times(1)).sendText(anyString(), any(SendHandler.class));
+    }
+
+    @Test
+    void closesSessionWhenRemoteThrows() throws IOException {
+        doThrow(new IllegalStateException("closed"))
+                .when(remote).sendText(anyString(), any(SendHandler.class));
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, 4, 4);
+
+        queue.offer("a");
+
+        verify(session).close(any(CloseReason.class));
+        assertFalse(queue.offer("b"));
+    }
+
+    @Test
+    void skipsCloseOfClosedSession() throws IOException {
+        when(session.isOpen()).thenReturn(false);
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, 4, 4);
+
+        queue.offer("a");
+        queue.onResult(new SendResult(new IOException("broken pipe")));
+
+        verify(session, never()).close(any(CloseReason.class));
+    }
+
+    @Test
+    void pingsRightAwayWhenIdle() throws IOException {
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, 4, 4);
+
+        assertTrue(queue.ping());
+        assertTrue(queue.offer("a"));
+
+        verify(remote).sendPing(any(ByteBuffer.class));
+        verify(remote).sendText(eq("a"), any(SendHandler.class));
+    }
+
+    @Test
+    void pingGoesAfterTheFrameBeingWrittenAheadOfQueuedOnes() throws IOException {
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, 4, 4);
+
+        queue.offer("in-flight");
+        queue.offer("queued");
+        assertTrue(queue.ping());
+        assertTrue(queue.ping());
+        verify(remote, never()).sendPing(any(ByteBuffer.class));
+
+        queue.onResult(new SendResult());
+
+        InOrder order = inOrder(remote);
+        order.verify(remote).sendText(eq("in-flight"), any(SendHandler.class));
+        // requested twice, sent once
+        order.verify(remote, times(1)).sendPing(any(ByteBuffer.class));
+        order.verify(remote).sendText(eq("queued"), any(SendHandler.class));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void closesSessionWhenPingFails() throws IOException {
+        doThrow(new IOException("broken pipe"))
+                .when(remote).sendPing(any(ByteBuffer.class));
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, 4, 4);
+
+        queue.ping();
+
+        verify(session).close(any(CloseReason.class));
+        assertFalse(queue.ping());
+        assertFalse(queue.offer("a"));
+    }
+
+    @Test
+    void closedQueueDropsPendingPing() throws IOException {
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, 4, 4);
+
+        queue.offer("in-flight");
+        queue.ping();
+        queue.onResult(new SendResult(new IOException("broken pipe")));
+
+        verify(remote, never()).sendPing(any(ByteBuffer.class));
+    }
+}
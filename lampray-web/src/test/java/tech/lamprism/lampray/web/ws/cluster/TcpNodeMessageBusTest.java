@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2023-2026 RollW
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tech.lamprism.lampray.web.ws.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * @author RollW
+ */
+class TcpNodeMessageBusTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final List<TcpNodeMessageBus> buses = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        buses.forEach(TcpNodeMessageBus::close);
+    }
+
+    @Test
+    void nodesSeeEachOtherAfterJoining() {
+        TcpNodeMessageBus first = bus();
+        first.join("a", messages -> {
+        });
+        TcpNodeMessageBus second = bus(first.getLocalAddress());
+        second.join("b", messages -> {
+        });
+
+        assertEquals(Set.of("a", "b"), second.getNodes());
+        await(() -> first.getNodes().contains("b"));
+    }
+
+    @Test
+    void batchesArriveInOrderInBothDirections() throws Exception {
+        BlockingQueue<List<NodeMessage>> receivedByFirst = new LinkedBlockingQueue<>();
+        BlockingQueue<List<NodeMessage>> receivedBySecond = new LinkedBlockingQueue<>();
+        TcpNodeMessageBus first = bus();
+        first.join("a", receivedByFirst::add);
+        TcpNodeMessageBus second = bus(first.getLocalAddress());
+        second.join("b", receivedBySecond::add);
+        await(() -> first.getNodes().contains("b"));
+
+        // larger than the 64 KiB limit of writeUTF
+        String largeFrame = "x".repeat(100_000);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(second.send("a", List.of(
+                    NodeMessage.frame("b", new long[]{i, i + 1}, i == 0 ? largeFrame : "frame-" + i),
+                    NodeMessage.detach("b", i))));
+        }
+        assertTrue(first.send("b", List.of(NodeMessage.sync("a"))));
+
+        for (int i = 0; i < 100; i++) {
+            List<NodeMessage> batch = receivedByFirst.poll(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            assertNotNull(batch);
+            assertEquals(2, batch.size());
+            assertEquals(NodeMessage.Type.FRAME, batch.get(0).type());
+            assertEquals("b", batch.get(0).sourceNode());
+            assertArrayEquals(new long[]{i, i + 1}, batch.get(0).userIds());
+            assertEquals(i == 0 ? largeFrame : "frame-" + i, batch.get(0).frame());
+            assertEquals(NodeMessage.Type.DETACH, batch.get(1).type());
+            assertNull(batch.get(1).frame());
+        }
+        List<NodeMessage> sync = receivedBySecond.poll(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        assertNotNull(sync);
+        assertEquals(NodeMessage.Type.SYNC, sync.get(0).type());
+    }
+
+    @Test
+    void unreachablePeersAreSkipped() {
+        TcpNodeMessageBus first = bus();
+        first.join("a", messages -> {
+        });
+        SocketAddress address = first.getLocalAddress();
+        first.close();
+
+        TcpNodeMessageBus second = bus(address);
+        second.join("b", messages -> {
+        });
+
+        assertEquals(Set.of("b"), second.getNodes());
+        assertFalse(second.send("a", List.of(NodeMessage.sync("b"))));
+    }
+
+    @Test
+    void leftNodeIsNoLongerReachable() {
+        TcpNodeMessageBus first = bus();
+        first.join("a", messages -> {
+        });
+        TcpNodeMessageBus second = bus(first.getLocalAddress());
+        second.join("b", messages -> {
+        });
+        await(() -> first.getNodes().contains("b"));
+
+        second.leave("b");
+
+        await(() -> !first.getNodes().contains("b"));
+        assertFalse(first.send("b", List.of(NodeMessage.sync("a"))));
+        assertNull(second.getLocalAddress());
+    }
+
+    @Test
+    void onlyOneNodeJoinsAnInstance() {
+        TcpNodeMessageBus bus = bus();
+        bus.join("a", messages -> {
+        });
+
+        assertThrows(IllegalStateException.class, () -> bus.join("b", messages -> {
+        }));
+    }
+
+    @Test
+    void parsesAddresses() {
+        assertEquals(new InetSocketAddress("10.0.0.2", 5110),
+                TcpNodeMessageBus.parseAddress("10.0.0.2:5110"));
+        assertEquals(new InetSocketAddress("::1", 5110),
+                TcpNodeMessageBus.parseAddress("[::1]:5110"));
+        assertThrows(IllegalArgumentException.class, () -> TcpNodeMessageBus.parseAddress("localhost"));
+        assertThrows(IllegalArgumentException.class, () -> TcpNodeMessageBus.parseAddress("localhost:"));
+        assertThrows(IllegalArgumentException.class, () -> TcpNodeMessageBus.parseAddress("localhost:port"));
+    }
+
+    private TcpNodeMessageBus bus(SocketAddress... peers) {
+        TcpNodeMessageBus bus = new TcpNodeMessageBus(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                List.of(peers), Duration.ofSeconds(1));
+        buses.add(bus);
+        return bus;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for the condition");
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+}
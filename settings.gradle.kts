@@ -49,6 +49,7 @@ include(":lampray-common")
 include(":lampray-common-data")
 include(":lampray-push")
 include(":lampray-push:push-api")
+include(":lampray-push:push-service")
 include(":lampray-content")
 include(":lampray-content:content-api")
 include(":lampray-content:content-service")
@@ -62,6 +63,7 @@ include(":lampray-system:message-resource-api")
 include(":lampray-system:message-resource-service")
 
 project(":lampray-push:push-api").projectDir = file("lampray-push/push-api")
+project(":lampray-push:push-service").projectDir = file("lampray-push/push-service")
 project(":lampray-content:content-api").projectDir = file("lampray-content/content-api")
 project(":lampray-content:content-service").projectDir = file("lampray-content/content-service")
 project(":lampray-content:article-service").projectDir = file("lampray-content/article-service")